@@ -1,12 +1,117 @@
 package com.interprete;
 
+import com.interprete.repl.ExecutionMode;
+import com.interprete.repl.Options;
 import com.interprete.repl.REPL;
 
 /**
  * Punto de entrada principal del intérprete.
+ * Uso: Main [--engine=tree|vm|nodes|closures|jit|stack|ir|flat] [--jit-threshold=N] [--stack-memory=MB]
+ *            [--no-optimize] [--dump-ast] [--dump-ir] [--call-stats]
+ *            [--memoize=N] [--profile-dir=DIR] [--trace-threshold=N] [--lazy-parse]
+ *            [--parallel-parse] [archivo]
+ * Con un archivo lo ejecuta entero en vez de abrir el REPL.
  */
 public class Main {
+    private static final String ENGINE_FLAG = "--engine=";
+    private static final String JIT_THRESHOLD_FLAG = "--jit-threshold=";
+    private static final String STACK_MEMORY_FLAG = "--stack-memory=";
+    private static final String NO_OPTIMIZE_FLAG = "--no-optimize";
+    private static final String DUMP_AST_FLAG = "--dump-ast";
+    private static final String DUMP_IR_FLAG = "--dump-ir";
+    private static final String CALL_STATS_FLAG = "--call-stats";
+    private static final String MEMOIZE_FLAG = "--memoize=";
+    private static final String PROFILE_DIR_FLAG = "--profile-dir=";
+    private static final String TRACE_THRESHOLD_FLAG = "--trace-threshold=";
+    private static final String LAZY_PARSE_FLAG = "--lazy-parse";
+    private static final String PARALLEL_PARSE_FLAG = "--parallel-parse";
+
     public static void main(String[] args) {
-        REPL.start();
+        Options options = new Options();
+
+        for (String arg : args) {
+            if (arg.startsWith(ENGINE_FLAG)) {
+                ExecutionMode mode = ExecutionMode.fromFlag(arg.substring(ENGINE_FLAG.length()));
+                if (mode == null) {
+                    System.out.println("Motor desconocido: " + arg.substring(ENGINE_FLAG.length()));
+                    return;
+                }
+                options.setMode(mode);
+            } else if (arg.startsWith(JIT_THRESHOLD_FLAG)) {
+                String value = arg.substring(JIT_THRESHOLD_FLAG.length());
+                long threshold = parsePositive(value);
+                if (threshold < 1 || threshold > Integer.MAX_VALUE) {
+                    System.out.println("Umbral de JIT inválido: " + value);
+                    return;
+                }
+                options.setJitThreshold((int) threshold);
+            } else if (arg.startsWith(STACK_MEMORY_FLAG)) {
+                String value = arg.substring(STACK_MEMORY_FLAG.length());
+                long megabytes = parsePositive(value);
+                if (megabytes < 1 || megabytes > Integer.MAX_VALUE) {
+                    System.out.println("Memoria de pila inválida: " + value);
+                    return;
+                }
+                options.setStackMemory(megabytes << 20);
+            } else if (arg.equals(NO_OPTIMIZE_FLAG)) {
+                options.setOptimize(false);
+            } else if (arg.equals(DUMP_AST_FLAG)) {
+                options.setDumpAst(true);
+            } else if (arg.equals(DUMP_IR_FLAG)) {
+                options.setDumpIr(true);
+            } else if (arg.equals(CALL_STATS_FLAG)) {
+                options.setCallStats(true);
+            } else if (arg.startsWith(MEMOIZE_FLAG)) {
+                String value = arg.substring(MEMOIZE_FLAG.length());
+                long size = parsePositive(value);
+                if (size < 1 || size > Integer.MAX_VALUE) {
+                    System.out.println("Tamaño de memoización inválido: " + value);
+                    return;
+                }
+                options.setMemoSize((int) size);
+            } else if (arg.startsWith(PROFILE_DIR_FLAG)) {
+                String value = arg.substring(PROFILE_DIR_FLAG.length());
+                if (value.isEmpty()) {
+                    System.out.println("Directorio de perfiles vacío");
+                    return;
+                }
+                options.setProfileDir(value);
+            } else if (arg.startsWith(TRACE_THRESHOLD_FLAG)) {
+                String value = arg.substring(TRACE_THRESHOLD_FLAG.length());
+                long threshold = parsePositive(value);
+                if (threshold < 1 || threshold > Integer.MAX_VALUE) {
+                    System.out.println("Umbral de trazas inválido: " + value);
+                    return;
+                }
+                options.setTraceThreshold((int) threshold);
+            } else if (arg.equals(LAZY_PARSE_FLAG)) {
+                options.setLazyParse(true);
+            } else if (arg.equals(PARALLEL_PARSE_FLAG)) {
+                options.setParallelParse(true);
+            } else if (!arg.startsWith("--") && options.getScript() == null) {
+                options.setScript(arg);
+            } else {
+                System.out.println("Argumento desconocido: " + arg);
+                return;
+            }
+        }
+
+        if (options.getScript() != null) {
+            REPL.runScript(options);
+        } else {
+            REPL.start(options);
+        }
+    }
+
+    /**
+     * @return el número, o -1 si no es un entero positivo
+     */
+    private static long parsePositive(String value) {
+        try {
+            long number = Long.parseLong(value);
+            return number > 0 ? number : -1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
     }
 }
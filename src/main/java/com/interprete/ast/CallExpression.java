@@ -1,5 +1,6 @@
 package com.interprete.ast;
 
+import com.interprete.evaluator.CallSiteCache;
 import com.interprete.token.Token;
 
 import java.util.List;
@@ -11,6 +12,8 @@ import java.util.List;
 public class CallExpression extends Expression {
     private Expression function;
     private List<Expression> arguments;
+    private boolean tailCall;
+    private CallSiteCache callCache;
     
     public CallExpression(Token token, Expression function, List<Expression> arguments) {
         super(token);
@@ -25,6 +28,28 @@ public class CallExpression extends Expression {
         return arguments;
     }
 
+    /**
+     * @return true si su resultado es directamente el resultado de la función que la contiene
+     */
+    public boolean isTailCall() {
+        return tailCall;
+    }
+
+    public void setTailCall(boolean tailCall) {
+        this.tailCall = tailCall;
+    }
+
+    /**
+     * @return inline cache del Evaluator para esta llamada, o null si nunca se ejecutó
+     */
+    public CallSiteCache getCallCache() {
+        return callCache;
+    }
+
+    public void setCallCache(CallSiteCache callCache) {
+        this.callCache = callCache;
+    }
+
     
     @Override
     public String toString() {
@@ -1,5 +1,6 @@
 package com.interprete.ast;
 
+import com.interprete.jit.TraceState;
 import com.interprete.token.Token;
 
 /**
@@ -11,6 +12,7 @@ public class ForStatement extends Statement {
     private Expression condition;
     private Statement increment;
     private BlockStatement body;
+    private TraceState traceState;
     
     public ForStatement(Token token, Statement initialization, Expression condition, Statement increment, BlockStatement body) {
         super(token);
@@ -35,6 +37,17 @@ public class ForStatement extends Statement {
         return body;
     }
 
+    /**
+     * @return contadores y traza compilada, o null si nunca se ejecutó con trazas
+     */
+    public TraceState getTraceState() {
+        return traceState;
+    }
+
+    public void setTraceState(TraceState traceState) {
+        this.traceState = traceState;
+    }
+
     
     @Override
     public String toString() {
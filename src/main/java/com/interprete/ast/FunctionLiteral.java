@@ -1,8 +1,12 @@
 package com.interprete.ast;
 
+import com.interprete.evaluator.Capture;
+import com.interprete.evaluator.MemoTable;
+import com.interprete.jit.JitState;
 import com.interprete.token.Token;
 
 import java.util.List;
+import java.util.function.UnaryOperator;
 
 /**
  * Representa un literal de función (definición de función).
@@ -11,20 +15,137 @@ import java.util.List;
 public class FunctionLiteral extends Expression {
     private List<Identifier> parameters;
     private BlockStatement body;
+    private LazyBody lazyBody;
+    private String[] slotNames;
+    private boolean createsClosures;
+    private Capture[] captures;
+    private int[] fallbacks;
+    private JitState jitState;
+    private MemoTable memoTable;
     
     public FunctionLiteral(Token token, List<Identifier> parameters, BlockStatement body) {
         super(token);
         this.parameters = parameters;
         this.body = body;
     }
+
+    /**
+     * Función con el cuerpo sin parsear, que se parsea la primera vez que se pide.
+     */
+    public FunctionLiteral(Token token, List<Identifier> parameters, LazyBody lazyBody) {
+        super(token);
+        this.parameters = parameters;
+        this.lazyBody = lazyBody;
+    }
     public List<Identifier> getParameters() {
         return parameters;
     }
 
     public BlockStatement getBody() {
+        ensureParsed();
         return body;
     }
 
+    /**
+     * @return false si el cuerpo todavía no se parseó
+     */
+    public boolean isParsed() {
+        return lazyBody == null;
+    }
+
+    /**
+     * @return el cuerpo sin parsear, o null si ya se parseó
+     */
+    public LazyBody getLazyBody() {
+        return lazyBody;
+    }
+
+    /**
+     * Parsea el cuerpo diferido y le aplica las pasadas pendientes. El cuerpo
+     * queda asignado antes de cada pasada, porque el Resolver lo vuelve a pedir.
+     */
+    private void ensureParsed() {
+        if (lazyBody == null) {
+            return;
+        }
+        LazyBody lazy = lazyBody;
+        body = lazy.parse();
+        lazyBody = null;
+        for (UnaryOperator<BlockStatement> pass : lazy.getPasses()) {
+            body = pass.apply(body);
+        }
+    }
+
+    /**
+     * @return nombres de los slots del frame (parámetros primero), o null si no fue resuelta
+     */
+    public String[] getSlotNames() {
+        ensureParsed();
+        return slotNames;
+    }
+
+    public void setSlotNames(String[] slotNames) {
+        this.slotNames = slotNames;
+    }
+
+    /**
+     * @return true si el cuerpo define funciones, que pueden capturar el frame
+     */
+    public boolean createsClosures() {
+        ensureParsed();
+        return createsClosures;
+    }
+
+    public void setCreatesClosures(boolean createsClosures) {
+        this.createsClosures = createsClosures;
+    }
+
+    /**
+     * @return variables de otras funciones que lee el cuerpo (o sus funciones anidadas),
+     *         o null si no fue resuelta
+     */
+    public Capture[] getCaptures() {
+        return captures;
+    }
+
+    public void setCaptures(Capture[] captures) {
+        this.captures = captures;
+    }
+
+    /**
+     * @return por cada slot, la captura que se lee mientras no tiene valor, o -1 para la global
+     */
+    public int[] getFallbacks() {
+        ensureParsed();
+        return fallbacks;
+    }
+
+    public void setFallbacks(int[] fallbacks) {
+        this.fallbacks = fallbacks;
+    }
+
+    /**
+     * @return contadores y código compilado del JIT, o null si nunca se ejecutó con JIT
+     */
+    public JitState getJitState() {
+        return jitState;
+    }
+
+    public void setJitState(JitState jitState) {
+        this.jitState = jitState;
+    }
+
+    /**
+     * @return resultados memoizados por el Evaluator, o null si nunca se memoizó
+     */
+    public MemoTable getMemoTable() {
+        return memoTable;
+    }
+
+    public void setMemoTable(MemoTable memoTable) {
+        this.memoTable = memoTable;
+    }
+
     
     @Override
     public String toString() {
@@ -42,6 +163,7 @@ public class FunctionLiteral extends Expression {
         }
         
         sb.append(")");
+        BlockStatement body = getBody();
         sb.append(body != null ? body.toString() : "");
         
         return sb.toString();
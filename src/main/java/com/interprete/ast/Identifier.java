@@ -1,22 +1,74 @@
 package com.interprete.ast;
 
+import com.interprete.token.Symbols;
 import com.interprete.token.Token;
 
 /**
  * Representa un identificador (nombre de variable).
  */
 public class Identifier extends Expression {
-    private String value;
+    /** Profundidad de una variable sin resolver. */
+    public static final int UNRESOLVED = -1;
+    /** Profundidad de una variable global. */
+    public static final int GLOBAL = -2;
+    
+    private final String value;
+    private final int symbol;
+    private int depth = UNRESOLVED;
+    private int slot;
+    private int capture = -1;
     
     public Identifier(Token token, String value) {
         super(token);
-        this.value = value;
+        this.symbol = Symbols.intern(value);
+        this.value = Symbols.name(symbol);
     }
     
     public String getValue() {
         return value;
     }
     
+    /**
+     * @return el id del nombre en la tabla de {@link Symbols}
+     */
+    public int getSymbol() {
+        return symbol;
+    }
+    
+    /**
+     * @return cantidad de scopes de función a subir, GLOBAL o UNRESOLVED
+     */
+    public int getDepth() {
+        return depth;
+    }
+    
+    public int getSlot() {
+        return slot;
+    }
+    
+    public boolean isResolved() {
+        return depth != UNRESOLVED;
+    }
+    
+    /**
+     * Fija la dirección de la variable (la asigna el Resolver).
+     */
+    public void resolve(int depth, int slot) {
+        this.depth = depth;
+        this.slot = slot;
+    }
+    
+    /**
+     * @return índice en las capturas de la función, si la variable es de otra función, o -1
+     */
+    public int getCapture() {
+        return capture;
+    }
+    
+    public void setCapture(int capture) {
+        this.capture = capture;
+    }
+    
     @Override
     public String toString() {
         return value;
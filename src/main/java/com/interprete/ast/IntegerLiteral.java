@@ -1,21 +1,32 @@
 package com.interprete.ast;
 
+import com.interprete.object.MInteger;
 import com.interprete.token.Token;
 
 /**
  * Representa un literal entero.
+ * El objeto runtime se crea una sola vez, al parsear.
  */
 public class IntegerLiteral extends Expression {
-    private Integer value;
+    private final long value;
+    private final MInteger object;
     
-    public IntegerLiteral(Token token, Integer value) {
+    public IntegerLiteral(Token token, long value) {
         super(token);
         this.value = value;
+        this.object = MInteger.valueOf(value);
     }
-    public Integer getValue() {
+    public long getValue() {
         return value;
     }
 
+    /**
+     * @return el valor runtime del literal
+     */
+    public MInteger getObject() {
+        return object;
+    }
+
     
     @Override
     public String toString() {
@@ -0,0 +1,50 @@
+package com.interprete.ast;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * Cuerpo de una función que todavía no se parseó: el Parser solo buscó la
+ * llave que lo cierra y anotó los identificadores que aparecen adentro.
+ * Se parsea la primera vez que se pide el cuerpo de la función.
+ */
+public final class LazyBody {
+    private final Set<String> identifiers;
+    private final Supplier<BlockStatement> parser;
+    private final List<UnaryOperator<BlockStatement>> passes = new ArrayList<>();
+
+    /**
+     * @param parser parsea el cuerpo desde el código fuente guardado
+     */
+    public LazyBody(Set<String> identifiers, Supplier<BlockStatement> parser) {
+        this.identifiers = identifiers;
+        this.parser = parser;
+    }
+
+    /**
+     * @return los nombres de todos los identificadores del cuerpo, incluidos
+     *         los de sus funciones anidadas
+     */
+    public Set<String> getIdentifiers() {
+        return identifiers;
+    }
+
+    /**
+     * Agrega una pasada que se aplica al cuerpo cuando se parsea, después de
+     * las que se agregaron antes (ej: el Optimizer y luego el Resolver).
+     */
+    public void addPass(UnaryOperator<BlockStatement> pass) {
+        passes.add(pass);
+    }
+
+    BlockStatement parse() {
+        return parser.get();
+    }
+
+    List<UnaryOperator<BlockStatement>> getPasses() {
+        return passes;
+    }
+}
@@ -1,5 +1,6 @@
 package com.interprete.ast;
 
+import com.interprete.profile.NodeProfile;
 import com.interprete.token.Token;
 
 /**
@@ -7,11 +8,27 @@ import com.interprete.token.Token;
  */
 public abstract class Statement implements ASTNode {
     protected Token token;
+    private NodeProfile profile;
     
     public Statement(Token token) {
         this.token = token;
     }
     
+    public Token getToken() {
+        return token;
+    }
+    
+    /**
+     * @return lo que se observó al ejecutar el nodo, o null si no se perfila
+     */
+    public NodeProfile getProfile() {
+        return profile;
+    }
+    
+    public void setProfile(NodeProfile profile) {
+        this.profile = profile;
+    }
+    
     @Override
     public String tokenLiteral() {
         return token.literal();
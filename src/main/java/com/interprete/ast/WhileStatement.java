@@ -1,5 +1,6 @@
 package com.interprete.ast;
 
+import com.interprete.jit.TraceState;
 import com.interprete.token.Token;
 
 /**
@@ -9,6 +10,7 @@ import com.interprete.token.Token;
 public class WhileStatement extends Statement {
     private Expression condition;
     private BlockStatement body;
+    private TraceState traceState;
     
     public WhileStatement(Token token, Expression condition, BlockStatement body) {
         super(token);
@@ -23,6 +25,17 @@ public class WhileStatement extends Statement {
         return body;
     }
 
+    /**
+     * @return contadores y traza compilada, o null si nunca se ejecutó con trazas
+     */
+    public TraceState getTraceState() {
+        return traceState;
+    }
+
+    public void setTraceState(TraceState traceState) {
+        this.traceState = traceState;
+    }
+
     
     @Override
     public String toString() {
@@ -0,0 +1,113 @@
+package com.interprete.compiler;
+
+import com.interprete.object.MObject;
+
+/**
+ * Resultado de compilar una función (o el programa principal) a bytecode.
+ * Contiene el código, el pool de constantes y las funciones anidadas.
+ */
+public class CompiledFunction {
+    private final String name;
+    private final byte[] code;
+    private final MObject[] constants;
+    private final CompiledFunction[] functions;
+    private final int numParameters;
+    private final int numLocals;
+    private final int maxStack;
+    private final boolean heapLocals;
+
+    public CompiledFunction(String name, byte[] code, MObject[] constants, CompiledFunction[] functions,
+                            int numParameters, int numLocals, int maxStack, boolean heapLocals) {
+        this.name = name;
+        this.code = code;
+        this.constants = constants;
+        this.functions = functions;
+        this.numParameters = numParameters;
+        this.numLocals = numLocals;
+        this.maxStack = maxStack;
+        this.heapLocals = heapLocals;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public byte[] getCode() {
+        return code;
+    }
+
+    public MObject[] getConstants() {
+        return constants;
+    }
+
+    public CompiledFunction[] getFunctions() {
+        return functions;
+    }
+
+    public int getNumParameters() {
+        return numParameters;
+    }
+
+    /**
+     * @return cantidad de slots locales (parámetros incluidos)
+     */
+    public int getNumLocals() {
+        return numLocals;
+    }
+
+    /**
+     * @return profundidad máxima de la pila de operandos
+     */
+    public int getMaxStack() {
+        return maxStack;
+    }
+
+    /**
+     * Indica si los locales deben vivir en el heap porque la función
+     * crea closures que los capturan. Si no, viven en la pila de la VM.
+     */
+    public boolean hasHeapLocals() {
+        return heapLocals;
+    }
+
+    /**
+     * Desensambla el bytecode de la función y de sus funciones anidadas.
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        disassemble(sb);
+        return sb.toString();
+    }
+
+    private void disassemble(StringBuilder sb) {
+        sb.append("== ").append(name)
+          .append(" (params=").append(numParameters)
+          .append(", locals=").append(numLocals)
+          .append(", stack=").append(maxStack).append(")\n");
+
+        int ip = 0;
+        while (ip < code.length) {
+            byte op = code[ip];
+            sb.append(String.format("%04d %s", ip, Opcode.name(op)));
+            ip++;
+            for (int width : Opcode.operandWidths(op)) {
+                int operand = 0;
+                for (int i = 0; i < width; i++) {
+                    operand = (operand << 8) | (code[ip + i] & 0xFF);
+                }
+                sb.append(' ').append(operand);
+                ip += width;
+            }
+            if (op == Opcode.CONSTANT) {
+                int index = ((code[ip - 2] & 0xFF) << 8) | (code[ip - 1] & 0xFF);
+                sb.append(" (").append(constants[index].inspect()).append(")");
+            }
+            sb.append('\n');
+        }
+
+        for (CompiledFunction fn : functions) {
+            fn.disassemble(sb);
+        }
+    }
+}
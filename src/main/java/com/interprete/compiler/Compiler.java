@@ -0,0 +1,521 @@
+package com.interprete.compiler;
+
+import com.interprete.ast.*;
+import com.interprete.object.MInteger;
+import com.interprete.object.MObject;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Traduce el AST a bytecode para la VM de pila.
+ *
+ * Conserva la semántica del Evaluator: los bloques no crean scope, cada función
+ * tiene un único scope con sus parámetros y todos sus let, y una variable local
+ * que todavía no fue asignada se busca en los scopes externos.
+ */
+public class Compiler {
+    private static final int MAX_U8 = 0xFF;
+    private static final int MAX_U16 = 0xFFFF;
+
+    private final GlobalTable globals;
+    private FunctionState current;
+
+    public Compiler(GlobalTable globals) {
+        this.globals = globals;
+    }
+
+    /**
+     * Compila un programa completo. El resultado es la función principal,
+     * cuyas variables son globales.
+     */
+    public CompiledFunction compile(Program program) {
+        current = new FunctionState("main", null, true);
+        compileStatements(program.getStatements(), true);
+        emit(Opcode.RETURN);
+        return current.finish();
+    }
+
+    /**
+     * Compila una secuencia de statements. Si {@code keep} es verdadero deja en
+     * la pila el valor del último statement (o null si no hay ninguno).
+     */
+    private void compileStatements(List<Statement> statements, boolean keep) {
+        if (statements == null || statements.isEmpty()) {
+            if (keep) {
+                emit(Opcode.NULL);
+            }
+            return;
+        }
+
+        for (int i = 0; i < statements.size(); i++) {
+            boolean last = i == statements.size() - 1;
+            compileStatement(statements.get(i), keep && last);
+        }
+    }
+
+    private void compileStatement(Statement stmt, boolean keep) {
+        if (stmt instanceof LetStatement) {
+            compileLetStatement((LetStatement) stmt, keep);
+        } else if (stmt instanceof ReturnStatement) {
+            compileExpression(((ReturnStatement) stmt).getReturnValue());
+            emit(Opcode.RETURN);
+            if (keep) {
+                // Código inalcanzable, pero mantiene la pila consistente
+                emit(Opcode.NULL);
+            }
+        } else if (stmt instanceof ExpressionStatement) {
+            compileExpression(((ExpressionStatement) stmt).getExpression());
+            if (!keep) {
+                emit(Opcode.POP);
+            }
+        } else if (stmt instanceof BlockStatement) {
+            compileStatements(((BlockStatement) stmt).getStatements(), keep);
+        } else if (stmt instanceof WhileStatement) {
+            compileWhileStatement((WhileStatement) stmt, keep);
+        } else if (stmt instanceof ForStatement) {
+            compileForStatement((ForStatement) stmt, keep);
+        } else if (keep) {
+            emit(Opcode.NULL);
+        }
+    }
+
+    private void compileLetStatement(LetStatement stmt, boolean keep) {
+        compileExpression(stmt.getValue(), stmt.getName().getValue());
+        if (keep) {
+            emit(Opcode.DUP);
+        }
+        compileStore(stmt.getName().getValue());
+    }
+
+    private void compileWhileStatement(WhileStatement stmt, boolean keep) {
+        if (keep) {
+            emit(Opcode.NULL);
+        }
+
+        int loopStart = current.position();
+        compileExpression(stmt.getCondition());
+        int exitJump = emitJump(Opcode.JUMP_IF_FALSE);
+
+        if (keep) {
+            emit(Opcode.POP);
+        }
+        compileBlock(stmt.getBody(), keep);
+
+        emitJumpTo(Opcode.JUMP, loopStart);
+        patchJump(exitJump);
+    }
+
+    private void compileForStatement(ForStatement stmt, boolean keep) {
+        if (stmt.getInitialization() != null) {
+            compileStatement(stmt.getInitialization(), false);
+        }
+        if (keep) {
+            emit(Opcode.NULL);
+        }
+
+        int loopStart = current.position();
+        int exitJump = -1;
+        if (stmt.getCondition() != null) {
+            compileExpression(stmt.getCondition());
+            exitJump = emitJump(Opcode.JUMP_IF_FALSE);
+        }
+
+        if (keep) {
+            emit(Opcode.POP);
+        }
+        compileBlock(stmt.getBody(), keep);
+
+        if (stmt.getIncrement() != null) {
+            compileStatement(stmt.getIncrement(), false);
+        }
+
+        emitJumpTo(Opcode.JUMP, loopStart);
+        if (exitJump >= 0) {
+            patchJump(exitJump);
+        }
+    }
+
+    private void compileBlock(BlockStatement block, boolean keep) {
+        compileStatements(block != null ? block.getStatements() : null, keep);
+    }
+
+    private void compileExpression(Expression exp) {
+        compileExpression(exp, null);
+    }
+
+    /**
+     * Compila una expresión dejando su valor en la pila.
+     * @param nameHint nombre de la variable que recibe el valor (para nombrar funciones)
+     */
+    private void compileExpression(Expression exp, String nameHint) {
+        if (exp instanceof IntegerLiteral) {
+            int index = current.addConstant(((IntegerLiteral) exp).getObject());
+            emit(Opcode.CONSTANT);
+            emitU16(index);
+        } else if (exp instanceof BooleanLiteral) {
+            emit(((BooleanLiteral) exp).getValue() ? Opcode.TRUE : Opcode.FALSE);
+        } else if (exp instanceof Identifier) {
+            compileLoad(((Identifier) exp).getValue());
+        } else if (exp instanceof PrefixExpression) {
+            PrefixExpression prefix = (PrefixExpression) exp;
+            compileExpression(prefix.getRight());
+            emitPrefixOperator(prefix.getOperator());
+        } else if (exp instanceof InfixExpression) {
+            InfixExpression infix = (InfixExpression) exp;
+            compileExpression(infix.getLeft());
+            compileExpression(infix.getRight());
+            emitInfixOperator(infix.getOperator());
+        } else if (exp instanceof IfExpression) {
+            compileIfExpression((IfExpression) exp);
+        } else if (exp instanceof FunctionLiteral) {
+            compileFunctionLiteral((FunctionLiteral) exp, nameHint);
+        } else if (exp instanceof CallExpression) {
+            compileCallExpression((CallExpression) exp);
+        } else {
+            emit(Opcode.NULL);
+        }
+    }
+
+    private void emitPrefixOperator(String operator) {
+        switch (operator) {
+            case "!" -> emit(Opcode.NOT);
+            case "-" -> emit(Opcode.NEG);
+            default -> {
+                emit(Opcode.POP);
+                emit(Opcode.NULL);
+            }
+        }
+    }
+
+    private void emitInfixOperator(String operator) {
+        switch (operator) {
+            case "+" -> emit(Opcode.ADD);
+            case "-" -> emit(Opcode.SUB);
+            case "*" -> emit(Opcode.MUL);
+            case "/" -> emit(Opcode.DIV);
+            case "==" -> emit(Opcode.EQ);
+            case "!=" -> emit(Opcode.NE);
+            case "<" -> emit(Opcode.LT);
+            case ">" -> emit(Opcode.GT);
+            case "<=" -> emit(Opcode.LE);
+            case ">=" -> emit(Opcode.GE);
+            default -> {
+                emit(Opcode.POP);
+                emit(Opcode.POP);
+                emit(Opcode.NULL);
+            }
+        }
+    }
+
+    private void compileIfExpression(IfExpression exp) {
+        compileExpression(exp.getCondition());
+        int elseJump = emitJump(Opcode.JUMP_IF_FALSE);
+
+        int depthBefore = current.depth;
+        compileBlock(exp.getConsequence(), true);
+        int endJump = emitJump(Opcode.JUMP);
+
+        patchJump(elseJump);
+        current.depth = depthBefore;
+        if (exp.getAlternative() != null) {
+            compileBlock(exp.getAlternative(), true);
+        } else {
+            emit(Opcode.NULL);
+        }
+        patchJump(endJump);
+    }
+
+    private void compileFunctionLiteral(FunctionLiteral literal, String nameHint) {
+        FunctionState fn = new FunctionState(nameHint != null ? nameHint : "function", current, false);
+
+        List<Identifier> parameters = literal.getParameters() != null ? literal.getParameters() : List.of();
+        fn.numParameters = parameters.size();
+        fn.numLocals = parameters.size();
+        for (int i = 0; i < parameters.size(); i++) {
+            fn.declareParameter(parameters.get(i).getValue(), i);
+        }
+        if (literal.getBody() != null) {
+            fn.collectDeclarations(literal.getBody());
+        }
+
+        FunctionState enclosing = current;
+        current = fn;
+        compileBlock(literal.getBody(), true);
+        emit(Opcode.RETURN);
+        current = enclosing;
+
+        int index = current.addFunction(fn.finish());
+        emit(Opcode.CLOSURE);
+        emitU16(index);
+    }
+
+    private void compileCallExpression(CallExpression call) {
+        List<Expression> arguments = call.getArguments() != null ? call.getArguments() : List.of();
+        if (arguments.size() > MAX_U8) {
+            throw new IllegalStateException("Too many arguments in call: " + arguments.size());
+        }
+
+        compileExpression(call.getFunction());
+        for (Expression argument : arguments) {
+            compileExpression(argument);
+        }
+        emit(Opcode.CALL);
+        emitU8(arguments.size());
+        current.adjustDepth(-arguments.size());
+    }
+
+    /**
+     * Emite la lectura de una variable. Recorre los scopes de funciones desde
+     * el actual hacia afuera; los let que pueden no haberse ejecutado todavía
+     * se leen con TRY_*, que cae al siguiente candidato si el slot está vacío.
+     */
+    private void compileLoad(String name) {
+        List<Integer> foundJumps = new ArrayList<>();
+        FunctionState scope = current;
+        int distance = 0;
+
+        while (!scope.topLevel) {
+            Integer slot = scope.slots.get(name);
+            if (slot != null) {
+                boolean alwaysDefined = scope.parameters.contains(name);
+                if (distance == 0) {
+                    emit(alwaysDefined ? Opcode.GET_LOCAL : Opcode.TRY_LOCAL);
+                    emitU8(slot);
+                } else {
+                    emit(alwaysDefined ? Opcode.GET_OUTER : Opcode.TRY_OUTER);
+                    emitU8(distance - 1);
+                    emitU8(slot);
+                }
+                if (alwaysDefined) {
+                    patchJumps(foundJumps);
+                    return;
+                }
+                foundJumps.add(current.position());
+                emitU32(0);
+            }
+            scope = scope.parent;
+            distance++;
+        }
+
+        emit(Opcode.GET_GLOBAL);
+        emitU16(globals.indexOf(name));
+        patchJumps(foundJumps);
+    }
+
+    private void compileStore(String name) {
+        if (current.topLevel) {
+            emit(Opcode.SET_GLOBAL);
+            emitU16(globals.indexOf(name));
+        } else {
+            emit(Opcode.SET_LOCAL);
+            emitU8(current.slots.get(name));
+        }
+    }
+
+    private void emit(byte opcode) {
+        current.write(opcode);
+        current.adjustDepth(stackEffect(opcode));
+    }
+
+    private void emitU8(int operand) {
+        current.write((byte) operand);
+    }
+
+    private void emitU16(int operand) {
+        if (operand > MAX_U16) {
+            throw new IllegalStateException("Operand out of range: " + operand);
+        }
+        current.write((byte) (operand >> 8));
+        current.write((byte) operand);
+    }
+
+    private void emitU32(int operand) {
+        current.write((byte) (operand >> 24));
+        current.write((byte) (operand >> 16));
+        current.write((byte) (operand >> 8));
+        current.write((byte) operand);
+    }
+
+    private int emitJump(byte opcode) {
+        emit(opcode);
+        int operandPosition = current.position();
+        emitU32(0);
+        return operandPosition;
+    }
+
+    private void emitJumpTo(byte opcode, int target) {
+        emit(opcode);
+        emitU32(target);
+    }
+
+    private void patchJump(int operandPosition) {
+        current.patch(operandPosition, current.position());
+    }
+
+    private void patchJumps(List<Integer> operandPositions) {
+        for (int position : operandPositions) {
+            patchJump(position);
+        }
+    }
+
+    private static int stackEffect(byte opcode) {
+        return switch (opcode) {
+            case Opcode.CONSTANT, Opcode.TRUE, Opcode.FALSE, Opcode.NULL, Opcode.DUP,
+                 Opcode.GET_GLOBAL, Opcode.GET_LOCAL, Opcode.GET_OUTER, Opcode.CLOSURE -> 1;
+            case Opcode.POP, Opcode.JUMP_IF_FALSE, Opcode.SET_GLOBAL, Opcode.SET_LOCAL, Opcode.RETURN,
+                 Opcode.ADD, Opcode.SUB, Opcode.MUL, Opcode.DIV, Opcode.EQ, Opcode.NE,
+                 Opcode.LT, Opcode.GT, Opcode.LE, Opcode.GE -> -1;
+            // TRY_* solo apila si salta; el último candidato es el que apila en el camino normal
+            default -> 0;
+        };
+    }
+
+    /**
+     * Estado de compilación de una función: su código, constantes y scope.
+     */
+    private static class FunctionState {
+        private final String name;
+        private final FunctionState parent;
+        private final boolean topLevel;
+        private final Map<String, Integer> slots = new HashMap<>();
+        private final Set<String> parameters = new HashSet<>();
+        private final List<MObject> constants = new ArrayList<>();
+        private final Map<Long, Integer> integerConstants = new HashMap<>();
+        private final List<CompiledFunction> functions = new ArrayList<>();
+        private byte[] code = new byte[64];
+        private int length;
+        private int numParameters;
+        private int numLocals;
+        private int depth;
+        private int maxDepth;
+        private boolean createsClosures;
+
+        FunctionState(String name, FunctionState parent, boolean topLevel) {
+            this.name = name;
+            this.parent = parent;
+            this.topLevel = topLevel;
+        }
+
+        void declareParameter(String name, int slot) {
+            parameters.add(name);
+            slots.put(name, slot);
+        }
+
+        void declareLocal(String name) {
+            if (!slots.containsKey(name)) {
+                if (numLocals > MAX_U8) {
+                    throw new IllegalStateException("Too many local variables in function " + this.name);
+                }
+                slots.put(name, numLocals++);
+            }
+        }
+
+        /**
+         * Registra todos los let del cuerpo (sin entrar en funciones anidadas)
+         * y detecta si la función crea closures.
+         */
+        void collectDeclarations(ASTNode node) {
+            if (node instanceof LetStatement) {
+                LetStatement let = (LetStatement) node;
+                declareLocal(let.getName().getValue());
+                collectDeclarations(let.getValue());
+            } else if (node instanceof BlockStatement) {
+                List<Statement> statements = ((BlockStatement) node).getStatements();
+                if (statements != null) {
+                    for (Statement stmt : statements) {
+                        collectDeclarations(stmt);
+                    }
+                }
+            } else if (node instanceof ReturnStatement) {
+                collectDeclarations(((ReturnStatement) node).getReturnValue());
+            } else if (node instanceof ExpressionStatement) {
+                collectDeclarations(((ExpressionStatement) node).getExpression());
+            } else if (node instanceof WhileStatement) {
+                WhileStatement stmt = (WhileStatement) node;
+                collectDeclarations(stmt.getCondition());
+                collectDeclarations(stmt.getBody());
+            } else if (node instanceof ForStatement) {
+                ForStatement stmt = (ForStatement) node;
+                collectDeclarations(stmt.getInitialization());
+                collectDeclarations(stmt.getCondition());
+                collectDeclarations(stmt.getIncrement());
+                collectDeclarations(stmt.getBody());
+            } else if (node instanceof PrefixExpression) {
+                collectDeclarations(((PrefixExpression) node).getRight());
+            } else if (node instanceof InfixExpression) {
+                InfixExpression exp = (InfixExpression) node;
+                collectDeclarations(exp.getLeft());
+                collectDeclarations(exp.getRight());
+            } else if (node instanceof IfExpression) {
+                IfExpression exp = (IfExpression) node;
+                collectDeclarations(exp.getCondition());
+                collectDeclarations(exp.getConsequence());
+                collectDeclarations(exp.getAlternative());
+            } else if (node instanceof CallExpression) {
+                CallExpression exp = (CallExpression) node;
+                collectDeclarations(exp.getFunction());
+                if (exp.getArguments() != null) {
+                    for (Expression argument : exp.getArguments()) {
+                        collectDeclarations(argument);
+                    }
+                }
+            } else if (node instanceof FunctionLiteral) {
+                createsClosures = true;
+            }
+        }
+
+        int addConstant(MInteger value) {
+            return integerConstants.computeIfAbsent(value.getValue(), v -> {
+                constants.add(value);
+                return constants.size() - 1;
+            });
+        }
+
+        int addFunction(CompiledFunction fn) {
+            functions.add(fn);
+            return functions.size() - 1;
+        }
+
+        void write(byte b) {
+            if (length == code.length) {
+                code = Arrays.copyOf(code, code.length * 2);
+            }
+            code[length++] = b;
+        }
+
+        void patch(int position, int value) {
+            code[position] = (byte) (value >> 24);
+            code[position + 1] = (byte) (value >> 16);
+            code[position + 2] = (byte) (value >> 8);
+            code[position + 3] = (byte) value;
+        }
+
+        int position() {
+            return length;
+        }
+
+        void adjustDepth(int delta) {
+            depth += delta;
+            maxDepth = Math.max(maxDepth, depth);
+        }
+
+        CompiledFunction finish() {
+            return new CompiledFunction(
+                name,
+                Arrays.copyOf(code, length),
+                constants.toArray(new MObject[0]),
+                functions.toArray(new CompiledFunction[0]),
+                numParameters,
+                numLocals,
+                maxDepth,
+                createsClosures
+            );
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.interprete.compiler;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Asigna un índice fijo a cada variable global.
+ * Se comparte entre compilaciones para que el REPL conserve las variables entre líneas.
+ */
+public class GlobalTable {
+    private final Map<String, Integer> indices;
+
+    public GlobalTable() {
+        this.indices = new HashMap<>();
+    }
+
+    /**
+     * Devuelve el índice de la variable, asignando uno nuevo si no existía.
+     */
+    public int indexOf(String name) {
+        Integer index = indices.get(name);
+        if (index == null) {
+            index = indices.size();
+            indices.put(name, index);
+        }
+        return index;
+    }
+
+    public int size() {
+        return indices.size();
+    }
+}
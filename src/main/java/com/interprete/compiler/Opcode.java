@@ -0,0 +1,79 @@
+package com.interprete.compiler;
+
+/**
+ * Instrucciones de la máquina virtual de pila.
+ * Cada instrucción ocupa un byte, seguido de sus operandos (u8, u16 o u32 big-endian).
+ * Los destinos de los saltos son u32, para que el tamaño del código no tenga límite práctico.
+ */
+public final class Opcode {
+    // Constantes y pila
+    public static final byte CONSTANT = 0;      // u16 índice en el pool de constantes
+    public static final byte TRUE = 1;
+    public static final byte FALSE = 2;
+    public static final byte NULL = 3;
+    public static final byte POP = 4;
+    public static final byte DUP = 5;
+
+    // Operadores infijos
+    public static final byte ADD = 6;
+    public static final byte SUB = 7;
+    public static final byte MUL = 8;
+    public static final byte DIV = 9;
+    public static final byte EQ = 10;
+    public static final byte NE = 11;
+    public static final byte LT = 12;
+    public static final byte GT = 13;
+    public static final byte LE = 14;
+    public static final byte GE = 15;
+
+    // Operadores prefijos
+    public static final byte NEG = 16;
+    public static final byte NOT = 17;
+
+    // Saltos (u32 posición absoluta dentro del código de la función)
+    public static final byte JUMP = 18;
+    public static final byte JUMP_IF_FALSE = 19;
+
+    // Variables
+    public static final byte GET_GLOBAL = 20;   // u16 índice global
+    public static final byte SET_GLOBAL = 21;   // u16 índice global
+    public static final byte GET_LOCAL = 22;    // u8 slot
+    public static final byte SET_LOCAL = 23;    // u8 slot
+    public static final byte TRY_LOCAL = 24;    // u8 slot, u32 destino si la variable existe
+    public static final byte GET_OUTER = 25;    // u8 profundidad, u8 slot
+    public static final byte TRY_OUTER = 26;    // u8 profundidad, u8 slot, u32 destino
+
+    // Funciones
+    public static final byte CLOSURE = 27;      // u16 índice de función anidada
+    public static final byte CALL = 28;         // u8 cantidad de argumentos
+    public static final byte RETURN = 29;
+
+    private static final String[] NAMES = {
+        "CONSTANT", "TRUE", "FALSE", "NULL", "POP", "DUP",
+        "ADD", "SUB", "MUL", "DIV", "EQ", "NE", "LT", "GT", "LE", "GE",
+        "NEG", "NOT", "JUMP", "JUMP_IF_FALSE",
+        "GET_GLOBAL", "SET_GLOBAL", "GET_LOCAL", "SET_LOCAL", "TRY_LOCAL", "GET_OUTER", "TRY_OUTER",
+        "CLOSURE", "CALL", "RETURN"
+    };
+
+    /**
+     * Anchos en bytes de los operandos de cada instrucción.
+     */
+    private static final int[][] OPERAND_WIDTHS = {
+        {2}, {}, {}, {}, {}, {},
+        {}, {}, {}, {}, {}, {}, {}, {}, {}, {},
+        {}, {}, {4}, {4},
+        {2}, {2}, {1}, {1}, {1, 4}, {1, 1}, {1, 1, 4},
+        {2}, {1}, {}
+    };
+
+    private Opcode() {}
+
+    public static String name(byte opcode) {
+        return NAMES[opcode];
+    }
+
+    public static int[] operandWidths(byte opcode) {
+        return OPERAND_WIDTHS[opcode];
+    }
+}
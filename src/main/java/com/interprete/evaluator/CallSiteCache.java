@@ -0,0 +1,157 @@
+package com.interprete.evaluator;
+
+import com.interprete.ast.CallExpression;
+import com.interprete.ast.FunctionLiteral;
+import com.interprete.object.MFunction;
+
+import java.util.Arrays;
+
+/**
+ * Inline cache de un CallExpression: recuerda las funciones que se llamaron
+ * desde ese lugar, cada una con su forma de frame ya preparada, para no
+ * repetir las comprobaciones de la llamada genérica.
+ *
+ * La clave es el FunctionLiteral y no la MFunction: todas las closures creadas
+ * a partir del mismo literal comparten la entrada.
+ *
+ * Estados: sin inicializar (ninguna llamada), monomórfico (una función),
+ * polimórfico (hasta {@link #MAX_ENTRIES}) y megamórfico (más que eso: el
+ * cache se descarta y el lugar usa siempre el camino genérico).
+ */
+public final class CallSiteCache {
+    public static final int MAX_ENTRIES = 4;
+
+    public enum State {
+        UNINITIALIZED("sin inicializar"),
+        MONOMORPHIC("monomórfico"),
+        POLYMORPHIC("polimórfico"),
+        MEGAMORPHIC("megamórfico");
+
+        private final String description;
+
+        State(String description) {
+            this.description = description;
+        }
+
+        public String getDescription() {
+            return description;
+        }
+    }
+
+    /**
+     * Una función vista en el lugar, con lo que la llamada ya no tiene que
+     * comprobar cada vez.
+     */
+    static final class Entry {
+        final FunctionLiteral literal;
+        final int arity;
+        // Si la función está resuelta: los argumentos van directo a los slots del frame
+        final boolean resolved;
+        // Si el trampolín puede reutilizar el frame
+        final boolean reusesFrame;
+
+        Entry(FunctionLiteral literal) {
+            this.literal = literal;
+            this.arity = literal.getParameters().size();
+            this.resolved = literal.getSlotNames() != null;
+            this.reusesFrame = Evaluator.canReuseFrame(literal);
+        }
+    }
+
+    private static final Entry[] EMPTY = new Entry[0];
+
+    private final CallExpression site;
+    private Entry[] entries = EMPTY;
+    private boolean megamorphic;
+    private long hits;
+    private long misses;
+
+    public CallSiteCache(CallExpression site) {
+        this.site = site;
+    }
+
+    /**
+     * Busca la función en el cache y, si no estaba, la agrega.
+     * @return la entrada, o null si la llamada debe hacerse por el camino genérico
+     */
+    Entry lookup(MFunction fn) {
+        FunctionLiteral literal = fn.getLiteral();
+        for (Entry entry : entries) {
+            if (entry.literal == literal) {
+                hits++;
+                return entry;
+            }
+        }
+
+        misses++;
+        if (megamorphic || literal == null) {
+            return null;
+        }
+        if (entries.length == MAX_ENTRIES) {
+            megamorphic = true;
+            entries = EMPTY;
+            return null;
+        }
+        Entry entry = new Entry(literal);
+        entries = Arrays.copyOf(entries, entries.length + 1);
+        entries[entries.length - 1] = entry;
+        return entry;
+    }
+
+    /**
+     * Agrega una función sin que cuente como llamada, por ejemplo desde un perfil
+     * de otra ejecución.
+     */
+    public void prime(FunctionLiteral literal) {
+        if (megamorphic || entries.length == MAX_ENTRIES) {
+            return;
+        }
+        for (Entry entry : entries) {
+            if (entry.literal == literal) {
+                return;
+            }
+        }
+        entries = Arrays.copyOf(entries, entries.length + 1);
+        entries[entries.length - 1] = new Entry(literal);
+    }
+
+    public State getState() {
+        if (megamorphic) {
+            return State.MEGAMORPHIC;
+        }
+        return switch (entries.length) {
+            case 0 -> State.UNINITIALIZED;
+            case 1 -> State.MONOMORPHIC;
+            default -> State.POLYMORPHIC;
+        };
+    }
+
+    /**
+     * @return llamadas que encontraron su función en el cache
+     */
+    public long getHits() {
+        return hits;
+    }
+
+    /**
+     * @return llamadas que tuvieron que agregar la función o usar el camino genérico
+     */
+    public long getMisses() {
+        return misses;
+    }
+
+    public CallExpression getSite() {
+        return site;
+    }
+
+    /**
+     * @return una línea con el lugar, el estado y el porcentaje de aciertos
+     */
+    @Override
+    public String toString() {
+        long calls = hits + misses;
+        double rate = calls == 0 ? 0 : 100.0 * hits / calls;
+        return String.format("%s: %s, %d/%d aciertos (%.1f%%)",
+            site, getState().getDescription(), hits, calls, rate);
+    }
+}
@@ -0,0 +1,11 @@
+package com.interprete.evaluator;
+
+/**
+ * Una variable que captura una closure al crearse, según el Resolver.
+ * @param name nombre de la variable
+ * @param local true si es un slot del frame donde se crea la closure;
+ *              false si es una captura de la función que la crea
+ * @param index el slot o la captura, según {@code local}
+ */
+public record Capture(String name, boolean local, int index) {
+}
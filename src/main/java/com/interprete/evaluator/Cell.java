@@ -0,0 +1,48 @@
+package com.interprete.evaluator;
+
+import com.interprete.object.MObject;
+import com.interprete.token.Symbols;
+
+/**
+ * Celda de una variable local capturada por closures. El frame dueño la
+ * actualiza en cada let y las closures la leen sin recorrer environments.
+ *
+ * Mientras la variable no tiene valor se lee la variable del mismo nombre de
+ * más afuera, igual que en un environment encadenado: la celda de otra
+ * función o, al final, la global.
+ */
+public final class Cell {
+    private final int symbol;
+    private final Cell outer;
+    MObject value;
+
+    Cell(int symbol, Cell outer, MObject value) {
+        this.symbol = symbol;
+        this.outer = outer;
+        this.value = value;
+    }
+
+    public String getName() {
+        return Symbols.name(symbol);
+    }
+
+    /**
+     * @return el id de símbolo de la variable
+     */
+    public int getSymbol() {
+        return symbol;
+    }
+
+    /**
+     * @param global environment global, para las variables que no tienen valor en ninguna celda
+     * @return el valor, o null si no existe
+     */
+    public MObject get(Environment global) {
+        for (Cell cell = this; cell != null; cell = cell.outer) {
+            if (cell.value != null) {
+                return cell.value;
+            }
+        }
+        return global.getVariable(symbol);
+    }
+}
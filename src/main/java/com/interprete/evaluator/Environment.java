@@ -1,54 +1,313 @@
 package com.interprete.evaluator;
 
 import com.interprete.object.MObject;
+import com.interprete.token.Symbols;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.Arrays;
 
 /**
  * Tabla de símbolos que maneja el scope de variables.
  * Soporta scopes anidados mediante encadenamiento.
+ *
+ * Hay tres formas de environment:
+ * - global: guarda las variables en un arreglo, con un índice por id de símbolo;
+ * - dinámico: un SymbolMap por scope, para programas sin resolver;
+ * - frame resuelto: un arreglo de slots fijo, para funciones procesadas por el Resolver.
+ *
+ * Las búsquedas por nombre pasan a ids con {@link Symbols}; el intérprete usa
+ * directamente los ids de los Identifier.
+ *
+ * Un frame resuelto puede no tener environment externo: entonces lee las variables
+ * de otras funciones de las celdas que capturó su closure (ver {@link Cell}).
  */
 public class Environment {
-    private final Map<String, MObject> store;
-    private Environment outer;
-    
+    private static final int INITIAL_GLOBAL_SLOTS = 16;
+
+    private final SymbolMap store;
+    // Por id de símbolo, slot global + 1 (0 si no tiene)
+    private int[] globalIndex;
+    private int globalCount;
+    private final String[] slotNames;
+    private MObject[] slots;
+    private final Environment outer;
+    private final Environment global;
+
+    // Frames de closures planas: celdas capturadas y, por slot, la captura que se lee si está vacío
+    private final Cell[] captures;
+    private final int[] fallbacks;
+    // Celdas de los slots propios que capturó alguna closure
+    private Cell[] cells;
+
+    /**
+     * Crea el environment global.
+     */
     public Environment() {
-        this.store = new HashMap<>();
+        this.store = null;
+        this.globalIndex = new int[INITIAL_GLOBAL_SLOTS];
+        this.slotNames = null;
+        this.slots = new MObject[INITIAL_GLOBAL_SLOTS];
         this.outer = null;
+        this.global = this;
+        this.captures = null;
+        this.fallbacks = null;
     }
-    
+
     /**
      * Crea un nuevo environment encadenado (para scopes anidados).
      */
     public Environment(Environment outer) {
-        this();
+        this.store = new SymbolMap();
+        this.globalIndex = null;
+        this.slotNames = null;
+        this.slots = null;
         this.outer = outer;
+        this.global = outer.global;
+        this.captures = null;
+        this.fallbacks = null;
+    }
+
+    /**
+     * Crea un frame resuelto con un slot por cada nombre.
+     * @param slotNames nombres de los slots, compartidos por todas las llamadas a la función
+     */
+    public Environment(Environment outer, String[] slotNames) {
+        this.store = null;
+        this.globalIndex = null;
+        this.slotNames = slotNames;
+        this.slots = new MObject[slotNames.length];
+        this.outer = outer;
+        this.global = outer.global;
+        this.captures = null;
+        this.fallbacks = null;
+    }
+
+    /**
+     * Crea el frame de una closure plana, sin environment externo.
+     * @param captures celdas capturadas por la closure
+     * @param fallbacks por slot, la captura que se lee mientras está vacío, o -1 para la global
+     */
+    public Environment(Environment global, String[] slotNames, Cell[] captures, int[] fallbacks) {
+        this.store = null;
+        this.globalIndex = null;
+        this.slotNames = slotNames;
+        this.slots = new MObject[slotNames.length];
+        this.outer = null;
+        this.global = global.global;
+        this.captures = captures;
+        this.fallbacks = fallbacks;
     }
-    
+
     /**
      * Obtiene el valor de una variable por su nombre.
      * Si no existe en el scope actual, busca en el scope externo.
      */
     public MObject get(String name) {
-        MObject obj = store.get(name);
+        return getVariable(Symbols.intern(name));
+    }
+
+    /**
+     * Obtiene el valor de una variable por su id de símbolo, como {@link #get(String)}.
+     */
+    public MObject getVariable(int symbol) {
+        MObject obj = getLocal(symbol);
         if (obj == null && outer != null) {
-            obj = outer.get(name);
+            obj = outer.getVariable(symbol);
+        } else if (obj == null && captures != null) {
+            obj = getFree(symbol);
         }
         return obj;
     }
-    
+
     /**
      * Asigna un valor a una variable.
      */
     public void set(String name, MObject value) {
-        store.put(name, value);
+        setVariable(Symbols.intern(name), value);
     }
-    
+
+    /**
+     * Asigna un valor a una variable por su id de símbolo.
+     */
+    public void setVariable(int symbol, MObject value) {
+        if (store != null) {
+            store.put(symbol, value);
+        } else if (globalIndex != null) {
+            // globalSlot puede agrandar slots: se lee el arreglo después
+            int slot = globalSlot(symbol);
+            global.slots[slot] = value;
+        } else {
+            int slot = findSlot(Symbols.name(symbol));
+            if (slot < 0) {
+                throw new IllegalStateException("Variable " + Symbols.name(symbol) + " is not declared in this frame");
+            }
+            set(slot, value);
+        }
+    }
+
     /**
      * Verifica si una variable existe en el scope actual.
      */
     public boolean contains(String name) {
-        return store.containsKey(name);
+        return getLocal(Symbols.intern(name)) != null;
+    }
+
+    /**
+     * Lee una variable resuelta a (profundidad, slot).
+     * Si el slot todavía no fue asignado, continúa la búsqueda por símbolo
+     * en los scopes externos, igual que {@link #getVariable(int)}.
+     */
+    public MObject get(int depth, int slot, int symbol) {
+        Environment env = this;
+        for (int i = 0; i < depth; i++) {
+            env = env.outer;
+        }
+        MObject obj = env.slots[slot];
+        if (obj == null && env.outer != null) {
+            obj = env.outer.getVariable(symbol);
+        } else if (obj == null && env.captures != null) {
+            int fallback = env.fallbacks[slot];
+            obj = fallback >= 0 ? env.captures[fallback].get(global) : global.getVariable(symbol);
+        }
+        return obj;
+    }
+
+    /**
+     * Lee una variable de otra función a través de la celda que capturó la closure.
+     */
+    public MObject getCaptured(int capture) {
+        return captures[capture].get(global);
+    }
+
+    /**
+     * Asigna un slot del frame actual.
+     */
+    public void set(int slot, MObject value) {
+        slots[slot] = value;
+        if (cells != null && cells[slot] != null) {
+            cells[slot].value = value;
+        }
+    }
+
+    /**
+     * Arma las celdas de una closure creada en este environment.
+     */
+    public Cell[] capture(Capture[] variables) {
+        Cell[] result = new Cell[variables.length];
+        for (int i = 0; i < variables.length; i++) {
+            Capture variable = variables[i];
+            result[i] = variable.local() ? cell(variable.index()) : captures[variable.index()];
+        }
+        return result;
+    }
+
+    /**
+     * @return la celda de un slot del frame, que se crea la primera vez que se captura
+     */
+    private Cell cell(int slot) {
+        if (cells == null) {
+            cells = new Cell[slots.length];
+        }
+        Cell cell = cells[slot];
+        if (cell == null) {
+            Cell outerCell = fallbacks != null && fallbacks[slot] >= 0 ? captures[fallbacks[slot]] : null;
+            cell = new Cell(Symbols.intern(slotNames[slot]), outerCell, slots[slot]);
+            cells[slot] = cell;
+        }
+        return cell;
+    }
+
+    /**
+     * Busca por símbolo una variable de afuera de una closure plana.
+     */
+    private MObject getFree(int symbol) {
+        for (Cell cell : captures) {
+            if (cell.getSymbol() == symbol) {
+                return cell.get(global);
+            }
+        }
+        return global.getVariable(symbol);
+    }
+
+    /**
+     * @return el environment global
+     */
+    public Environment getGlobalEnvironment() {
+        return global;
+    }
+
+    /**
+     * Vacía un frame resuelto para reutilizarlo en otra llamada a la misma función.
+     * Las celdas no se reutilizan: alguna closure puede seguir leyéndolas.
+     */
+    public void clearSlots() {
+        Arrays.fill(slots, null);
+        cells = null;
+    }
+
+    /**
+     * Lee un slot del environment global.
+     */
+    public MObject getGlobal(int slot) {
+        return global.slots[slot];
+    }
+
+    /**
+     * Asigna un slot del environment global.
+     */
+    public void setGlobal(int slot, MObject value) {
+        global.slots[slot] = value;
+    }
+
+    /**
+     * Devuelve el slot global de una variable, reservándolo si no existía.
+     */
+    public int globalSlot(String name) {
+        return globalSlot(Symbols.intern(name));
+    }
+
+    /**
+     * Devuelve el slot global de una variable por su id de símbolo.
+     */
+    public int globalSlot(int symbol) {
+        Environment env = global;
+        if (symbol >= env.globalIndex.length) {
+            env.globalIndex = Arrays.copyOf(env.globalIndex, Math.max(symbol + 1, env.globalIndex.length * 2));
+        }
+        int slot = env.globalIndex[symbol] - 1;
+        if (slot < 0) {
+            slot = env.globalCount++;
+            env.globalIndex[symbol] = slot + 1;
+            if (slot == env.slots.length) {
+                env.slots = Arrays.copyOf(env.slots, slot * 2);
+            }
+        }
+        return slot;
+    }
+
+    private MObject getLocal(int symbol) {
+        if (store != null) {
+            return store.get(symbol);
+        } else if (globalIndex != null) {
+            int slot = symbol < globalIndex.length ? globalIndex[symbol] - 1 : -1;
+            return slot >= 0 ? slots[slot] : null;
+        } else {
+            int slot = findSlot(Symbols.name(symbol));
+            return slot >= 0 ? slots[slot] : null;
+        }
+    }
+
+    /**
+     * Busca un slot por nombre (camino lento). Si un nombre se repite,
+     * como en parámetros duplicados, gana el último. Los nombres de los
+     * slots salen de los Identifier, internados, así que equals suele
+     * resolverse por identidad.
+     */
+    private int findSlot(String name) {
+        for (int i = slotNames.length - 1; i >= 0; i--) {
+            if (slotNames[i].equals(name)) {
+                return i;
+            }
+        }
+        return -1;
     }
 }
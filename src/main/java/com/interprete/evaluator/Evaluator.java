@@ -1,7 +1,10 @@
 package com.interprete.evaluator;
 
 import com.interprete.ast.*;
+import com.interprete.jit.JitTier;
+import com.interprete.jit.TraceTier;
 import com.interprete.object.*;
+import com.interprete.profile.NodeProfile;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -11,10 +14,56 @@ import java.util.List;
  * Ejecuta el programa y retorna los resultados.
  */
 public class Evaluator {
-    private static final MBoolean TRUE = new MBoolean(true);
-    private static final MBoolean FALSE = new MBoolean(false);
+    private static final MBoolean TRUE = MBoolean.TRUE;
+    private static final MBoolean FALSE = MBoolean.FALSE;
     private static final MNull NULL = MNull.getInstance();
     
+    private final JitTier jit;
+    private final TraceTier tracer;
+    private final Memoizer memoizer;
+    private FunctionLiteral currentFunction;
+    
+    // Un return activo: se propaga sin envolver el valor hasta la llamada o el programa
+    private boolean returning;
+    private MObject returnValue;
+    
+    // Llamada en cola pendiente, que ejecuta el trampolín de applyFunction
+    private MFunction tailFunction;
+    private List<MObject> tailArgs;
+    private CallSiteCache.Entry tailEntry;
+    
+    private final List<CallSiteCache> callSites = new ArrayList<>();
+    
+    public Evaluator() {
+        this(null);
+    }
+    
+    /**
+     * @param jit nivel JIT para las funciones calientes, o null para solo interpretar
+     */
+    public Evaluator(JitTier jit) {
+        this(jit, 0);
+    }
+    
+    /**
+     * @param jit nivel JIT para las funciones calientes, o null para solo interpretar
+     * @param memoSize resultados que se memoizan por cada función pura, o 0 para no memoizar
+     */
+    public Evaluator(JitTier jit, int memoSize) {
+        this(jit, memoSize, null);
+    }
+    
+    /**
+     * @param jit nivel JIT para las funciones calientes, o null para solo interpretar
+     * @param memoSize resultados que se memoizan por cada función pura, o 0 para no memoizar
+     * @param tracer trazas para los bucles calientes, o null para no grabarlas
+     */
+    public Evaluator(JitTier jit, int memoSize, TraceTier tracer) {
+        this.jit = jit;
+        this.tracer = tracer;
+        this.memoizer = memoSize > 0 ? new Memoizer(memoSize) : null;
+    }
+    
     /**
      * Evalúa un nodo AST recursivamente.
      */
@@ -34,7 +83,7 @@ public class Evaluator {
         } else if (node instanceof ForStatement) {
             return evalForStatement((ForStatement) node, env);
         } else if (node instanceof IntegerLiteral) {
-            return new MInteger(((IntegerLiteral) node).getValue());
+            return ((IntegerLiteral) node).getObject();
         } else if (node instanceof BooleanLiteral) {
             return nativeBoolToBooleanObject(((BooleanLiteral) node).getValue());
         } else if (node instanceof Identifier) {
@@ -47,6 +96,9 @@ public class Evaluator {
             InfixExpression exp = (InfixExpression) node;
             MObject left = eval(exp.getLeft(), env);
             MObject right = eval(exp.getRight(), env);
+            if (exp.getProfile() != null) {
+                exp.getProfile().recordOperands(left, right);
+            }
             return evalInfixExpression(exp.getOperator(), left, right);
         } else if (node instanceof IfExpression) {
             return evalIfExpression((IfExpression) node, env);
@@ -68,9 +120,10 @@ public class Evaluator {
         for (Statement stmt : program.getStatements()) {
             result = eval(stmt, env);
             
-            // Si encontramos un return, propagarlo
-            if (result instanceof MReturnValue) {
-                return result;
+            // Un return en el nivel superior termina el programa
+            if (returning) {
+                returning = false;
+                return returnValue;
             }
         }
         
@@ -87,7 +140,7 @@ public class Evaluator {
             result = eval(stmt, env);
             
             // Si encontramos un return, propagarlo inmediatamente
-            if (result instanceof MReturnValue) {
+            if (returning) {
                 return result;
             }
         }
@@ -100,16 +153,27 @@ public class Evaluator {
      */
     private MObject evalLetStatement(LetStatement stmt, Environment env) {
         MObject value = eval(stmt.getValue(), env);
-        env.set(stmt.getName().getValue(), value);
+        Identifier name = stmt.getName();
+        
+        if (name.getDepth() >= 0) {
+            env.set(name.getSlot(), value);
+        } else if (name.getDepth() == Identifier.GLOBAL) {
+            env.setGlobal(name.getSlot(), value);
+        } else {
+            env.setVariable(name.getSymbol(), value);
+        }
         return value;
     }
     
     /**
      * Evalúa un return statement.
+     * No crea ningún objeto: marca el return y guarda el valor en el Evaluator.
      */
     private MObject evalReturnStatement(ReturnStatement stmt, Environment env) {
         MObject value = eval(stmt.getReturnValue(), env);
-        return new MReturnValue(value);
+        returnValue = value;
+        returning = true;
+        return value;
     }
     
     /**
@@ -117,14 +181,23 @@ public class Evaluator {
      */
     private MObject evalWhileStatement(WhileStatement stmt, Environment env) {
         MObject result = NULL;
+        NodeProfile profile = stmt.getProfile();
+        if (profile != null) {
+            profile.recordEntry();
+        }
         
         while (isTruthy(eval(stmt.getCondition(), env))) {
+            countIteration(profile);
             result = eval(stmt.getBody(), env);
             
             // Si encontramos un return, propagarlo
-            if (result instanceof MReturnValue) {
+            if (returning) {
                 return result;
             }
+            
+            if (tracer != null) {
+                result = runTrace(stmt, env, profile, result);
+            }
         }
         
         return result;
@@ -135,6 +208,10 @@ public class Evaluator {
      */
     private MObject evalForStatement(ForStatement stmt, Environment env) {
         MObject result = NULL;
+        NodeProfile profile = stmt.getProfile();
+        if (profile != null) {
+            profile.recordEntry();
+        }
         
         // Inicialización
         if (stmt.getInitialization() != null) {
@@ -143,10 +220,11 @@ public class Evaluator {
         
         // Condición, cuerpo e incremento
         while (stmt.getCondition() == null || isTruthy(eval(stmt.getCondition(), env))) {
+            countIteration(profile);
             result = eval(stmt.getBody(), env);
             
             // Si encontramos un return, propagarlo
-            if (result instanceof MReturnValue) {
+            if (returning) {
                 return result;
             }
             
@@ -154,6 +232,10 @@ public class Evaluator {
             if (stmt.getIncrement() != null) {
                 eval(stmt.getIncrement(), env);
             }
+            
+            if (tracer != null) {
+                result = runTrace(stmt, env, profile, result);
+            }
         }
         
         return result;
@@ -161,16 +243,28 @@ public class Evaluator {
     
     /**
      * Evalúa un identificador (variable).
+     * Si el Resolver le asignó un slot, se lee por índice en lugar de por nombre;
+     * las variables de otras funciones, de las celdas capturadas por la closure.
      */
     private MObject evalIdentifier(Identifier node, Environment env) {
-        MObject value = env.get(node.getValue());
+        MObject value;
+        
+        if (node.getDepth() > 0) {
+            value = env.getCaptured(node.getCapture());
+        } else if (node.getDepth() == 0) {
+            value = env.get(0, node.getSlot(), node.getSymbol());
+        } else if (node.getDepth() == Identifier.GLOBAL) {
+            value = env.getGlobal(node.getSlot());
+        } else {
+            value = env.getVariable(node.getSymbol());
+        }
         return value != null ? value : NULL;
     }
     
     /**
      * Evalúa una expresión prefija: !true, -5
      */
-    private MObject evalPrefixExpression(String operator, MObject right) {
+    static MObject evalPrefixExpression(String operator, MObject right) {
         return switch (operator) {
             case "!" -> evalBangOperatorExpression(right);
             case "-" -> evalMinusPrefixOperatorExpression(right);
@@ -181,7 +275,7 @@ public class Evaluator {
     /**
      * Evalúa el operador !
      */
-    private MObject evalBangOperatorExpression(MObject right) {
+    private static MObject evalBangOperatorExpression(MObject right) {
         if (right == TRUE) return FALSE;
         if (right == FALSE) return TRUE;
         if (right == NULL) return TRUE;
@@ -191,19 +285,19 @@ public class Evaluator {
     /**
      * Evalúa el operador - (negativo).
      */
-    private MObject evalMinusPrefixOperatorExpression(MObject right) {
+    private static MObject evalMinusPrefixOperatorExpression(MObject right) {
         if (!(right instanceof MInteger)) {
             return NULL;
         }
         
-        Integer value = ((MInteger) right).getValue();
-        return new MInteger(-value);
+        long value = ((MInteger) right).getValue();
+        return MInteger.valueOf(-value);
     }
     
     /**
      * Evalúa una expresión infija: 5 + 3, x == y
      */
-    private MObject evalInfixExpression(String operator, MObject left, MObject right) {
+    static MObject evalInfixExpression(String operator, MObject left, MObject right) {
         if (left instanceof MInteger && right instanceof MInteger) {
             return evalIntegerInfixExpression(operator, left, right);
         } else if (operator.equals("==")) {
@@ -218,19 +312,19 @@ public class Evaluator {
     /**
      * Evalúa expresiones infijas con enteros.
      */
-    private MObject evalIntegerInfixExpression(String operator, MObject left, MObject right) {
-        Integer leftVal = ((MInteger) left).getValue();
-        Integer rightVal = ((MInteger) right).getValue();
+    private static MObject evalIntegerInfixExpression(String operator, MObject left, MObject right) {
+        long leftVal = ((MInteger) left).getValue();
+        long rightVal = ((MInteger) right).getValue();
         
         return switch (operator) {
-            case "+" -> new MInteger(leftVal + rightVal);
-            case "-" -> new MInteger(leftVal - rightVal);
-            case "*" -> new MInteger(leftVal * rightVal);
-            case "/" -> new MInteger(leftVal / rightVal);
+            case "+" -> MInteger.valueOf(leftVal + rightVal);
+            case "-" -> MInteger.valueOf(leftVal - rightVal);
+            case "*" -> MInteger.valueOf(leftVal * rightVal);
+            case "/" -> MInteger.valueOf(leftVal / rightVal);
             case "<" -> nativeBoolToBooleanObject(leftVal < rightVal);
             case ">" -> nativeBoolToBooleanObject(leftVal > rightVal);
-            case "==" -> nativeBoolToBooleanObject(leftVal.equals(rightVal));
-            case "!=" -> nativeBoolToBooleanObject(!leftVal.equals(rightVal));
+            case "==" -> nativeBoolToBooleanObject(leftVal == rightVal);
+            case "!=" -> nativeBoolToBooleanObject(leftVal != rightVal);
             case "<=" -> nativeBoolToBooleanObject(leftVal <= rightVal);
             case ">=" -> nativeBoolToBooleanObject(leftVal >= rightVal);
             default -> NULL;
@@ -242,6 +336,9 @@ public class Evaluator {
      */
     private MObject evalIfExpression(IfExpression exp, Environment env) {
         MObject condition = eval(exp.getCondition(), env);
+        if (exp.getProfile() != null) {
+            exp.getProfile().recordBranch(isTruthy(condition));
+        }
         
         if (isTruthy(condition)) {
             return eval(exp.getConsequence(), env);
@@ -256,12 +353,15 @@ public class Evaluator {
      * Evalúa un literal de función.
      */
     private MObject evalFunctionLiteral(FunctionLiteral node, Environment env) {
-        return new MFunction(node.getParameters(), node.getBody(), env);
+        return new MFunction(node, env);
     }
     
     /**
      * Evalúa una llamada a función.
-     * Soporta recursión mediante nuevos environments.
+     * Soporta recursión mediante nuevos environments. Si la función está
+     * resuelta en el inline cache del lugar, los argumentos se evalúan directo
+     * en los slots de su frame, sin armar la lista ni volver a comprobarla.
+     * Con memoización, una función pura no se vuelve a ejecutar con los mismos argumentos.
      */
     private MObject evalCallExpression(CallExpression node, Environment env) {
         MObject function = eval(node.getFunction(), env);
@@ -271,32 +371,158 @@ public class Evaluator {
         }
         
         MFunction fn = (MFunction) function;
+        if (node.getProfile() != null && fn.getLiteral() != null) {
+            node.getProfile().recordTarget(fn.getLiteral().getProfile());
+        }
+        CallSiteCache.Entry cached = callCacheOf(node).lookup(fn);
+        List<Expression> arguments = node.getArguments();
+        
+        // El JIT y el memoizer trabajan con la lista de argumentos, y la llamada en cola la guarda
+        if (cached != null && cached.resolved && arguments.size() == cached.arity
+                && jit == null && memoizer == null && !node.isTailCall()) {
+            Environment frame = fn.newFrame();
+            for (int i = 0; i < cached.arity; i++) {
+                frame.set(i, eval(arguments.get(i), env));
+            }
+            if (returning) {
+                return NULL;
+            }
+            return applyFunction(fn, null, cached, frame);
+        }
         
         // Evaluar argumentos
-        List<MObject> args = evalExpressions(node.getArguments(), env);
-        if (args.size() != fn.getParameters().size()) {
+        List<MObject> args = evalExpressions(arguments, env);
+        if (args.size() != fn.getParameters().size() || returning) {
             return NULL;
         }
         
-        // Crear nuevo environment extendido con los parámetros
-        Environment extendedEnv = extendFunctionEnv(fn, args);
-        
-        // Evaluar el cuerpo de la función
-        MObject result = eval(fn.getBody(), extendedEnv);
+        MemoTable.Key key = memoizer != null ? memoizer.key(fn, args) : null;
+        if (key != null) {
+            MObject memoized = memoizer.get(fn, key);
+            if (memoized != null) {
+                return memoized;
+            }
+        }
         
-        // Desenvolver el return value
-        if (result instanceof MReturnValue) {
-            return ((MReturnValue) result).getValue();
+        // Una llamada en cola no se hace aquí: la repite el trampolín de la función actual
+        if (node.isTailCall()) {
+            tailFunction = fn;
+            tailArgs = args;
+            tailEntry = cached;
+            return NULL;
         }
         
+        MObject result = applyFunction(fn, args, cached, null);
+        if (key != null) {
+            memoizer.put(fn, key, result);
+        }
         return result;
     }
     
+    /**
+     * Ejecuta el cuerpo de una función como trampolín: cada llamada en cola deja
+     * la función y los argumentos pendientes y se ejecuta en este mismo ciclo,
+     * sin crecer la pila de Java. Si es la misma función y su frame no pudo ser
+     * capturado por una closure, el frame se reutiliza.
+     * @param cached entrada del inline cache de la llamada, o null
+     * @param prepared frame de la primera llamada ya con los argumentos (entonces
+     *                 args es null), o null para armarlo con args
+     */
+    private MObject applyFunction(MFunction fn, List<MObject> args, CallSiteCache.Entry cached,
+                                  Environment prepared) {
+        FunctionLiteral caller = currentFunction;
+        Environment frame = prepared;
+        
+        while (true) {
+            if (fn.getLiteral() != null && fn.getLiteral().getProfile() != null) {
+                fn.getLiteral().getProfile().recordCall();
+            }
+            
+            if (prepared == null) {
+                // Si la función está caliente, ejecutar su versión compilada
+                if (jit != null) {
+                    MObject compiled = jit.invoke(fn, args);
+                    if (compiled != null) {
+                        currentFunction = caller;
+                        return compiled;
+                    }
+                }
+                
+                boolean reusesFrame = cached != null ? cached.reusesFrame : canReuseFrame(fn.getLiteral());
+                if (frame != null && reusesFrame) {
+                    frame.clearSlots();
+                    for (int i = 0; i < args.size(); i++) {
+                        frame.set(i, args.get(i));
+                    }
+                } else {
+                    frame = extendFunctionEnv(fn, args);
+                }
+            }
+            prepared = null;
+            
+            // Evaluar el cuerpo de la función
+            currentFunction = fn.getLiteral();
+            MObject result = eval(fn.getBody(), frame);
+            
+            if (tailFunction != null) {
+                if (tailFunction != fn) {
+                    frame = null;
+                }
+                fn = tailFunction;
+                args = tailArgs;
+                cached = tailEntry;
+                tailFunction = null;
+                tailArgs = null;
+                tailEntry = null;
+                returning = false;
+                continue;
+            }
+            
+            currentFunction = caller;
+            
+            // El return termina en la llamada
+            if (returning) {
+                returning = false;
+                return returnValue;
+            }
+            
+            return result;
+        }
+    }
+    
+    /**
+     * Crea el inline cache de una llamada la primera vez que se ejecuta.
+     */
+    private CallSiteCache callCacheOf(CallExpression node) {
+        CallSiteCache cache = node.getCallCache();
+        if (cache == null) {
+            cache = new CallSiteCache(node);
+            node.setCallCache(cache);
+            callSites.add(cache);
+        }
+        return cache;
+    }
+    
+    /**
+     * @return los inline caches que creó este Evaluator, en el orden en que se ejecutaron
+     */
+    public List<CallSiteCache> getCallSites() {
+        return callSites;
+    }
+    
+    /**
+     * @return si el trampolín puede reutilizar el frame de la función: está
+     *         resuelta y no crea closures que puedan capturarlo
+     */
+    static boolean canReuseFrame(FunctionLiteral literal) {
+        return literal != null && literal.getSlotNames() != null && !literal.createsClosures();
+    }
+    
     /**
      * Evalúa una lista de expresiones (argumentos).
      */
     private List<MObject> evalExpressions(List<Expression> exps, Environment env) {
-        List<MObject> results = new ArrayList<>();
+        List<MObject> results = new ArrayList<>(exps.size());
         
         for (Expression exp : exps) {
             MObject evaluated = eval(exp, env);
@@ -310,19 +536,59 @@ public class Evaluator {
      * Extiende el environment de una función con los valores de los argumentos.
      */
     private Environment extendFunctionEnv(MFunction fn, List<MObject> args) {
+        if (fn.getSlotNames() != null) {
+            // Función resuelta: los parámetros ocupan los primeros slots
+            Environment env = fn.newFrame();
+            for (int i = 0; i < args.size(); i++) {
+                env.set(i, args.get(i));
+            }
+            return env;
+        }
+        
         Environment env = new Environment(fn.getEnv());
         
         for (int i = 0; i < fn.getParameters().size(); i++) {
-            env.set(fn.getParameters().get(i).getValue(), args.get(i));
+            env.setVariable(fn.getParameters().get(i).getSymbol(), args.get(i));
         }
         
         return env;
     }
     
+    /**
+     * Vuelta de un bucle: si tiene traza, sigue en ella hasta que falle una guarda.
+     * Al volver, el bucle retoma desde la condición.
+     * @return el valor del cuerpo en la última iteración hecha
+     */
+    private MObject runTrace(Statement loop, Environment env, NodeProfile profile, MObject result) {
+        MObject traced = tracer.backEdge(loop, env);
+        if (traced == null) {
+            return result;
+        }
+        if (profile != null) {
+            profile.recordIterations(tracer.getIterations());
+        }
+        if (jit != null && currentFunction != null) {
+            jit.countIterations(currentFunction, tracer.getIterations());
+        }
+        return traced;
+    }
+    
+    /**
+     * Las iteraciones de bucles también cuentan para decidir si compilar la función.
+     */
+    private void countIteration(NodeProfile profile) {
+        if (profile != null) {
+            profile.recordIteration();
+        }
+        if (jit != null && currentFunction != null) {
+            jit.countIteration(currentFunction);
+        }
+    }
+    
     /**
      * Convierte un objeto a verdadero/falso.
      */
-    private boolean isTruthy(MObject obj) {
+    static boolean isTruthy(MObject obj) {
         if (obj == NULL) return false;
         if (obj == TRUE) return true;
         if (obj == FALSE) return false;
@@ -332,7 +598,7 @@ public class Evaluator {
     /**
      * Convierte un booleano nativo en MBoolean.
      */
-    private MBoolean nativeBoolToBooleanObject(boolean input) {
+    private static MBoolean nativeBoolToBooleanObject(boolean input) {
         return input ? TRUE : FALSE;
     }
 }
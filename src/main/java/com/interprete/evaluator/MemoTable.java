@@ -0,0 +1,60 @@
+package com.interprete.evaluator;
+
+import com.interprete.object.MObject;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Resultados memoizados de un FunctionLiteral puro, con un máximo de entradas:
+ * al llenarse se descarta la usada hace más tiempo (LRU).
+ * Lo comparten todas las closures creadas a partir del mismo literal.
+ */
+public final class MemoTable {
+    /**
+     * Argumentos y valores de las variables libres de una llamada. Los enteros
+     * se comparan por valor y el resto de los objetos por identidad.
+     */
+    record Key(Object[] values) {
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Key && Arrays.equals(values, ((Key) other).values);
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(values);
+        }
+    }
+
+    // Variables libres que forman parte de la clave, o null si la función no es pura
+    final List<PurityAnalysis.FreeVariable> freeVariables;
+    private final Map<Key, MObject> results;
+
+    MemoTable(List<PurityAnalysis.FreeVariable> freeVariables, int capacity) {
+        this.freeVariables = freeVariables;
+        this.results = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, MObject> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    boolean isPure() {
+        return freeVariables != null;
+    }
+
+    /**
+     * @return el resultado guardado, o null
+     */
+    MObject get(Key key) {
+        return results.get(key);
+    }
+
+    void put(Key key, MObject result) {
+        results.put(key, result);
+    }
+}
@@ -0,0 +1,106 @@
+package com.interprete.evaluator;
+
+import com.interprete.ast.FunctionLiteral;
+import com.interprete.ast.Identifier;
+import com.interprete.object.MFunction;
+import com.interprete.object.MInteger;
+import com.interprete.object.MNull;
+import com.interprete.object.MObject;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Memoización de las llamadas a funciones puras del Evaluator.
+ *
+ * La clave de una llamada son los argumentos y los valores actuales de las
+ * variables libres de la función y, de forma transitiva, los de las funciones
+ * que llama: si alguna global cambia, la llamada usa otra entrada.
+ */
+final class Memoizer {
+    private static final MNull NULL = MNull.getInstance();
+
+    private final int capacity;
+
+    /**
+     * @param capacity resultados que se guardan por función
+     */
+    Memoizer(int capacity) {
+        this.capacity = capacity;
+    }
+
+    /**
+     * @return la clave de la llamada, o null si ahora no se puede memoizar
+     */
+    MemoTable.Key key(MFunction fn, List<MObject> args) {
+        List<Object> values = new ArrayList<>(args.size() + 2);
+        for (MObject arg : args) {
+            values.add(keyOf(arg));
+        }
+        Set<MFunction> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+        if (!addFreeValues(fn, values, visited)) {
+            return null;
+        }
+        return new MemoTable.Key(values.toArray());
+    }
+
+    MObject get(MFunction fn, MemoTable.Key key) {
+        return tableOf(fn.getLiteral()).get(key);
+    }
+
+    void put(MFunction fn, MemoTable.Key key, MObject result) {
+        tableOf(fn.getLiteral()).put(key, result);
+    }
+
+    private boolean addFreeValues(MFunction fn, List<Object> values, Set<MFunction> visited) {
+        FunctionLiteral literal = fn.getLiteral();
+        if (literal == null || !tableOf(literal).isPure()) {
+            return false;
+        }
+        if (!visited.add(fn)) {
+            return true;
+        }
+        for (PurityAnalysis.FreeVariable variable : tableOf(literal).freeVariables) {
+            MObject value = read(variable.identifier(), fn);
+            values.add(keyOf(value));
+            // Llamar a algo que no es una función da null sin más: solo importan las funciones
+            if (variable.callee() && value instanceof MFunction
+                    && !addFreeValues((MFunction) value, values, visited)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Lee una variable libre como la vería la función al empezar una llamada.
+     */
+    private static MObject read(Identifier identifier, MFunction fn) {
+        MObject value;
+        if (identifier.getDepth() > 0) {
+            value = fn.getCaptures()[identifier.getCapture()].get(fn.getEnv());
+        } else if (identifier.getDepth() == Identifier.GLOBAL) {
+            value = fn.getEnv().getGlobal(identifier.getSlot());
+        } else {
+            // Local leída antes de su primer let: se busca afuera por nombre
+            value = fn.lookup(identifier.getValue());
+        }
+        return value != null ? value : NULL;
+    }
+
+    private static Object keyOf(MObject value) {
+        return value instanceof MInteger ? (Object) ((MInteger) value).getValue() : value;
+    }
+
+    private MemoTable tableOf(FunctionLiteral literal) {
+        MemoTable table = literal.getMemoTable();
+        if (table == null) {
+            table = new MemoTable(PurityAnalysis.freeVariables(literal), capacity);
+            literal.setMemoTable(table);
+        }
+        return table;
+    }
+}
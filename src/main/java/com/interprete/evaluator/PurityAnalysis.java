@@ -0,0 +1,117 @@
+package com.interprete.evaluator;
+
+import com.interprete.ast.*;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Decide si una función resuelta es pura: su resultado depende solo de sus
+ * argumentos y de las variables libres que lee.
+ *
+ * Los let de una función siempre escriben su propio frame, así que alcanza con
+ * pedir que no cree closures y que solo llame a variables libres (que en la
+ * llamada deben ser a su vez funciones puras). Una variable local leída antes
+ * de su primer let se busca por nombre afuera: también cuenta como libre.
+ */
+final class PurityAnalysis {
+    /**
+     * Una variable que la función lee de afuera.
+     * @param callee si además se la llama
+     */
+    record FreeVariable(Identifier identifier, boolean callee) {
+    }
+
+    private final int numParameters;
+    private final Map<String, FreeVariable> free = new LinkedHashMap<>();
+    private boolean pure = true;
+
+    private PurityAnalysis(int numParameters) {
+        this.numParameters = numParameters;
+    }
+
+    /**
+     * @return las variables libres de la función, o null si no es pura
+     */
+    static List<FreeVariable> freeVariables(FunctionLiteral function) {
+        if (function.getSlotNames() == null || function.createsClosures()) {
+            return null;
+        }
+        PurityAnalysis analysis = new PurityAnalysis(function.getParameters().size());
+        analysis.visit(function.getBody());
+        return analysis.pure ? new ArrayList<>(analysis.free.values()) : null;
+    }
+
+    private void visit(ASTNode node) {
+        if (node instanceof LetStatement) {
+            visit(((LetStatement) node).getValue());
+        } else if (node instanceof ReturnStatement) {
+            visit(((ReturnStatement) node).getReturnValue());
+        } else if (node instanceof ExpressionStatement) {
+            visit(((ExpressionStatement) node).getExpression());
+        } else if (node instanceof BlockStatement) {
+            List<Statement> statements = ((BlockStatement) node).getStatements();
+            if (statements != null) {
+                for (Statement stmt : statements) {
+                    visit(stmt);
+                }
+            }
+        } else if (node instanceof WhileStatement) {
+            WhileStatement stmt = (WhileStatement) node;
+            visit(stmt.getCondition());
+            visit(stmt.getBody());
+        } else if (node instanceof ForStatement) {
+            ForStatement stmt = (ForStatement) node;
+            visit(stmt.getInitialization());
+            visit(stmt.getCondition());
+            visit(stmt.getIncrement());
+            visit(stmt.getBody());
+        } else if (node instanceof Identifier) {
+            read((Identifier) node, false);
+        } else if (node instanceof PrefixExpression) {
+            visit(((PrefixExpression) node).getRight());
+        } else if (node instanceof InfixExpression) {
+            InfixExpression exp = (InfixExpression) node;
+            visit(exp.getLeft());
+            visit(exp.getRight());
+        } else if (node instanceof IfExpression) {
+            IfExpression exp = (IfExpression) node;
+            visit(exp.getCondition());
+            visit(exp.getConsequence());
+            visit(exp.getAlternative());
+        } else if (node instanceof CallExpression) {
+            CallExpression exp = (CallExpression) node;
+            Expression callee = exp.getFunction();
+            // Solo se sabe qué se llama si es una variable de afuera
+            if (callee instanceof Identifier && ((Identifier) callee).getDepth() != 0) {
+                read((Identifier) callee, true);
+            } else {
+                pure = false;
+            }
+            if (exp.getArguments() != null) {
+                for (Expression argument : exp.getArguments()) {
+                    visit(argument);
+                }
+            }
+        } else if (node instanceof FunctionLiteral) {
+            pure = false;
+        }
+    }
+
+    private void read(Identifier identifier, boolean callee) {
+        if (!identifier.isResolved()) {
+            pure = false;
+            return;
+        }
+        if (identifier.getDepth() == 0 && identifier.getSlot() < numParameters) {
+            return;
+        }
+        String key = identifier.getDepth() + ":" + identifier.getSlot() + ":" + identifier.getValue();
+        FreeVariable previous = free.get(key);
+        if (previous == null || (callee && !previous.callee())) {
+            free.put(key, new FreeVariable(identifier, callee));
+        }
+    }
+}
@@ -0,0 +1,292 @@
+package com.interprete.evaluator;
+
+import com.interprete.ast.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Pasada estática que asigna a cada identificador una dirección (profundidad, slot).
+ *
+ * Cada función tiene un único scope con sus parámetros y todos sus let (los bloques
+ * no crean scope). La profundidad es la cantidad de funciones a subir desde la actual;
+ * las variables que no pertenecen a ninguna función son globales.
+ * También marca las llamadas en posición de cola de cada función y calcula las
+ * variables de otras funciones que captura cada closure: si una función anidada
+ * lee una variable de dos funciones más afuera, la intermedia también la captura.
+ * Las funciones con el cuerpo sin parsear se terminan de resolver al parsearlo.
+ */
+public class Resolver {
+    private final Environment globals;
+    private Scope current;
+
+    /**
+     * @param globals environment global donde se reservan los slots de las variables globales
+     */
+    public Resolver(Environment globals) {
+        this.globals = globals;
+        this.current = null;
+    }
+
+    /**
+     * Resuelve todos los identificadores del programa.
+     */
+    public void resolve(Program program) {
+        for (Statement stmt : program.getStatements()) {
+            resolveNode(stmt);
+        }
+    }
+
+    private void resolveNode(ASTNode node) {
+        if (node instanceof LetStatement) {
+            LetStatement stmt = (LetStatement) node;
+            resolveNode(stmt.getValue());
+            resolveTarget(stmt.getName());
+        } else if (node instanceof ReturnStatement) {
+            resolveNode(((ReturnStatement) node).getReturnValue());
+        } else if (node instanceof ExpressionStatement) {
+            resolveNode(((ExpressionStatement) node).getExpression());
+        } else if (node instanceof BlockStatement) {
+            List<Statement> statements = ((BlockStatement) node).getStatements();
+            if (statements != null) {
+                for (Statement stmt : statements) {
+                    resolveNode(stmt);
+                }
+            }
+        } else if (node instanceof WhileStatement) {
+            WhileStatement stmt = (WhileStatement) node;
+            resolveNode(stmt.getCondition());
+            resolveNode(stmt.getBody());
+        } else if (node instanceof ForStatement) {
+            ForStatement stmt = (ForStatement) node;
+            resolveNode(stmt.getInitialization());
+            resolveNode(stmt.getCondition());
+            resolveNode(stmt.getIncrement());
+            resolveNode(stmt.getBody());
+        } else if (node instanceof Identifier) {
+            resolveReference((Identifier) node);
+        } else if (node instanceof PrefixExpression) {
+            resolveNode(((PrefixExpression) node).getRight());
+        } else if (node instanceof InfixExpression) {
+            InfixExpression exp = (InfixExpression) node;
+            resolveNode(exp.getLeft());
+            resolveNode(exp.getRight());
+        } else if (node instanceof IfExpression) {
+            IfExpression exp = (IfExpression) node;
+            resolveNode(exp.getCondition());
+            resolveNode(exp.getConsequence());
+            resolveNode(exp.getAlternative());
+        } else if (node instanceof CallExpression) {
+            CallExpression exp = (CallExpression) node;
+            resolveNode(exp.getFunction());
+            if (exp.getArguments() != null) {
+                for (Expression argument : exp.getArguments()) {
+                    resolveNode(argument);
+                }
+            }
+        } else if (node instanceof FunctionLiteral) {
+            resolveFunction((FunctionLiteral) node);
+        }
+    }
+
+    private void resolveFunction(FunctionLiteral function) {
+        Scope scope = new Scope(current);
+
+        if (function.getParameters() != null) {
+            for (Identifier parameter : function.getParameters()) {
+                scope.declareParameter(parameter.getValue());
+            }
+        }
+        if (!function.isParsed()) {
+            deferResolution(function, scope);
+            return;
+        }
+        resolveBody(function, function.getBody(), scope);
+    }
+
+    /**
+     * El cuerpo todavía no se parseó: la función captura desde ya todas las
+     * variables de afuera que nombra (alguna puede resultar local y sobrar),
+     * así las funciones que la encierran también las capturan, y el resto de
+     * la resolución queda para cuando se parsee.
+     */
+    private void deferResolution(FunctionLiteral function, Scope scope) {
+        for (String name : function.getLazyBody().getIdentifiers()) {
+            if (!scope.slots.containsKey(name)) {
+                capture(scope, name);
+            }
+        }
+        function.setCaptures(scope.captures.toArray(new Capture[0]));
+        function.getLazyBody().addPass(body -> {
+            resolveBody(function, body, scope);
+            return body;
+        });
+    }
+
+    private void resolveBody(FunctionLiteral function, BlockStatement body, Scope scope) {
+        if (body != null) {
+            declareLocals(body, scope);
+        }
+        function.setSlotNames(scope.names.toArray(new String[0]));
+        function.setCreatesClosures(scope.createsClosures);
+        TailCallMarker.mark(function);
+
+        Scope saved = current;
+        current = scope;
+        resolveNode(body);
+        current = saved;
+
+        // Un let todavía sin ejecutar lee la variable del mismo nombre de más afuera
+        int numParameters = function.getParameters() != null ? function.getParameters().size() : 0;
+        int[] fallbacks = new int[scope.names.size()];
+        for (int i = 0; i < fallbacks.length; i++) {
+            fallbacks[i] = i < numParameters ? -1 : capture(scope, scope.names.get(i));
+        }
+        function.setFallbacks(fallbacks);
+        function.setCaptures(scope.captures.toArray(new Capture[0]));
+    }
+
+    /**
+     * Resuelve una lectura buscando el scope de función más cercano que la declara.
+     */
+    private void resolveReference(Identifier identifier) {
+        int depth = 0;
+        for (Scope scope = current; scope != null; scope = scope.parent) {
+            Integer slot = scope.slots.get(identifier.getValue());
+            if (slot != null) {
+                identifier.resolve(depth, slot);
+                if (depth > 0) {
+                    identifier.setCapture(capture(current, identifier.getValue()));
+                }
+                return;
+            }
+            depth++;
+        }
+        identifier.resolve(Identifier.GLOBAL, globals.globalSlot(identifier.getSymbol()));
+    }
+
+    /**
+     * Captura en el scope una variable de las funciones que lo encierran.
+     * @return el índice de la captura, o -1 si la variable es global
+     */
+    private static int capture(Scope scope, String name) {
+        Integer index = scope.captureIndex.get(name);
+        if (index != null) {
+            return index;
+        }
+        Scope parent = scope.parent;
+        if (parent == null) {
+            return -1;
+        }
+
+        Capture capture;
+        Integer slot = parent.slots.get(name);
+        if (slot != null) {
+            capture = new Capture(name, true, slot);
+        } else {
+            int outer = capture(parent, name);
+            if (outer < 0) {
+                return -1;
+            }
+            capture = new Capture(name, false, outer);
+        }
+        scope.captureIndex.put(name, scope.captures.size());
+        scope.captures.add(capture);
+        return scope.captures.size() - 1;
+    }
+
+    /**
+     * Resuelve el destino de un let, que siempre pertenece al scope actual.
+     */
+    private void resolveTarget(Identifier name) {
+        if (current == null) {
+            name.resolve(Identifier.GLOBAL, globals.globalSlot(name.getSymbol()));
+        } else {
+            name.resolve(0, current.slots.get(name.getValue()));
+        }
+    }
+
+    /**
+     * Declara los let del cuerpo de una función, sin entrar en funciones anidadas.
+     */
+    private void declareLocals(ASTNode node, Scope scope) {
+        if (node instanceof LetStatement) {
+            LetStatement stmt = (LetStatement) node;
+            scope.declareLocal(stmt.getName().getValue());
+            declareLocals(stmt.getValue(), scope);
+        } else if (node instanceof ReturnStatement) {
+            declareLocals(((ReturnStatement) node).getReturnValue(), scope);
+        } else if (node instanceof ExpressionStatement) {
+            declareLocals(((ExpressionStatement) node).getExpression(), scope);
+        } else if (node instanceof BlockStatement) {
+            List<Statement> statements = ((BlockStatement) node).getStatements();
+            if (statements != null) {
+                for (Statement stmt : statements) {
+                    declareLocals(stmt, scope);
+                }
+            }
+        } else if (node instanceof WhileStatement) {
+            WhileStatement stmt = (WhileStatement) node;
+            declareLocals(stmt.getCondition(), scope);
+            declareLocals(stmt.getBody(), scope);
+        } else if (node instanceof ForStatement) {
+            ForStatement stmt = (ForStatement) node;
+            declareLocals(stmt.getInitialization(), scope);
+            declareLocals(stmt.getCondition(), scope);
+            declareLocals(stmt.getIncrement(), scope);
+            declareLocals(stmt.getBody(), scope);
+        } else if (node instanceof PrefixExpression) {
+            declareLocals(((PrefixExpression) node).getRight(), scope);
+        } else if (node instanceof InfixExpression) {
+            InfixExpression exp = (InfixExpression) node;
+            declareLocals(exp.getLeft(), scope);
+            declareLocals(exp.getRight(), scope);
+        } else if (node instanceof IfExpression) {
+            IfExpression exp = (IfExpression) node;
+            declareLocals(exp.getCondition(), scope);
+            declareLocals(exp.getConsequence(), scope);
+            declareLocals(exp.getAlternative(), scope);
+        } else if (node instanceof CallExpression) {
+            CallExpression exp = (CallExpression) node;
+            declareLocals(exp.getFunction(), scope);
+            if (exp.getArguments() != null) {
+                for (Expression argument : exp.getArguments()) {
+                    declareLocals(argument, scope);
+                }
+            }
+        } else if (node instanceof FunctionLiteral) {
+            scope.createsClosures = true;
+        }
+    }
+
+    /**
+     * Scope de una función durante la resolución.
+     */
+    private static class Scope {
+        private final Scope parent;
+        private final Map<String, Integer> slots = new HashMap<>();
+        private final List<String> names = new ArrayList<>();
+        private final List<Capture> captures = new ArrayList<>();
+        private final Map<String, Integer> captureIndex = new HashMap<>();
+        private boolean createsClosures;
+
+        Scope(Scope parent) {
+            this.parent = parent;
+        }
+
+        void declareParameter(String name) {
+            // Con parámetros repetidos gana el último, como en el Evaluator
+            slots.put(name, names.size());
+            names.add(name);
+        }
+
+        void declareLocal(String name) {
+            if (!slots.containsKey(name)) {
+                slots.put(name, names.size());
+                names.add(name);
+            }
+        }
+    }
+}
@@ -0,0 +1,465 @@
+package com.interprete.evaluator;
+
+import com.interprete.ast.*;
+import com.interprete.object.*;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Evaluator con pila explícita: no es recursivo en la pila de Java.
+ *
+ * Cada nodo en evaluación ocupa un Frame de una pila propia en el heap y el
+ * resultado del último nodo terminado queda en {@link #value}. Los frames se
+ * reutilizan entre llamadas y entre programas, y la profundidad solo la limita
+ * el presupuesto de memoria de la pila. La semántica es la del Evaluator,
+ * incluidas las llamadas en cola marcadas por el Resolver.
+ */
+public class StackEvaluator {
+    public static final long DEFAULT_MEMORY_BUDGET = 64L << 20;
+
+    // Tamaño aproximado de un Frame en el heap, para convertir el presupuesto en frames
+    private static final int FRAME_BYTES = 64;
+    private static final int INITIAL_FRAMES = 256;
+
+    private static final MBoolean TRUE = MBoolean.TRUE;
+    private static final MNull NULL = MNull.getInstance();
+    private static final MObject[] NO_ARGS = new MObject[0];
+
+    private static final int PROGRAM = 0;
+    private static final int BLOCK = 1;
+    private static final int LET = 2;
+    private static final int RETURN = 3;
+    private static final int WHILE = 4;
+    private static final int FOR = 5;
+    private static final int PREFIX = 6;
+    private static final int INFIX = 7;
+    private static final int IF = 8;
+    private static final int CALL = 9;
+
+    private final int maxFrames;
+    private Frame[] frames;
+    private int top = -1;
+
+    // Resultado del último nodo terminado
+    private MObject value = NULL;
+
+    private boolean returning;
+    private MObject returnValue;
+    private MFunction tailFunction;
+    private MObject[] tailArgs;
+
+    public StackEvaluator() {
+        this(DEFAULT_MEMORY_BUDGET);
+    }
+
+    /**
+     * @param memoryBudget bytes que puede ocupar la pila de frames
+     */
+    public StackEvaluator(long memoryBudget) {
+        long frameCount = memoryBudget / FRAME_BYTES;
+        if (frameCount < INITIAL_FRAMES) {
+            throw new IllegalArgumentException("Presupuesto de memoria demasiado chico: " + memoryBudget);
+        }
+        this.maxFrames = (int) Math.min(frameCount, Integer.MAX_VALUE - 8);
+        this.frames = new Frame[INITIAL_FRAMES];
+    }
+
+    /**
+     * Evalúa un programa. Un return en el nivel superior termina el programa.
+     */
+    public MObject eval(Program program, Environment env) {
+        int base = top;
+        try {
+            value = NULL;
+            push(program, env);
+            while (top > base) {
+                step(frames[top]);
+            }
+            return value;
+        } finally {
+            while (top > base) {
+                pop();
+            }
+            returning = false;
+            tailFunction = null;
+            tailArgs = null;
+        }
+    }
+
+    private void step(Frame f) {
+        switch (f.kind) {
+            case PROGRAM -> {
+                List<Statement> statements = ((Program) f.node).getStatements();
+                if (f.index > 0 && returning) {
+                    returning = false;
+                    complete(returnValue);
+                } else if (f.index == statements.size()) {
+                    complete(f.index == 0 ? NULL : value);
+                } else {
+                    push(statements.get(f.index++), f.env);
+                }
+            }
+            case BLOCK -> {
+                List<Statement> statements = ((BlockStatement) f.node).getStatements();
+                if (f.index > 0 && returning) {
+                    complete(value);
+                } else if (f.index == statements.size()) {
+                    complete(f.index == 0 ? NULL : value);
+                } else if (f.index == statements.size() - 1) {
+                    // El resultado del bloque es el de su último statement
+                    replace(f, statements.get(f.index));
+                } else {
+                    push(statements.get(f.index++), f.env);
+                }
+            }
+            case LET -> {
+                LetStatement stmt = (LetStatement) f.node;
+                if (f.step == 0) {
+                    f.step = 1;
+                    push(stmt.getValue(), f.env);
+                } else {
+                    assign(stmt.getName(), value, f.env);
+                    complete(value);
+                }
+            }
+            case RETURN -> {
+                if (f.step == 0) {
+                    f.step = 1;
+                    push(((ReturnStatement) f.node).getReturnValue(), f.env);
+                } else {
+                    returnValue = value;
+                    returning = true;
+                    complete(value);
+                }
+            }
+            case WHILE -> stepWhile(f, (WhileStatement) f.node);
+            case FOR -> stepFor(f, (ForStatement) f.node);
+            case PREFIX -> {
+                PrefixExpression exp = (PrefixExpression) f.node;
+                if (f.step == 0) {
+                    f.step = 1;
+                    push(exp.getRight(), f.env);
+                } else {
+                    complete(Evaluator.evalPrefixExpression(exp.getOperator(), value));
+                }
+            }
+            case INFIX -> {
+                InfixExpression exp = (InfixExpression) f.node;
+                if (f.step == 0) {
+                    f.step = 1;
+                    push(exp.getLeft(), f.env);
+                } else if (f.step == 1) {
+                    f.saved = value;
+                    f.step = 2;
+                    push(exp.getRight(), f.env);
+                } else {
+                    complete(Evaluator.evalInfixExpression(exp.getOperator(), f.saved, value));
+                }
+            }
+            case IF -> {
+                IfExpression exp = (IfExpression) f.node;
+                if (f.step == 0) {
+                    f.step = 1;
+                    push(exp.getCondition(), f.env);
+                } else if (Evaluator.isTruthy(value)) {
+                    replace(f, exp.getConsequence());
+                } else if (exp.getAlternative() != null) {
+                    replace(f, exp.getAlternative());
+                } else {
+                    complete(NULL);
+                }
+            }
+            case CALL -> stepCall(f, (CallExpression) f.node);
+            default -> throw new IllegalStateException("Unknown frame kind " + f.kind);
+        }
+    }
+
+    private void stepWhile(Frame f, WhileStatement stmt) {
+        switch (f.step) {
+            case 0 -> {
+                f.step = 1;
+                push(stmt.getCondition(), f.env);
+            }
+            case 1 -> {
+                if (!Evaluator.isTruthy(value)) {
+                    complete(f.saved);
+                } else {
+                    f.step = 2;
+                    push(stmt.getBody(), f.env);
+                }
+            }
+            default -> {
+                f.saved = value;
+                if (returning) {
+                    complete(value);
+                } else {
+                    f.step = 0;
+                }
+            }
+        }
+    }
+
+    private void stepFor(Frame f, ForStatement stmt) {
+        switch (f.step) {
+            case 0 -> {
+                f.step = 1;
+                push(stmt.getInitialization(), f.env);
+            }
+            case 1 -> {
+                f.step = 2;
+                if (stmt.getCondition() == null) {
+                    value = TRUE;
+                } else {
+                    push(stmt.getCondition(), f.env);
+                }
+            }
+            case 2 -> {
+                if (!Evaluator.isTruthy(value)) {
+                    complete(f.saved);
+                } else {
+                    f.step = 3;
+                    push(stmt.getBody(), f.env);
+                }
+            }
+            default -> {
+                f.saved = value;
+                if (returning) {
+                    complete(value);
+                } else {
+                    f.step = 1;
+                    push(stmt.getIncrement(), f.env);
+                }
+            }
+        }
+    }
+
+    /**
+     * Pasos de una llamada: callee, argumentos uno por uno, y el cuerpo con el
+     * frame de la llamada esperando debajo para recibir el return.
+     */
+    private void stepCall(Frame f, CallExpression call) {
+        List<Expression> arguments = call.getArguments();
+        switch (f.step) {
+            case 0 -> {
+                f.step = 1;
+                push(call.getFunction(), f.env);
+            }
+            case 1 -> {
+                if (!(value instanceof MFunction)) {
+                    complete(NULL);
+                    return;
+                }
+                f.function = (MFunction) value;
+                f.args = arguments.isEmpty() ? NO_ARGS : new MObject[arguments.size()];
+                f.step = 2;
+            }
+            case 2 -> {
+                if (f.index > 0) {
+                    f.args[f.index - 1] = value;
+                }
+                if (f.index < arguments.size()) {
+                    push(arguments.get(f.index++), f.env);
+                    return;
+                }
+
+                MFunction fn = f.function;
+                if (f.args.length != fn.getParameters().size() || returning) {
+                    complete(NULL);
+                } else if (call.isTailCall()) {
+                    // La repite el frame de la llamada que contiene a esta
+                    tailFunction = fn;
+                    tailArgs = f.args;
+                    complete(NULL);
+                } else {
+                    f.step = 3;
+                    f.frameEnv = extendFunctionEnv(fn, f.args, null);
+                    push(fn.getBody(), f.frameEnv);
+                }
+            }
+            default -> {
+                if (tailFunction != null) {
+                    MFunction fn = tailFunction;
+                    f.frameEnv = extendFunctionEnv(fn, tailArgs, fn == f.function ? f.frameEnv : null);
+                    f.function = fn;
+                    tailFunction = null;
+                    tailArgs = null;
+                    returning = false;
+                    push(fn.getBody(), f.frameEnv);
+                } else if (returning) {
+                    returning = false;
+                    complete(returnValue);
+                } else {
+                    complete(value);
+                }
+            }
+        }
+    }
+
+    /**
+     * Crea el frame de una llamada, o reutiliza el anterior si es una llamada en
+     * cola a la misma función y ninguna closure pudo haberlo capturado.
+     */
+    private Environment extendFunctionEnv(MFunction fn, MObject[] args, Environment previous) {
+        if (fn.getSlotNames() != null) {
+            Environment env;
+            if (previous != null && fn.getLiteral() != null && !fn.getLiteral().createsClosures()) {
+                env = previous;
+                env.clearSlots();
+            } else {
+                env = fn.newFrame();
+            }
+            for (int i = 0; i < args.length; i++) {
+                env.set(i, args[i]);
+            }
+            return env;
+        }
+
+        Environment env = new Environment(fn.getEnv());
+        for (int i = 0; i < args.length; i++) {
+            env.setVariable(fn.getParameters().get(i).getSymbol(), args[i]);
+        }
+        return env;
+    }
+
+    /**
+     * Empieza a evaluar un nodo. Las hojas se evalúan en el momento, sin frame.
+     */
+    private void push(ASTNode node, Environment env) {
+        int kind;
+        if (node instanceof IntegerLiteral) {
+            value = ((IntegerLiteral) node).getObject();
+            return;
+        } else if (node instanceof BooleanLiteral) {
+            value = ((BooleanLiteral) node).getValue() ? MBoolean.TRUE : MBoolean.FALSE;
+            return;
+        } else if (node instanceof Identifier) {
+            value = lookup((Identifier) node, env);
+            return;
+        } else if (node instanceof FunctionLiteral) {
+            value = new MFunction((FunctionLiteral) node, env);
+            return;
+        } else if (node instanceof ExpressionStatement) {
+            push(((ExpressionStatement) node).getExpression(), env);
+            return;
+        } else if (node instanceof Program) {
+            kind = PROGRAM;
+        } else if (node instanceof BlockStatement) {
+            kind = BLOCK;
+        } else if (node instanceof LetStatement) {
+            kind = LET;
+        } else if (node instanceof ReturnStatement) {
+            kind = RETURN;
+        } else if (node instanceof WhileStatement) {
+            kind = WHILE;
+        } else if (node instanceof ForStatement) {
+            kind = FOR;
+        } else if (node instanceof PrefixExpression) {
+            kind = PREFIX;
+        } else if (node instanceof InfixExpression) {
+            kind = INFIX;
+        } else if (node instanceof IfExpression) {
+            kind = IF;
+        } else if (node instanceof CallExpression) {
+            kind = CALL;
+        } else {
+            value = NULL;
+            return;
+        }
+
+        if (++top == frames.length) {
+            growFrames();
+        }
+        Frame f = frames[top];
+        if (f == null) {
+            f = new Frame();
+            frames[top] = f;
+        }
+        f.init(kind, node, env);
+    }
+
+    /**
+     * Reemplaza el frame por el de un hijo cuyo resultado es el del padre,
+     * para que la pila no crezca con bloques e if anidados.
+     */
+    private void replace(Frame f, ASTNode node) {
+        Environment env = f.env;
+        pop();
+        push(node, env);
+    }
+
+    private void complete(MObject result) {
+        value = result;
+        pop();
+    }
+
+    private void pop() {
+        frames[top--].clear();
+    }
+
+    private void growFrames() {
+        if (frames.length >= maxFrames) {
+            top--;
+            throw new IllegalStateException("Stack overflow");
+        }
+        frames = Arrays.copyOf(frames, (int) Math.min((long) frames.length * 2, maxFrames));
+    }
+
+    private static MObject lookup(Identifier node, Environment env) {
+        MObject value;
+        if (node.getDepth() > 0) {
+            value = env.getCaptured(node.getCapture());
+        } else if (node.getDepth() == 0) {
+            value = env.get(0, node.getSlot(), node.getSymbol());
+        } else if (node.getDepth() == Identifier.GLOBAL) {
+            value = env.getGlobal(node.getSlot());
+        } else {
+            value = env.getVariable(node.getSymbol());
+        }
+        return value != null ? value : NULL;
+    }
+
+    private static void assign(Identifier name, MObject value, Environment env) {
+        if (name.getDepth() >= 0) {
+            env.set(name.getSlot(), value);
+        } else if (name.getDepth() == Identifier.GLOBAL) {
+            env.setGlobal(name.getSlot(), value);
+        } else {
+            env.setVariable(name.getSymbol(), value);
+        }
+    }
+
+    /**
+     * Un nodo en evaluación. {@code step} indica por dónde sigue y {@code index}
+     * recorre statements o argumentos.
+     */
+    private static final class Frame {
+        int kind;
+        ASTNode node;
+        Environment env;
+        int step;
+        int index;
+        MObject saved;
+        MFunction function;
+        MObject[] args;
+        Environment frameEnv;
+
+        void init(int kind, ASTNode node, Environment env) {
+            this.kind = kind;
+            this.node = node;
+            this.env = env;
+            this.step = 0;
+            this.index = 0;
+            this.saved = NULL;
+        }
+
+        void clear() {
+            node = null;
+            env = null;
+            saved = null;
+            function = null;
+            args = null;
+            frameEnv = null;
+        }
+    }
+}
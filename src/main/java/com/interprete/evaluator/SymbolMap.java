@@ -0,0 +1,75 @@
+package com.interprete.evaluator;
+
+import com.interprete.object.MObject;
+
+/**
+ * Variables de un scope dinámico, por id de símbolo: tabla abierta con
+ * sondeo lineal sobre arreglos de int, sin boxing ni hash de strings.
+ */
+final class SymbolMap {
+    private static final int INITIAL_CAPACITY = 8;
+
+    // Símbolo + 1 en cada posición, 0 si está libre
+    private int[] keys = new int[INITIAL_CAPACITY];
+    private MObject[] values = new MObject[INITIAL_CAPACITY];
+    private int size;
+
+    /**
+     * @return el valor de la variable, o null si no está en este scope
+     */
+    MObject get(int symbol) {
+        int mask = keys.length - 1;
+        for (int i = index(symbol, mask); ; i = (i + 1) & mask) {
+            int key = keys[i];
+            if (key == symbol + 1) {
+                return values[i];
+            } else if (key == 0) {
+                return null;
+            }
+        }
+    }
+
+    void put(int symbol, MObject value) {
+        int mask = keys.length - 1;
+        int i = index(symbol, mask);
+        while (keys[i] != 0 && keys[i] != symbol + 1) {
+            i = (i + 1) & mask;
+        }
+        if (keys[i] == 0) {
+            keys[i] = symbol + 1;
+            size++;
+        }
+        values[i] = value;
+        // Se agranda al pasar los tres cuartos
+        if (size * 4 > keys.length * 3) {
+            grow();
+        }
+    }
+
+    private void grow() {
+        int[] oldKeys = keys;
+        MObject[] oldValues = values;
+        keys = new int[oldKeys.length * 2];
+        values = new MObject[oldKeys.length * 2];
+        int mask = keys.length - 1;
+        for (int j = 0; j < oldKeys.length; j++) {
+            if (oldKeys[j] != 0) {
+                int i = index(oldKeys[j] - 1, mask);
+                while (keys[i] != 0) {
+                    i = (i + 1) & mask;
+                }
+                keys[i] = oldKeys[j];
+                values[i] = oldValues[j];
+            }
+        }
+    }
+
+    /**
+     * Los ids son consecutivos: se multiplican por la constante de Fibonacci
+     * para que no queden todos en posiciones vecinas.
+     */
+    private static int index(int symbol, int mask) {
+        int hash = symbol * 0x9E3779B9;
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+}
@@ -0,0 +1,71 @@
+package com.interprete.evaluator;
+
+import com.interprete.ast.*;
+
+import java.util.List;
+
+/**
+ * Marca las llamadas en posición de cola del cuerpo de una función: el valor de
+ * un return, o la última expresión del cuerpo (entrando en las ramas de los if).
+ *
+ * Los bucles no son posición de cola salvo por sus return, y los let tampoco:
+ * guardan el valor en el frame, que una closure pudo haber capturado.
+ */
+public final class TailCallMarker {
+    private TailCallMarker() {
+    }
+
+    public static void mark(FunctionLiteral function) {
+        if (function.getBody() != null) {
+            markStatements(function.getBody().getStatements(), true);
+        }
+    }
+
+    private static void markStatements(List<Statement> statements, boolean tail) {
+        if (statements == null) {
+            return;
+        }
+        for (int i = 0; i < statements.size(); i++) {
+            markStatement(statements.get(i), tail && i == statements.size() - 1);
+        }
+    }
+
+    private static void markStatement(Statement stmt, boolean tail) {
+        if (stmt instanceof ReturnStatement) {
+            markTail(((ReturnStatement) stmt).getReturnValue());
+        } else if (stmt instanceof ExpressionStatement) {
+            Expression exp = ((ExpressionStatement) stmt).getExpression();
+            if (tail) {
+                markTail(exp);
+            } else if (exp instanceof IfExpression) {
+                // Solo para encontrar los return de sus ramas
+                markBranches((IfExpression) exp, false);
+            }
+        } else if (stmt instanceof BlockStatement) {
+            markStatements(((BlockStatement) stmt).getStatements(), tail);
+        } else if (stmt instanceof WhileStatement) {
+            markBlock(((WhileStatement) stmt).getBody(), false);
+        } else if (stmt instanceof ForStatement) {
+            markBlock(((ForStatement) stmt).getBody(), false);
+        }
+    }
+
+    private static void markTail(Expression exp) {
+        if (exp instanceof CallExpression) {
+            ((CallExpression) exp).setTailCall(true);
+        } else if (exp instanceof IfExpression) {
+            markBranches((IfExpression) exp, true);
+        }
+    }
+
+    private static void markBranches(IfExpression exp, boolean tail) {
+        markBlock(exp.getConsequence(), tail);
+        markBlock(exp.getAlternative(), tail);
+    }
+
+    private static void markBlock(BlockStatement block, boolean tail) {
+        if (block != null) {
+            markStatements(block.getStatements(), tail);
+        }
+    }
+}
@@ -0,0 +1,348 @@
+package com.interprete.executable;
+
+import com.interprete.ast.*;
+import com.interprete.evaluator.Environment;
+import com.interprete.evaluator.Resolver;
+import com.interprete.nodes.ReturnException;
+import com.interprete.object.*;
+
+import java.util.List;
+
+/**
+ * Compila el AST a un árbol de lambdas {@link Executable} ("closure compilation").
+ *
+ * Todo lo que el Evaluator decide en cada visita (tipo de nodo, operador,
+ * dirección de la variable) se decide una sola vez aquí; en runtime solo
+ * quedan las comprobaciones de tipo de los valores.
+ */
+public class ClosureCompiler {
+    private static final MBoolean TRUE = MBoolean.TRUE;
+    private static final MBoolean FALSE = MBoolean.FALSE;
+    private static final MNull NULL = MNull.getInstance();
+
+    private final Environment globals;
+
+    public ClosureCompiler(Environment globals) {
+        this.globals = globals;
+    }
+
+    /**
+     * Compila un programa. Un return en el nivel superior termina el programa.
+     */
+    public Executable compile(Program program) {
+        new Resolver(globals).resolve(program);
+        Executable body = compileBlock(program.getStatements());
+
+        return env -> {
+            try {
+                return body.execute(env);
+            } catch (ReturnException e) {
+                return e.getValue();
+            }
+        };
+    }
+
+    private Executable compileBlock(List<Statement> statements) {
+        if (statements == null || statements.isEmpty()) {
+            return env -> NULL;
+        }
+        if (statements.size() == 1) {
+            return compileStatement(statements.get(0));
+        }
+
+        Executable[] compiled = new Executable[statements.size()];
+        for (int i = 0; i < compiled.length; i++) {
+            compiled[i] = compileStatement(statements.get(i));
+        }
+        return env -> {
+            MObject result = NULL;
+            for (Executable statement : compiled) {
+                result = statement.execute(env);
+            }
+            return result;
+        };
+    }
+
+    private Executable compileBlock(BlockStatement block) {
+        return compileBlock(block != null ? block.getStatements() : null);
+    }
+
+    private Executable compileStatement(Statement stmt) {
+        if (stmt instanceof LetStatement) {
+            return compileLet((LetStatement) stmt);
+        } else if (stmt instanceof ReturnStatement) {
+            Executable value = compileExpression(((ReturnStatement) stmt).getReturnValue());
+            return env -> {
+                throw new ReturnException(value.execute(env));
+            };
+        } else if (stmt instanceof ExpressionStatement) {
+            return compileExpression(((ExpressionStatement) stmt).getExpression());
+        } else if (stmt instanceof BlockStatement) {
+            return compileBlock((BlockStatement) stmt);
+        } else if (stmt instanceof WhileStatement) {
+            return compileWhile((WhileStatement) stmt);
+        } else if (stmt instanceof ForStatement) {
+            return compileFor((ForStatement) stmt);
+        }
+        return env -> NULL;
+    }
+
+    private Executable compileLet(LetStatement stmt) {
+        Executable value = compileExpression(stmt.getValue());
+        int slot = stmt.getName().getSlot();
+
+        if (stmt.getName().getDepth() == Identifier.GLOBAL) {
+            return env -> {
+                MObject result = value.execute(env);
+                env.setGlobal(slot, result);
+                return result;
+            };
+        }
+        return env -> {
+            MObject result = value.execute(env);
+            env.set(slot, result);
+            return result;
+        };
+    }
+
+    private Executable compileWhile(WhileStatement stmt) {
+        Executable condition = compileExpression(stmt.getCondition());
+        Executable body = compileBlock(stmt.getBody());
+
+        return env -> {
+            MObject result = NULL;
+            while (isTruthy(condition.execute(env))) {
+                result = body.execute(env);
+            }
+            return result;
+        };
+    }
+
+    private Executable compileFor(ForStatement stmt) {
+        Executable initialization = stmt.getInitialization() != null
+            ? compileStatement(stmt.getInitialization())
+            : env -> NULL;
+        Executable condition = stmt.getCondition() != null
+            ? compileExpression(stmt.getCondition())
+            : env -> TRUE;
+        Executable increment = stmt.getIncrement() != null
+            ? compileStatement(stmt.getIncrement())
+            : env -> NULL;
+        Executable body = compileBlock(stmt.getBody());
+
+        return env -> {
+            MObject result = NULL;
+            initialization.execute(env);
+            while (isTruthy(condition.execute(env))) {
+                result = body.execute(env);
+                increment.execute(env);
+            }
+            return result;
+        };
+    }
+
+    private Executable compileExpression(Expression exp) {
+        if (exp instanceof IntegerLiteral) {
+            MInteger value = ((IntegerLiteral) exp).getObject();
+            return env -> value;
+        } else if (exp instanceof BooleanLiteral) {
+            MBoolean value = ((BooleanLiteral) exp).getValue() ? TRUE : FALSE;
+            return env -> value;
+        } else if (exp instanceof Identifier) {
+            return compileIdentifier((Identifier) exp);
+        } else if (exp instanceof PrefixExpression) {
+            PrefixExpression prefix = (PrefixExpression) exp;
+            return compilePrefix(prefix.getOperator(), compileExpression(prefix.getRight()));
+        } else if (exp instanceof InfixExpression) {
+            InfixExpression infix = (InfixExpression) exp;
+            return compileInfix(infix.getOperator(),
+                compileExpression(infix.getLeft()), compileExpression(infix.getRight()));
+        } else if (exp instanceof IfExpression) {
+            return compileIf((IfExpression) exp);
+        } else if (exp instanceof FunctionLiteral) {
+            return compileFunction((FunctionLiteral) exp);
+        } else if (exp instanceof CallExpression) {
+            return compileCall((CallExpression) exp);
+        }
+        return env -> NULL;
+    }
+
+    private Executable compileIdentifier(Identifier identifier) {
+        int depth = identifier.getDepth();
+        int slot = identifier.getSlot();
+        int symbol = identifier.getSymbol();
+
+        if (depth == Identifier.GLOBAL) {
+            return env -> {
+                MObject value = env.getGlobal(slot);
+                return value != null ? value : NULL;
+            };
+        }
+        return env -> {
+            MObject value = env.get(depth, slot, symbol);
+            return value != null ? value : NULL;
+        };
+    }
+
+    private Executable compilePrefix(String operator, Executable operand) {
+        return switch (operator) {
+            case "!" -> env -> {
+                MObject value = operand.execute(env);
+                return value == FALSE || value == NULL ? TRUE : FALSE;
+            };
+            case "-" -> env -> {
+                MObject value = operand.execute(env);
+                return value instanceof MInteger ? MInteger.valueOf(-((MInteger) value).getValue()) : NULL;
+            };
+            default -> env -> {
+                operand.execute(env);
+                return NULL;
+            };
+        };
+    }
+
+    /**
+     * Cada operador queda fijado en su propia lambda. El camino de enteros va
+     * en línea; cualquier otra combinación de tipos cae en {@link #genericInfix}.
+     */
+    private Executable compileInfix(String operator, Executable left, Executable right) {
+        return switch (operator) {
+            case "+" -> env -> {
+                MObject l = left.execute(env);
+                MObject r = right.execute(env);
+                return l instanceof MInteger && r instanceof MInteger
+                    ? MInteger.valueOf(((MInteger) l).getValue() + ((MInteger) r).getValue())
+                    : genericInfix(operator, l, r);
+            };
+            case "-" -> env -> {
+                MObject l = left.execute(env);
+                MObject r = right.execute(env);
+                return l instanceof MInteger && r instanceof MInteger
+                    ? MInteger.valueOf(((MInteger) l).getValue() - ((MInteger) r).getValue())
+                    : genericInfix(operator, l, r);
+            };
+            case "*" -> env -> {
+                MObject l = left.execute(env);
+                MObject r = right.execute(env);
+                return l instanceof MInteger && r instanceof MInteger
+                    ? MInteger.valueOf(((MInteger) l).getValue() * ((MInteger) r).getValue())
+                    : genericInfix(operator, l, r);
+            };
+            case "/" -> env -> {
+                MObject l = left.execute(env);
+                MObject r = right.execute(env);
+                return l instanceof MInteger && r instanceof MInteger
+                    ? MInteger.valueOf(((MInteger) l).getValue() / ((MInteger) r).getValue())
+                    : genericInfix(operator, l, r);
+            };
+            case "<" -> env -> {
+                MObject l = left.execute(env);
+                MObject r = right.execute(env);
+                return l instanceof MInteger && r instanceof MInteger
+                    ? (((MInteger) l).getValue() < ((MInteger) r).getValue() ? TRUE : FALSE)
+                    : genericInfix(operator, l, r);
+            };
+            case ">" -> env -> {
+                MObject l = left.execute(env);
+                MObject r = right.execute(env);
+                return l instanceof MInteger && r instanceof MInteger
+                    ? (((MInteger) l).getValue() > ((MInteger) r).getValue() ? TRUE : FALSE)
+                    : genericInfix(operator, l, r);
+            };
+            case "<=" -> env -> {
+                MObject l = left.execute(env);
+                MObject r = right.execute(env);
+                return l instanceof MInteger && r instanceof MInteger
+                    ? (((MInteger) l).getValue() <= ((MInteger) r).getValue() ? TRUE : FALSE)
+                    : genericInfix(operator, l, r);
+            };
+            case ">=" -> env -> {
+                MObject l = left.execute(env);
+                MObject r = right.execute(env);
+                return l instanceof MInteger && r instanceof MInteger
+                    ? (((MInteger) l).getValue() >= ((MInteger) r).getValue() ? TRUE : FALSE)
+                    : genericInfix(operator, l, r);
+            };
+            case "==", "!=" -> env -> genericInfix(operator, left.execute(env), right.execute(env));
+            default -> env -> {
+                left.execute(env);
+                right.execute(env);
+                return NULL;
+            };
+        };
+    }
+
+    private Executable compileIf(IfExpression exp) {
+        Executable condition = compileExpression(exp.getCondition());
+        Executable consequence = compileBlock(exp.getConsequence());
+
+        if (exp.getAlternative() == null) {
+            return env -> isTruthy(condition.execute(env)) ? consequence.execute(env) : NULL;
+        }
+        Executable alternative = compileBlock(exp.getAlternative());
+        return env -> isTruthy(condition.execute(env)) ? consequence.execute(env) : alternative.execute(env);
+    }
+
+    private Executable compileFunction(FunctionLiteral literal) {
+        int numParameters = literal.getParameters() != null ? literal.getParameters().size() : 0;
+        ExecutableFunction function = new ExecutableFunction(
+            numParameters, literal.getSlotNames(), compileBlock(literal.getBody()));
+        return env -> new MExecutableFunction(function, env);
+    }
+
+    private Executable compileCall(CallExpression call) {
+        Executable callee = compileExpression(call.getFunction());
+        List<Expression> argumentList = call.getArguments() != null ? call.getArguments() : List.of();
+        Executable[] arguments = new Executable[argumentList.size()];
+        for (int i = 0; i < arguments.length; i++) {
+            arguments[i] = compileExpression(argumentList.get(i));
+        }
+
+        return env -> {
+            MObject value = callee.execute(env);
+            if (!(value instanceof MExecutableFunction)) {
+                return NULL;
+            }
+
+            MExecutableFunction fn = (MExecutableFunction) value;
+            ExecutableFunction target = fn.getFunction();
+
+            if (target.getNumParameters() != arguments.length) {
+                for (Executable argument : arguments) {
+                    argument.execute(env);
+                }
+                return NULL;
+            }
+
+            Environment frame = new Environment(fn.getEnv(), target.getSlotNames());
+            for (int i = 0; i < arguments.length; i++) {
+                frame.set(i, arguments[i].execute(env));
+            }
+            return target.invoke(frame);
+        };
+    }
+
+    /**
+     * Semántica completa de los operadores infijos, igual que en el Evaluator.
+     */
+    private static MObject genericInfix(String operator, MObject left, MObject right) {
+        if (left instanceof MInteger && right instanceof MInteger) {
+            long leftVal = ((MInteger) left).getValue();
+            long rightVal = ((MInteger) right).getValue();
+            return switch (operator) {
+                case "==" -> leftVal == rightVal ? TRUE : FALSE;
+                case "!=" -> leftVal != rightVal ? TRUE : FALSE;
+                default -> NULL;
+            };
+        }
+        return switch (operator) {
+            case "==" -> left == right ? TRUE : FALSE;
+            case "!=" -> left != right ? TRUE : FALSE;
+            default -> NULL;
+        };
+    }
+
+    private static boolean isTruthy(MObject obj) {
+        return obj != NULL && obj != FALSE;
+    }
+}
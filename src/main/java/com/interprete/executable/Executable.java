@@ -0,0 +1,13 @@
+package com.interprete.executable;
+
+import com.interprete.evaluator.Environment;
+import com.interprete.object.MObject;
+
+/**
+ * Fragmento de programa ya compilado: operadores, variables y constantes
+ * quedan fijados al construirlo, así que ejecutar es solo invocar la lambda.
+ */
+@FunctionalInterface
+public interface Executable {
+    MObject execute(Environment env);
+}
@@ -0,0 +1,39 @@
+package com.interprete.executable;
+
+import com.interprete.evaluator.Environment;
+import com.interprete.nodes.ReturnException;
+import com.interprete.object.MObject;
+
+/**
+ * Cuerpo compilado de un literal de función, compartido por todas sus closures.
+ */
+public class ExecutableFunction {
+    private final int numParameters;
+    private final String[] slotNames;
+    private final Executable body;
+
+    public ExecutableFunction(int numParameters, String[] slotNames, Executable body) {
+        this.numParameters = numParameters;
+        this.slotNames = slotNames;
+        this.body = body;
+    }
+
+    public int getNumParameters() {
+        return numParameters;
+    }
+
+    public String[] getSlotNames() {
+        return slotNames;
+    }
+
+    /**
+     * Ejecuta el cuerpo en un frame ya cargado con los argumentos.
+     */
+    public MObject invoke(Environment frame) {
+        try {
+            return body.execute(frame);
+        } catch (ReturnException e) {
+            return e.getValue();
+        }
+    }
+}
@@ -0,0 +1,242 @@
+package com.interprete.flat;
+
+import com.interprete.ast.FunctionLiteral;
+
+import java.util.Arrays;
+
+/**
+ * AST plano: cada nodo es un índice en arreglos paralelos de primitivos en
+ * vez de un objeto con referencias a sus hijos.
+ *
+ * Por nodo se guarda el tipo en un byte y hasta tres operandos int, que según
+ * el tipo son índices de hijos, un id de Symbols, un índice en la tabla de
+ * constantes o el comienzo y el largo de una lista. Las listas (statements de
+ * un bloque, argumentos, parámetros) son tramos contiguos de un arreglo de
+ * int aparte. Un hijo que no existe se guarda como NONE.
+ *
+ * Los hijos se agregan antes que el padre, así que un nodo siempre tiene un
+ * índice mayor que los suyos y recorrer los arreglos en orden es recorrer el
+ * árbol en postorden.
+ *
+ * Una función con el cuerpo diferido por --lazy-parse no se codifica entera:
+ * se guarda su FunctionLiteral en una tabla aparte y el cuerpo se parsea y se
+ * codifica en su propio FlatAst la primera vez que se pide.
+ *
+ * <pre>
+ * LET         a = símbolo, b = valor
+ * RETURN      a = valor
+ * EXPRESSION  a = expresión
+ * BLOCK       a = comienzo de los statements, b = cantidad
+ * WHILE       a = condición, b = cuerpo
+ * FOR         a = comienzo de la lista [inicialización, condición, incremento, cuerpo]
+ * INT         a = índice de la constante
+ * TRUE, FALSE sin operandos
+ * IDENT       a = símbolo
+ * NOT, NEG    a = operando
+ * ADD ... GE  a = izquierda, b = derecha
+ * IF          a = condición, b = consecuencia, c = alternativa
+ * FUNCTION    a = comienzo de los símbolos de los parámetros, b = cantidad, c = cuerpo
+ * CALL        a = función, b = comienzo de los argumentos, c = cantidad
+ * TAIL_CALL   igual que CALL, para las llamadas en cola
+ * LAZY_FUNCTION igual que FUNCTION, pero c = índice del cuerpo diferido
+ * </pre>
+ */
+public final class FlatAst {
+    public static final int NONE = -1;
+
+    public static final byte LET = 0;
+    public static final byte RETURN = 1;
+    public static final byte EXPRESSION = 2;
+    public static final byte BLOCK = 3;
+    public static final byte WHILE = 4;
+    public static final byte FOR = 5;
+    public static final byte INT = 6;
+    public static final byte TRUE = 7;
+    public static final byte FALSE = 8;
+    public static final byte IDENT = 9;
+    public static final byte NOT = 10;
+    public static final byte NEG = 11;
+    public static final byte ADD = 12;
+    public static final byte SUB = 13;
+    public static final byte MUL = 14;
+    public static final byte DIV = 15;
+    public static final byte LT = 16;
+    public static final byte GT = 17;
+    public static final byte EQ = 18;
+    public static final byte NE = 19;
+    public static final byte LE = 20;
+    public static final byte GE = 21;
+    public static final byte IF = 22;
+    public static final byte FUNCTION = 23;
+    public static final byte CALL = 24;
+    public static final byte TAIL_CALL = 25;
+    public static final byte LAZY_FUNCTION = 26;
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private byte[] kinds = new byte[INITIAL_CAPACITY];
+    private int[] a = new int[INITIAL_CAPACITY];
+    private int[] b = new int[INITIAL_CAPACITY];
+    private int[] c = new int[INITIAL_CAPACITY];
+    private int size;
+
+    private int[] lists = new int[INITIAL_CAPACITY];
+    private int listSize;
+
+    private long[] constants = new long[16];
+    private int constantCount;
+
+    // Funciones con el cuerpo diferido y sus cuerpos ya codificados
+    private FunctionLiteral[] deferred = new FunctionLiteral[0];
+    private FlatAst[] bodies = new FlatAst[0];
+    private int deferredCount;
+
+    // Statements del nivel superior, en el pool de listas
+    private int rootStart;
+    private int rootCount;
+
+    /**
+     * Agrega un nodo.
+     * @return su índice
+     */
+    int add(byte kind, int first, int second, int third) {
+        if (size == kinds.length) {
+            int capacity = size * 2;
+            kinds = Arrays.copyOf(kinds, capacity);
+            a = Arrays.copyOf(a, capacity);
+            b = Arrays.copyOf(b, capacity);
+            c = Arrays.copyOf(c, capacity);
+        }
+        kinds[size] = kind;
+        a[size] = first;
+        b[size] = second;
+        c[size] = third;
+        return size++;
+    }
+
+    /**
+     * Copia una lista de índices o símbolos al pool.
+     * @return dónde empieza
+     */
+    int addList(int[] values, int count) {
+        if (listSize + count > lists.length) {
+            lists = Arrays.copyOf(lists, Math.max(lists.length * 2, listSize + count));
+        }
+        System.arraycopy(values, 0, lists, listSize, count);
+        int start = listSize;
+        listSize += count;
+        return start;
+    }
+
+    /**
+     * @return el índice de la constante
+     */
+    int addConstant(long value) {
+        if (constantCount == constants.length) {
+            constants = Arrays.copyOf(constants, constantCount * 2);
+        }
+        constants[constantCount] = value;
+        return constantCount++;
+    }
+
+    /**
+     * @return el índice del cuerpo diferido
+     */
+    int addDeferred(FunctionLiteral literal) {
+        if (deferredCount == deferred.length) {
+            int capacity = Math.max(4, deferredCount * 2);
+            deferred = Arrays.copyOf(deferred, capacity);
+            bodies = Arrays.copyOf(bodies, capacity);
+        }
+        deferred[deferredCount] = literal;
+        return deferredCount++;
+    }
+
+    void setRoot(int start, int count) {
+        this.rootStart = start;
+        this.rootCount = count;
+    }
+
+    /**
+     * Recorta los arreglos al tamaño usado, una vez que no se agregan más nodos.
+     */
+    void trim() {
+        kinds = Arrays.copyOf(kinds, size);
+        a = Arrays.copyOf(a, size);
+        b = Arrays.copyOf(b, size);
+        c = Arrays.copyOf(c, size);
+        lists = Arrays.copyOf(lists, listSize);
+        constants = Arrays.copyOf(constants, constantCount);
+        deferred = Arrays.copyOf(deferred, deferredCount);
+        bodies = Arrays.copyOf(bodies, deferredCount);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public byte kind(int node) {
+        return kinds[node];
+    }
+
+    public int first(int node) {
+        return a[node];
+    }
+
+    public int second(int node) {
+        return b[node];
+    }
+
+    public int third(int node) {
+        return c[node];
+    }
+
+    /**
+     * @return el elemento index del pool de listas
+     */
+    public int list(int index) {
+        return lists[index];
+    }
+
+    public long constant(int index) {
+        return constants[index];
+    }
+
+    /**
+     * @return la función de un cuerpo diferido
+     */
+    public FunctionLiteral deferred(int index) {
+        return deferred[index];
+    }
+
+    /**
+     * Parsea y codifica un cuerpo diferido la primera vez que se pide.
+     * @return un FlatAst cuyo único statement es el bloque del cuerpo
+     */
+    public FlatAst body(int index) {
+        if (bodies[index] == null) {
+            bodies[index] = FlatConverter.encodeBody(deferred[index]);
+        }
+        return bodies[index];
+    }
+
+    public int rootStart() {
+        return rootStart;
+    }
+
+    public int rootCount() {
+        return rootCount;
+    }
+
+    /**
+     * @return bytes aproximados que ocupan los arreglos
+     */
+    public long memoryBytes() {
+        return kinds.length + 12L * a.length + 4L * lists.length + 8L * constants.length;
+    }
+
+    @Override
+    public String toString() {
+        return FlatConverter.decode(this).toString();
+    }
+}
@@ -0,0 +1,313 @@
+package com.interprete.flat;
+
+import com.interprete.ast.*;
+import com.interprete.evaluator.TailCallMarker;
+import com.interprete.token.Symbols;
+import com.interprete.token.Token;
+import com.interprete.token.TokenType;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Convierte entre el AST de objetos y el FlatAst.
+ *
+ * Para codificar de a partes (el Parser lo hace statement por statement) se
+ * crea una instancia, se le agregan los statements del nivel superior con
+ * add y se termina con finish. Los cuerpos diferidos quedan sin parsear en la
+ * tabla del FlatAst, y las llamadas en cola de cada función se marcan con el
+ * TailCallMarker cuando se codifica su cuerpo.
+ */
+public final class FlatConverter {
+    private final FlatAst ast = new FlatAst();
+    private int[] roots = new int[16];
+    private int rootCount;
+
+    /**
+     * Codifica un statement del nivel superior.
+     */
+    public void add(Statement stmt) {
+        if (rootCount == roots.length) {
+            roots = Arrays.copyOf(roots, rootCount * 2);
+        }
+        roots[rootCount++] = encode(stmt);
+    }
+
+    /**
+     * @return el AST con los statements agregados
+     */
+    public FlatAst finish() {
+        ast.setRoot(ast.addList(roots, rootCount), rootCount);
+        ast.trim();
+        return ast;
+    }
+
+    public static FlatAst encode(Program program) {
+        FlatConverter converter = new FlatConverter();
+        for (Statement stmt : program.getStatements()) {
+            converter.add(stmt);
+        }
+        return converter.finish();
+    }
+
+    /**
+     * Codifica el cuerpo de una función, con sus llamadas en cola marcadas.
+     */
+    static FlatAst encodeBody(FunctionLiteral literal) {
+        TailCallMarker.mark(literal);
+        FlatConverter converter = new FlatConverter();
+        converter.add(literal.getBody());
+        return converter.finish();
+    }
+
+    /**
+     * @return el índice del nodo, o NONE si node es null
+     */
+    private int encode(ASTNode node) {
+        if (node == null) {
+            return FlatAst.NONE;
+        } else if (node instanceof LetStatement) {
+            LetStatement stmt = (LetStatement) node;
+            int value = encode(stmt.getValue());
+            return ast.add(FlatAst.LET, stmt.getName().getSymbol(), value, 0);
+        } else if (node instanceof ReturnStatement) {
+            return ast.add(FlatAst.RETURN, encode(((ReturnStatement) node).getReturnValue()), 0, 0);
+        } else if (node instanceof ExpressionStatement) {
+            return ast.add(FlatAst.EXPRESSION, encode(((ExpressionStatement) node).getExpression()), 0, 0);
+        } else if (node instanceof BlockStatement) {
+            List<Statement> statements = ((BlockStatement) node).getStatements();
+            return ast.add(FlatAst.BLOCK, encodeList(statements), statements.size(), 0);
+        } else if (node instanceof WhileStatement) {
+            WhileStatement stmt = (WhileStatement) node;
+            int condition = encode(stmt.getCondition());
+            int body = encode(stmt.getBody());
+            return ast.add(FlatAst.WHILE, condition, body, 0);
+        } else if (node instanceof ForStatement) {
+            ForStatement stmt = (ForStatement) node;
+            int[] parts = {
+                encode(stmt.getInitialization()),
+                encode(stmt.getCondition()),
+                encode(stmt.getIncrement()),
+                encode(stmt.getBody())
+            };
+            return ast.add(FlatAst.FOR, ast.addList(parts, parts.length), 0, 0);
+        } else if (node instanceof IntegerLiteral) {
+            return ast.add(FlatAst.INT, ast.addConstant(((IntegerLiteral) node).getValue()), 0, 0);
+        } else if (node instanceof BooleanLiteral) {
+            return ast.add(((BooleanLiteral) node).getValue() ? FlatAst.TRUE : FlatAst.FALSE, 0, 0, 0);
+        } else if (node instanceof Identifier) {
+            return ast.add(FlatAst.IDENT, ((Identifier) node).getSymbol(), 0, 0);
+        } else if (node instanceof PrefixExpression) {
+            PrefixExpression exp = (PrefixExpression) node;
+            return ast.add(prefixKind(exp.getOperator()), encode(exp.getRight()), 0, 0);
+        } else if (node instanceof InfixExpression) {
+            InfixExpression exp = (InfixExpression) node;
+            int left = encode(exp.getLeft());
+            int right = encode(exp.getRight());
+            return ast.add(infixKind(exp.getOperator()), left, right, 0);
+        } else if (node instanceof IfExpression) {
+            IfExpression exp = (IfExpression) node;
+            int condition = encode(exp.getCondition());
+            int consequence = encode(exp.getConsequence());
+            int alternative = encode(exp.getAlternative());
+            return ast.add(FlatAst.IF, condition, consequence, alternative);
+        } else if (node instanceof FunctionLiteral) {
+            FunctionLiteral literal = (FunctionLiteral) node;
+            List<Identifier> parameters = literal.getParameters();
+            int[] symbols = new int[parameters.size()];
+            for (int i = 0; i < symbols.length; i++) {
+                symbols[i] = parameters.get(i).getSymbol();
+            }
+            if (!literal.isParsed()) {
+                int start = ast.addList(symbols, symbols.length);
+                return ast.add(FlatAst.LAZY_FUNCTION, start, symbols.length, ast.addDeferred(literal));
+            }
+            TailCallMarker.mark(literal);
+            int body = encode(literal.getBody());
+            return ast.add(FlatAst.FUNCTION, ast.addList(symbols, symbols.length), symbols.length, body);
+        } else if (node instanceof CallExpression) {
+            CallExpression call = (CallExpression) node;
+            int function = encode(call.getFunction());
+            int arguments = encodeList(call.getArguments());
+            byte kind = call.isTailCall() ? FlatAst.TAIL_CALL : FlatAst.CALL;
+            return ast.add(kind, function, arguments, call.getArguments().size());
+        }
+        throw new IllegalArgumentException("Unknown node: " + node.getClass().getSimpleName());
+    }
+
+    /**
+     * Codifica los nodos y guarda sus índices en el pool de listas.
+     * @return dónde empieza la lista
+     */
+    private int encodeList(List<? extends ASTNode> nodes) {
+        int[] indices = new int[nodes.size()];
+        for (int i = 0; i < indices.length; i++) {
+            indices[i] = encode(nodes.get(i));
+        }
+        return ast.addList(indices, indices.length);
+    }
+
+    private static byte prefixKind(String operator) {
+        return switch (operator) {
+            case "!" -> FlatAst.NOT;
+            case "-" -> FlatAst.NEG;
+            default -> throw new IllegalArgumentException("Unknown prefix operator: " + operator);
+        };
+    }
+
+    private static byte infixKind(String operator) {
+        return switch (operator) {
+            case "+" -> FlatAst.ADD;
+            case "-" -> FlatAst.SUB;
+            case "*" -> FlatAst.MUL;
+            case "/" -> FlatAst.DIV;
+            case "<" -> FlatAst.LT;
+            case ">" -> FlatAst.GT;
+            case "==" -> FlatAst.EQ;
+            case "!=" -> FlatAst.NE;
+            case "<=" -> FlatAst.LE;
+            case ">=" -> FlatAst.GE;
+            default -> throw new IllegalArgumentException("Unknown infix operator: " + operator);
+        };
+    }
+
+    /**
+     * Arma el AST de objetos equivalente, para las herramientas que trabajan
+     * sobre él (Optimizer, Resolver, los compiladores, el volcado del AST).
+     */
+    public static Program decode(FlatAst ast) {
+        List<Statement> statements = new ArrayList<>(ast.rootCount());
+        for (int i = 0; i < ast.rootCount(); i++) {
+            statements.add(decodeStatement(ast, ast.list(ast.rootStart() + i)));
+        }
+        return new Program(statements);
+    }
+
+    private static Statement decodeStatement(FlatAst ast, int node) {
+        if (node == FlatAst.NONE) {
+            return null;
+        }
+        int first = ast.first(node);
+        switch (ast.kind(node)) {
+            case FlatAst.LET -> {
+                Identifier name = identifier(first);
+                return new LetStatement(token(TokenType.LET), name, decodeExpression(ast, ast.second(node)));
+            }
+            case FlatAst.RETURN -> {
+                return new ReturnStatement(token(TokenType.RETURN), decodeExpression(ast, first));
+            }
+            case FlatAst.EXPRESSION -> {
+                Expression expression = decodeExpression(ast, first);
+                return new ExpressionStatement(expression != null ? expression.getToken() : null, expression);
+            }
+            case FlatAst.BLOCK -> {
+                return decodeBlock(ast, node);
+            }
+            case FlatAst.WHILE -> {
+                return new WhileStatement(token(TokenType.WHILE), decodeExpression(ast, first),
+                    decodeBlock(ast, ast.second(node)));
+            }
+            case FlatAst.FOR -> {
+                return new ForStatement(token(TokenType.FOR),
+                    decodeStatement(ast, ast.list(first)),
+                    decodeExpression(ast, ast.list(first + 1)),
+                    decodeStatement(ast, ast.list(first + 2)),
+                    decodeBlock(ast, ast.list(first + 3)));
+            }
+            default -> throw new IllegalArgumentException("Not a statement: " + ast.kind(node));
+        }
+    }
+
+    private static BlockStatement decodeBlock(FlatAst ast, int node) {
+        if (node == FlatAst.NONE) {
+            return null;
+        }
+        int start = ast.first(node);
+        List<Statement> statements = new ArrayList<>(ast.second(node));
+        for (int i = 0; i < ast.second(node); i++) {
+            statements.add(decodeStatement(ast, ast.list(start + i)));
+        }
+        return new BlockStatement(token(TokenType.LBRACE), statements);
+    }
+
+    private static Expression decodeExpression(FlatAst ast, int node) {
+        if (node == FlatAst.NONE) {
+            return null;
+        }
+        int first = ast.first(node);
+        byte kind = ast.kind(node);
+        switch (kind) {
+            case FlatAst.INT -> {
+                long value = ast.constant(first);
+                return new IntegerLiteral(new Token(TokenType.INT, String.valueOf(value)), value);
+            }
+            case FlatAst.TRUE -> {
+                return new BooleanLiteral(token(TokenType.TRUE), true);
+            }
+            case FlatAst.FALSE -> {
+                return new BooleanLiteral(token(TokenType.FALSE), false);
+            }
+            case FlatAst.IDENT -> {
+                return identifier(first);
+            }
+            case FlatAst.NOT, FlatAst.NEG -> {
+                Token operator = token(kind == FlatAst.NOT ? TokenType.NOT : TokenType.MINUS);
+                return new PrefixExpression(operator, operator.literal(), decodeExpression(ast, first));
+            }
+            case FlatAst.IF -> {
+                return new IfExpression(token(TokenType.IF), decodeExpression(ast, first),
+                    decodeBlock(ast, ast.second(node)), decodeBlock(ast, ast.third(node)));
+            }
+            case FlatAst.FUNCTION -> {
+                List<Identifier> parameters = new ArrayList<>(ast.second(node));
+                for (int i = 0; i < ast.second(node); i++) {
+                    parameters.add(identifier(ast.list(first + i)));
+                }
+                return new FunctionLiteral(token(TokenType.FUNCTION), parameters, decodeBlock(ast, ast.third(node)));
+            }
+            case FlatAst.LAZY_FUNCTION -> {
+                return ast.deferred(ast.third(node));
+            }
+            case FlatAst.CALL, FlatAst.TAIL_CALL -> {
+                List<Expression> arguments = new ArrayList<>(ast.third(node));
+                for (int i = 0; i < ast.third(node); i++) {
+                    arguments.add(decodeExpression(ast, ast.list(ast.second(node) + i)));
+                }
+                CallExpression call = new CallExpression(token(TokenType.LPAREN), decodeExpression(ast, first), arguments);
+                call.setTailCall(kind == FlatAst.TAIL_CALL);
+                return call;
+            }
+            default -> {
+                Token operator = token(infixToken(kind));
+                return new InfixExpression(operator, decodeExpression(ast, first), operator.literal(),
+                    decodeExpression(ast, ast.second(node)));
+            }
+        }
+    }
+
+    private static TokenType infixToken(byte kind) {
+        return switch (kind) {
+            case FlatAst.ADD -> TokenType.PLUS;
+            case FlatAst.SUB -> TokenType.MINUS;
+            case FlatAst.MUL -> TokenType.MULTIPLICATION;
+            case FlatAst.DIV -> TokenType.DIVISION;
+            case FlatAst.LT -> TokenType.LT;
+            case FlatAst.GT -> TokenType.GT;
+            case FlatAst.EQ -> TokenType.EQ;
+            case FlatAst.NE -> TokenType.NOE;
+            case FlatAst.LE -> TokenType.LTE;
+            case FlatAst.GE -> TokenType.GTE;
+            default -> throw new IllegalArgumentException("Not an expression: " + kind);
+        };
+    }
+
+    private static Identifier identifier(int symbol) {
+        String name = Symbols.name(symbol);
+        return new Identifier(new Token(TokenType.IDENT, name), name);
+    }
+
+    private static Token token(TokenType type) {
+        return new Token(type, type.getLiteral());
+    }
+}
@@ -0,0 +1,291 @@
+package com.interprete.flat;
+
+import com.interprete.evaluator.Environment;
+import com.interprete.object.*;
+
+/**
+ * Evalúa un FlatAst recorriendo sus arreglos por índice, con la misma
+ * semántica que el Evaluator sobre el AST sin resolver: las variables se
+ * buscan por símbolo en environments encadenados.
+ *
+ * Las funciones que crea son MFlatFunction, que guardan el AST donde están
+ * definidas, así que una función de una línea del REPL se puede llamar desde
+ * otra. El cuerpo de una función diferida se codifica al llamarla por primera vez.
+ */
+public class FlatEvaluator {
+    private static final MBoolean TRUE = MBoolean.TRUE;
+    private static final MBoolean FALSE = MBoolean.FALSE;
+    private static final MNull NULL = MNull.getInstance();
+
+    // Un return activo: se propaga sin envolver el valor hasta la llamada o el programa
+    private boolean returning;
+    private MObject returnValue;
+
+    // Llamada en cola pendiente, que ejecuta el trampolín de applyFunction
+    private MFlatFunction tailFunction;
+    private MObject[] tailArgs;
+
+    /**
+     * Ejecuta los statements del nivel superior.
+     */
+    public MObject eval(FlatAst ast, Environment env) {
+        MObject result = NULL;
+
+        for (int i = 0; i < ast.rootCount(); i++) {
+            result = eval(ast, ast.list(ast.rootStart() + i), env);
+
+            // Un return en el nivel superior termina el programa
+            if (returning) {
+                returning = false;
+                return returnValue;
+            }
+        }
+
+        return result;
+    }
+
+    private MObject eval(FlatAst ast, int node, Environment env) {
+        if (node == FlatAst.NONE) {
+            return NULL;
+        }
+        byte kind = ast.kind(node);
+        switch (kind) {
+            case FlatAst.LET -> {
+                MObject value = eval(ast, ast.second(node), env);
+                env.setVariable(ast.first(node), value);
+                return value;
+            }
+            case FlatAst.RETURN -> {
+                MObject value = eval(ast, ast.first(node), env);
+                returnValue = value;
+                returning = true;
+                return value;
+            }
+            case FlatAst.EXPRESSION -> {
+                return eval(ast, ast.first(node), env);
+            }
+            case FlatAst.BLOCK -> {
+                return evalBlock(ast, node, env);
+            }
+            case FlatAst.WHILE -> {
+                return evalWhile(ast, node, env);
+            }
+            case FlatAst.FOR -> {
+                return evalFor(ast, node, env);
+            }
+            case FlatAst.INT -> {
+                return MInteger.valueOf(ast.constant(ast.first(node)));
+            }
+            case FlatAst.TRUE -> {
+                return TRUE;
+            }
+            case FlatAst.FALSE -> {
+                return FALSE;
+            }
+            case FlatAst.IDENT -> {
+                MObject value = env.getVariable(ast.first(node));
+                return value != null ? value : NULL;
+            }
+            case FlatAst.NOT -> {
+                MObject right = eval(ast, ast.first(node), env);
+                if (right == TRUE) return FALSE;
+                if (right == FALSE) return TRUE;
+                if (right == NULL) return TRUE;
+                return FALSE;
+            }
+            case FlatAst.NEG -> {
+                MObject right = eval(ast, ast.first(node), env);
+                if (!(right instanceof MInteger)) {
+                    return NULL;
+                }
+                return MInteger.valueOf(-((MInteger) right).getValue());
+            }
+            case FlatAst.IF -> {
+                if (isTruthy(eval(ast, ast.first(node), env))) {
+                    return eval(ast, ast.second(node), env);
+                } else if (ast.third(node) != FlatAst.NONE) {
+                    return eval(ast, ast.third(node), env);
+                } else {
+                    return NULL;
+                }
+            }
+            case FlatAst.FUNCTION, FlatAst.LAZY_FUNCTION -> {
+                return new MFlatFunction(ast, node, env);
+            }
+            case FlatAst.CALL, FlatAst.TAIL_CALL -> {
+                return evalCall(ast, node, env);
+            }
+            default -> {
+                MObject left = eval(ast, ast.first(node), env);
+                MObject right = eval(ast, ast.second(node), env);
+                return evalInfix(kind, left, right);
+            }
+        }
+    }
+
+    private MObject evalBlock(FlatAst ast, int node, Environment env) {
+        MObject result = NULL;
+        int start = ast.first(node);
+        int end = start + ast.second(node);
+
+        for (int i = start; i < end; i++) {
+            result = eval(ast, ast.list(i), env);
+
+            // Si encontramos un return, propagarlo inmediatamente
+            if (returning) {
+                return result;
+            }
+        }
+
+        return result;
+    }
+
+    private MObject evalWhile(FlatAst ast, int node, Environment env) {
+        MObject result = NULL;
+        int condition = ast.first(node);
+        int body = ast.second(node);
+
+        while (isTruthy(eval(ast, condition, env))) {
+            result = eval(ast, body, env);
+            if (returning) {
+                return result;
+            }
+        }
+
+        return result;
+    }
+
+    private MObject evalFor(FlatAst ast, int node, Environment env) {
+        MObject result = NULL;
+        int parts = ast.first(node);
+        int initialization = ast.list(parts);
+        int condition = ast.list(parts + 1);
+        int increment = ast.list(parts + 2);
+        int body = ast.list(parts + 3);
+
+        if (initialization != FlatAst.NONE) {
+            eval(ast, initialization, env);
+        }
+
+        while (condition == FlatAst.NONE || isTruthy(eval(ast, condition, env))) {
+            result = eval(ast, body, env);
+            if (returning) {
+                return result;
+            }
+            if (increment != FlatAst.NONE) {
+                eval(ast, increment, env);
+            }
+        }
+
+        return result;
+    }
+
+    private static MObject evalInfix(byte kind, MObject left, MObject right) {
+        if (left instanceof MInteger && right instanceof MInteger) {
+            long leftVal = ((MInteger) left).getValue();
+            long rightVal = ((MInteger) right).getValue();
+
+            return switch (kind) {
+                case FlatAst.ADD -> MInteger.valueOf(leftVal + rightVal);
+                case FlatAst.SUB -> MInteger.valueOf(leftVal - rightVal);
+                case FlatAst.MUL -> MInteger.valueOf(leftVal * rightVal);
+                case FlatAst.DIV -> MInteger.valueOf(leftVal / rightVal);
+                case FlatAst.LT -> nativeBoolToBooleanObject(leftVal < rightVal);
+                case FlatAst.GT -> nativeBoolToBooleanObject(leftVal > rightVal);
+                case FlatAst.EQ -> nativeBoolToBooleanObject(leftVal == rightVal);
+                case FlatAst.NE -> nativeBoolToBooleanObject(leftVal != rightVal);
+                case FlatAst.LE -> nativeBoolToBooleanObject(leftVal <= rightVal);
+                case FlatAst.GE -> nativeBoolToBooleanObject(leftVal >= rightVal);
+                default -> NULL;
+            };
+        } else if (kind == FlatAst.EQ) {
+            return nativeBoolToBooleanObject(left == right);
+        } else if (kind == FlatAst.NE) {
+            return nativeBoolToBooleanObject(left != right);
+        } else {
+            return NULL;
+        }
+    }
+
+    private MObject evalCall(FlatAst ast, int node, Environment env) {
+        MObject function = eval(ast, ast.first(node), env);
+
+        if (!(function instanceof MFlatFunction)) {
+            return NULL;
+        }
+
+        MFlatFunction fn = (MFlatFunction) function;
+        int start = ast.second(node);
+        MObject[] args = new MObject[ast.third(node)];
+        for (int i = 0; i < args.length; i++) {
+            args[i] = eval(ast, ast.list(start + i), env);
+        }
+        if (args.length != fn.getAst().second(fn.getNode()) || returning) {
+            return NULL;
+        }
+
+        // Una llamada en cola no se hace aquí: la repite el trampolín de la función actual
+        if (ast.kind(node) == FlatAst.TAIL_CALL) {
+            tailFunction = fn;
+            tailArgs = args;
+            return NULL;
+        }
+
+        return applyFunction(fn, args);
+    }
+
+    /**
+     * Ejecuta el cuerpo de una función como trampolín, igual que el Evaluator:
+     * cada llamada en cola se ejecuta en este mismo ciclo sin crecer la pila.
+     */
+    private MObject applyFunction(MFlatFunction fn, MObject[] args) {
+        while (true) {
+            FlatAst ast = fn.getAst();
+            int literal = fn.getNode();
+            Environment frame = new Environment(fn.getEnv());
+            int parameters = ast.first(literal);
+            for (int i = 0; i < args.length; i++) {
+                frame.setVariable(ast.list(parameters + i), args[i]);
+            }
+
+            MObject result;
+            if (ast.kind(literal) == FlatAst.LAZY_FUNCTION) {
+                FlatAst body = ast.body(ast.third(literal));
+                result = eval(body, body.list(body.rootStart()), frame);
+            } else {
+                result = eval(ast, ast.third(literal), frame);
+            }
+
+            if (tailFunction != null) {
+                fn = tailFunction;
+                args = tailArgs;
+                tailFunction = null;
+                tailArgs = null;
+                returning = false;
+                continue;
+            }
+
+            // El return termina en la llamada
+            if (returning) {
+                returning = false;
+                return returnValue;
+            }
+
+            return result;
+        }
+    }
+
+    /**
+     * Convierte un objeto a verdadero/falso.
+     */
+    private static boolean isTruthy(MObject obj) {
+        if (obj == NULL) return false;
+        if (obj == TRUE) return true;
+        if (obj == FALSE) return false;
+        return true;
+    }
+
+    private static MBoolean nativeBoolToBooleanObject(boolean input) {
+        return input ? TRUE : FALSE;
+    }
+}
@@ -0,0 +1,75 @@
+package com.interprete.ir;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bloque básico: phis, instrucciones en orden y una salida (salto, bifurcación o return).
+ */
+final class Block {
+    enum Exit { NONE, JUMP, BRANCH, RETURN }
+
+    int index;
+    final List<Instr> phis = new ArrayList<>();
+    final List<Instr> instrs = new ArrayList<>();
+    final List<Block> preds = new ArrayList<>();
+
+    Exit exit = Exit.NONE;
+    // Condición de BRANCH o valor de RETURN
+    Instr value;
+    Block target;
+    Block ifFalse;
+
+    // Construcción de SSA
+    final Map<Object, Instr> defs = new HashMap<>();
+    final Map<Object, Instr> incompletePhis = new HashMap<>();
+    boolean sealed;
+
+    // Después de finish(): los mismos datos en arreglos para el intérprete
+    Instr[] phiArray;
+    Instr[] code;
+    int targetPred;
+    int ifFalsePred;
+
+    // Dominadores
+    Block idom;
+    final List<Block> dominated = new ArrayList<>();
+    int order;
+
+    Block(int index) {
+        this.index = index;
+    }
+
+    List<Block> successors() {
+        return switch (exit) {
+            case JUMP -> List.of(target);
+            case BRANCH -> List.of(target, ifFalse);
+            default -> List.of();
+        };
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("b").append(index).append(':');
+        for (Block pred : preds) {
+            sb.append(" <- b").append(pred.index);
+        }
+        sb.append('\n');
+        for (Instr phi : phis) {
+            sb.append("  ").append(phi).append('\n');
+        }
+        for (Instr instr : instrs) {
+            sb.append("  ").append(instr).append('\n');
+        }
+        switch (exit) {
+            case JUMP -> sb.append("  jump b").append(target.index);
+            case BRANCH -> sb.append("  branch v").append(value.id)
+                .append(" b").append(target.index).append(" b").append(ifFalse.index);
+            case RETURN -> sb.append("  return v").append(value.id);
+            default -> sb.append("  <sin salida>");
+        }
+        return sb.append('\n').toString();
+    }
+}
@@ -0,0 +1,120 @@
+package com.interprete.ir;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Árbol de dominadores, con el algoritmo iterativo de Cooper, Harvey y Kennedy.
+ */
+final class Dominators {
+    private Dominators() {
+    }
+
+    /**
+     * Completa idom, dominated y order de cada bloque. order es la posición
+     * en postorden inverso, en el que cada bloque aparece antes que los que domina.
+     */
+    static void compute(IrFunction function) {
+        List<Block> order = reversePostorder(function.entry());
+        for (int i = 0; i < order.size(); i++) {
+            Block block = order.get(i);
+            block.order = i;
+            block.idom = null;
+            block.dominated.clear();
+        }
+
+        Block entry = function.entry();
+        entry.idom = entry;
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (Block block : order) {
+                if (block == entry) {
+                    continue;
+                }
+                Block idom = null;
+                for (Block pred : block.preds) {
+                    if (pred.idom != null) {
+                        idom = idom == null ? pred : intersect(pred, idom);
+                    }
+                }
+                if (idom != block.idom) {
+                    block.idom = idom;
+                    changed = true;
+                }
+            }
+        }
+
+        for (Block block : order) {
+            if (block != entry) {
+                block.idom.dominated.add(block);
+            }
+        }
+    }
+
+    /**
+     * @return true si a domina a b
+     */
+    static boolean dominates(Block a, Block b) {
+        // Un dominador aparece antes en el postorden inverso
+        if (a.order > b.order) {
+            return false;
+        }
+        Block block = b;
+        while (block != a) {
+            if (block.idom == block) {
+                return false;
+            }
+            block = block.idom;
+        }
+        return true;
+    }
+
+    private static Block intersect(Block a, Block b) {
+        while (a != b) {
+            while (a.order > b.order) {
+                a = a.idom;
+            }
+            while (b.order > a.order) {
+                b = b.idom;
+            }
+        }
+        return a;
+    }
+
+    private static List<Block> reversePostorder(Block entry) {
+        List<Block> postorder = new ArrayList<>();
+        Set<Block> visited = new HashSet<>();
+        // Recorrido en profundidad sin recursión: cada entrada es un bloque y su próximo sucesor
+        List<Block> stack = new ArrayList<>();
+        List<Integer> next = new ArrayList<>();
+        stack.add(entry);
+        next.add(0);
+        visited.add(entry);
+        while (!stack.isEmpty()) {
+            int top = stack.size() - 1;
+            Block block = stack.get(top);
+            List<Block> successors = block.successors();
+            int i = next.get(top);
+            if (i < successors.size()) {
+                next.set(top, i + 1);
+                Block successor = successors.get(i);
+                if (visited.add(successor)) {
+                    stack.add(successor);
+                    next.add(0);
+                }
+            } else {
+                stack.remove(top);
+                next.remove(top);
+                postorder.add(block);
+            }
+        }
+        List<Block> order = new ArrayList<>(postorder.size());
+        for (int i = postorder.size() - 1; i >= 0; i--) {
+            order.add(postorder.get(i));
+        }
+        return order;
+    }
+}
@@ -0,0 +1,85 @@
+package com.interprete.ir;
+
+import com.interprete.object.MInteger;
+import com.interprete.object.MObject;
+
+/**
+ * Instrucción del IR. Cada instrucción define un único valor (SSA): los
+ * argumentos son directamente las instrucciones que los producen.
+ */
+final class Instr {
+    Op op;
+    Instr[] args;
+    MObject constant;
+    String operator;
+    String name;
+    // Id de name en Symbols, para las lecturas por nombre
+    int symbol;
+    int depth;
+    int slot;
+    IrFunction function;
+
+    Block block;
+    // Número de creación, para ordenar argumentos; después de finish() es el registro
+    int id;
+    // Instrucción equivalente que la reemplaza (copia o subexpresión común)
+    Instr replacement;
+
+    Instr(Op op, Instr... args) {
+        this.op = op;
+        this.args = args;
+    }
+
+    /**
+     * @return la instrucción que finalmente representa este valor
+     */
+    Instr resolve() {
+        Instr instr = this;
+        while (instr.replacement != null) {
+            instr = instr.replacement;
+        }
+        return instr;
+    }
+
+    /**
+     * Reemplaza los argumentos por sus representantes.
+     */
+    void resolveArgs() {
+        for (int i = 0; i < args.length; i++) {
+            args[i] = args[i].resolve();
+        }
+    }
+
+    void becomeConstant(MObject value) {
+        op = Op.CONST;
+        constant = value;
+        args = new Instr[0];
+        operator = null;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("v").append(id).append(" = ").append(op.name().toLowerCase());
+        switch (op) {
+            case CONST -> sb.append(' ').append(constant.inspect());
+            case PARAM, LOAD_GLOBAL, STORE, STORE_GLOBAL -> sb.append(' ').append(slot);
+            case LOAD_OUTER -> sb.append(' ').append(name).append('@').append(depth);
+            case LOAD_INITIAL -> sb.append(' ').append(name);
+            case INFIX -> sb.append(' ').append(operator);
+            case FUNCTION, IS_CODE -> sb.append(' ').append(function.name);
+            default -> {
+            }
+        }
+        for (Instr arg : args) {
+            sb.append(" v").append(arg.id);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * @return el valor entero si es una constante entera, o null
+     */
+    Long intConstant() {
+        return op == Op.CONST && constant instanceof MInteger ? ((MInteger) constant).getValue() : null;
+    }
+}
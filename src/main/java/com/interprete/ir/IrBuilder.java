@@ -0,0 +1,775 @@
+package com.interprete.ir;
+
+import com.interprete.ast.*;
+import com.interprete.evaluator.Environment;
+import com.interprete.object.MBoolean;
+import com.interprete.object.MInteger;
+import com.interprete.object.MIrFunction;
+import com.interprete.object.MNull;
+import com.interprete.object.MObject;
+import com.interprete.token.Symbols;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Construye el IR en forma SSA a partir de un programa ya procesado por el Resolver,
+ * y lo optimiza con {@link ValueNumbering} y {@link LoopOptimizer}.
+ *
+ * Las variables del scope (globales en el programa, locales en una función) pasan a
+ * ser valores SSA, con phis en los puntos de unión (algoritmo de Braun et al.). Es
+ * válido porque solo el código del propio scope asigna sus variables: una closure
+ * asigna siempre en su frame, y mientras una función corre ningún let de otro scope
+ * puede cambiar lo que ella lee. Un let x = y no genera nada: x pasa a ser el mismo
+ * valor que y (propagación de copias).
+ *
+ * Los let se siguen guardando en el environment cuando alguien más puede leerlos:
+ * las globales siempre, las locales si la función crea closures.
+ *
+ * Las llamadas a una global que en este momento es una función chica se
+ * reemplazan por una copia de su IR, protegida por una comparación con esa
+ * función: si la global cambió, se hace la llamada normal.
+ */
+public class IrBuilder {
+    private static final MNull NULL = MNull.getInstance();
+
+    // Instrucciones que puede tener una función para copiarla en la llamada
+    private static final int INLINE_BUDGET = 30;
+    // Instrucciones copiadas como máximo dentro de una misma función
+    private static final int MAX_INLINED = 300;
+
+    private final Environment globals;
+    private int functionCount;
+
+    /**
+     * @param globals environment global, para ver qué funciones se pueden copiar en las llamadas
+     */
+    public IrBuilder(Environment globals) {
+        this.globals = globals;
+    }
+
+    /**
+     * @param program programa resuelto por el Resolver
+     */
+    public IrFunction build(Program program) {
+        IrFunction function = new IrFunction("program", 0, null, true);
+        new FunctionBuilder(function, true).buildBody(program.getStatements());
+        return function;
+    }
+
+    private IrFunction build(FunctionLiteral literal) {
+        int numParameters = literal.getParameters() != null ? literal.getParameters().size() : 0;
+        IrFunction function = new IrFunction("f" + ++functionCount, numParameters,
+            literal.getSlotNames(), literal.createsClosures());
+        BlockStatement body = literal.getBody();
+        new FunctionBuilder(function, false).buildBody(body != null ? body.getStatements() : null);
+        return function;
+    }
+
+    /**
+     * Construcción de una función. Las variables se identifican por su slot.
+     */
+    private class FunctionBuilder {
+        private final IrFunction function;
+        private final boolean program;
+        private final Map<Object, Instr> constants = new HashMap<>();
+        private final Map<Integer, String> globalNames = new HashMap<>();
+        private Block current;
+        private int inlined;
+
+        FunctionBuilder(IrFunction function, boolean program) {
+            this.function = function;
+            this.program = program;
+        }
+
+        void buildBody(List<Statement> statements) {
+            current = newBlock();
+            seal(current);
+
+            for (int i = 0; i < function.numParameters; i++) {
+                Instr param = new Instr(Op.PARAM);
+                param.slot = i;
+                emit(param);
+                writeVariable(i, current, param);
+            }
+
+            Instr value = buildStatements(statements);
+            if (isLive(current)) {
+                current.exit = Block.Exit.RETURN;
+                current.value = value;
+            }
+
+            removeDeadBlocks();
+            ValueNumbering.run(function);
+            if (LoopOptimizer.run(function)) {
+                ValueNumbering.run(function);
+            }
+            function.finish();
+        }
+
+        private Instr buildStatements(List<Statement> statements) {
+            Instr value = constant(NULL);
+            if (statements != null) {
+                for (Statement stmt : statements) {
+                    value = buildStatement(stmt);
+                }
+            }
+            return value;
+        }
+
+        private Instr buildBlock(BlockStatement block) {
+            return buildStatements(block != null ? block.getStatements() : null);
+        }
+
+        private Instr buildStatement(Statement stmt) {
+            if (stmt instanceof LetStatement) {
+                LetStatement let = (LetStatement) stmt;
+                Instr value = buildExpression(let.getValue());
+                int slot = let.getName().getSlot();
+                writeVariable(slot, current, value);
+                if (program) {
+                    globalNames.put(slot, let.getName().getValue());
+                    Instr store = new Instr(Op.STORE_GLOBAL, value);
+                    store.slot = slot;
+                    emit(store);
+                } else if (function.createsFrame) {
+                    Instr store = new Instr(Op.STORE, value);
+                    store.slot = slot;
+                    emit(store);
+                }
+                return value;
+            } else if (stmt instanceof ReturnStatement) {
+                Instr value = buildExpression(((ReturnStatement) stmt).getReturnValue());
+                if (isLive(current)) {
+                    current.exit = Block.Exit.RETURN;
+                    current.value = value;
+                }
+                // Lo que sigue no se ejecuta: se construye en un bloque sin predecesores
+                current = newBlock();
+                seal(current);
+                return value;
+            } else if (stmt instanceof ExpressionStatement) {
+                return buildExpression(((ExpressionStatement) stmt).getExpression());
+            } else if (stmt instanceof BlockStatement) {
+                return buildBlock((BlockStatement) stmt);
+            } else if (stmt instanceof WhileStatement) {
+                WhileStatement loop = (WhileStatement) stmt;
+                return buildLoop(loop.getCondition(), null, loop.getBody());
+            } else if (stmt instanceof ForStatement) {
+                ForStatement loop = (ForStatement) stmt;
+                if (loop.getInitialization() != null) {
+                    buildStatement(loop.getInitialization());
+                }
+                return buildLoop(loop.getCondition(), loop.getIncrement(), loop.getBody());
+            }
+            return constant(NULL);
+        }
+
+        /**
+         * El valor de un bucle es el de la última iteración del cuerpo, o null.
+         */
+        private Instr buildLoop(Expression condition, Statement increment, BlockStatement body) {
+            Object result = new Object();
+            writeVariable(result, current, constant(NULL));
+
+            Block header = newBlock();
+            jump(current, header);
+            current = header;
+
+            Instr test = condition != null ? buildExpression(condition) : constant(MBoolean.TRUE);
+            Block bodyBlock = newBlock();
+            Block exit = newBlock();
+            branch(current, test, bodyBlock, exit);
+            seal(bodyBlock);
+            seal(exit);
+
+            current = bodyBlock;
+            writeVariable(result, current, buildBlock(body));
+            if (increment != null) {
+                buildStatement(increment);
+            }
+            jump(current, header);
+            seal(header);
+
+            current = exit;
+            return readVariable(result, exit);
+        }
+
+        private Instr buildExpression(Expression exp) {
+            if (exp instanceof IntegerLiteral) {
+                return constant(((IntegerLiteral) exp).getObject());
+            } else if (exp instanceof BooleanLiteral) {
+                return constant(((BooleanLiteral) exp).getValue() ? MBoolean.TRUE : MBoolean.FALSE);
+            } else if (exp instanceof Identifier) {
+                return buildIdentifier((Identifier) exp);
+            } else if (exp instanceof PrefixExpression) {
+                PrefixExpression prefix = (PrefixExpression) exp;
+                Instr right = buildExpression(prefix.getRight());
+                return switch (prefix.getOperator()) {
+                    case "!" -> emit(new Instr(Op.NOT, right));
+                    case "-" -> emit(new Instr(Op.NEG, right));
+                    default -> constant(NULL);
+                };
+            } else if (exp instanceof InfixExpression) {
+                InfixExpression infix = (InfixExpression) exp;
+                Instr left = buildExpression(infix.getLeft());
+                Instr right = buildExpression(infix.getRight());
+                Instr instr = new Instr(Op.INFIX, left, right);
+                instr.operator = infix.getOperator();
+                return emit(instr);
+            } else if (exp instanceof IfExpression) {
+                return buildIf((IfExpression) exp);
+            } else if (exp instanceof FunctionLiteral) {
+                IrFunction nested = build((FunctionLiteral) exp);
+                function.nested.add(nested);
+                Instr instr = new Instr(Op.FUNCTION);
+                instr.function = nested;
+                return emit(instr);
+            } else if (exp instanceof CallExpression) {
+                return buildCall((CallExpression) exp);
+            }
+            return constant(NULL);
+        }
+
+        private Instr buildIdentifier(Identifier identifier) {
+            int depth = identifier.getDepth();
+            int slot = identifier.getSlot();
+
+            if (depth == Identifier.GLOBAL && program) {
+                globalNames.put(slot, identifier.getValue());
+                return readVariable(slot, current);
+            } else if (depth == Identifier.GLOBAL) {
+                Instr load = new Instr(Op.LOAD_GLOBAL);
+                load.slot = slot;
+                return emit(load);
+            } else if (depth == 0) {
+                return readVariable(slot, current);
+            }
+            Instr load = new Instr(Op.LOAD_OUTER);
+            load.depth = depth;
+            load.slot = slot;
+            load.name = identifier.getValue();
+            load.symbol = identifier.getSymbol();
+            return emit(load);
+        }
+
+        private Instr buildIf(IfExpression exp) {
+            Instr condition = buildExpression(exp.getCondition());
+            Block consequence = newBlock();
+            Block alternative = newBlock();
+            Block merge = newBlock();
+            branch(current, condition, consequence, alternative);
+            seal(consequence);
+            seal(alternative);
+
+            Object result = new Object();
+            current = consequence;
+            writeVariable(result, current, buildBlock(exp.getConsequence()));
+            jump(current, merge);
+
+            current = alternative;
+            writeVariable(result, current, exp.getAlternative() != null
+                ? buildBlock(exp.getAlternative())
+                : constant(NULL));
+            jump(current, merge);
+            seal(merge);
+
+            current = merge;
+            return readVariable(result, merge);
+        }
+
+        private Instr buildCall(CallExpression call) {
+            Instr callee = buildExpression(call.getFunction());
+            List<Expression> arguments = call.getArguments() != null ? call.getArguments() : List.of();
+
+            IrFunction target = inlineTarget(call.getFunction(), arguments.size());
+            if (target == null) {
+                return buildCall(callee, arguments);
+            }
+            inlined += target.size();
+
+            Instr test = new Instr(Op.IS_CODE, callee);
+            test.function = target;
+            emit(test);
+            Block inline = newBlock();
+            Block regular = newBlock();
+            Block merge = newBlock();
+            branch(current, test, inline, regular);
+            seal(inline);
+            seal(regular);
+
+            Object result = new Object();
+            current = inline;
+            Instr[] args = new Instr[arguments.size()];
+            for (int i = 0; i < args.length; i++) {
+                args[i] = buildExpression(arguments.get(i));
+            }
+            inline(target, args, result, merge);
+
+            current = regular;
+            writeVariable(result, current, buildCall(callee, arguments));
+            jump(current, merge);
+            seal(merge);
+
+            current = merge;
+            return readVariable(result, merge);
+        }
+
+        /**
+         * Llamar a algo que no es una función da null sin evaluar los argumentos.
+         * Si evaluarlos puede tener efectos, van en un bloque aparte que solo se
+         * ejecuta cuando el valor llamado es una función.
+         */
+        private Instr buildCall(Instr callee, List<Expression> arguments) {
+            boolean guarded = false;
+            for (Expression argument : arguments) {
+                guarded |= !isSafe(argument);
+            }
+            if (!guarded) {
+                return emitCall(callee, arguments);
+            }
+
+            Instr test = emit(new Instr(Op.IS_FUNCTION, callee));
+            Block callBlock = newBlock();
+            Block skip = newBlock();
+            Block merge = newBlock();
+            branch(current, test, callBlock, skip);
+            seal(callBlock);
+            seal(skip);
+
+            Object result = new Object();
+            current = callBlock;
+            writeVariable(result, current, emitCall(callee, arguments));
+            jump(current, merge);
+
+            current = skip;
+            writeVariable(result, current, constant(NULL));
+            jump(current, merge);
+            seal(merge);
+
+            current = merge;
+            return readVariable(result, merge);
+        }
+
+        /**
+         * @return la función que se puede copiar en esta llamada, o null
+         */
+        private IrFunction inlineTarget(Expression function, int numArguments) {
+            if (globals == null || !isLive(current) || !(function instanceof Identifier)) {
+                return null;
+            }
+            Identifier name = (Identifier) function;
+            if (name.getDepth() != Identifier.GLOBAL) {
+                return null;
+            }
+            MObject value = globals.getGlobal(name.getSlot());
+            if (!(value instanceof MIrFunction)) {
+                return null;
+            }
+            IrFunction target = ((MIrFunction) value).getFunction();
+            if (target.numParameters != numArguments || inlined + target.size() > MAX_INLINED
+                    || !isInlinable(target, name.getSlot())) {
+                return null;
+            }
+            return target;
+        }
+
+        /**
+         * Se copian funciones chicas que no dependen de su environment (salvo las
+         * globales), no crean closures y no se llaman a sí mismas por su nombre.
+         */
+        private boolean isInlinable(IrFunction target, int slot) {
+            if (target.createsFrame || target.size() > INLINE_BUDGET) {
+                return false;
+            }
+            for (Block block : target.blocks) {
+                for (Instr instr : block.instrs) {
+                    switch (instr.op) {
+                        case LOAD_OUTER, LOAD_INITIAL, STORE, STORE_GLOBAL, FUNCTION -> {
+                            return false;
+                        }
+                        case LOAD_GLOBAL -> {
+                            if (instr.slot == slot) {
+                                return false;
+                            }
+                        }
+                        default -> {
+                        }
+                    }
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Copia los bloques de target a continuación del bloque actual. Los
+         * parámetros pasan a ser los argumentos y cada return salta a merge.
+         */
+        private void inline(IrFunction target, Instr[] args, Object result, Block merge) {
+            Map<Block, Block> blocks = new HashMap<>();
+            Map<Instr, Instr> values = new HashMap<>();
+            for (Block block : target.blocks) {
+                Block copy = newBlock();
+                copy.sealed = true;
+                blocks.put(block, copy);
+
+                for (Instr phi : block.phis) {
+                    Instr phiCopy = newPhi(copy);
+                    phiCopy.args = new Instr[phi.args.length];
+                    values.put(phi, phiCopy);
+                }
+                for (Instr instr : block.instrs) {
+                    if (instr.op == Op.PARAM) {
+                        values.put(instr, args[instr.slot]);
+                    } else if (instr.op == Op.CONST) {
+                        values.put(instr, constant(instr.constant));
+                    } else {
+                        values.put(instr, copyInstr(instr, copy));
+                    }
+                }
+            }
+
+            for (Block block : target.blocks) {
+                Block copy = blocks.get(block);
+                for (Instr phi : block.phis) {
+                    copyArgs(phi, values);
+                }
+                for (Instr instr : block.instrs) {
+                    copyArgs(instr, values);
+                }
+                for (Block pred : block.preds) {
+                    copy.preds.add(blocks.get(pred));
+                }
+
+                if (block.exit == Block.Exit.RETURN) {
+                    writeVariable(result, copy, values.get(block.value));
+                    copy.exit = Block.Exit.JUMP;
+                    copy.target = merge;
+                    merge.preds.add(copy);
+                } else {
+                    copy.exit = block.exit;
+                    copy.value = block.value != null ? values.get(block.value) : null;
+                    copy.target = blocks.get(block.target);
+                    copy.ifFalse = blocks.get(block.ifFalse);
+                }
+            }
+
+            jump(current, blocks.get(target.entry()));
+        }
+
+        private Instr copyInstr(Instr instr, Block block) {
+            Instr copy = new Instr(instr.op, new Instr[instr.args.length]);
+            copy.constant = instr.constant;
+            copy.operator = instr.operator;
+            copy.name = instr.name;
+            copy.symbol = instr.symbol;
+            copy.depth = instr.depth;
+            copy.slot = instr.slot;
+            copy.function = instr.function;
+            copy.id = function.newId();
+            copy.block = block;
+            block.instrs.add(copy);
+            return copy;
+        }
+
+        private void copyArgs(Instr original, Map<Instr, Instr> values) {
+            if (original.op == Op.PARAM || original.op == Op.CONST) {
+                return;
+            }
+            Instr copy = values.get(original);
+            for (int i = 0; i < original.args.length; i++) {
+                copy.args[i] = values.get(original.args[i]);
+            }
+        }
+
+        private Instr emitCall(Instr callee, List<Expression> arguments) {
+            Instr[] args = new Instr[arguments.size() + 1];
+            args[0] = callee;
+            for (int i = 0; i < arguments.size(); i++) {
+                args[i + 1] = buildExpression(arguments.get(i));
+            }
+            return emit(new Instr(Op.CALL, args));
+        }
+
+        /**
+         * @return true si evaluar la expresión no tiene efectos ni puede fallar
+         */
+        private boolean isSafe(Expression exp) {
+            if (exp instanceof IntegerLiteral || exp instanceof BooleanLiteral
+                    || exp instanceof Identifier || exp instanceof FunctionLiteral) {
+                return true;
+            } else if (exp instanceof PrefixExpression) {
+                return isSafe(((PrefixExpression) exp).getRight());
+            } else if (exp instanceof InfixExpression) {
+                InfixExpression infix = (InfixExpression) exp;
+                return !infix.getOperator().equals("/") && isSafe(infix.getLeft()) && isSafe(infix.getRight());
+            }
+            return false;
+        }
+
+        private Block newBlock() {
+            Block block = new Block(function.blocks.size());
+            function.blocks.add(block);
+            return block;
+        }
+
+        /**
+         * Un bloque sin predecesores (salvo la entrada) nunca se ejecuta: lo que
+         * se construye en él, como el código después de un return, no se conecta.
+         */
+        private boolean isLive(Block block) {
+            return block == function.entry() || !block.preds.isEmpty();
+        }
+
+        private void jump(Block from, Block to) {
+            if (isLive(from)) {
+                from.exit = Block.Exit.JUMP;
+                from.target = to;
+                to.preds.add(from);
+            }
+        }
+
+        private void branch(Block from, Instr condition, Block ifTrue, Block ifFalse) {
+            if (isLive(from)) {
+                from.exit = Block.Exit.BRANCH;
+                from.value = condition;
+                from.target = ifTrue;
+                from.ifFalse = ifFalse;
+                ifTrue.preds.add(from);
+                ifFalse.preds.add(from);
+            }
+        }
+
+        private Instr emit(Instr instr) {
+            instr.id = function.newId();
+            instr.block = current;
+            current.instrs.add(instr);
+            return instr;
+        }
+
+        /**
+         * Las constantes y las lecturas iniciales van al principio de la entrada,
+         * que domina a todo el resto.
+         */
+        private Instr emitAtEntry(Instr instr) {
+            instr.id = function.newId();
+            instr.block = function.entry();
+            function.entry().instrs.add(0, instr);
+            return instr;
+        }
+
+        private Instr constant(MObject value) {
+            Object key = value instanceof MInteger ? ((MInteger) value).getValue() : value;
+            Instr instr = constants.get(key);
+            if (instr == null) {
+                instr = new Instr(Op.CONST);
+                instr.constant = value;
+                emitAtEntry(instr);
+                constants.put(key, instr);
+            }
+            return instr;
+        }
+
+        private void writeVariable(Object variable, Block block, Instr value) {
+            block.defs.put(variable, value);
+        }
+
+        private Instr readVariable(Object variable, Block block) {
+            Instr value = block.defs.get(variable);
+            if (value != null) {
+                return value.resolve();
+            }
+            return readVariableRecursive(variable, block);
+        }
+
+        /**
+         * Busca en los predecesores el valor de una variable que el bloque no
+         * define. Una cadena larga de if encadena tantos bloques como el código,
+         * así que en vez de recursión usa una pila de búsquedas pendientes.
+         */
+        private Instr readVariableRecursive(Object variable, Block block) {
+            List<Lookup> stack = new ArrayList<>();
+            Instr value = open(variable, new Lookup(block), stack);
+            while (!stack.isEmpty()) {
+                Lookup lookup = stack.get(stack.size() - 1);
+                if (value != null) {
+                    lookup.args[lookup.next++] = value;
+                    value = null;
+                }
+                if (lookup.next < lookup.args.length) {
+                    Block pred = lookup.block.preds.get(lookup.next);
+                    Instr def = pred.defs.get(variable);
+                    value = def != null ? def.resolve() : open(variable, new Lookup(pred), stack);
+                    continue;
+                }
+
+                stack.remove(stack.size() - 1);
+                if (lookup.phi == null) {
+                    value = lookup.args[0];
+                } else {
+                    lookup.phi.args = lookup.args;
+                    value = removeTrivialPhi(lookup.phi);
+                }
+                writeVariable(variable, lookup.block, value);
+            }
+            return value;
+        }
+
+        /**
+         * Empieza la búsqueda en un bloque que no define la variable.
+         * @return el valor, o null si hay que leerlo de los predecesores y la
+         *         búsqueda quedó en la pila
+         */
+        private Instr open(Object variable, Lookup lookup, List<Lookup> stack) {
+            Block block = lookup.block;
+            Instr value;
+            if (!block.sealed) {
+                value = newPhi(block);
+                block.incompletePhis.put(variable, value);
+            } else if (block.preds.isEmpty()) {
+                value = block == function.entry() ? initialValue(variable) : constant(NULL);
+            } else {
+                if (block.preds.size() > 1) {
+                    // Se define antes de leer los predecesores, por si un ciclo vuelve al bloque
+                    lookup.phi = newPhi(block);
+                    writeVariable(variable, block, lookup.phi);
+                }
+                lookup.args = new Instr[block.preds.size()];
+                stack.add(lookup);
+                return null;
+            }
+            writeVariable(variable, block, value);
+            return value;
+        }
+
+        /**
+         * Valor de una variable antes de su primer let en el scope. Leerlo al entrar
+         * es lo mismo que leerlo después, porque nadie más lo puede cambiar.
+         */
+        private Instr initialValue(Object variable) {
+            if (!(variable instanceof Integer)) {
+                return constant(NULL);
+            }
+            int slot = (Integer) variable;
+            Instr load;
+            if (program) {
+                load = new Instr(Op.LOAD_GLOBAL);
+                load.slot = slot;
+                load.name = globalNames.get(slot);
+            } else {
+                load = new Instr(Op.LOAD_INITIAL);
+                load.slot = slot;
+                load.name = function.slotNames[slot];
+                load.symbol = Symbols.intern(load.name);
+            }
+            return emitAtEntry(load);
+        }
+
+        private Instr newPhi(Block block) {
+            Instr phi = new Instr(Op.PHI);
+            phi.id = function.newId();
+            phi.block = block;
+            block.phis.add(phi);
+            return phi;
+        }
+
+        private Instr addPhiOperands(Object variable, Instr phi) {
+            Instr[] args = new Instr[phi.block.preds.size()];
+            for (int i = 0; i < args.length; i++) {
+                args[i] = readVariable(variable, phi.block.preds.get(i));
+            }
+            phi.args = args;
+            return removeTrivialPhi(phi);
+        }
+
+        private void seal(Block block) {
+            for (Map.Entry<Object, Instr> entry : block.incompletePhis.entrySet()) {
+                addPhiOperands(entry.getKey(), entry.getValue());
+            }
+            block.incompletePhis.clear();
+            block.sealed = true;
+        }
+
+        /**
+         * Un phi cuyos argumentos son todos el mismo valor (o él mismo) es una copia.
+         */
+        private Instr removeTrivialPhi(Instr phi) {
+            Instr same = trivialValue(phi);
+            if (same == null || same == phi) {
+                return phi;
+            }
+            phi.replacement = same;
+            phi.block.phis.remove(phi);
+            return same;
+        }
+
+        /**
+         * Saca los bloques que quedaron sin predecesores y los phis triviales que
+         * aparecen al reemplazar otros phis.
+         */
+        private void removeDeadBlocks() {
+            function.blocks.removeIf(block -> !isLive(block));
+            for (int i = 0; i < function.blocks.size(); i++) {
+                function.blocks.get(i).index = i;
+            }
+            removeTrivialPhis(function);
+        }
+    }
+
+    /**
+     * Una búsqueda pendiente de readVariableRecursive: el bloque, su phi si
+     * tiene varios predecesores y los valores ya leídos de ellos.
+     */
+    private static final class Lookup {
+        final Block block;
+        Instr phi;
+        Instr[] args;
+        int next;
+
+        Lookup(Block block) {
+            this.block = block;
+        }
+    }
+
+    /**
+     * @return el único valor distinto del propio phi entre sus argumentos, null si
+     *         hay más de uno, o el mismo phi si solo se usa a sí mismo
+     */
+    static Instr trivialValue(Instr phi) {
+        Instr same = null;
+        for (Instr arg : phi.args) {
+            Instr value = arg.resolve();
+            if (value == same || value == phi) {
+                continue;
+            }
+            if (same != null) {
+                return null;
+            }
+            same = value;
+        }
+        return same != null ? same : phi;
+    }
+
+    /**
+     * Elimina phis triviales hasta que no quede ninguno.
+     */
+    static void removeTrivialPhis(IrFunction function) {
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (Block block : function.blocks) {
+                for (Instr phi : new ArrayList<>(block.phis)) {
+                    phi.resolveArgs();
+                    Instr same = trivialValue(phi);
+                    if (same != null && same != phi) {
+                        phi.replacement = same;
+                        block.phis.remove(phi);
+                        changed = true;
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.interprete.ir;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Una función (o el programa) en forma SSA: un grafo de bloques básicos
+ * cuyo primer bloque es la entrada.
+ */
+public final class IrFunction {
+    final String name;
+    final int numParameters;
+    final String[] slotNames;
+    // Si las closures leen el frame: entonces cada let también se guarda en él
+    final boolean createsFrame;
+
+    final List<Block> blocks = new ArrayList<>();
+    final List<IrFunction> nested = new ArrayList<>();
+    Block[] blockArray;
+    int numValues;
+    private int nextId;
+
+    IrFunction(String name, int numParameters, String[] slotNames, boolean createsFrame) {
+        this.name = name;
+        this.numParameters = numParameters;
+        this.slotNames = slotNames;
+        this.createsFrame = createsFrame;
+    }
+
+    /**
+     * @return un número nuevo para una instrucción, mayor que los anteriores
+     */
+    int newId() {
+        return nextId++;
+    }
+
+    /**
+     * @return cantidad de phis e instrucciones
+     */
+    int size() {
+        int size = 0;
+        for (Block block : blocks) {
+            size += block.phis.size() + block.instrs.size();
+        }
+        return size;
+    }
+
+    Block entry() {
+        return blocks.get(0);
+    }
+
+    /**
+     * Numera los valores como registros y pasa las listas a arreglos para el intérprete.
+     */
+    void finish() {
+        int next = 0;
+        for (Block block : blocks) {
+            for (Instr phi : block.phis) {
+                phi.id = next++;
+            }
+            for (Instr instr : block.instrs) {
+                instr.id = next++;
+            }
+        }
+        numValues = next;
+
+        for (Block block : blocks) {
+            block.phiArray = block.phis.toArray(new Instr[0]);
+            block.code = block.instrs.toArray(new Instr[0]);
+            if (block.exit == Block.Exit.JUMP || block.exit == Block.Exit.BRANCH) {
+                block.targetPred = block.target.preds.indexOf(block);
+            }
+            if (block.exit == Block.Exit.BRANCH) {
+                block.ifFalsePred = block.ifFalse.preds.indexOf(block);
+            }
+        }
+        blockArray = blocks.toArray(new Block[0]);
+    }
+
+    /**
+     * @return el IR de esta función seguido del de sus funciones anidadas
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(name).append('(').append(numParameters).append(") {\n");
+        for (Block block : blocks) {
+            sb.append(block);
+        }
+        sb.append("}\n");
+        for (IrFunction function : nested) {
+            sb.append(function);
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,180 @@
+package com.interprete.ir;
+
+import com.interprete.evaluator.Environment;
+import com.interprete.object.*;
+
+/**
+ * Ejecuta el IR: cada llamada tiene un arreglo de registros con un lugar por
+ * valor, y al saltar a un bloque sus phis toman el argumento del predecesor.
+ */
+public class IrInterpreter {
+    private static final MBoolean TRUE = MBoolean.TRUE;
+    private static final MBoolean FALSE = MBoolean.FALSE;
+    private static final MNull NULL = MNull.getInstance();
+    private static final MObject[] NO_ARGS = new MObject[0];
+
+    /**
+     * Ejecuta un programa sobre el environment global.
+     */
+    public MObject run(IrFunction program, Environment globals) {
+        return execute(program, globals, globals, NO_ARGS);
+    }
+
+    /**
+     * @param frame environment donde se guardan los let para las closures (o null)
+     * @param env environment donde se definió la función
+     */
+    private MObject execute(IrFunction function, Environment frame, Environment env, MObject[] args) {
+        MObject[] values = new MObject[function.numValues];
+        Block block = function.blockArray[0];
+
+        while (true) {
+            for (Instr instr : block.code) {
+                values[instr.id] = evaluate(instr, values, frame, env, args);
+            }
+
+            Block next;
+            int pred;
+            switch (block.exit) {
+                case JUMP -> {
+                    next = block.target;
+                    pred = block.targetPred;
+                }
+                case BRANCH -> {
+                    if (isTruthy(values[block.value.id])) {
+                        next = block.target;
+                        pred = block.targetPred;
+                    } else {
+                        next = block.ifFalse;
+                        pred = block.ifFalsePred;
+                    }
+                }
+                case RETURN -> {
+                    return values[block.value.id];
+                }
+                default -> throw new IllegalStateException("Block b" + block.index + " has no exit");
+            }
+
+            moveToPhis(next.phiArray, pred, values);
+            block = next;
+        }
+    }
+
+    /**
+     * Los phis de un bloque se asignan todos a la vez: uno puede leer a otro.
+     */
+    private static void moveToPhis(Instr[] phis, int pred, MObject[] values) {
+        if (phis.length == 1) {
+            values[phis[0].id] = values[phis[0].args[pred].id];
+        } else if (phis.length > 1) {
+            MObject[] moved = new MObject[phis.length];
+            for (int i = 0; i < phis.length; i++) {
+                moved[i] = values[phis[i].args[pred].id];
+            }
+            for (int i = 0; i < phis.length; i++) {
+                values[phis[i].id] = moved[i];
+            }
+        }
+    }
+
+    private MObject evaluate(Instr instr, MObject[] values, Environment frame, Environment env, MObject[] args) {
+        return switch (instr.op) {
+            case CONST -> instr.constant;
+            case PARAM -> args[instr.slot];
+            case LOAD_GLOBAL -> orNull(env.getGlobal(instr.slot));
+            case LOAD_OUTER -> orNull(env.get(instr.depth - 1, instr.slot, instr.symbol));
+            case LOAD_INITIAL -> orNull(env.getVariable(instr.symbol));
+            case NEG -> {
+                MObject value = values[instr.args[0].id];
+                yield value instanceof MInteger ? MInteger.valueOf(-((MInteger) value).getValue()) : NULL;
+            }
+            case NOT -> {
+                MObject value = values[instr.args[0].id];
+                yield value == FALSE || value == NULL ? TRUE : FALSE;
+            }
+            case INFIX -> infix(instr.operator, values[instr.args[0].id], values[instr.args[1].id]);
+            case IS_FUNCTION -> values[instr.args[0].id] instanceof MIrFunction ? TRUE : FALSE;
+            case IS_CODE -> {
+                MObject value = values[instr.args[0].id];
+                yield value instanceof MIrFunction && ((MIrFunction) value).getFunction() == instr.function
+                    ? TRUE
+                    : FALSE;
+            }
+            case STORE -> {
+                MObject value = values[instr.args[0].id];
+                frame.set(instr.slot, value);
+                yield value;
+            }
+            case STORE_GLOBAL -> {
+                MObject value = values[instr.args[0].id];
+                env.setGlobal(instr.slot, value);
+                yield value;
+            }
+            case FUNCTION -> new MIrFunction(instr.function, frame);
+            case CALL -> call(instr, values);
+            case PHI -> throw new IllegalStateException("Phi outside the block header");
+        };
+    }
+
+    private MObject call(Instr instr, MObject[] values) {
+        MObject callee = values[instr.args[0].id];
+        if (!(callee instanceof MIrFunction)) {
+            return NULL;
+        }
+        MIrFunction fn = (MIrFunction) callee;
+        IrFunction target = fn.getFunction();
+        if (target.numParameters != instr.args.length - 1) {
+            return NULL;
+        }
+
+        MObject[] args = new MObject[target.numParameters];
+        for (int i = 0; i < args.length; i++) {
+            args[i] = values[instr.args[i + 1].id];
+        }
+
+        Environment frame = null;
+        if (target.createsFrame) {
+            frame = new Environment(fn.getEnv(), target.slotNames);
+            for (int i = 0; i < args.length; i++) {
+                frame.set(i, args[i]);
+            }
+        }
+        return execute(target, frame, fn.getEnv(), args);
+    }
+
+    /**
+     * Semántica de los operadores infijos, igual que en el Evaluator.
+     */
+    static MObject infix(String operator, MObject left, MObject right) {
+        if (left instanceof MInteger && right instanceof MInteger) {
+            long l = ((MInteger) left).getValue();
+            long r = ((MInteger) right).getValue();
+            return switch (operator) {
+                case "+" -> MInteger.valueOf(l + r);
+                case "-" -> MInteger.valueOf(l - r);
+                case "*" -> MInteger.valueOf(l * r);
+                case "/" -> MInteger.valueOf(l / r);
+                case "<" -> l < r ? TRUE : FALSE;
+                case ">" -> l > r ? TRUE : FALSE;
+                case "<=" -> l <= r ? TRUE : FALSE;
+                case ">=" -> l >= r ? TRUE : FALSE;
+                case "==" -> l == r ? TRUE : FALSE;
+                case "!=" -> l != r ? TRUE : FALSE;
+                default -> NULL;
+            };
+        }
+        return switch (operator) {
+            case "==" -> left == right ? TRUE : FALSE;
+            case "!=" -> left != right ? TRUE : FALSE;
+            default -> NULL;
+        };
+    }
+
+    private static boolean isTruthy(MObject obj) {
+        return obj != NULL && obj != FALSE;
+    }
+
+    private static MObject orNull(MObject value) {
+        return value != null ? value : NULL;
+    }
+}
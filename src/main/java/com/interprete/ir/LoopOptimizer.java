@@ -0,0 +1,264 @@
+package com.interprete.ir;
+
+import com.interprete.object.MInteger;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Optimizaciones de bucles sobre el IR:
+ * - saca del bucle las instrucciones puras cuyos argumentos no cambian en él
+ *   (loop-invariant code motion), al bloque que entra al bucle;
+ * - reduce la fuerza de i * k, con i una variable de inducción (i = i + c) y k una
+ *   constante: pasa a ser otra variable de inducción j = j + c * k.
+ *
+ * La reducción vale aunque i no sea un entero: entonces i * k y j son ambos null.
+ */
+final class LoopOptimizer {
+    private LoopOptimizer() {
+    }
+
+    /**
+     * @return true si cambió algo
+     */
+    static boolean run(IrFunction function) {
+        Dominators.compute(function);
+        boolean changed = false;
+        for (Loop loop : findLoops(function)) {
+            Block preheader = preheader(loop);
+            if (preheader != null) {
+                changed |= hoistInvariants(function, loop, preheader);
+                changed |= reduceStrength(function, loop, preheader);
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Un bucle natural: la cabecera domina al bloque que vuelve a ella.
+     */
+    private static final class Loop {
+        final Block header;
+        final Set<Block> blocks = new HashSet<>();
+        int backEdges;
+
+        Loop(Block header) {
+            this.header = header;
+            blocks.add(header);
+        }
+
+        boolean contains(Instr instr) {
+            return blocks.contains(instr.block);
+        }
+    }
+
+    /**
+     * @return los bucles, los internos antes que los que los contienen
+     */
+    private static List<Loop> findLoops(IrFunction function) {
+        Map<Block, Loop> loops = new LinkedHashMap<>();
+        for (Block block : function.blocks) {
+            for (Block successor : block.successors()) {
+                if (!Dominators.dominates(successor, block)) {
+                    continue;
+                }
+                Loop loop = loops.computeIfAbsent(successor, Loop::new);
+                loop.backEdges++;
+
+                // El cuerpo son los bloques desde los que se llega a la vuelta sin pasar por la cabecera
+                Deque<Block> pending = new ArrayDeque<>();
+                if (loop.blocks.add(block)) {
+                    pending.push(block);
+                }
+                while (!pending.isEmpty()) {
+                    for (Block pred : pending.pop().preds) {
+                        if (loop.blocks.add(pred)) {
+                            pending.push(pred);
+                        }
+                    }
+                }
+            }
+        }
+
+        List<Loop> result = new ArrayList<>(loops.values());
+        result.sort(Comparator.comparingInt(loop -> loop.blocks.size()));
+        return result;
+    }
+
+    /**
+     * @return el único bloque de afuera que entra al bucle, si salta directo a la cabecera
+     */
+    private static Block preheader(Loop loop) {
+        Block preheader = null;
+        for (Block pred : loop.header.preds) {
+            if (loop.blocks.contains(pred)) {
+                continue;
+            }
+            if (preheader != null) {
+                return null;
+            }
+            preheader = pred;
+        }
+        return preheader != null && preheader.exit == Block.Exit.JUMP ? preheader : null;
+    }
+
+    /**
+     * Mueve al preheader las instrucciones puras cuyos argumentos se definen
+     * fuera del bucle. Una división solo se mueve si está en la cabecera, que
+     * se ejecuta siempre que se entra al bucle: si falla, fallaba igual.
+     */
+    private static boolean hoistInvariants(IrFunction function, Loop loop, Block preheader) {
+        List<Block> blocks = new ArrayList<>(loop.blocks);
+        blocks.sort(Comparator.comparingInt(block -> block.order));
+
+        boolean changed = false;
+        for (Block block : blocks) {
+            for (Instr instr : new ArrayList<>(block.instrs)) {
+                if (!instr.op.isPure() || instr.op == Op.PARAM) {
+                    continue;
+                }
+                if (isDivision(instr) && block != loop.header) {
+                    continue;
+                }
+                if (isInvariant(instr, loop)) {
+                    block.instrs.remove(instr);
+                    preheader.instrs.add(instr);
+                    instr.block = preheader;
+                    changed = true;
+                }
+            }
+        }
+        return changed;
+    }
+
+    private static boolean isInvariant(Instr instr, Loop loop) {
+        for (Instr arg : instr.args) {
+            if (loop.contains(arg.resolve())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Busca en la cabecera phis de la forma i = phi(inicio, i + c) y reemplaza
+     * cada i * k del bucle por un phi nuevo j = phi(inicio * k, j + c * k).
+     */
+    private static boolean reduceStrength(IrFunction function, Loop loop, Block preheader) {
+        if (loop.backEdges != 1 || loop.header.preds.size() != 2) {
+            return false;
+        }
+        int outside = loop.header.preds.indexOf(preheader);
+        int inside = 1 - outside;
+
+        boolean changed = false;
+        for (Instr phi : new ArrayList<>(loop.header.phis)) {
+            Instr next = phi.args[inside].resolve();
+            Long step = step(phi, next);
+            if (step == null) {
+                continue;
+            }
+
+            Map<Long, Instr> reduced = new LinkedHashMap<>();
+            for (Block block : loop.blocks) {
+                for (Instr instr : new ArrayList<>(block.instrs)) {
+                    Long factor = factor(instr, phi);
+                    if (factor == null) {
+                        continue;
+                    }
+                    Instr j = reduced.get(factor);
+                    if (j == null) {
+                        j = newInductionVariable(function, loop, preheader, phi, next, outside, step, factor);
+                        reduced.put(factor, j);
+                    }
+                    instr.replacement = j;
+                    block.instrs.remove(instr);
+                    changed = true;
+                }
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * @return c si next es i + c, c + i o i - (-c) con c constante, o null
+     */
+    private static Long step(Instr phi, Instr next) {
+        if (next.op != Op.INFIX) {
+            return null;
+        }
+        Instr left = next.args[0].resolve();
+        Instr right = next.args[1].resolve();
+        if (next.operator.equals("+") && (left == phi || right == phi)) {
+            return left == phi ? right.intConstant() : left.intConstant();
+        } else if (next.operator.equals("-") && left == phi) {
+            Long c = right.intConstant();
+            return c != null ? -c : null;
+        }
+        return null;
+    }
+
+    /**
+     * @return k si instr es i * k o k * i con k constante, o null
+     */
+    private static Long factor(Instr instr, Instr phi) {
+        if (instr.op != Op.INFIX || !instr.operator.equals("*")) {
+            return null;
+        }
+        Instr left = instr.args[0].resolve();
+        Instr right = instr.args[1].resolve();
+        if (left == phi) {
+            return right.intConstant();
+        } else if (right == phi) {
+            return left.intConstant();
+        }
+        return null;
+    }
+
+    private static Instr newInductionVariable(IrFunction function, Loop loop, Block preheader,
+                                              Instr phi, Instr next, int outside, long step, long factor) {
+        Instr start = new Instr(Op.INFIX, phi.args[outside].resolve(), constant(function, preheader, factor));
+        start.operator = "*";
+        add(function, preheader, preheader.instrs.size(), start);
+
+        Instr j = new Instr(Op.PHI);
+        j.id = function.newId();
+        j.block = loop.header;
+        j.args = new Instr[2];
+        loop.header.phis.add(j);
+
+        // j avanza justo después de i, así vale i * k donde i esté definido
+        Instr increment = constant(function, preheader, step * factor);
+        Instr jNext = new Instr(Op.INFIX, j, increment);
+        jNext.operator = "+";
+        add(function, next.block, next.block.instrs.indexOf(next) + 1, jNext);
+
+        j.args[outside] = start;
+        j.args[1 - outside] = jNext;
+        return j;
+    }
+
+    private static Instr constant(IrFunction function, Block preheader, long value) {
+        Instr instr = new Instr(Op.CONST);
+        instr.constant = MInteger.valueOf(value);
+        return add(function, preheader, preheader.instrs.size(), instr);
+    }
+
+    private static Instr add(IrFunction function, Block block, int index, Instr instr) {
+        instr.id = function.newId();
+        instr.block = block;
+        block.instrs.add(index, instr);
+        return instr;
+    }
+
+    private static boolean isDivision(Instr instr) {
+        return instr.op == Op.INFIX && instr.operator.equals("/");
+    }
+}
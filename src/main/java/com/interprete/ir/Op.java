@@ -0,0 +1,32 @@
+package com.interprete.ir;
+
+/**
+ * Operaciones de las instrucciones del IR.
+ */
+enum Op {
+    // Valores puros: se numeran y se pueden eliminar si nadie los usa
+    CONST,          // constant
+    PARAM,          // slot: índice del argumento
+    LOAD_GLOBAL,    // slot global
+    LOAD_OUTER,     // depth, slot y name de una variable de una función externa
+    LOAD_INITIAL,   // name de una variable local leída antes de su primer let
+    NEG,            // -args[0]
+    NOT,            // !args[0]
+    INFIX,          // args[0] operator args[1]
+    IS_FUNCTION,    // TRUE si args[0] se puede llamar
+    IS_CODE,        // TRUE si args[0] es una closure de function
+    PHI,            // un argumento por cada predecesor del bloque
+
+    // Efectos
+    STORE,          // slot del frame = args[0], para las closures que lo leen
+    STORE_GLOBAL,   // slot global = args[0]
+    FUNCTION,       // closure de function sobre el frame actual
+    CALL;           // args[0](args[1..])
+
+    /**
+     * @return true si el resultado depende solo de los argumentos y no tiene efectos
+     */
+    boolean isPure() {
+        return ordinal() <= PHI.ordinal();
+    }
+}
@@ -0,0 +1,206 @@
+package com.interprete.ir;
+
+import com.interprete.object.MBoolean;
+import com.interprete.object.MInteger;
+import com.interprete.object.MNull;
+import com.interprete.object.MObject;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Numeración global de valores (GVN) sobre el árbol de dominadores.
+ *
+ * Dos instrucciones puras con la misma operación y los mismos argumentos valen lo
+ * mismo, así que la segunda se reemplaza por la primera si esta la domina
+ * (eliminación de subexpresiones comunes). De paso pliega las operaciones sobre
+ * constantes y al final elimina las instrucciones puras que nadie usa.
+ */
+final class ValueNumbering {
+    private static final MBoolean TRUE = MBoolean.TRUE;
+    private static final MBoolean FALSE = MBoolean.FALSE;
+    private static final MNull NULL = MNull.getInstance();
+
+    private final Map<Key, Instr> table = new HashMap<>();
+
+    private ValueNumbering() {
+    }
+
+    static void run(IrFunction function) {
+        Dominators.compute(function);
+        new ValueNumbering().number(function.entry());
+        resolveAll(function);
+        IrBuilder.removeTrivialPhis(function);
+        resolveAll(function);
+        removeUnused(function);
+    }
+
+    /**
+     * Recorre el árbol de dominadores: lo que está en la tabla al visitar un
+     * bloque fue definido en un bloque que lo domina.
+     *
+     * El árbol es tan profundo como largo el código sin bucles, así que se
+     * recorre con una pila propia: al terminar el subárbol de un bloque se
+     * sacan de la tabla las claves que agregó.
+     */
+    private void number(Block entry) {
+        List<Visit> stack = new ArrayList<>();
+        stack.add(enter(entry));
+        while (!stack.isEmpty()) {
+            Visit top = stack.get(stack.size() - 1);
+            if (top.next < top.block.dominated.size()) {
+                stack.add(enter(top.block.dominated.get(top.next++)));
+            } else {
+                stack.remove(stack.size() - 1);
+                for (Key key : top.added) {
+                    table.remove(key);
+                }
+            }
+        }
+    }
+
+    /**
+     * Numera las instrucciones de un bloque.
+     * @return su entrada en la pila del recorrido
+     */
+    private Visit enter(Block block) {
+        Visit visit = new Visit(block);
+        visit(block.phis, visit.added);
+        visit(block.instrs, visit.added);
+        return visit;
+    }
+
+    /**
+     * Un bloque en recorrido: las claves que agregó y el próximo bloque dominado a visitar.
+     */
+    private static final class Visit {
+        final Block block;
+        final List<Key> added = new ArrayList<>();
+        int next;
+
+        Visit(Block block) {
+            this.block = block;
+        }
+    }
+
+    private void visit(List<Instr> instrs, List<Key> added) {
+        for (int i = 0; i < instrs.size(); i++) {
+            Instr instr = instrs.get(i);
+            instr.resolveArgs();
+            fold(instr);
+            if (!instr.op.isPure() || instr.op == Op.PARAM) {
+                continue;
+            }
+
+            Key key = Key.of(instr);
+            Instr existing = table.get(key);
+            if (existing != null) {
+                instr.replacement = existing;
+                instrs.remove(i--);
+            } else {
+                table.put(key, instr);
+                added.add(key);
+            }
+        }
+    }
+
+    /**
+     * Convierte en constante una operación cuyos argumentos son constantes.
+     * Una división por cero se deja para que falle en runtime.
+     */
+    private static void fold(Instr instr) {
+        MObject value = null;
+        if (instr.op == Op.NEG && instr.args[0].op == Op.CONST) {
+            MObject operand = instr.args[0].constant;
+            value = operand instanceof MInteger ? MInteger.valueOf(-((MInteger) operand).getValue()) : NULL;
+        } else if (instr.op == Op.NOT && instr.args[0].op == Op.CONST) {
+            MObject operand = instr.args[0].constant;
+            value = operand == FALSE || operand == NULL ? TRUE : FALSE;
+        } else if (instr.op == Op.INFIX && instr.args[0].op == Op.CONST && instr.args[1].op == Op.CONST) {
+            if (!(instr.operator.equals("/") && Long.valueOf(0).equals(instr.args[1].intConstant()))) {
+                value = IrInterpreter.infix(instr.operator, instr.args[0].constant, instr.args[1].constant);
+            }
+        }
+        if (value != null) {
+            instr.becomeConstant(value);
+        }
+    }
+
+    private static void resolveAll(IrFunction function) {
+        for (Block block : function.blocks) {
+            for (Instr phi : block.phis) {
+                phi.resolveArgs();
+            }
+            for (Instr instr : block.instrs) {
+                instr.resolveArgs();
+            }
+            if (block.value != null) {
+                block.value = block.value.resolve();
+            }
+        }
+    }
+
+    /**
+     * Elimina las instrucciones puras que no usa nadie. Las divisiones se
+     * conservan aunque no se usen, porque pueden fallar.
+     */
+    private static void removeUnused(IrFunction function) {
+        Set<Instr> used = new HashSet<>();
+        List<Instr> pending = new ArrayList<>();
+        for (Block block : function.blocks) {
+            if (block.value != null) {
+                pending.add(block.value);
+            }
+            for (Instr instr : block.instrs) {
+                if (!instr.op.isPure() || isDivision(instr)) {
+                    pending.add(instr);
+                }
+            }
+        }
+        while (!pending.isEmpty()) {
+            Instr instr = pending.remove(pending.size() - 1);
+            if (used.add(instr)) {
+                pending.addAll(Arrays.asList(instr.args));
+            }
+        }
+        for (Block block : function.blocks) {
+            block.phis.removeIf(phi -> !used.contains(phi));
+            block.instrs.removeIf(instr -> !used.contains(instr));
+        }
+    }
+
+    private static boolean isDivision(Instr instr) {
+        return instr.op == Op.INFIX && instr.operator.equals("/");
+    }
+
+    /**
+     * Número de valor: operación, datos propios y argumentos. Los operadores
+     * conmutativos ordenan sus argumentos. Un phi solo es igual a otro del mismo bloque.
+     * Las instrucciones se comparan por identidad.
+     */
+    private record Key(Op op, Object data, String operator, int slot, int depth, Object block, List<Instr> args) {
+        static Key of(Instr instr) {
+            List<Instr> args = new ArrayList<>(Arrays.asList(instr.args));
+            if (instr.op == Op.INFIX && isCommutative(instr.operator) && args.get(0).id > args.get(1).id) {
+                args.add(args.remove(0));
+            }
+            Object data = instr.op == Op.CONST && instr.constant instanceof MInteger
+                ? ((MInteger) instr.constant).getValue()
+                : instr.op == Op.IS_CODE ? instr.function : instr.constant;
+            return new Key(instr.op, data, instr.operator, instr.slot, instr.depth,
+                instr.op == Op.PHI ? instr.block : null, args);
+        }
+
+        private static boolean isCommutative(String operator) {
+            return switch (operator) {
+                case "+", "*", "==", "!=" -> true;
+                default -> false;
+            };
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.interprete.jit;
+
+/**
+ * Interrumpe la compilación cuando la función usa algo que el JIT no soporta.
+ * La función sigue ejecutándose en el Evaluator.
+ */
+final class Bailout extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    Bailout(String reason) {
+        super(reason, null, false, false);
+    }
+}
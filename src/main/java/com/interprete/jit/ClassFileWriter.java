@@ -0,0 +1,140 @@
+package com.interprete.jit;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Escritor mínimo de archivos .class: constant pool, métodos y su atributo Code.
+ *
+ * Genera la versión 49 del formato, que todavía no exige StackMapTable: la JVM
+ * verifica el código por inferencia de tipos y el JIT no tiene que calcular frames.
+ */
+final class ClassFileWriter {
+    private static final int MAGIC = 0xCAFEBABE;
+    private static final int VERSION = 49;
+
+    private static final int CONSTANT_UTF8 = 1;
+    private static final int CONSTANT_LONG = 5;
+    private static final int CONSTANT_CLASS = 7;
+    private static final int CONSTANT_METHODREF = 10;
+    private static final int CONSTANT_NAME_AND_TYPE = 12;
+
+    static final int ACC_PUBLIC = 0x0001;
+    static final int ACC_STATIC = 0x0008;
+    static final int ACC_FINAL = 0x0010;
+    static final int ACC_SUPER = 0x0020;
+
+    private final Bytes pool = new Bytes();
+    private final Map<String, Integer> poolIndex = new HashMap<>();
+    private int poolCount = 1;
+
+    private final Bytes methods = new Bytes();
+    private int methodCount;
+
+    private final int thisClass;
+    private final int superClass;
+    private final int codeName;
+
+    ClassFileWriter(String name, String superName) {
+        this.thisClass = classRef(name);
+        this.superClass = classRef(superName);
+        this.codeName = utf8("Code");
+    }
+
+    int utf8(String value) {
+        return intern("U" + value, () -> {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            pool.u1(CONSTANT_UTF8).u2(bytes.length).bytes(bytes, bytes.length);
+        }, 1);
+    }
+
+    int classRef(String internalName) {
+        int name = utf8(internalName);
+        return intern("C" + internalName, () -> pool.u1(CONSTANT_CLASS).u2(name), 1);
+    }
+
+    int methodRef(String owner, String name, String descriptor) {
+        int ownerIndex = classRef(owner);
+        int nameIndex = utf8(name);
+        int descriptorIndex = utf8(descriptor);
+        int nameAndType = intern("N" + name + ":" + descriptor,
+            () -> pool.u1(CONSTANT_NAME_AND_TYPE).u2(nameIndex).u2(descriptorIndex), 1);
+        return intern("M" + owner + "." + name + ":" + descriptor,
+            () -> pool.u1(CONSTANT_METHODREF).u2(ownerIndex).u2(nameAndType), 1);
+    }
+
+    /**
+     * Los long ocupan dos entradas del constant pool.
+     */
+    int longConstant(long value) {
+        return intern("J" + value, () -> pool.u1(CONSTANT_LONG).u4((int) (value >>> 32)).u4((int) value), 2);
+    }
+
+    void addMethod(int access, String name, String descriptor, MethodCode code) {
+        int nameIndex = utf8(name);
+        int descriptorIndex = utf8(descriptor);
+        byte[] bytecode = code.getBytes();
+
+        methods.u2(access).u2(nameIndex).u2(descriptorIndex).u2(1);
+        methods.u2(codeName).u4(12 + bytecode.length);
+        methods.u2(code.getMaxStack()).u2(code.getMaxLocals());
+        methods.u4(bytecode.length).bytes(bytecode, bytecode.length);
+        methods.u2(0).u2(0); // sin tabla de excepciones ni atributos
+        methodCount++;
+    }
+
+    byte[] toByteArray() {
+        Bytes out = new Bytes();
+        out.u4(MAGIC).u2(0).u2(VERSION);
+        out.u2(poolCount).bytes(pool.toByteArray(), pool.size());
+        out.u2(ACC_PUBLIC | ACC_FINAL | ACC_SUPER).u2(thisClass).u2(superClass);
+        out.u2(0); // interfaces
+        out.u2(0); // campos
+        out.u2(methodCount).bytes(methods.toByteArray(), methods.size());
+        out.u2(0); // atributos
+        return out.toByteArray();
+    }
+
+    private int intern(String key, Runnable write, int slots) {
+        Integer index = poolIndex.get(key);
+        if (index != null) {
+            return index;
+        }
+        if (poolCount + slots > 0xFFFF) {
+            throw new Bailout("constant pool demasiado grande");
+        }
+        write.run();
+        poolIndex.put(key, poolCount);
+        poolCount += slots;
+        return poolCount - slots;
+    }
+
+    /**
+     * Buffer big-endian como lo pide el formato de clase.
+     */
+    static final class Bytes extends ByteArrayOutputStream {
+        Bytes u1(int value) {
+            write(value);
+            return this;
+        }
+
+        Bytes u2(int value) {
+            write(value >>> 8);
+            write(value);
+            return this;
+        }
+
+        Bytes u4(int value) {
+            u2(value >>> 16);
+            u2(value);
+            return this;
+        }
+
+        Bytes bytes(byte[] data, int length) {
+            write(data, 0, length);
+            return this;
+        }
+    }
+}
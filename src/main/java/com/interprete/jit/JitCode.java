@@ -0,0 +1,53 @@
+package com.interprete.jit;
+
+import com.interprete.object.MBoolean;
+import com.interprete.object.MFunction;
+import com.interprete.object.MInteger;
+import com.interprete.object.MObject;
+
+import java.util.List;
+
+/**
+ * Una función ya compilada a bytecode de la JVM.
+ *
+ * El código se generó suponiendo que todos los parámetros son enteros y que los
+ * nombres con los que la función se llama a sí misma siguen apuntando a ella;
+ * ambas cosas se comprueban en cada entrada desde el intérprete.
+ */
+final class JitCode {
+    private final JitEntry entry;
+    private final String[] selfNames;
+    private final boolean returnsBoolean;
+
+    JitCode(JitEntry entry, String[] selfNames, boolean returnsBoolean) {
+        this.entry = entry;
+        this.selfNames = selfNames;
+        this.returnsBoolean = returnsBoolean;
+    }
+
+    /**
+     * @return el resultado, o null si no se cumplen las suposiciones del código compilado
+     */
+    MObject invoke(MFunction fn, List<MObject> args) {
+        for (String name : selfNames) {
+            if (fn.lookup(name) != fn) {
+                return null;
+            }
+        }
+
+        long[] values = new long[args.size()];
+        for (int i = 0; i < values.length; i++) {
+            MObject arg = args.get(i);
+            if (!(arg instanceof MInteger)) {
+                return null;
+            }
+            values[i] = ((MInteger) arg).getValue();
+        }
+
+        long result = entry.call(values);
+        if (returnsBoolean) {
+            return result != 0 ? MBoolean.TRUE : MBoolean.FALSE;
+        }
+        return MInteger.valueOf(result);
+    }
+}
@@ -0,0 +1,611 @@
+package com.interprete.jit;
+
+import com.interprete.ast.*;
+import com.interprete.object.MFunction;
+
+import java.lang.invoke.MethodHandles;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static com.interprete.jit.MethodCode.*;
+
+/**
+ * Compila el cuerpo de una MFunction a un método estático de la JVM y lo carga
+ * como clase oculta con {@link MethodHandles.Lookup#defineHiddenClass}.
+ *
+ * Subconjunto soportado: parámetros enteros, aritmética y comparaciones de
+ * enteros y booleanos, let de locales con un tipo fijo, if/else, while, for,
+ * return y llamadas recursivas a la propia función. Cualquier otra cosa
+ * (variables libres, closures, null, mezcla de tipos) aborta la compilación.
+ */
+final class JitCompiler {
+    private static final String CLASS_NAME = "com/interprete/jit/JitFunction";
+    private static final String ENTRY_NAME = "com/interprete/jit/JitEntry";
+    private static final String BODY = "body";
+    private static final int MAX_PARAMETERS = 100;
+    private static final int MAX_LOCALS = 255;
+
+    /**
+     * NONE: no deja valor en la pila. NEVER: el código no termina normalmente (return).
+     */
+    private enum Type { INT, BOOL, NONE, NEVER }
+
+    private static final class Local {
+        private final Type type;
+        private final int index;
+
+        Local(Type type, int index) {
+            this.type = type;
+            this.index = index;
+        }
+    }
+
+    private final MFunction fn;
+    private final Type selfType;
+    private final String bodyDescriptor;
+    private final int numParameters;
+    private final ClassFileWriter writer = new ClassFileWriter(CLASS_NAME, ENTRY_NAME);
+    private final MethodCode code = new MethodCode();
+
+    private final Map<String, Local> locals = new HashMap<>();
+    private final Set<String> declared = new HashSet<>();
+    private final Set<String> selfNames = new LinkedHashSet<>();
+    private Set<String> assigned = new HashSet<>();
+    private int nextLocal;
+    private int valueContext;
+    private Type resultType;
+    private boolean selfCalls;
+    private byte[] bytes;
+
+    /**
+     * @param selfType tipo que se supone para el resultado de las llamadas recursivas
+     */
+    private JitCompiler(MFunction fn, Type selfType) {
+        this.fn = fn;
+        this.selfType = selfType;
+
+        List<Identifier> parameters = fn.getParameters();
+        this.numParameters = parameters.size();
+        if (numParameters > MAX_PARAMETERS) {
+            throw new Bailout("demasiados parámetros");
+        }
+        this.bodyDescriptor = "(" + "J".repeat(numParameters) + ")J";
+
+        for (Identifier parameter : parameters) {
+            if (locals.containsKey(parameter.getValue())) {
+                throw new Bailout("parámetro repetido: " + parameter.getValue());
+            }
+            locals.put(parameter.getValue(), new Local(Type.INT, nextLocal));
+            assigned.add(parameter.getValue());
+            nextLocal += 2;
+        }
+    }
+
+    /**
+     * @return el código compilado, o null si la función no se puede compilar
+     */
+    static JitCode compile(MFunction fn) {
+        JitCompiler compiler = tryGenerate(fn, Type.INT);
+        if (compiler == null || (compiler.selfCalls && compiler.resultType != Type.INT)) {
+            // Pudo fallar por suponer que las llamadas recursivas retornan enteros
+            compiler = tryGenerate(fn, Type.BOOL);
+            if (compiler == null || (compiler.selfCalls && compiler.resultType != Type.BOOL)) {
+                return null;
+            }
+        }
+        return compiler.define();
+    }
+
+    private static JitCompiler tryGenerate(MFunction fn, Type selfType) {
+        try {
+            return new JitCompiler(fn, selfType).generate();
+        } catch (Bailout e) {
+            return null;
+        }
+    }
+
+    private JitCompiler generate() {
+        if (fn.getBody() == null) {
+            throw new Bailout("función sin cuerpo");
+        }
+        declareLets(fn.getBody());
+
+        Type type = compileStatements(fn.getBody().getStatements(), true);
+        if (type != Type.NEVER) {
+            emitReturn(type);
+        }
+        code.useLocals(nextLocal);
+
+        writer.addMethod(ClassFileWriter.ACC_STATIC, BODY, bodyDescriptor, code);
+        writer.addMethod(ClassFileWriter.ACC_PUBLIC, "<init>", "()V", constructor());
+        writer.addMethod(ClassFileWriter.ACC_PUBLIC, "call", "([J)J", callBridge());
+        bytes = writer.toByteArray();
+        return this;
+    }
+
+    private JitCode define() {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup().defineHiddenClass(bytes, true);
+            JitEntry entry = (JitEntry) lookup.lookupClass().getDeclaredConstructor().newInstance();
+            return new JitCode(entry, selfNames.toArray(new String[0]), resultType == Type.BOOL);
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return null;
+        }
+    }
+
+    private MethodCode constructor() {
+        MethodCode init = new MethodCode();
+        init.op(ALOAD_0, 1);
+        init.op2(INVOKESPECIAL, writer.methodRef(ENTRY_NAME, "<init>", "()V"), -1);
+        init.op(RETURN, 0);
+        init.useLocals(1);
+        return init;
+    }
+
+    /**
+     * call(long[]) desempaqueta los argumentos e invoca el método estático.
+     */
+    private MethodCode callBridge() {
+        MethodCode call = new MethodCode();
+        for (int i = 0; i < numParameters; i++) {
+            call.op(ALOAD_1, 1);
+            pushInt(call, i);
+            call.op(LALOAD, 0);
+        }
+        call.op2(INVOKESTATIC, writer.methodRef(CLASS_NAME, BODY, bodyDescriptor), 2 - 2 * numParameters);
+        call.op(LRETURN, -2);
+        call.useLocals(2);
+        return call;
+    }
+
+    private Type compileStatements(List<Statement> statements, boolean needValue) {
+        if (statements == null || statements.isEmpty()) {
+            if (needValue) {
+                throw new Bailout("bloque vacío");
+            }
+            return Type.NONE;
+        }
+
+        Type type = Type.NONE;
+        for (int i = 0; i < statements.size(); i++) {
+            type = compileStatement(statements.get(i), needValue && i == statements.size() - 1);
+            if (type == Type.NEVER) {
+                // Lo que sigue a un return nunca se ejecuta
+                return Type.NEVER;
+            }
+        }
+        return type;
+    }
+
+    private Type compileStatement(Statement stmt, boolean needValue) {
+        if (stmt instanceof LetStatement) {
+            return compileLet((LetStatement) stmt, needValue);
+        } else if (stmt instanceof ReturnStatement) {
+            return compileReturn((ReturnStatement) stmt);
+        } else if (stmt instanceof ExpressionStatement) {
+            Expression exp = ((ExpressionStatement) stmt).getExpression();
+            if (exp instanceof IfExpression) {
+                return compileIf((IfExpression) exp, needValue);
+            }
+            Type type = compileExpression(exp);
+            if (needValue) {
+                return type;
+            }
+            pop(type);
+            return Type.NONE;
+        } else if (stmt instanceof BlockStatement) {
+            return compileStatements(((BlockStatement) stmt).getStatements(), needValue);
+        } else if (stmt instanceof WhileStatement || stmt instanceof ForStatement) {
+            if (needValue) {
+                throw new Bailout("el valor de un bucle puede ser null");
+            }
+            return stmt instanceof WhileStatement
+                ? compileWhile((WhileStatement) stmt)
+                : compileFor((ForStatement) stmt);
+        }
+        throw new Bailout("statement no soportado: " + stmt);
+    }
+
+    private Type compileLet(LetStatement stmt, boolean needValue) {
+        String name = stmt.getName().getValue();
+        Type type = compileExpression(stmt.getValue());
+
+        Local local = locals.get(name);
+        if (local == null) {
+            local = new Local(type, nextLocal);
+            nextLocal += size(type);
+            if (nextLocal > MAX_LOCALS) {
+                throw new Bailout("demasiadas variables locales");
+            }
+            locals.put(name, local);
+        } else if (local.type != type) {
+            throw new Bailout("la variable cambia de tipo: " + name);
+        }
+
+        if (needValue) {
+            code.op(type == Type.INT ? DUP2 : DUP, size(type));
+        }
+        if (type == Type.INT) {
+            code.op1(LSTORE, local.index, -2);
+        } else {
+            code.op1(ISTORE, local.index, -1);
+        }
+        assigned.add(name);
+        return needValue ? type : Type.NONE;
+    }
+
+    private Type compileReturn(ReturnStatement stmt) {
+        // El Evaluator termina de evaluar la expresión antes de salir; no se replica
+        if (valueContext > 0) {
+            throw new Bailout("return dentro de una expresión");
+        }
+        emitReturn(compileExpression(stmt.getReturnValue()));
+        return Type.NEVER;
+    }
+
+    private void emitReturn(Type type) {
+        if (resultType == null) {
+            resultType = type;
+        } else if (resultType != type) {
+            throw new Bailout("la función retorna valores de distinto tipo");
+        }
+        if (type == Type.BOOL) {
+            code.op(I2L, 1);
+        }
+        code.op(LRETURN, -2);
+    }
+
+    private Type compileIf(IfExpression exp, boolean needValue) {
+        MethodCode.Label otherwise = new MethodCode.Label();
+        MethodCode.Label end = new MethodCode.Label();
+
+        compileCondition(exp.getCondition(), otherwise);
+        int stack = code.getStack();
+        Set<String> afterCondition = new HashSet<>(assigned);
+
+        Type thenType = compileStatements(statementsOf(exp.getConsequence()), needValue);
+        int thenStack = code.getStack();
+        Set<String> thenAssigned = assigned;
+        if (thenType != Type.NEVER) {
+            code.jump(GOTO, end, 0);
+        }
+
+        code.mark(otherwise);
+        code.setStack(stack);
+        assigned = afterCondition;
+        Type elseType;
+        if (exp.getAlternative() == null) {
+            if (needValue) {
+                throw new Bailout("if sin else puede valer null");
+            }
+            elseType = Type.NONE;
+        } else {
+            elseType = compileStatements(statementsOf(exp.getAlternative()), needValue);
+        }
+        code.mark(end);
+
+        if (thenType == Type.NEVER) {
+            return elseType;
+        }
+        if (elseType == Type.NEVER) {
+            code.setStack(thenStack);
+            assigned = thenAssigned;
+            return thenType;
+        }
+        if (thenType != elseType) {
+            throw new Bailout("las ramas del if tienen distinto tipo");
+        }
+        // Solo quedan asignadas las variables asignadas en ambas ramas
+        assigned.retainAll(thenAssigned);
+        return thenType;
+    }
+
+    private Type compileWhile(WhileStatement stmt) {
+        Set<String> before = new HashSet<>(assigned);
+        MethodCode.Label start = new MethodCode.Label();
+        MethodCode.Label exit = new MethodCode.Label();
+
+        code.mark(start);
+        compileCondition(stmt.getCondition(), exit);
+        if (compileStatements(statementsOf(stmt.getBody()), false) != Type.NEVER) {
+            code.jump(GOTO, start, 0);
+        }
+        code.mark(exit);
+
+        // El cuerpo puede no ejecutarse nunca
+        assigned = before;
+        return Type.NONE;
+    }
+
+    private Type compileFor(ForStatement stmt) {
+        if (stmt.getInitialization() != null) {
+            compileStatement(stmt.getInitialization(), false);
+        }
+        Set<String> before = new HashSet<>(assigned);
+        MethodCode.Label start = new MethodCode.Label();
+        MethodCode.Label exit = new MethodCode.Label();
+
+        code.mark(start);
+        if (stmt.getCondition() != null) {
+            compileCondition(stmt.getCondition(), exit);
+        }
+        if (compileStatements(statementsOf(stmt.getBody()), false) != Type.NEVER) {
+            if (stmt.getIncrement() != null) {
+                compileStatement(stmt.getIncrement(), false);
+            }
+            code.jump(GOTO, start, 0);
+        }
+        code.mark(exit);
+
+        assigned = before;
+        return Type.NONE;
+    }
+
+    /**
+     * Deja en la pila un long (INT) o un int 0/1 (BOOL).
+     */
+    private Type compileExpression(Expression exp) {
+        valueContext++;
+        Type type = compileValue(exp);
+        valueContext--;
+        return type;
+    }
+
+    private Type compileValue(Expression exp) {
+        if (exp instanceof IntegerLiteral) {
+            pushLong(((IntegerLiteral) exp).getValue());
+            return Type.INT;
+        } else if (exp instanceof BooleanLiteral) {
+            code.op(((BooleanLiteral) exp).getValue() ? ICONST_1 : ICONST_0, 1);
+            return Type.BOOL;
+        } else if (exp instanceof Identifier) {
+            return load((Identifier) exp);
+        } else if (exp instanceof PrefixExpression) {
+            return compilePrefix((PrefixExpression) exp);
+        } else if (exp instanceof InfixExpression) {
+            return compileInfix((InfixExpression) exp);
+        } else if (exp instanceof IfExpression) {
+            return compileIf((IfExpression) exp, true);
+        } else if (exp instanceof CallExpression) {
+            return compileCall((CallExpression) exp);
+        }
+        throw new Bailout("expresión no soportada: " + exp);
+    }
+
+    private Type load(Identifier identifier) {
+        String name = identifier.getValue();
+        Local local = locals.get(name);
+        // Una local todavía sin asignar se leería de los scopes externos
+        if (local == null || !assigned.contains(name)) {
+            throw new Bailout("variable no local: " + name);
+        }
+        if (local.type == Type.INT) {
+            code.op1(LLOAD, local.index, 2);
+        } else {
+            code.op1(ILOAD, local.index, 1);
+        }
+        return local.type;
+    }
+
+    private Type compilePrefix(PrefixExpression exp) {
+        Type type = compileExpression(exp.getRight());
+        switch (exp.getOperator()) {
+            case "-" -> {
+                if (type != Type.INT) {
+                    throw new Bailout("- sobre un no entero");
+                }
+                code.op(LNEG, 0);
+                return Type.INT;
+            }
+            case "!" -> {
+                if (type == Type.BOOL) {
+                    code.op(ICONST_1, 1);
+                    code.op(IXOR, -1);
+                } else {
+                    // !entero siempre es false
+                    code.op(POP2, -2);
+                    code.op(ICONST_0, 1);
+                }
+                return Type.BOOL;
+            }
+            default -> throw new Bailout("operador prefijo: " + exp.getOperator());
+        }
+    }
+
+    private Type compileInfix(InfixExpression exp) {
+        int opcode = switch (exp.getOperator()) {
+            case "+" -> LADD;
+            case "-" -> LSUB;
+            case "*" -> LMUL;
+            case "/" -> LDIV;
+            default -> -1;
+        };
+        if (opcode < 0) {
+            return compileBooleanValue(exp);
+        }
+
+        Type left = compileExpression(exp.getLeft());
+        Type right = compileExpression(exp.getRight());
+        if (left != Type.INT || right != Type.INT) {
+            throw new Bailout("aritmética sobre no enteros");
+        }
+        code.op(opcode, -2);
+        return Type.INT;
+    }
+
+    /**
+     * Materializa una comparación como 0/1.
+     */
+    private Type compileBooleanValue(InfixExpression exp) {
+        MethodCode.Label isFalse = new MethodCode.Label();
+        MethodCode.Label end = new MethodCode.Label();
+
+        int stack = code.getStack();
+        compileCondition(exp, isFalse);
+        code.op(ICONST_1, 1);
+        code.jump(GOTO, end, 0);
+        code.mark(isFalse);
+        code.setStack(stack);
+        code.op(ICONST_0, 1);
+        code.mark(end);
+        return Type.BOOL;
+    }
+
+    /**
+     * Evalúa una condición y salta a ifFalse si no es verdadera.
+     * Las comparaciones saltan directamente sin materializar el booleano.
+     */
+    private void compileCondition(Expression exp, MethodCode.Label ifFalse) {
+        if (exp instanceof InfixExpression) {
+            InfixExpression infix = (InfixExpression) exp;
+            int negated = switch (infix.getOperator()) {
+                case "<" -> IFGE;
+                case ">" -> IFLE;
+                case "<=" -> IFGT;
+                case ">=" -> IFLT;
+                case "==" -> IFNE;
+                case "!=" -> IFEQ;
+                default -> -1;
+            };
+
+            if (negated >= 0) {
+                Type left = compileExpression(infix.getLeft());
+                Type right = compileExpression(infix.getRight());
+                if (left == Type.INT && right == Type.INT) {
+                    code.op(LCMP, -3);
+                    code.jump(negated, ifFalse, -1);
+                } else if (left == Type.BOOL && right == Type.BOOL
+                        && (negated == IFNE || negated == IFEQ)) {
+                    code.jump(negated == IFNE ? IF_ICMPNE : IF_ICMPEQ, ifFalse, -2);
+                } else {
+                    throw new Bailout("comparación entre tipos distintos");
+                }
+                return;
+            }
+        }
+
+        Type type = compileExpression(exp);
+        if (type == Type.BOOL) {
+            code.jump(IFEQ, ifFalse, -1);
+        } else {
+            // Los enteros siempre son verdaderos
+            code.op(POP2, -2);
+        }
+    }
+
+    /**
+     * Solo se compilan las llamadas de la función a sí misma, por un nombre
+     * libre que en el environment de la closure apunta a ella.
+     */
+    private Type compileCall(CallExpression call) {
+        if (!(call.getFunction() instanceof Identifier)) {
+            throw new Bailout("llamada a una expresión");
+        }
+        String name = ((Identifier) call.getFunction()).getValue();
+        if (locals.containsKey(name) || declared.contains(name) || fn.lookup(name) != fn) {
+            throw new Bailout("llamada a otra función: " + name);
+        }
+
+        List<Expression> arguments = call.getArguments() != null ? call.getArguments() : List.of();
+        if (arguments.size() != numParameters) {
+            throw new Bailout("llamada recursiva con otra aridad");
+        }
+        for (Expression argument : arguments) {
+            if (compileExpression(argument) != Type.INT) {
+                throw new Bailout("argumento no entero");
+            }
+        }
+
+        code.op2(INVOKESTATIC, writer.methodRef(CLASS_NAME, BODY, bodyDescriptor), 2 - 2 * numParameters);
+        selfNames.add(name);
+        selfCalls = true;
+        if (selfType == Type.BOOL) {
+            code.op(L2I, -1);
+        }
+        return selfType;
+    }
+
+    /**
+     * Registra los let de la función para distinguir sus locales de las variables libres.
+     */
+    private void declareLets(ASTNode node) {
+        if (node instanceof LetStatement) {
+            LetStatement stmt = (LetStatement) node;
+            declared.add(stmt.getName().getValue());
+            declareLets(stmt.getValue());
+        } else if (node instanceof ReturnStatement) {
+            declareLets(((ReturnStatement) node).getReturnValue());
+        } else if (node instanceof ExpressionStatement) {
+            declareLets(((ExpressionStatement) node).getExpression());
+        } else if (node instanceof BlockStatement) {
+            for (Statement stmt : statementsOf((BlockStatement) node)) {
+                declareLets(stmt);
+            }
+        } else if (node instanceof WhileStatement) {
+            WhileStatement stmt = (WhileStatement) node;
+            declareLets(stmt.getCondition());
+            declareLets(stmt.getBody());
+        } else if (node instanceof ForStatement) {
+            ForStatement stmt = (ForStatement) node;
+            declareLets(stmt.getInitialization());
+            declareLets(stmt.getCondition());
+            declareLets(stmt.getIncrement());
+            declareLets(stmt.getBody());
+        } else if (node instanceof PrefixExpression) {
+            declareLets(((PrefixExpression) node).getRight());
+        } else if (node instanceof InfixExpression) {
+            InfixExpression exp = (InfixExpression) node;
+            declareLets(exp.getLeft());
+            declareLets(exp.getRight());
+        } else if (node instanceof IfExpression) {
+            IfExpression exp = (IfExpression) node;
+            declareLets(exp.getCondition());
+            declareLets(exp.getConsequence());
+            declareLets(exp.getAlternative());
+        } else if (node instanceof CallExpression) {
+            CallExpression exp = (CallExpression) node;
+            declareLets(exp.getFunction());
+            if (exp.getArguments() != null) {
+                for (Expression argument : exp.getArguments()) {
+                    declareLets(argument);
+                }
+            }
+        } else if (node instanceof FunctionLiteral) {
+            throw new Bailout("closures anidadas");
+        }
+    }
+
+    private static List<Statement> statementsOf(BlockStatement block) {
+        return block != null && block.getStatements() != null ? block.getStatements() : List.of();
+    }
+
+    private void pushLong(long value) {
+        if (value == 0) {
+            code.op(LCONST_0, 2);
+        } else if (value == 1) {
+            code.op(LCONST_1, 2);
+        } else {
+            code.op2(LDC2_W, writer.longConstant(value), 2);
+        }
+    }
+
+    static void pushInt(MethodCode target, int value) {
+        if (value <= 5) {
+            target.op(ICONST_0 + value, 1);
+        } else {
+            target.op1(BIPUSH, value, 1);
+        }
+    }
+
+    private void pop(Type type) {
+        code.op(type == Type.INT ? POP2 : POP, -size(type));
+    }
+
+    private static int size(Type type) {
+        return type == Type.INT ? 2 : 1;
+    }
+}
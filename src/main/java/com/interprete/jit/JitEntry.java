@@ -0,0 +1,12 @@
+package com.interprete.jit;
+
+/**
+ * Superclase de las clases ocultas que genera el JIT.
+ * Los enteros viajan como long y los booleanos como 0/1.
+ */
+public abstract class JitEntry {
+    protected JitEntry() {
+    }
+
+    public abstract long call(long[] args);
+}
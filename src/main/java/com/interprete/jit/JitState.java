@@ -0,0 +1,11 @@
+package com.interprete.jit;
+
+/**
+ * Estado del JIT para un FunctionLiteral: cuánto se ejecutó y su código compilado.
+ * Lo comparten todas las closures creadas a partir del mismo literal.
+ */
+public final class JitState {
+    int hotness;
+    JitCode code;
+    boolean rejected;
+}
@@ -0,0 +1,96 @@
+package com.interprete.jit;
+
+import com.interprete.ast.FunctionLiteral;
+import com.interprete.object.MFunction;
+import com.interprete.object.MObject;
+
+import java.util.List;
+
+/**
+ * Nivel JIT del Evaluator: cuenta llamadas e iteraciones de bucles de cada función
+ * y, al superar el umbral, compila su cuerpo a bytecode de la JVM.
+ *
+ * Si la función usa algo fuera del subconjunto soportado, queda marcada y se
+ * sigue interpretando.
+ */
+public class JitTier {
+    public static final int DEFAULT_THRESHOLD = 1000;
+
+    private final int threshold;
+
+    public JitTier() {
+        this(DEFAULT_THRESHOLD);
+    }
+
+    /**
+     * @param threshold llamadas más iteraciones de bucles antes de compilar
+     */
+    public JitTier(int threshold) {
+        if (threshold < 1) {
+            throw new IllegalArgumentException("El umbral del JIT debe ser positivo: " + threshold);
+        }
+        this.threshold = threshold;
+    }
+
+    public int getThreshold() {
+        return threshold;
+    }
+
+    /**
+     * Ejecuta la función con código compilado si lo hay (o si toca compilarla ahora).
+     * @return el resultado, o null si la llamada debe interpretarse
+     */
+    public MObject invoke(MFunction fn, List<MObject> args) {
+        FunctionLiteral literal = fn.getLiteral();
+        if (literal == null) {
+            return null;
+        }
+
+        JitState state = stateOf(literal);
+        if (state.code == null) {
+            if (state.rejected || ++state.hotness < threshold) {
+                return null;
+            }
+            state.code = JitCompiler.compile(fn);
+            if (state.code == null) {
+                state.rejected = true;
+                return null;
+            }
+        }
+        return state.code.invoke(fn, args);
+    }
+
+    /**
+     * Registra una iteración de un bucle dentro de la función. No hay reemplazo
+     * en caliente: el código compilado se usa a partir de la siguiente llamada.
+     */
+    public void countIteration(FunctionLiteral literal) {
+        stateOf(literal).hotness++;
+    }
+
+    /**
+     * Registra varias iteraciones a la vez (las que hizo una traza).
+     */
+    public void countIterations(FunctionLiteral literal, long count) {
+        JitState state = stateOf(literal);
+        state.hotness = (int) Math.min(state.hotness + count, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Arranca la función con la temperatura que tuvo en otra ejecución: si
+     * llega al umbral, se compila en la primera llamada.
+     */
+    public void warmUp(FunctionLiteral literal, long hotness) {
+        JitState state = stateOf(literal);
+        state.hotness = (int) Math.max(state.hotness, Math.min(hotness, threshold));
+    }
+
+    private static JitState stateOf(FunctionLiteral literal) {
+        JitState state = literal.getJitState();
+        if (state == null) {
+            state = new JitState();
+            literal.setJitState(state);
+        }
+        return state;
+    }
+}
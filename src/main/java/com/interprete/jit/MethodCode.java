@@ -0,0 +1,172 @@
+package com.interprete.jit;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Bytecode de un método JVM en construcción.
+ *
+ * Lleva la cuenta de la altura de la pila (en slots) para calcular max_stack
+ * y resuelve los saltos hacia adelante cuando se marca su etiqueta.
+ */
+final class MethodCode {
+    static final int ICONST_0 = 0x03;
+    static final int ICONST_1 = 0x04;
+    static final int LCONST_0 = 0x09;
+    static final int LCONST_1 = 0x0A;
+    static final int BIPUSH = 0x10;
+    static final int LDC2_W = 0x14;
+    static final int ILOAD = 0x15;
+    static final int LLOAD = 0x16;
+    static final int ALOAD_0 = 0x2A;
+    static final int ALOAD_1 = 0x2B;
+    static final int LALOAD = 0x2F;
+    static final int ISTORE = 0x36;
+    static final int LSTORE = 0x37;
+    static final int LASTORE = 0x50;
+    static final int POP = 0x57;
+    static final int POP2 = 0x58;
+    static final int DUP = 0x59;
+    static final int DUP2 = 0x5C;
+    static final int LADD = 0x61;
+    static final int LSUB = 0x65;
+    static final int LMUL = 0x69;
+    static final int LDIV = 0x6D;
+    static final int LNEG = 0x75;
+    static final int IXOR = 0x82;
+    static final int LXOR = 0x83;
+    static final int I2L = 0x85;
+    static final int L2I = 0x88;
+    static final int LCMP = 0x94;
+    static final int IFEQ = 0x99;
+    static final int IFNE = 0x9A;
+    static final int IFLT = 0x9B;
+    static final int IFGE = 0x9C;
+    static final int IFGT = 0x9D;
+    static final int IFLE = 0x9E;
+    static final int IF_ICMPEQ = 0x9F;
+    static final int IF_ICMPNE = 0xA0;
+    static final int GOTO = 0xA7;
+    static final int LRETURN = 0xAD;
+    static final int RETURN = 0xB1;
+    static final int INVOKESPECIAL = 0xB7;
+    static final int INVOKESTATIC = 0xB8;
+
+    private static final int MAX_CODE_LENGTH = 0xFFFF;
+
+    private byte[] code = new byte[64];
+    private int length;
+    private int stack;
+    private int maxStack;
+    private int maxLocals;
+
+    /**
+     * Instrucción sin operandos.
+     * @param stackEffect variación de la pila en slots
+     */
+    void op(int opcode, int stackEffect) {
+        emit(opcode);
+        adjust(stackEffect);
+    }
+
+    /**
+     * Instrucción con un operando de un byte (índice de local o bipush).
+     */
+    void op1(int opcode, int operand, int stackEffect) {
+        emit(opcode);
+        emit(operand);
+        adjust(stackEffect);
+    }
+
+    /**
+     * Instrucción con un operando de dos bytes (índice del constant pool).
+     */
+    void op2(int opcode, int operand, int stackEffect) {
+        emit(opcode);
+        emit(operand >>> 8);
+        emit(operand);
+        adjust(stackEffect);
+    }
+
+    void jump(int opcode, Label target, int stackEffect) {
+        int at = length;
+        emit(opcode);
+        emit(0);
+        emit(0);
+        adjust(stackEffect);
+
+        if (target.position >= 0) {
+            patch(at, target.position);
+        } else {
+            target.pending.add(at);
+        }
+    }
+
+    void mark(Label label) {
+        label.position = length;
+        for (int at : label.pending) {
+            patch(at, length);
+        }
+        label.pending.clear();
+    }
+
+    int getStack() {
+        return stack;
+    }
+
+    /**
+     * Fija la altura de la pila al comenzar un camino alternativo (ej: la rama else).
+     */
+    void setStack(int stack) {
+        this.stack = stack;
+    }
+
+    void useLocals(int count) {
+        maxLocals = Math.max(maxLocals, count);
+    }
+
+    int getMaxStack() {
+        return maxStack;
+    }
+
+    int getMaxLocals() {
+        return maxLocals;
+    }
+
+    byte[] getBytes() {
+        return Arrays.copyOf(code, length);
+    }
+
+    private void patch(int at, int target) {
+        int offset = target - at;
+        if (offset < Short.MIN_VALUE || offset > Short.MAX_VALUE) {
+            throw new Bailout("salto demasiado largo");
+        }
+        code[at + 1] = (byte) (offset >> 8);
+        code[at + 2] = (byte) offset;
+    }
+
+    private void adjust(int stackEffect) {
+        stack += stackEffect;
+        maxStack = Math.max(maxStack, stack);
+    }
+
+    private void emit(int value) {
+        if (length == code.length) {
+            if (length >= MAX_CODE_LENGTH) {
+                throw new Bailout("método demasiado grande");
+            }
+            code = Arrays.copyOf(code, length * 2);
+        }
+        code[length++] = (byte) value;
+    }
+
+    /**
+     * Destino de un salto; puede usarse antes de conocer su posición.
+     */
+    static final class Label {
+        private int position = -1;
+        private final List<Integer> pending = new ArrayList<>();
+    }
+}
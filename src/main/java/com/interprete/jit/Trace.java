@@ -0,0 +1,20 @@
+package com.interprete.jit;
+
+import com.interprete.jit.TraceRecorder.Type;
+import com.interprete.jit.TraceRecorder.Variable;
+
+/**
+ * Una traza compilada: el código, las variables que usa con el tipo que se
+ * supuso para cada una y el tipo del valor del cuerpo.
+ */
+final class Trace {
+    final TraceEntry entry;
+    final Variable[] variables;
+    final Type resultType;
+
+    Trace(TraceEntry entry, Variable[] variables, Type resultType) {
+        this.entry = entry;
+        this.variables = variables;
+        this.resultType = resultType;
+    }
+}
@@ -0,0 +1,236 @@
+package com.interprete.jit;
+
+import com.interprete.jit.MethodCode.Label;
+import com.interprete.jit.TraceRecorder.Op;
+import com.interprete.jit.TraceRecorder.Value;
+import com.interprete.jit.TraceRecorder.Variable;
+
+import java.lang.invoke.MethodHandles;
+import java.util.List;
+
+import static com.interprete.jit.MethodCode.*;
+
+/**
+ * Compila una traza grabada a un método run(long[]) que la repite en un ciclo.
+ *
+ * Cada variable tiene dos locales de la JVM: el valor de trabajo y el de la
+ * última iteración completa. Al fallar una guarda (incluida la condición del
+ * bucle) se descarta la iteración en curso: el estado queda como al empezarla
+ * y el Evaluator la vuelve a ejecutar desde la condición.
+ */
+final class TraceCompiler {
+    private static final String CLASS_NAME = "com/interprete/jit/TraceCode";
+    private static final String ENTRY_NAME = "com/interprete/jit/TraceEntry";
+    private static final int MAX_LOCALS = 255;
+    // Locales 0 y 1: this y el arreglo de estado
+    private static final int FIRST_LOCAL = 2;
+
+    private final TraceRecorder recording;
+    private final List<Variable> variables;
+    private final ClassFileWriter writer = new ClassFileWriter(CLASS_NAME, ENTRY_NAME);
+    private final MethodCode code = new MethodCode();
+    private final Label exit = new Label();
+    private final int countLocal;
+    private final int resultLocal;
+    private final int firstTemp;
+
+    private TraceCompiler(TraceRecorder recording) {
+        this.recording = recording;
+        this.variables = recording.getVariables();
+        this.countLocal = FIRST_LOCAL + 4 * variables.size();
+        this.resultLocal = countLocal + 2;
+        this.firstTemp = resultLocal + 2;
+        if (firstTemp + 2 * recording.getTemps() > MAX_LOCALS) {
+            throw new Bailout("demasiados locales");
+        }
+    }
+
+    /**
+     * @return la traza compilada, o null si no se pudo generar o cargar
+     */
+    static Trace compile(TraceRecorder recording) {
+        byte[] bytes;
+        try {
+            bytes = new TraceCompiler(recording).generate();
+        } catch (Bailout e) {
+            return null;
+        }
+
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup().defineHiddenClass(bytes, true);
+            TraceEntry entry = (TraceEntry) lookup.lookupClass().getDeclaredConstructor().newInstance();
+            return new Trace(entry, recording.getVariables().toArray(new Variable[0]),
+                recording.getResult().type);
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return null;
+        }
+    }
+
+    private byte[] generate() {
+        for (Variable variable : variables) {
+            code.op(ALOAD_1, 1);
+            JitCompiler.pushInt(code, variable.index);
+            code.op(LALOAD, 0);
+            code.op(DUP2, 2);
+            code.op1(LSTORE, working(variable), -2);
+            code.op1(LSTORE, committed(variable), -2);
+        }
+        code.op(LCONST_0, 2);
+        code.op1(LSTORE, countLocal, -2);
+        code.op(LCONST_0, 2);
+        code.op1(LSTORE, resultLocal, -2);
+
+        Label loop = new Label();
+        code.mark(loop);
+        for (Op op : recording.getOps()) {
+            compile(op);
+        }
+
+        // Iteración completa: pasa a ser el estado al que vuelven las guardas
+        for (Variable variable : variables) {
+            if (variable.written) {
+                code.op1(LLOAD, working(variable), 2);
+                code.op1(LSTORE, committed(variable), -2);
+            }
+        }
+        push(recording.getResult());
+        code.op1(LSTORE, resultLocal, -2);
+        code.op1(LLOAD, countLocal, 2);
+        code.op(LCONST_1, 2);
+        code.op(LADD, -2);
+        code.op1(LSTORE, countLocal, -2);
+        code.jump(GOTO, loop, 0);
+
+        code.mark(exit);
+        code.setStack(0);
+        for (Variable variable : variables) {
+            if (variable.written) {
+                storeState(variable.index, committed(variable));
+            }
+        }
+        storeState(variables.size(), resultLocal);
+        code.op1(LLOAD, countLocal, 2);
+        code.op(LRETURN, -2);
+        code.useLocals(firstTemp + 2 * recording.getTemps());
+
+        writer.addMethod(ClassFileWriter.ACC_PUBLIC, "<init>", "()V", constructor());
+        writer.addMethod(ClassFileWriter.ACC_PUBLIC, "run", "([J)J", code);
+        return writer.toByteArray();
+    }
+
+    private MethodCode constructor() {
+        MethodCode init = new MethodCode();
+        init.op(ALOAD_0, 1);
+        init.op2(INVOKESPECIAL, writer.methodRef(ENTRY_NAME, "<init>", "()V"), -1);
+        init.op(RETURN, 0);
+        init.useLocals(1);
+        return init;
+    }
+
+    private void compile(Op op) {
+        switch (op.code()) {
+            case LOAD -> {
+                code.op1(LLOAD, working(op.variable()), 2);
+                code.op1(LSTORE, temp(op.target()), -2);
+            }
+            case NEG -> {
+                push(op.left());
+                code.op(LNEG, 0);
+                code.op1(LSTORE, temp(op.target()), -2);
+            }
+            case NOT -> {
+                push(op.left());
+                code.op(LCONST_1, 2);
+                code.op(LXOR, -2);
+                code.op1(LSTORE, temp(op.target()), -2);
+            }
+            case ARITH -> {
+                push(op.left());
+                push(op.right());
+                int opcode = switch (op.operator()) {
+                    case "+" -> LADD;
+                    case "-" -> LSUB;
+                    case "*" -> LMUL;
+                    default -> LDIV;
+                };
+                code.op(opcode, -2);
+                code.op1(LSTORE, temp(op.target()), -2);
+            }
+            case COMPARE -> {
+                push(op.left());
+                push(op.right());
+                code.op(LCMP, -3);
+                Label ifFalse = new Label();
+                Label end = new Label();
+                code.jump(negatedJump(op.operator()), ifFalse, -1);
+                code.op(LCONST_1, 2);
+                code.jump(GOTO, end, 0);
+                code.mark(ifFalse);
+                code.setStack(0);
+                code.op(LCONST_0, 2);
+                code.mark(end);
+                code.op1(LSTORE, temp(op.target()), -2);
+            }
+            case GUARD -> {
+                push(op.left());
+                code.op(L2I, -1);
+                code.jump(op.expected() ? IFEQ : IFNE, exit, -1);
+            }
+            case GUARD_NONZERO -> {
+                push(op.left());
+                code.op(LCONST_0, 2);
+                code.op(LCMP, -3);
+                code.jump(IFEQ, exit, -1);
+            }
+            case STORE -> {
+                push(op.left());
+                code.op1(LSTORE, working(op.variable()), -2);
+            }
+        }
+    }
+
+    /**
+     * @return el salto que se toma cuando la comparación es falsa
+     */
+    private static int negatedJump(String operator) {
+        return switch (operator) {
+            case "<" -> IFGE;
+            case ">" -> IFLE;
+            case "<=" -> IFGT;
+            case ">=" -> IFLT;
+            case "==" -> IFNE;
+            default -> IFEQ;
+        };
+    }
+
+    private void push(Value value) {
+        if (!value.isConstant()) {
+            code.op1(LLOAD, temp(value.temp), 2);
+        } else if (value.constant == 0) {
+            code.op(LCONST_0, 2);
+        } else if (value.constant == 1) {
+            code.op(LCONST_1, 2);
+        } else {
+            code.op2(LDC2_W, writer.longConstant(value.constant), 2);
+        }
+    }
+
+    private void storeState(int index, int local) {
+        code.op(ALOAD_1, 1);
+        JitCompiler.pushInt(code, index);
+        code.op1(LLOAD, local, 2);
+        code.op(LASTORE, -4);
+    }
+
+    private static int working(Variable variable) {
+        return FIRST_LOCAL + 4 * variable.index;
+    }
+
+    private static int committed(Variable variable) {
+        return FIRST_LOCAL + 4 * variable.index + 2;
+    }
+
+    private int temp(int temp) {
+        return firstTemp + 2 * temp;
+    }
+}
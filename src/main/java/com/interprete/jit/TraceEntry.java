@@ -0,0 +1,17 @@
+package com.interprete.jit;
+
+/**
+ * Superclase de las clases ocultas que genera el compilador de trazas.
+ */
+public abstract class TraceEntry {
+    protected TraceEntry() {
+    }
+
+    /**
+     * Repite la traza hasta que falla una guarda.
+     * @param state las variables al entrar; al salir, las de la última iteración
+     *              completa seguidas del valor de su cuerpo
+     * @return cantidad de iteraciones completas
+     */
+    public abstract long run(long[] state);
+}
@@ -0,0 +1,431 @@
+package com.interprete.jit;
+
+import com.interprete.ast.*;
+import com.interprete.evaluator.Environment;
+import com.interprete.object.MBoolean;
+import com.interprete.object.MInteger;
+import com.interprete.object.MNull;
+import com.interprete.object.MObject;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Graba la traza de un bucle caliente: ejecuta una iteración (condición,
+ * cuerpo e incremento) sobre una copia de las variables, sin tocar el
+ * environment, y anota cada operación con los tipos que observó.
+ *
+ * Los if quedan fijos en la rama observada detrás de una guarda. Llamadas,
+ * funciones, return, bucles anidados, variables sin resolver y valores que no
+ * sean enteros, booleanos o null abortan la grabación.
+ */
+final class TraceRecorder {
+    static final int MAX_OPS = 200;
+
+    enum Type { INT, BOOL, NULL }
+
+    enum Code {
+        LOAD,           // target = variable
+        NEG,            // target = -left
+        NOT,            // target = left ^ 1
+        ARITH,          // target = left operator right
+        COMPARE,        // target = left operator right ? 1 : 0
+        GUARD,          // sale de la traza si left no es expected
+        GUARD_NONZERO,  // sale de la traza si left es 0
+        STORE           // variable = left
+    }
+
+    /**
+     * Variable que la traza lee o escribe. Su tipo es el que tenía al grabar
+     * y no puede cambiar dentro de la traza.
+     */
+    static final class Variable {
+        enum Kind { LOCAL, GLOBAL, CAPTURED }
+
+        final Kind kind;
+        final int slot;
+        final String name;
+        final int symbol;
+        final Type type;
+        // Posición en el arreglo de estado de la traza
+        final int index;
+        boolean written;
+        // Valor actual mientras se graba
+        MObject value;
+
+        Variable(Kind kind, int slot, Identifier identifier, Type type, int index) {
+            this.kind = kind;
+            this.slot = slot;
+            this.name = identifier.getValue();
+            this.symbol = identifier.getSymbol();
+            this.type = type;
+            this.index = index;
+        }
+
+        MObject read(Environment env) {
+            return read(env, kind, slot, symbol);
+        }
+
+        static MObject read(Environment env, Kind kind, int slot, int symbol) {
+            MObject value = switch (kind) {
+                case LOCAL -> env.get(0, slot, symbol);
+                case GLOBAL -> env.getGlobal(slot);
+                case CAPTURED -> env.getCaptured(slot);
+            };
+            return value != null ? value : MNull.getInstance();
+        }
+
+        void write(Environment env, MObject value) {
+            if (kind == Kind.LOCAL) {
+                env.set(slot, value);
+            } else if (kind == Kind.GLOBAL) {
+                env.setGlobal(slot, value);
+            } else {
+                throw new IllegalStateException("Captured variable written by a trace: " + name);
+            }
+        }
+    }
+
+    /**
+     * Resultado de una operación: una constante o un temporal de la traza.
+     */
+    static final class Value {
+        final Type type;
+        final int temp;
+        final long constant;
+        // Lo que valió durante la grabación
+        final MObject concrete;
+
+        private Value(Type type, int temp, long constant, MObject concrete) {
+            this.type = type;
+            this.temp = temp;
+            this.constant = constant;
+            this.concrete = concrete;
+        }
+
+        boolean isConstant() {
+            return temp < 0;
+        }
+    }
+
+    record Op(Code code, String operator, int target, Variable variable, Value left, Value right, boolean expected) {
+    }
+
+    private final Environment env;
+    private final Map<String, Variable> variables = new LinkedHashMap<>();
+    private final List<Op> ops = new ArrayList<>();
+    private int temps;
+    private Value result;
+
+    private TraceRecorder(Environment env) {
+        this.env = env;
+    }
+
+    /**
+     * Graba la iteración que está por empezar.
+     * @return la grabación, o null si el bucle termina ahora (se puede volver a intentar)
+     * @throws Bailout si el bucle usa algo que las trazas no soportan
+     */
+    static TraceRecorder record(Statement loop, Environment env) {
+        TraceRecorder recorder = new TraceRecorder(env);
+        recorder.result = recorder.iteration(loop);
+        return recorder.result != null ? recorder : null;
+    }
+
+    List<Variable> getVariables() {
+        return new ArrayList<>(variables.values());
+    }
+
+    List<Op> getOps() {
+        return ops;
+    }
+
+    int getTemps() {
+        return temps;
+    }
+
+    /**
+     * @return el valor del cuerpo, que es el resultado del bucle si termina en esta iteración
+     */
+    Value getResult() {
+        return result;
+    }
+
+    static Type typeOf(MObject value) {
+        if (value instanceof MInteger) {
+            return Type.INT;
+        } else if (value instanceof MBoolean) {
+            return Type.BOOL;
+        } else if (value instanceof MNull) {
+            return Type.NULL;
+        }
+        return null;
+    }
+
+    /**
+     * Los enteros viajan como long y los booleanos como 0/1.
+     */
+    static long unbox(MObject value) {
+        if (value instanceof MInteger) {
+            return ((MInteger) value).getValue();
+        }
+        return value == MBoolean.TRUE ? 1 : 0;
+    }
+
+    static MObject box(Type type, long value) {
+        return switch (type) {
+            case INT -> MInteger.valueOf(value);
+            case BOOL -> value != 0 ? MBoolean.TRUE : MBoolean.FALSE;
+            case NULL -> MNull.getInstance();
+        };
+    }
+
+    private Value iteration(Statement loop) {
+        if (loop instanceof WhileStatement) {
+            WhileStatement stmt = (WhileStatement) loop;
+            if (!branch(expression(stmt.getCondition()))) {
+                return null;
+            }
+            return block(stmt.getBody());
+        } else if (loop instanceof ForStatement) {
+            ForStatement stmt = (ForStatement) loop;
+            if (stmt.getCondition() != null && !branch(expression(stmt.getCondition()))) {
+                return null;
+            }
+            Value body = block(stmt.getBody());
+            if (stmt.getIncrement() != null) {
+                statement(stmt.getIncrement());
+            }
+            return body;
+        }
+        throw new Bailout("no es un bucle");
+    }
+
+    private Value block(BlockStatement block) {
+        Value value = constant(Type.NULL, 0);
+        if (block != null && block.getStatements() != null) {
+            for (Statement stmt : block.getStatements()) {
+                value = statement(stmt);
+            }
+        }
+        return value;
+    }
+
+    private Value statement(Statement stmt) {
+        if (stmt instanceof LetStatement) {
+            return let((LetStatement) stmt);
+        } else if (stmt instanceof ExpressionStatement) {
+            return expression(((ExpressionStatement) stmt).getExpression());
+        } else if (stmt instanceof BlockStatement) {
+            return block((BlockStatement) stmt);
+        }
+        throw new Bailout("statement no soportado: " + stmt.tokenLiteral());
+    }
+
+    private Value let(LetStatement stmt) {
+        Value value = expression(stmt.getValue());
+        Identifier name = stmt.getName();
+        Variable variable;
+        if (name.getDepth() >= 0) {
+            variable = variable(Variable.Kind.LOCAL, name.getSlot(), name);
+        } else if (name.getDepth() == Identifier.GLOBAL) {
+            variable = variable(Variable.Kind.GLOBAL, name.getSlot(), name);
+        } else {
+            throw new Bailout("let sin resolver: " + name.getValue());
+        }
+        if (value.type != variable.type) {
+            throw new Bailout("la variable cambia de tipo: " + name.getValue());
+        }
+
+        variable.written = true;
+        variable.value = value.concrete;
+        emit(new Op(Code.STORE, null, -1, variable, value, null, false));
+        return value;
+    }
+
+    private Value expression(Expression node) {
+        if (node == null) {
+            return constant(Type.NULL, 0);
+        } else if (node instanceof IntegerLiteral) {
+            return constant(Type.INT, ((IntegerLiteral) node).getValue());
+        } else if (node instanceof BooleanLiteral) {
+            return constant(Type.BOOL, ((BooleanLiteral) node).getValue() ? 1 : 0);
+        } else if (node instanceof Identifier) {
+            return identifier((Identifier) node);
+        } else if (node instanceof PrefixExpression) {
+            PrefixExpression exp = (PrefixExpression) node;
+            return prefix(exp.getOperator(), expression(exp.getRight()));
+        } else if (node instanceof InfixExpression) {
+            InfixExpression exp = (InfixExpression) node;
+            Value left = expression(exp.getLeft());
+            Value right = expression(exp.getRight());
+            return infix(exp.getOperator(), left, right);
+        } else if (node instanceof IfExpression) {
+            IfExpression exp = (IfExpression) node;
+            if (branch(expression(exp.getCondition()))) {
+                return block(exp.getConsequence());
+            } else if (exp.getAlternative() != null) {
+                return block(exp.getAlternative());
+            }
+            return constant(Type.NULL, 0);
+        }
+        throw new Bailout("expresión no soportada: " + node.tokenLiteral());
+    }
+
+    private Value identifier(Identifier node) {
+        Variable variable;
+        if (node.getDepth() > 0) {
+            variable = variable(Variable.Kind.CAPTURED, node.getCapture(), node);
+        } else if (node.getDepth() == 0) {
+            variable = variable(Variable.Kind.LOCAL, node.getSlot(), node);
+        } else if (node.getDepth() == Identifier.GLOBAL) {
+            variable = variable(Variable.Kind.GLOBAL, node.getSlot(), node);
+        } else {
+            throw new Bailout("variable sin resolver: " + node.getValue());
+        }
+
+        if (variable.type == Type.NULL) {
+            return constant(Type.NULL, 0);
+        }
+        // Se copia a un temporal: un let posterior no debe cambiar el valor leído
+        Value value = temp(variable.type, variable.value);
+        emit(new Op(Code.LOAD, null, value.temp, variable, null, null, false));
+        return value;
+    }
+
+    private Variable variable(Variable.Kind kind, int slot, Identifier identifier) {
+        String key = kind + ":" + slot;
+        Variable variable = variables.get(key);
+        if (variable == null) {
+            // El environment no cambia mientras se graba: esto es lo que valía al entrar
+            MObject value = Variable.read(env, kind, slot, identifier.getSymbol());
+            Type type = typeOf(value);
+            if (type == null) {
+                throw new Bailout("valor no soportado en " + identifier.getValue() + ": " + value.inspect());
+            }
+            variable = new Variable(kind, slot, identifier, type, variables.size());
+            variable.value = value;
+            variables.put(key, variable);
+        }
+        return variable;
+    }
+
+    /**
+     * Decide la rama como el Evaluator y, si depende de un valor que cambia,
+     * agrega una guarda para la dirección observada.
+     */
+    private boolean branch(Value condition) {
+        boolean taken = condition.type == Type.INT
+            || (condition.type == Type.BOOL && condition.concrete == MBoolean.TRUE);
+        if (condition.type == Type.BOOL && !condition.isConstant()) {
+            emit(new Op(Code.GUARD, null, -1, null, condition, null, taken));
+        }
+        return taken;
+    }
+
+    private Value prefix(String operator, Value right) {
+        if (operator.equals("-")) {
+            if (right.type != Type.INT) {
+                return constant(Type.NULL, 0);
+            }
+            if (right.isConstant()) {
+                return constant(Type.INT, -right.constant);
+            }
+            Value value = temp(Type.INT, MInteger.valueOf(-unbox(right.concrete)));
+            emit(new Op(Code.NEG, null, value.temp, null, right, null, false));
+            return value;
+        } else if (operator.equals("!")) {
+            if (right.type == Type.INT) {
+                return constant(Type.BOOL, 0);
+            } else if (right.type == Type.NULL) {
+                return constant(Type.BOOL, 1);
+            } else if (right.isConstant()) {
+                return constant(Type.BOOL, right.constant ^ 1);
+            }
+            Value value = temp(Type.BOOL, box(Type.BOOL, unbox(right.concrete) ^ 1));
+            emit(new Op(Code.NOT, null, value.temp, null, right, null, false));
+            return value;
+        }
+        return constant(Type.NULL, 0);
+    }
+
+    private Value infix(String operator, Value left, Value right) {
+        if (left.type == Type.INT && right.type == Type.INT) {
+            return switch (operator) {
+                case "+", "-", "*", "/" -> arithmetic(operator, left, right);
+                case "<", ">", "<=", ">=", "==", "!=" -> compare(operator, left, right);
+                default -> constant(Type.NULL, 0);
+            };
+        }
+        if (!operator.equals("==") && !operator.equals("!=")) {
+            return constant(Type.NULL, 0);
+        }
+        if (left.type == Type.BOOL && right.type == Type.BOOL) {
+            return compare(operator, left, right);
+        }
+        // Tipos distintos nunca son idénticos; dos null sí
+        boolean same = left.type == right.type;
+        return constant(Type.BOOL, same == operator.equals("==") ? 1 : 0);
+    }
+
+    private Value arithmetic(String operator, Value left, Value right) {
+        long l = unbox(left.concrete);
+        long r = unbox(right.concrete);
+        if (operator.equals("/") && r == 0) {
+            throw new Bailout("división por cero");
+        }
+        long result = switch (operator) {
+            case "+" -> l + r;
+            case "-" -> l - r;
+            case "*" -> l * r;
+            default -> l / r;
+        };
+        if (left.isConstant() && right.isConstant()) {
+            return constant(Type.INT, result);
+        }
+
+        if (operator.equals("/") && !right.isConstant()) {
+            emit(new Op(Code.GUARD_NONZERO, null, -1, null, right, null, false));
+        }
+        Value value = temp(Type.INT, MInteger.valueOf(result));
+        emit(new Op(Code.ARITH, operator, value.temp, null, left, right, false));
+        return value;
+    }
+
+    private Value compare(String operator, Value left, Value right) {
+        long l = unbox(left.concrete);
+        long r = unbox(right.concrete);
+        boolean result = switch (operator) {
+            case "<" -> l < r;
+            case ">" -> l > r;
+            case "<=" -> l <= r;
+            case ">=" -> l >= r;
+            case "==" -> l == r;
+            default -> l != r;
+        };
+        if (left.isConstant() && right.isConstant()) {
+            return constant(Type.BOOL, result ? 1 : 0);
+        }
+
+        Value value = temp(Type.BOOL, box(Type.BOOL, result ? 1 : 0));
+        emit(new Op(Code.COMPARE, operator, value.temp, null, left, right, false));
+        return value;
+    }
+
+    private Value constant(Type type, long value) {
+        return new Value(type, -1, value, box(type, value));
+    }
+
+    private Value temp(Type type, MObject concrete) {
+        return new Value(type, temps++, 0, concrete);
+    }
+
+    private void emit(Op op) {
+        if (ops.size() == MAX_OPS) {
+            throw new Bailout("traza demasiado larga");
+        }
+        ops.add(op);
+    }
+}
@@ -0,0 +1,12 @@
+package com.interprete.jit;
+
+/**
+ * Estado de las trazas para un while o un for: vueltas contadas, la traza
+ * compilada y cuántas veces salió de ella casi sin iterar.
+ */
+public final class TraceState {
+    int hotness;
+    Trace trace;
+    boolean rejected;
+    int failures;
+}
@@ -0,0 +1,123 @@
+package com.interprete.jit;
+
+import com.interprete.ast.ForStatement;
+import com.interprete.ast.Statement;
+import com.interprete.ast.WhileStatement;
+import com.interprete.evaluator.Environment;
+import com.interprete.jit.TraceRecorder.Variable;
+import com.interprete.object.MObject;
+
+/**
+ * Trazas de bucles calientes: el Evaluator avisa en cada vuelta de un while o
+ * un for y, al superar el umbral, se graba la siguiente iteración y se compila
+ * a bytecode con guardas para los tipos y las ramas observadas.
+ *
+ * A diferencia del JitTier, que compila la función para la próxima llamada, la
+ * traza se usa enseguida: en cada vuelta, si las variables tienen los tipos
+ * supuestos, el bucle sigue en la traza hasta que falla una guarda y vuelve al
+ * Evaluator al comienzo de esa iteración.
+ */
+public class TraceTier {
+    // Salidas con menos iteraciones que esto cuentan como fallas
+    private static final int MIN_ITERATIONS = 2;
+    private static final int MAX_FAILURES = 16;
+
+    private final int threshold;
+    private long iterations;
+
+    /**
+     * @param threshold vueltas de un bucle antes de grabar su traza
+     */
+    public TraceTier(int threshold) {
+        if (threshold < 1) {
+            throw new IllegalArgumentException("El umbral de las trazas debe ser positivo: " + threshold);
+        }
+        this.threshold = threshold;
+    }
+
+    public int getThreshold() {
+        return threshold;
+    }
+
+    /**
+     * Registra una vuelta del bucle (después del cuerpo y del incremento) y, si
+     * hay traza, ejecuta con ella las iteraciones siguientes.
+     * @return el valor del cuerpo en la última iteración de la traza, o null si no se ejecutó ninguna
+     */
+    public MObject backEdge(Statement loop, Environment env) {
+        iterations = 0;
+        TraceState state = stateOf(loop);
+        if (state.trace == null) {
+            if (state.rejected || ++state.hotness < threshold) {
+                return null;
+            }
+            try {
+                TraceRecorder recording = TraceRecorder.record(loop, env);
+                if (recording == null) {
+                    // El bucle termina ahora: se graba en la próxima vuelta
+                    return null;
+                }
+                state.trace = TraceCompiler.compile(recording);
+            } catch (Bailout e) {
+                state.trace = null;
+            }
+            if (state.trace == null) {
+                state.rejected = true;
+                return null;
+            }
+        }
+
+        Trace trace = state.trace;
+        Variable[] variables = trace.variables;
+        long[] values = new long[variables.length + 1];
+        for (int i = 0; i < variables.length; i++) {
+            MObject value = variables[i].read(env);
+            if (TraceRecorder.typeOf(value) != variables[i].type) {
+                return null;
+            }
+            values[i] = TraceRecorder.unbox(value);
+        }
+
+        iterations = trace.entry.run(values);
+        if (iterations < MIN_ITERATIONS && ++state.failures == MAX_FAILURES) {
+            state.trace = null;
+            state.rejected = true;
+        }
+        if (iterations == 0) {
+            return null;
+        }
+        for (Variable variable : variables) {
+            if (variable.written) {
+                variable.write(env, TraceRecorder.box(variable.type, values[variable.index]));
+            }
+        }
+        return TraceRecorder.box(trace.resultType, values[variables.length]);
+    }
+
+    /**
+     * @return iteraciones que hizo la traza en la última llamada a {@link #backEdge}
+     */
+    public long getIterations() {
+        return iterations;
+    }
+
+    private static TraceState stateOf(Statement loop) {
+        TraceState state;
+        if (loop instanceof WhileStatement) {
+            WhileStatement stmt = (WhileStatement) loop;
+            state = stmt.getTraceState();
+            if (state == null) {
+                state = new TraceState();
+                stmt.setTraceState(state);
+            }
+        } else {
+            ForStatement stmt = (ForStatement) loop;
+            state = stmt.getTraceState();
+            if (state == null) {
+                state = new TraceState();
+                stmt.setTraceState(state);
+            }
+        }
+        return state;
+    }
+}
@@ -1,179 +1,260 @@
 package com.interprete.lexer;
 
+import com.interprete.token.Symbols;
 import com.interprete.token.Token;
 import com.interprete.token.TokenType;
 
 /**
  * El lexer identifica los tokens del código fuente.
  * Convierte el input string en una secuencia de tokens.
+ *
+ * Trabaja sobre los char del código con una tabla de clases para ASCII; solo
+ * crea strings para los números (substrings del código). Los identificadores
+ * se internan en {@link Symbols} y los demás tokens tienen siempre el mismo
+ * literal y se reutilizan.
  */
-public class Lexer {
+public class Lexer implements TokenSource {
+    // Clases de carácter de la tabla ASCII
+    static final byte OTHER = 0;
+    static final byte WHITESPACE = 1;
+    static final byte LETTER = 2;
+    static final byte DIGIT = 3;
+    static final byte SYMBOL = 4;
+
+    private static final byte[] CHAR_CLASS = new byte[128];
+    // Token de un solo carácter para cada símbolo ASCII (los de dos se ven en scan)
+    private static final Token[] SYMBOLS = new Token[128];
+    private static final Token[] FIXED = new Token[TokenType.values().length];
+
+    static {
+        for (char c = 0; c < 128; c++) {
+            if (Character.isWhitespace(c)) {
+                CHAR_CLASS[c] = WHITESPACE;
+            } else if (Character.isLetter(c) || c == '_') {
+                CHAR_CLASS[c] = LETTER;
+            } else if (Character.isDigit(c)) {
+                CHAR_CLASS[c] = DIGIT;
+            }
+        }
+        FIXED[TokenType.EOF.ordinal()] = new Token(TokenType.EOF, "");
+        for (TokenType type : TokenType.values()) {
+            if (!type.getLiteral().isEmpty()) {
+                FIXED[type.ordinal()] = new Token(type, type.getLiteral());
+                if (type.getLiteral().length() == 1) {
+                    char c = type.getLiteral().charAt(0);
+                    CHAR_CLASS[c] = SYMBOL;
+                    SYMBOLS[c] = FIXED[type.ordinal()];
+                }
+            }
+        }
+    }
+
     private final String source;
-    private int currentPos;
-    private String currentChar;
-    private int readCurrentPos;
-    
+    private final int end;
+    // Posición del carácter actual
+    private int position;
+    private int tokenStart;
+    // Línea actual y posición donde empieza; los saltos solo aparecen entre tokens
+    private int line;
+    private int lineStart;
+
     public Lexer(String source) {
-        this.source = source;
-        this.currentPos = 0;
-        this.readCurrentPos = 0;
-        this.currentChar = "";
-        readCharacter();
+        this(source, 0, source.length(), 1, 1);
     }
-    
+
     /**
-     * Lee el siguiente carácter y actualiza las posiciones.
+     * Lexer sobre un fragmento del código, por ejemplo el cuerpo de una función
+     * que se parsea después.
+     * @param start posición del primer carácter
+     * @param end posición siguiente al último carácter
+     * @param line línea del primer carácter
+     * @param column columna del primer carácter
      */
-    private void readCharacter() {
-        if (readCurrentPos >= source.length()) {
-            currentChar = "";
-        } else {
-            currentChar = String.valueOf(source.charAt(readCurrentPos));
-        }
-        currentPos = readCurrentPos;
-        readCurrentPos++;
+    public Lexer(String source, int start, int end, int line, int column) {
+        this.source = source;
+        this.end = end;
+        this.position = start;
+        this.line = line;
+        this.lineStart = start - column + 1;
     }
-    
+
     /**
-     * Omite espacios en blanco.
+     * Vuelve a leer desde una posición que ya pasó, por ejemplo para parsear
+     * de nuevo un cuerpo que se salteó.
+     * @param start posición del carácter desde donde se sigue
+     * @param line línea de ese carácter
+     * @param column columna de ese carácter
      */
-    private void skipWhitespace() {
-        while (currentChar.length() > 0 && Character.isWhitespace(currentChar.charAt(0))) {
-            readCharacter();
-        }
+    public void reset(int start, int line, int column) {
+        this.position = start;
+        this.line = line;
+        this.lineStart = start - column + 1;
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    @Override
+    public int getTokenStart() {
+        return tokenStart;
+    }
+
+    @Override
+    public int getTokenLine() {
+        return line;
     }
-    
+
+    @Override
+    public int getTokenColumn() {
+        return tokenStart - lineStart + 1;
+    }
+
     /**
-     * Lee el siguiente carácter sin avanzar el cursor.
-     * @return el siguiente carácter o "" si es EOF
+     * Clase de un carácter. Fuera de ASCII se preguntan letras (ñ, á, é, ...),
+     * dígitos y espacios a Character.
      */
-    private String peekCharacter() {
-        if (readCurrentPos >= source.length()) {
-            return "";
-        } else {
-            return String.valueOf(source.charAt(readCurrentPos));
+    static byte classOf(char c) {
+        if (c < 128) {
+            return CHAR_CLASS[c];
+        } else if (Character.isWhitespace(c)) {
+            return WHITESPACE;
+        } else if (Character.isLetter(c)) {
+            return LETTER;
+        } else if (Character.isDigit(c)) {
+            return DIGIT;
         }
+        return OTHER;
     }
-    
+
     /**
-     * Verifica si el carácter es una letra.
-     * Soporta caracteres en español (ñ, á, é, í, ó, ú).
+     * @return el carácter siguiente al actual, o 0 si no hay
      */
-    private boolean isLetter(String character) {
-        if (character.isEmpty()) return false;
-        char c = character.charAt(0);
-        return Character.isLetter(c) || c == '_';
+    private char peekCharacter() {
+        return position + 1 < end ? source.charAt(position + 1) : 0;
     }
-    
+
     /**
-     * Verifica si el carácter es un dígito.
+     * @return el token que siempre tiene el mismo literal para ese tipo, o null
+     *         si el literal sale del código (identificadores, números, ilegales)
      */
-    private boolean isNumber(String character) {
-        if (character.isEmpty()) return false;
-        return Character.isDigit(character.charAt(0));
+    static Token fixedToken(TokenType type) {
+        return FIXED[type.ordinal()];
     }
-    
+
     /**
-     * Lee un identificador completo (letras y dígitos).
+     * @return el token de un símbolo de un carácter (c tiene que ser de clase SYMBOL)
      */
-    private String readIdentifier() {
-        int initialPosition = currentPos;
-        boolean isFirstLetter = true;
-        
-        while ((isLetter(currentChar)) || (!isFirstLetter && isNumber(currentChar))) {
-            readCharacter();
-            isFirstLetter = false;
-        }
-        
-        return source.substring(initialPosition, currentPos);
+    static Token symbolToken(char c) {
+        return SYMBOLS[c];
     }
-    
+
     /**
-     * Lee un número entero.
+     * @return el operador de dos caracteres que forma c seguido de '=', o null
      */
-    private String readNumber() {
-        int initialPosition = currentPos;
-        
-        while (isNumber(currentChar)) {
-            readCharacter();
+    static TokenType withEquals(char c) {
+        return switch (c) {
+            case '=' -> TokenType.EQ;
+            case '!' -> TokenType.NOE;
+            case '<' -> TokenType.LTE;
+            case '>' -> TokenType.GTE;
+            default -> null;
+        };
+    }
+
+    @Override
+    public Token nextToken() {
+        TokenType type = scan();
+        Token fixed = FIXED[type.ordinal()];
+        if (fixed != null) {
+            return fixed;
+        } else if (type == TokenType.IDENT) {
+            return new Token(type, Symbols.name(Symbols.intern(source, tokenStart, position)));
         }
-        
-        return source.substring(initialPosition, currentPos);
+        return new Token(type, source.substring(tokenStart, position));
     }
-    
+
     /**
-     * Devuelve el siguiente token.
+     * Avanza sobre el siguiente token sin crearlo: queda entre
+     * {@link #getTokenStart()} y {@link #getTokenEnd()}.
+     * @return su tipo
      */
-    public Token nextToken() {
-        skipWhitespace();
-        
-        if (currentChar.isEmpty()) {
-            return new Token(TokenType.EOF, "");
+    public TokenType scan() {
+        // Omite espacios en blanco
+        while (position < end) {
+            char c = source.charAt(position);
+            if (classOf(c) != WHITESPACE) {
+                break;
+            }
+            if (c == '\n') {
+                line++;
+                lineStart = position + 1;
+            }
+            position++;
+        }
+        tokenStart = position;
+
+        if (position >= end) {
+            return TokenType.EOF;
         }
-        
-        Token token = null;
-        
-        // Operadores de dos caracteres
-        if (currentChar.equals("=")) {
-            if (peekCharacter().equals("=")) {
-                readCharacter();
-                token = new Token(TokenType.EQ, "==");
-            } else {
-                token = new Token(TokenType.ASSIGN, currentChar);
+
+        char c = source.charAt(position);
+        switch (classOf(c)) {
+            case LETTER -> {
+                return readIdentifier();
+            }
+            case DIGIT -> {
+                return readNumber();
             }
-        } else if (currentChar.equals("+")) {
-            token = new Token(TokenType.PLUS, currentChar);
-        } else if (currentChar.equals(",")) {
-            token = new Token(TokenType.COMMA, currentChar);
-        } else if (currentChar.equals(";")) {
-            token = new Token(TokenType.SEMICOLON, currentChar);
-        } else if (currentChar.equals(">")) {
-            if (peekCharacter().equals("=")) {
-                readCharacter();
-                token = new Token(TokenType.GTE, ">=");
-            } else {
-                token = new Token(TokenType.GT, currentChar);
+            case SYMBOL -> {
+                // Operadores de dos caracteres
+                if (peekCharacter() == '=') {
+                    TokenType twoChars = withEquals(c);
+                    if (twoChars != null) {
+                        position += 2;
+                        return twoChars;
+                    }
+                }
+                position++;
+                return SYMBOLS[c].tokenType();
             }
-        } else if (currentChar.equals("<")) {
-            if (peekCharacter().equals("=")) {
-                readCharacter();
-                token = new Token(TokenType.LTE, "<=");
-            } else {
-                token = new Token(TokenType.LT, currentChar);
+            default -> {
+                position++;
+                return TokenType.ILLEGAL;
             }
-        } else if (currentChar.equals("!")) {
-            if (peekCharacter().equals("=")) {
-                readCharacter();
-                token = new Token(TokenType.NOE, "!=");
-            } else {
-                token = new Token(TokenType.NOT, currentChar);
+        }
+    }
+
+    /**
+     * @return posición siguiente al último carácter del último token
+     */
+    public int getTokenEnd() {
+        return position;
+    }
+
+    /**
+     * Lee un identificador completo (letras y dígitos) o una keyword.
+     */
+    private TokenType readIdentifier() {
+        int start = position;
+        position++;
+        while (position < end) {
+            byte charClass = classOf(source.charAt(position));
+            if (charClass != LETTER && charClass != DIGIT) {
+                break;
             }
-        } else if (currentChar.equals("(")) {
-            token = new Token(TokenType.LPAREN, currentChar);
-        } else if (currentChar.equals(")")) {
-            token = new Token(TokenType.RPAREN, currentChar);
-        } else if (currentChar.equals("{")) {
-            token = new Token(TokenType.LBRACE, currentChar);
-        } else if (currentChar.equals("}")) {
-            token = new Token(TokenType.RBRACE, currentChar);
-        } else if (currentChar.equals("-")) {
-            token = new Token(TokenType.MINUS, currentChar);
-        } else if (currentChar.equals("*")) {
-            token = new Token(TokenType.MULTIPLICATION, currentChar);
-        } else if (currentChar.equals("/")) {
-            token = new Token(TokenType.DIVISION, currentChar);
-        } else if (isLetter(currentChar)) {
-            String literal = readIdentifier();
-            TokenType tokenType = TokenType.lookupTokenType(literal);
-            return new Token(tokenType, literal);
-        } else if (isNumber(currentChar)) {
-            String literal = readNumber();
-            return new Token(TokenType.INT, literal);
-        } else {
-            token = new Token(TokenType.ILLEGAL, currentChar);
+            position++;
+        }
+        return TokenType.lookupKeyword(source, start, position);
+    }
+
+    /**
+     * Lee un número entero.
+     */
+    private TokenType readNumber() {
+        while (position < end && classOf(source.charAt(position)) == DIGIT) {
+            position++;
         }
-        
-        readCharacter();
-        return token;
+        return TokenType.INT;
     }
 }
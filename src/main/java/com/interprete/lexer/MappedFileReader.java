@@ -0,0 +1,70 @@
+package com.interprete.lexer;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reader sobre un archivo UTF-8 que lo mapea a memoria de a una región por
+ * vez, así ni el archivo ni el mapeo tienen que entrar enteros.
+ */
+final class MappedFileReader extends Reader {
+    private static final long REGION_SIZE = 64L << 20;
+
+    private final FileChannel channel;
+    private final long size;
+    private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder();
+    private MappedByteBuffer region;
+    // Posición en el archivo del primer byte de la región
+    private long regionStart;
+    private boolean finished;
+
+    MappedFileReader(FileChannel channel) throws IOException {
+        this.channel = channel;
+        this.size = channel.size();
+    }
+
+    @Override
+    public int read(char[] buffer, int offset, int length) throws IOException {
+        if (finished) {
+            return -1;
+        }
+        CharBuffer out = CharBuffer.wrap(buffer, offset, length);
+
+        while (true) {
+            if (region == null) {
+                region = channel.map(FileChannel.MapMode.READ_ONLY, regionStart,
+                    Math.min(REGION_SIZE, size - regionStart));
+            }
+            boolean last = regionStart + region.capacity() >= size;
+            CoderResult result = decoder.decode(region, out, last);
+            if (result.isError()) {
+                result.throwException();
+            }
+
+            int read = out.position() - offset;
+            if (result.isOverflow() || read > 0 && !last) {
+                return read;
+            }
+            if (last) {
+                decoder.flush(out);
+                read = out.position() - offset;
+                finished = true;
+                return read > 0 ? read : -1;
+            }
+            // Región terminada; la siguiente empieza en los bytes de un carácter que quedó cortado
+            regionStart += region.position();
+            region = null;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,233 @@
+package com.interprete.lexer;
+
+import com.interprete.token.Symbols;
+import com.interprete.token.Token;
+import com.interprete.token.TokenType;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Lexer que lee el código de a partes en vez de tenerlo entero en un string:
+ * guarda solo una ventana de caracteres desde el token actual, así que la
+ * memoria no depende del tamaño del código (salvo por un token enorme, que
+ * agranda la ventana).
+ *
+ * Reconoce los mismos tokens que el Lexer, con sus tablas. Las posiciones son
+ * int, igual que en el resto del intérprete.
+ */
+public final class StreamLexer implements TokenSource, AutoCloseable {
+    private static final int WINDOW_SIZE = 8192;
+
+    private final Reader reader;
+    private char[] window = new char[WINDOW_SIZE];
+    // Vista de la ventana para buscar keywords e internar identificadores sin crear strings
+    private final CharSequence text = new WindowText();
+    // Caracteres válidos de la ventana
+    private int limit;
+    // Posición en el código de window[0]
+    private int windowOffset;
+    // Índice en la ventana del carácter actual
+    private int position;
+    // Índice en la ventana donde empieza el token actual; lo anterior se puede descartar
+    private int mark;
+    private boolean finished;
+    private int tokenStart;
+    private int tokenLine;
+    private int tokenColumn;
+    private int line = 1;
+    private int lineStart;
+
+    public StreamLexer(Reader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * Lexer sobre los bytes UTF-8 de un canal.
+     */
+    public static StreamLexer of(ReadableByteChannel channel) {
+        return new StreamLexer(Channels.newReader(channel, StandardCharsets.UTF_8.newDecoder(), -1));
+    }
+
+    /**
+     * Lexer sobre un archivo UTF-8 mapeado a memoria por regiones.
+     */
+    public static StreamLexer map(Path file) throws IOException {
+        return new StreamLexer(new MappedFileReader(FileChannel.open(file, StandardOpenOption.READ)));
+    }
+
+    @Override
+    public int getTokenStart() {
+        return tokenStart;
+    }
+
+    @Override
+    public int getTokenLine() {
+        return tokenLine;
+    }
+
+    @Override
+    public int getTokenColumn() {
+        return tokenColumn;
+    }
+
+    @Override
+    public Token nextToken() {
+        // Omite espacios en blanco
+        int c;
+        while (true) {
+            mark = position;
+            c = charAt(0);
+            if (c < 0 || Lexer.classOf((char) c) != Lexer.WHITESPACE) {
+                break;
+            }
+            if (c == '\n') {
+                line++;
+                lineStart = windowOffset + position + 1;
+            }
+            position++;
+        }
+        tokenStart = windowOffset + position;
+        tokenLine = line;
+        tokenColumn = tokenStart - lineStart + 1;
+
+        if (c < 0) {
+            return Lexer.fixedToken(TokenType.EOF);
+        }
+
+        char first = (char) c;
+        switch (Lexer.classOf(first)) {
+            case Lexer.LETTER -> {
+                position++;
+                skipWhile(true);
+                TokenType type = TokenType.lookupKeyword(text, mark, position);
+                if (type != TokenType.IDENT) {
+                    return Lexer.fixedToken(type);
+                }
+                return new Token(type, Symbols.name(Symbols.intern(text, mark, position)));
+            }
+            case Lexer.DIGIT -> {
+                skipWhile(false);
+                return new Token(TokenType.INT, tokenText());
+            }
+            case Lexer.SYMBOL -> {
+                // Operadores de dos caracteres
+                TokenType twoChars = Lexer.withEquals(first);
+                if (twoChars != null && charAt(1) == '=') {
+                    position += 2;
+                    return Lexer.fixedToken(twoChars);
+                }
+                position++;
+                return Lexer.symbolToken(first);
+            }
+            default -> {
+                position++;
+                return new Token(TokenType.ILLEGAL, String.valueOf(first));
+            }
+        }
+    }
+
+    /**
+     * Avanza sobre dígitos y, si lettersToo, también letras.
+     */
+    private void skipWhile(boolean lettersToo) {
+        while (true) {
+            int c = charAt(0);
+            if (c < 0) {
+                return;
+            }
+            byte charClass = Lexer.classOf((char) c);
+            if (charClass != Lexer.DIGIT && (!lettersToo || charClass != Lexer.LETTER)) {
+                return;
+            }
+            position++;
+        }
+    }
+
+    private String tokenText() {
+        return new String(window, mark, position - mark);
+    }
+
+    /**
+     * @return el carácter ahead lugares después del actual, o -1 si el código termina antes
+     */
+    private int charAt(int ahead) {
+        while (position + ahead >= limit) {
+            if (!fill()) {
+                return -1;
+            }
+        }
+        return window[position + ahead];
+    }
+
+    /**
+     * Descarta lo anterior al token actual y lee más caracteres.
+     * @return false si el código ya terminó
+     */
+    private boolean fill() {
+        if (finished) {
+            return false;
+        }
+        if (mark > 0) {
+            System.arraycopy(window, mark, window, 0, limit - mark);
+            windowOffset += mark;
+            limit -= mark;
+            position -= mark;
+            mark = 0;
+        }
+        // Un carácter fuera del BMP ocupa dos lugares
+        if (window.length - limit < 2) {
+            window = Arrays.copyOf(window, window.length * 2);
+        }
+
+        int read;
+        try {
+            do {
+                read = reader.read(window, limit, window.length - limit);
+            } while (read == 0);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (read < 0) {
+            finished = true;
+            return false;
+        }
+        limit += read;
+        return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private final class WindowText implements CharSequence {
+        @Override
+        public int length() {
+            return limit;
+        }
+
+        @Override
+        public char charAt(int index) {
+            return window[index];
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            return new String(window, start, end - start);
+        }
+
+        @Override
+        public String toString() {
+            return new String(window, 0, limit);
+        }
+    }
+}
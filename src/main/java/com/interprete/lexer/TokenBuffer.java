@@ -0,0 +1,141 @@
+package com.interprete.lexer;
+
+import com.interprete.token.Symbols;
+import com.interprete.token.Token;
+import com.interprete.token.TokenType;
+
+import java.util.Arrays;
+
+/**
+ * Los tokens de todo un código, guardados en arreglos paralelos de primitivos
+ * en vez de un Token por cada uno: tipo, posición, largo y línea/columna.
+ *
+ * El Parser los recorre por índice. Los literales no se guardan: se sacan del
+ * código (o del token fijo del tipo) recién cuando alguien los pide.
+ */
+public final class TokenBuffer {
+    private static final TokenType[] TYPES = TokenType.values();
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final String source;
+    private byte[] types;
+    private int[] starts;
+    private int[] lengths;
+    // Línea en los 32 bits altos y columna en los bajos, ambas desde 1
+    private long[] positions;
+    // Cantidad de tokens sin contar el EOF, que va siempre al final
+    private int size;
+
+    private TokenBuffer(String source, int capacity) {
+        this.source = source;
+        this.types = new byte[capacity];
+        this.starts = new int[capacity];
+        this.lengths = new int[capacity];
+        this.positions = new long[capacity];
+    }
+
+    /**
+     * Separa todo el código en tokens.
+     */
+    public static TokenBuffer tokenize(String source) {
+        // Un token cada ~4 caracteres es lo normal; si faltan se agranda
+        TokenBuffer buffer = new TokenBuffer(source, Math.max(INITIAL_CAPACITY, source.length() / 4));
+        Lexer lexer = new Lexer(source);
+
+        while (true) {
+            TokenType type = lexer.scan();
+            int start = lexer.getTokenStart();
+            buffer.add(type, start, lexer.getTokenEnd() - start,
+                pack(lexer.getTokenLine(), lexer.getTokenColumn()));
+            if (type == TokenType.EOF) {
+                buffer.size--;
+                return buffer;
+            }
+        }
+    }
+
+    private void add(TokenType type, int start, int length, long position) {
+        if (size == types.length) {
+            int capacity = size * 2;
+            types = Arrays.copyOf(types, capacity);
+            starts = Arrays.copyOf(starts, capacity);
+            lengths = Arrays.copyOf(lengths, capacity);
+            positions = Arrays.copyOf(positions, capacity);
+        }
+        types[size] = (byte) type.ordinal();
+        starts[size] = start;
+        lengths[size] = length;
+        positions[size] = position;
+        size++;
+    }
+
+    private static long pack(int line, int column) {
+        return (long) line << 32 | column;
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    /**
+     * @return cantidad de tokens sin contar el EOF final
+     */
+    public int size() {
+        return size;
+    }
+
+    // Los índices desde size() en adelante son el EOF
+
+    public TokenType type(int index) {
+        return TYPES[types[clamp(index)]];
+    }
+
+    /**
+     * @return posición en el código del primer carácter del token
+     */
+    public int start(int index) {
+        return starts[clamp(index)];
+    }
+
+    public int length(int index) {
+        return lengths[clamp(index)];
+    }
+
+    public int line(int index) {
+        return (int) (positions[clamp(index)] >>> 32);
+    }
+
+    public int column(int index) {
+        return (int) positions[clamp(index)];
+    }
+
+    /**
+     * @return el literal del token; el de un identificador es el de {@link Symbols}
+     */
+    public String literal(int index) {
+        TokenType type = type(index);
+        Token fixed = Lexer.fixedToken(type);
+        int start = start(index);
+        int end = start + length(index);
+        if (fixed != null) {
+            return fixed.literal();
+        } else if (type == TokenType.IDENT) {
+            return Symbols.name(Symbols.intern(source, start, end));
+        }
+        return source.substring(start, end);
+    }
+
+    /**
+     * @return el token en esa posición; solo se crea para identificadores y
+     *         números, los demás son siempre los mismos
+     */
+    public Token token(int index) {
+        TokenType type = type(index);
+        Token fixed = Lexer.fixedToken(type);
+        return fixed != null ? fixed : new Token(type, literal(index));
+    }
+
+    private int clamp(int index) {
+        return Math.min(index, size);
+    }
+}
@@ -0,0 +1,29 @@
+package com.interprete.lexer;
+
+import com.interprete.token.Token;
+
+/**
+ * De donde el Parser saca los tokens uno por uno: el Lexer sobre un string o
+ * el StreamLexer sobre un Reader.
+ */
+public interface TokenSource {
+    /**
+     * Devuelve el siguiente token; al final, siempre EOF.
+     */
+    Token nextToken();
+
+    /**
+     * @return posición en el código donde empieza el último token devuelto
+     */
+    int getTokenStart();
+
+    /**
+     * @return línea del último token devuelto, desde 1
+     */
+    int getTokenLine();
+
+    /**
+     * @return columna del último token devuelto, desde 1
+     */
+    int getTokenColumn();
+}
@@ -0,0 +1,38 @@
+package com.interprete.nodes;
+
+import com.interprete.evaluator.Environment;
+import com.interprete.object.MObject;
+
+/**
+ * Secuencia de statements. Su valor es el del último (o null si está vacía).
+ */
+public class BlockNode extends Node {
+    private final Node[] statements;
+
+    public BlockNode(Node[] statements) {
+        this.statements = statements;
+        for (Node statement : statements) {
+            adopt(statement);
+        }
+    }
+
+    @Override
+    public MObject execute(Environment env) {
+        MObject result = NULL;
+        for (Node statement : statements) {
+            result = statement.execute(env);
+        }
+        return result;
+    }
+
+    @Override
+    protected void replaceChild(Node oldChild, Node newChild) {
+        for (int i = 0; i < statements.length; i++) {
+            if (statements[i] == oldChild) {
+                statements[i] = newChild;
+                return;
+            }
+        }
+        super.replaceChild(oldChild, newChild);
+    }
+}
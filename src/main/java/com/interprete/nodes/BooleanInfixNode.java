@@ -0,0 +1,58 @@
+package com.interprete.nodes;
+
+import com.interprete.evaluator.Environment;
+import com.interprete.object.MBoolean;
+import com.interprete.object.MObject;
+
+/**
+ * Especializaciones de == y != para operandos booleanos.
+ */
+public abstract class BooleanInfixNode extends InfixNode {
+
+    protected BooleanInfixNode(String operator, Node left, Node right) {
+        super(operator, left, right);
+    }
+
+    /**
+     * @return la especialización para el operador, o null si no la hay
+     */
+    static BooleanInfixNode create(String operator, Node left, Node right) {
+        return switch (operator) {
+            case "==" -> new Equals(left, right);
+            case "!=" -> new NotEquals(left, right);
+            default -> null;
+        };
+    }
+
+    static final class Equals extends BooleanInfixNode {
+        Equals(Node left, Node right) {
+            super("==", left, right);
+        }
+
+        @Override
+        public MObject execute(Environment env) {
+            MObject l = left.execute(env);
+            MObject r = right.execute(env);
+            if (l instanceof MBoolean && r instanceof MBoolean) {
+                return l == r ? TRUE : FALSE;
+            }
+            return despecialize(l, r);
+        }
+    }
+
+    static final class NotEquals extends BooleanInfixNode {
+        NotEquals(Node left, Node right) {
+            super("!=", left, right);
+        }
+
+        @Override
+        public MObject execute(Environment env) {
+            MObject l = left.execute(env);
+            MObject r = right.execute(env);
+            if (l instanceof MBoolean && r instanceof MBoolean) {
+                return l != r ? TRUE : FALSE;
+            }
+            return despecialize(l, r);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.interprete.nodes;
+
+import com.interprete.evaluator.Environment;
+import com.interprete.object.MNodeFunction;
+import com.interprete.object.MObject;
+
+/**
+ * Llamada a función. Los argumentos se escriben directamente en el frame nuevo.
+ */
+public class CallNode extends Node {
+    private Node function;
+    private final Node[] arguments;
+
+    public CallNode(Node function, Node[] arguments) {
+        this.function = adopt(function);
+        this.arguments = arguments;
+        for (Node argument : arguments) {
+            adopt(argument);
+        }
+    }
+
+    @Override
+    public MObject execute(Environment env) {
+        MObject callee = function.execute(env);
+        if (!(callee instanceof MNodeFunction)) {
+            return NULL;
+        }
+
+        MNodeFunction fn = (MNodeFunction) callee;
+        FunctionNode target = fn.getFunction();
+
+        if (target.getNumParameters() != arguments.length) {
+            for (Node argument : arguments) {
+                argument.execute(env);
+            }
+            return NULL;
+        }
+
+        Environment frame = new Environment(fn.getEnv(), target.getSlotNames());
+        for (int i = 0; i < arguments.length; i++) {
+            frame.set(i, arguments[i].execute(env));
+        }
+        return target.invoke(frame);
+    }
+
+    @Override
+    protected void replaceChild(Node oldChild, Node newChild) {
+        if (oldChild == function) {
+            function = newChild;
+            return;
+        }
+        for (int i = 0; i < arguments.length; i++) {
+            if (arguments[i] == oldChild) {
+                arguments[i] = newChild;
+                return;
+            }
+        }
+        super.replaceChild(oldChild, newChild);
+    }
+}
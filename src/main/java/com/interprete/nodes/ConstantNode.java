@@ -0,0 +1,20 @@
+package com.interprete.nodes;
+
+import com.interprete.evaluator.Environment;
+import com.interprete.object.MObject;
+
+/**
+ * Literal cuyo valor runtime se crea una sola vez.
+ */
+public class ConstantNode extends Node {
+    private final MObject value;
+
+    public ConstantNode(MObject value) {
+        this.value = value;
+    }
+
+    @Override
+    public MObject execute(Environment env) {
+        return value;
+    }
+}
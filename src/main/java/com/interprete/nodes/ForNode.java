@@ -0,0 +1,52 @@
+package com.interprete.nodes;
+
+import com.interprete.evaluator.Environment;
+import com.interprete.object.MObject;
+
+/**
+ * Bucle for (inicialización; condición; incremento).
+ */
+public class ForNode extends Node {
+    private Node initialization;
+    private Node condition;
+    private Node increment;
+    private final BlockNode body;
+
+    public ForNode(Node initialization, Node condition, Node increment, BlockNode body) {
+        this.initialization = adopt(initialization);
+        this.condition = adopt(condition);
+        this.increment = adopt(increment);
+        this.body = adopt(body);
+    }
+
+    @Override
+    public MObject execute(Environment env) {
+        MObject result = NULL;
+
+        if (initialization != null) {
+            initialization.execute(env);
+        }
+
+        while (condition == null || isTruthy(condition.execute(env))) {
+            result = body.execute(env);
+            if (increment != null) {
+                increment.execute(env);
+            }
+        }
+
+        return result;
+    }
+
+    @Override
+    protected void replaceChild(Node oldChild, Node newChild) {
+        if (oldChild == condition) {
+            condition = newChild;
+        } else if (oldChild == initialization) {
+            initialization = newChild;
+        } else if (oldChild == increment) {
+            increment = newChild;
+        } else {
+            super.replaceChild(oldChild, newChild);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.interprete.nodes;
+
+import com.interprete.evaluator.Environment;
+import com.interprete.object.MNodeFunction;
+import com.interprete.object.MObject;
+
+/**
+ * Literal de función. Todas las closures creadas a partir de él comparten
+ * el mismo cuerpo, y por lo tanto sus especializaciones.
+ */
+public class FunctionNode extends Node {
+    private final int numParameters;
+    private final String[] slotNames;
+    private final BlockNode body;
+
+    public FunctionNode(int numParameters, String[] slotNames, BlockNode body) {
+        this.numParameters = numParameters;
+        this.slotNames = slotNames;
+        this.body = adopt(body);
+    }
+
+    public int getNumParameters() {
+        return numParameters;
+    }
+
+    public String[] getSlotNames() {
+        return slotNames;
+    }
+
+    @Override
+    public MObject execute(Environment env) {
+        return new MNodeFunction(this, env);
+    }
+
+    /**
+     * Ejecuta el cuerpo en un frame ya cargado con los argumentos.
+     */
+    public MObject invoke(Environment frame) {
+        try {
+            return body.execute(frame);
+        } catch (ReturnException e) {
+            return e.getValue();
+        }
+    }
+}
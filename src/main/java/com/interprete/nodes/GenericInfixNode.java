@@ -0,0 +1,50 @@
+package com.interprete.nodes;
+
+import com.interprete.evaluator.Environment;
+import com.interprete.object.MInteger;
+import com.interprete.object.MObject;
+
+/**
+ * Expresión infija sin especializar: acepta cualquier combinación de tipos.
+ */
+public class GenericInfixNode extends InfixNode {
+
+    public GenericInfixNode(String operator, Node left, Node right) {
+        super(operator, left, right);
+    }
+
+    @Override
+    public MObject execute(Environment env) {
+        MObject leftValue = left.execute(env);
+        MObject rightValue = right.execute(env);
+        return compute(operator, leftValue, rightValue);
+    }
+
+    /**
+     * Semántica completa de los operadores infijos, igual que en el Evaluator.
+     */
+    static MObject compute(String operator, MObject left, MObject right) {
+        if (left instanceof MInteger && right instanceof MInteger) {
+            long leftVal = ((MInteger) left).getValue();
+            long rightVal = ((MInteger) right).getValue();
+            return switch (operator) {
+                case "+" -> MInteger.valueOf(leftVal + rightVal);
+                case "-" -> MInteger.valueOf(leftVal - rightVal);
+                case "*" -> MInteger.valueOf(leftVal * rightVal);
+                case "/" -> MInteger.valueOf(leftVal / rightVal);
+                case "<" -> leftVal < rightVal ? TRUE : FALSE;
+                case ">" -> leftVal > rightVal ? TRUE : FALSE;
+                case "==" -> leftVal == rightVal ? TRUE : FALSE;
+                case "!=" -> leftVal != rightVal ? TRUE : FALSE;
+                case "<=" -> leftVal <= rightVal ? TRUE : FALSE;
+                case ">=" -> leftVal >= rightVal ? TRUE : FALSE;
+                default -> NULL;
+            };
+        }
+        return switch (operator) {
+            case "==" -> left == right ? TRUE : FALSE;
+            case "!=" -> left != right ? TRUE : FALSE;
+            default -> NULL;
+        };
+    }
+}
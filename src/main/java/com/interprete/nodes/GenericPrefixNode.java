@@ -0,0 +1,19 @@
+package com.interprete.nodes;
+
+import com.interprete.evaluator.Environment;
+import com.interprete.object.MObject;
+
+/**
+ * Expresión prefija sin especializar.
+ */
+public class GenericPrefixNode extends PrefixNode {
+
+    public GenericPrefixNode(String operator, Node operand) {
+        super(operator, operand);
+    }
+
+    @Override
+    public MObject execute(Environment env) {
+        return compute(operator, operand.execute(env));
+    }
+}
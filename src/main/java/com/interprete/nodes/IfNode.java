@@ -0,0 +1,35 @@
+package com.interprete.nodes;
+
+import com.interprete.evaluator.Environment;
+import com.interprete.object.MObject;
+
+/**
+ * Expresión if/else.
+ */
+public class IfNode extends Node {
+    private Node condition;
+    private final Node consequence;
+    private final Node alternative;
+
+    public IfNode(Node condition, Node consequence, Node alternative) {
+        this.condition = adopt(condition);
+        this.consequence = adopt(consequence);
+        this.alternative = adopt(alternative);
+    }
+
+    @Override
+    public MObject execute(Environment env) {
+        if (isTruthy(condition.execute(env))) {
+            return consequence.execute(env);
+        } else if (alternative != null) {
+            return alternative.execute(env);
+        } else {
+            return NULL;
+        }
+    }
+
+    @Override
+    protected void replaceChild(Node oldChild, Node newChild) {
+        condition = newChild;
+    }
+}
@@ -0,0 +1,45 @@
+package com.interprete.nodes;
+
+import com.interprete.object.MObject;
+
+/**
+ * Base de las expresiones infijas. Empieza como {@link UninitializedInfixNode}
+ * y se reescribe según los tipos de los operandos; si una especialización
+ * ve otros tipos, pasa a {@link GenericInfixNode} y ya no vuelve a especializarse.
+ */
+public abstract class InfixNode extends Node {
+    protected final String operator;
+    protected Node left;
+    protected Node right;
+
+    protected InfixNode(String operator, Node left, Node right) {
+        this.operator = operator;
+        this.left = adopt(left);
+        this.right = adopt(right);
+    }
+
+    public String getOperator() {
+        return operator;
+    }
+
+    /**
+     * Abandona la especialización y calcula el resultado por el camino genérico.
+     */
+    protected MObject despecialize(MObject leftValue, MObject rightValue) {
+        if (!isReplaced()) {
+            replace(new GenericInfixNode(operator, left, right));
+        }
+        return GenericInfixNode.compute(operator, leftValue, rightValue);
+    }
+
+    @Override
+    protected void replaceChild(Node oldChild, Node newChild) {
+        if (oldChild == left) {
+            left = newChild;
+        } else if (oldChild == right) {
+            right = newChild;
+        } else {
+            super.replaceChild(oldChild, newChild);
+        }
+    }
+}
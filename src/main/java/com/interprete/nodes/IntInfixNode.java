@@ -0,0 +1,215 @@
+package com.interprete.nodes;
+
+import com.interprete.evaluator.Environment;
+import com.interprete.object.MInteger;
+import com.interprete.object.MObject;
+
+/**
+ * Especializaciones de los operadores infijos para dos enteros.
+ * Cada operador es una clase propia, sin switch sobre el operador en runtime.
+ */
+public abstract class IntInfixNode extends InfixNode {
+
+    protected IntInfixNode(String operator, Node left, Node right) {
+        super(operator, left, right);
+    }
+
+    /**
+     * @return la especialización para el operador, o null si no la hay
+     */
+    static IntInfixNode create(String operator, Node left, Node right) {
+        return switch (operator) {
+            case "+" -> new Add(left, right);
+            case "-" -> new Sub(left, right);
+            case "*" -> new Mul(left, right);
+            case "/" -> new Div(left, right);
+            case "<" -> new LessThan(left, right);
+            case ">" -> new GreaterThan(left, right);
+            case "<=" -> new LessEquals(left, right);
+            case ">=" -> new GreaterEquals(left, right);
+            case "==" -> new Equals(left, right);
+            case "!=" -> new NotEquals(left, right);
+            default -> null;
+        };
+    }
+
+    static final class Add extends IntInfixNode {
+        Add(Node left, Node right) {
+            super("+", left, right);
+        }
+
+        @Override
+        public MObject execute(Environment env) {
+            MObject l = left.execute(env);
+            MObject r = right.execute(env);
+            if (l instanceof MInteger && r instanceof MInteger) {
+                long a = ((MInteger) l).getValue();
+                long b = ((MInteger) r).getValue();
+                return MInteger.valueOf(a + b);
+            }
+            return despecialize(l, r);
+        }
+    }
+
+    static final class Sub extends IntInfixNode {
+        Sub(Node left, Node right) {
+            super("-", left, right);
+        }
+
+        @Override
+        public MObject execute(Environment env) {
+            MObject l = left.execute(env);
+            MObject r = right.execute(env);
+            if (l instanceof MInteger && r instanceof MInteger) {
+                long a = ((MInteger) l).getValue();
+                long b = ((MInteger) r).getValue();
+                return MInteger.valueOf(a - b);
+            }
+            return despecialize(l, r);
+        }
+    }
+
+    static final class Mul extends IntInfixNode {
+        Mul(Node left, Node right) {
+            super("*", left, right);
+        }
+
+        @Override
+        public MObject execute(Environment env) {
+            MObject l = left.execute(env);
+            MObject r = right.execute(env);
+            if (l instanceof MInteger && r instanceof MInteger) {
+                long a = ((MInteger) l).getValue();
+                long b = ((MInteger) r).getValue();
+                return MInteger.valueOf(a * b);
+            }
+            return despecialize(l, r);
+        }
+    }
+
+    static final class Div extends IntInfixNode {
+        Div(Node left, Node right) {
+            super("/", left, right);
+        }
+
+        @Override
+        public MObject execute(Environment env) {
+            MObject l = left.execute(env);
+            MObject r = right.execute(env);
+            if (l instanceof MInteger && r instanceof MInteger) {
+                long a = ((MInteger) l).getValue();
+                long b = ((MInteger) r).getValue();
+                return MInteger.valueOf(a / b);
+            }
+            return despecialize(l, r);
+        }
+    }
+
+    static final class LessThan extends IntInfixNode {
+        LessThan(Node left, Node right) {
+            super("<", left, right);
+        }
+
+        @Override
+        public MObject execute(Environment env) {
+            MObject l = left.execute(env);
+            MObject r = right.execute(env);
+            if (l instanceof MInteger && r instanceof MInteger) {
+                long a = ((MInteger) l).getValue();
+                long b = ((MInteger) r).getValue();
+                return a < b ? TRUE : FALSE;
+            }
+            return despecialize(l, r);
+        }
+    }
+
+    static final class GreaterThan extends IntInfixNode {
+        GreaterThan(Node left, Node right) {
+            super(">", left, right);
+        }
+
+        @Override
+        public MObject execute(Environment env) {
+            MObject l = left.execute(env);
+            MObject r = right.execute(env);
+            if (l instanceof MInteger && r instanceof MInteger) {
+                long a = ((MInteger) l).getValue();
+                long b = ((MInteger) r).getValue();
+                return a > b ? TRUE : FALSE;
+            }
+            return despecialize(l, r);
+        }
+    }
+
+    static final class LessEquals extends IntInfixNode {
+        LessEquals(Node left, Node right) {
+            super("<=", left, right);
+        }
+
+        @Override
+        public MObject execute(Environment env) {
+            MObject l = left.execute(env);
+            MObject r = right.execute(env);
+            if (l instanceof MInteger && r instanceof MInteger) {
+                long a = ((MInteger) l).getValue();
+                long b = ((MInteger) r).getValue();
+                return a <= b ? TRUE : FALSE;
+            }
+            return despecialize(l, r);
+        }
+    }
+
+    static final class GreaterEquals extends IntInfixNode {
+        GreaterEquals(Node left, Node right) {
+            super(">=", left, right);
+        }
+
+        @Override
+        public MObject execute(Environment env) {
+            MObject l = left.execute(env);
+            MObject r = right.execute(env);
+            if (l instanceof MInteger && r instanceof MInteger) {
+                long a = ((MInteger) l).getValue();
+                long b = ((MInteger) r).getValue();
+                return a >= b ? TRUE : FALSE;
+            }
+            return despecialize(l, r);
+        }
+    }
+
+    static final class Equals extends IntInfixNode {
+        Equals(Node left, Node right) {
+            super("==", left, right);
+        }
+
+        @Override
+        public MObject execute(Environment env) {
+            MObject l = left.execute(env);
+            MObject r = right.execute(env);
+            if (l instanceof MInteger && r instanceof MInteger) {
+                long a = ((MInteger) l).getValue();
+                long b = ((MInteger) r).getValue();
+                return a == b ? TRUE : FALSE;
+            }
+            return despecialize(l, r);
+        }
+    }
+
+    static final class NotEquals extends IntInfixNode {
+        NotEquals(Node left, Node right) {
+            super("!=", left, right);
+        }
+
+        @Override
+        public MObject execute(Environment env) {
+            MObject l = left.execute(env);
+            MObject r = right.execute(env);
+            if (l instanceof MInteger && r instanceof MInteger) {
+                long a = ((MInteger) l).getValue();
+                long b = ((MInteger) r).getValue();
+                return a != b ? TRUE : FALSE;
+            }
+            return despecialize(l, r);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.interprete.nodes;
+
+import com.interprete.evaluator.Environment;
+import com.interprete.object.MInteger;
+import com.interprete.object.MObject;
+
+/**
+ * Operador - especializado para enteros.
+ */
+public class NegateIntNode extends PrefixNode {
+
+    public NegateIntNode(Node operand) {
+        super("-", operand);
+    }
+
+    @Override
+    public MObject execute(Environment env) {
+        MObject value = operand.execute(env);
+        if (value instanceof MInteger) {
+            return MInteger.valueOf(-((MInteger) value).getValue());
+        }
+        if (!isReplaced()) {
+            replace(new GenericPrefixNode(operator, operand));
+        }
+        return compute(operator, value);
+    }
+}
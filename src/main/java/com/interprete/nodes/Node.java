@@ -0,0 +1,72 @@
+package com.interprete.nodes;
+
+import com.interprete.evaluator.Environment;
+import com.interprete.object.MBoolean;
+import com.interprete.object.MNull;
+import com.interprete.object.MObject;
+
+/**
+ * Nodo ejecutable construido a partir del AST.
+ * Un nodo puede reemplazarse a sí mismo en su padre por una versión especializada
+ * según los tipos observados al ejecutarse.
+ */
+public abstract class Node {
+    protected static final MBoolean TRUE = MBoolean.TRUE;
+    protected static final MBoolean FALSE = MBoolean.FALSE;
+    protected static final MNull NULL = MNull.getInstance();
+
+    private Node parent;
+    private boolean replaced;
+
+    /**
+     * Ejecuta el nodo y retorna su valor.
+     */
+    public abstract MObject execute(Environment env);
+
+    public Node getParent() {
+        return parent;
+    }
+
+    /**
+     * Reemplaza este nodo por otro en su padre.
+     * @return el nodo nuevo
+     */
+    public <T extends Node> T replace(T newNode) {
+        parent.replaceChild(this, newNode);
+        ((Node) newNode).parent = parent;
+        replaced = true;
+        return newNode;
+    }
+
+    /**
+     * En una función recursiva, una llamada interna puede reemplazar un nodo
+     * mientras la externa todavía lo está ejecutando. Esa no debe volver a
+     * reemplazarlo: el nodo ya no está en el árbol, y el nuevo adoptaría a
+     * los hijos del que sí está.
+     * @return true si el nodo ya fue reemplazado en su padre
+     */
+    protected boolean isReplaced() {
+        return replaced;
+    }
+
+    /**
+     * Registra un hijo para que pueda reemplazarse a sí mismo.
+     */
+    protected <T extends Node> T adopt(T child) {
+        if (child != null) {
+            ((Node) child).parent = this;
+        }
+        return child;
+    }
+
+    /**
+     * Cambia un hijo por otro. Los nodos con hijos deben sobrescribirlo.
+     */
+    protected void replaceChild(Node oldChild, Node newChild) {
+        throw new IllegalStateException(getClass().getSimpleName() + " has no child " + oldChild);
+    }
+
+    protected static boolean isTruthy(MObject obj) {
+        return obj != NULL && obj != FALSE;
+    }
+}
@@ -0,0 +1,116 @@
+package com.interprete.nodes;
+
+import com.interprete.ast.*;
+import com.interprete.evaluator.Environment;
+import com.interprete.evaluator.Resolver;
+import com.interprete.object.MBoolean;
+import com.interprete.object.MNull;
+
+import java.util.List;
+
+/**
+ * Construye el árbol de nodos ejecutables a partir del AST.
+ * Resuelve el programa primero, para que las variables se lean por slot.
+ */
+public class NodeBuilder {
+    private final Environment globals;
+
+    public NodeBuilder(Environment globals) {
+        this.globals = globals;
+    }
+
+    public ProgramNode build(Program program) {
+        new Resolver(globals).resolve(program);
+        return new ProgramNode(buildBlock(program.getStatements()));
+    }
+
+    private BlockNode buildBlock(List<Statement> statements) {
+        if (statements == null) {
+            return new BlockNode(new Node[0]);
+        }
+
+        Node[] nodes = new Node[statements.size()];
+        for (int i = 0; i < nodes.length; i++) {
+            nodes[i] = buildStatement(statements.get(i));
+        }
+        return new BlockNode(nodes);
+    }
+
+    private BlockNode buildBlock(BlockStatement block) {
+        return buildBlock(block != null ? block.getStatements() : null);
+    }
+
+    private Node buildStatement(Statement stmt) {
+        if (stmt instanceof LetStatement) {
+            LetStatement let = (LetStatement) stmt;
+            Identifier name = let.getName();
+            Node value = buildExpression(let.getValue());
+            return name.getDepth() == Identifier.GLOBAL
+                ? new WriteGlobalNode(name.getSlot(), value)
+                : new WriteLocalNode(name.getSlot(), value);
+        } else if (stmt instanceof ReturnStatement) {
+            return new ReturnNode(buildExpression(((ReturnStatement) stmt).getReturnValue()));
+        } else if (stmt instanceof ExpressionStatement) {
+            return buildExpression(((ExpressionStatement) stmt).getExpression());
+        } else if (stmt instanceof BlockStatement) {
+            return buildBlock((BlockStatement) stmt);
+        } else if (stmt instanceof WhileStatement) {
+            WhileStatement loop = (WhileStatement) stmt;
+            return new WhileNode(buildExpression(loop.getCondition()), buildBlock(loop.getBody()));
+        } else if (stmt instanceof ForStatement) {
+            ForStatement loop = (ForStatement) stmt;
+            return new ForNode(
+                loop.getInitialization() != null ? buildStatement(loop.getInitialization()) : null,
+                loop.getCondition() != null ? buildExpression(loop.getCondition()) : null,
+                loop.getIncrement() != null ? buildStatement(loop.getIncrement()) : null,
+                buildBlock(loop.getBody())
+            );
+        }
+        return new ConstantNode(MNull.getInstance());
+    }
+
+    private Node buildExpression(Expression exp) {
+        if (exp instanceof IntegerLiteral) {
+            return new ConstantNode(((IntegerLiteral) exp).getObject());
+        } else if (exp instanceof BooleanLiteral) {
+            return new ConstantNode(((BooleanLiteral) exp).getValue() ? MBoolean.TRUE : MBoolean.FALSE);
+        } else if (exp instanceof Identifier) {
+            Identifier identifier = (Identifier) exp;
+            return identifier.getDepth() == Identifier.GLOBAL
+                ? new ReadGlobalNode(identifier.getSlot())
+                : new ReadLocalNode(identifier.getDepth(), identifier.getSlot(), identifier.getSymbol());
+        } else if (exp instanceof PrefixExpression) {
+            PrefixExpression prefix = (PrefixExpression) exp;
+            Node operand = buildExpression(prefix.getRight());
+            return switch (prefix.getOperator()) {
+                case "!" -> new NotNode(operand);
+                case "-" -> new UninitializedNegateNode(operand);
+                default -> new GenericPrefixNode(prefix.getOperator(), operand);
+            };
+        } else if (exp instanceof InfixExpression) {
+            InfixExpression infix = (InfixExpression) exp;
+            return new UninitializedInfixNode(
+                infix.getOperator(), buildExpression(infix.getLeft()), buildExpression(infix.getRight()));
+        } else if (exp instanceof IfExpression) {
+            IfExpression ifExp = (IfExpression) exp;
+            return new IfNode(
+                buildExpression(ifExp.getCondition()),
+                buildBlock(ifExp.getConsequence()),
+                ifExp.getAlternative() != null ? buildBlock(ifExp.getAlternative()) : null
+            );
+        } else if (exp instanceof FunctionLiteral) {
+            FunctionLiteral function = (FunctionLiteral) exp;
+            int numParameters = function.getParameters() != null ? function.getParameters().size() : 0;
+            return new FunctionNode(numParameters, function.getSlotNames(), buildBlock(function.getBody()));
+        } else if (exp instanceof CallExpression) {
+            CallExpression call = (CallExpression) exp;
+            List<Expression> arguments = call.getArguments() != null ? call.getArguments() : List.of();
+            Node[] nodes = new Node[arguments.size()];
+            for (int i = 0; i < nodes.length; i++) {
+                nodes[i] = buildExpression(arguments.get(i));
+            }
+            return new CallNode(buildExpression(call.getFunction()), nodes);
+        }
+        return new ConstantNode(MNull.getInstance());
+    }
+}
@@ -0,0 +1,20 @@
+package com.interprete.nodes;
+
+import com.interprete.evaluator.Environment;
+import com.interprete.object.MObject;
+
+/**
+ * Operador !. No depende del tipo del operando, así que no se especializa.
+ */
+public class NotNode extends PrefixNode {
+
+    public NotNode(Node operand) {
+        super("!", operand);
+    }
+
+    @Override
+    public MObject execute(Environment env) {
+        MObject value = operand.execute(env);
+        return value == FALSE || value == NULL ? TRUE : FALSE;
+    }
+}
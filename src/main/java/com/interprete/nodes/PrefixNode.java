@@ -0,0 +1,37 @@
+package com.interprete.nodes;
+
+import com.interprete.object.MInteger;
+import com.interprete.object.MObject;
+
+/**
+ * Base de las expresiones prefijas (! y -).
+ */
+public abstract class PrefixNode extends Node {
+    protected final String operator;
+    protected Node operand;
+
+    protected PrefixNode(String operator, Node operand) {
+        this.operator = operator;
+        this.operand = adopt(operand);
+    }
+
+    /**
+     * Semántica completa de los operadores prefijos, igual que en el Evaluator.
+     */
+    static MObject compute(String operator, MObject value) {
+        return switch (operator) {
+            case "!" -> value == FALSE || value == NULL ? TRUE : FALSE;
+            case "-" -> value instanceof MInteger ? MInteger.valueOf(-((MInteger) value).getValue()) : NULL;
+            default -> NULL;
+        };
+    }
+
+    @Override
+    protected void replaceChild(Node oldChild, Node newChild) {
+        if (oldChild == operand) {
+            operand = newChild;
+        } else {
+            super.replaceChild(oldChild, newChild);
+        }
+    }
+}
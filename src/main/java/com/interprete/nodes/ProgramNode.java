@@ -0,0 +1,24 @@
+package com.interprete.nodes;
+
+import com.interprete.evaluator.Environment;
+import com.interprete.object.MObject;
+
+/**
+ * Raíz del árbol ejecutable. Un return en el nivel superior termina el programa.
+ */
+public class ProgramNode extends Node {
+    private final BlockNode body;
+
+    public ProgramNode(BlockNode body) {
+        this.body = adopt(body);
+    }
+
+    @Override
+    public MObject execute(Environment env) {
+        try {
+            return body.execute(env);
+        } catch (ReturnException e) {
+            return e.getValue();
+        }
+    }
+}
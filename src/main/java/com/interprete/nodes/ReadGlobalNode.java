@@ -0,0 +1,21 @@
+package com.interprete.nodes;
+
+import com.interprete.evaluator.Environment;
+import com.interprete.object.MObject;
+
+/**
+ * Lee una variable global por su slot.
+ */
+public class ReadGlobalNode extends Node {
+    private final int slot;
+
+    public ReadGlobalNode(int slot) {
+        this.slot = slot;
+    }
+
+    @Override
+    public MObject execute(Environment env) {
+        MObject value = env.getGlobal(slot);
+        return value != null ? value : NULL;
+    }
+}
@@ -0,0 +1,25 @@
+package com.interprete.nodes;
+
+import com.interprete.evaluator.Environment;
+import com.interprete.object.MObject;
+
+/**
+ * Lee una variable resuelta a (profundidad, slot) en un frame de función.
+ */
+public class ReadLocalNode extends Node {
+    private final int depth;
+    private final int slot;
+    private final int symbol;
+
+    public ReadLocalNode(int depth, int slot, int symbol) {
+        this.depth = depth;
+        this.slot = slot;
+        this.symbol = symbol;
+    }
+
+    @Override
+    public MObject execute(Environment env) {
+        MObject value = env.get(depth, slot, symbol);
+        return value != null ? value : NULL;
+    }
+}
@@ -0,0 +1,22 @@
+package com.interprete.nodes;
+
+import com.interprete.object.MObject;
+
+/**
+ * Propaga un return hasta la llamada (o el programa) que lo contiene.
+ * No guarda stack trace: es control de flujo, no un error.
+ */
+public class ReturnException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    private final MObject value;
+
+    public ReturnException(MObject value) {
+        super(null, null, false, false);
+        this.value = value;
+    }
+
+    public MObject getValue() {
+        return value;
+    }
+}
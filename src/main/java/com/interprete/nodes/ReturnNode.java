@@ -0,0 +1,25 @@
+package com.interprete.nodes;
+
+import com.interprete.evaluator.Environment;
+import com.interprete.object.MObject;
+
+/**
+ * Return: corta la ejecución hasta la llamada que lo contiene.
+ */
+public class ReturnNode extends Node {
+    private Node value;
+
+    public ReturnNode(Node value) {
+        this.value = adopt(value);
+    }
+
+    @Override
+    public MObject execute(Environment env) {
+        throw new ReturnException(value.execute(env));
+    }
+
+    @Override
+    protected void replaceChild(Node oldChild, Node newChild) {
+        value = newChild;
+    }
+}
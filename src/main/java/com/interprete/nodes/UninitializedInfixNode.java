@@ -0,0 +1,43 @@
+package com.interprete.nodes;
+
+import com.interprete.evaluator.Environment;
+import com.interprete.object.MBoolean;
+import com.interprete.object.MInteger;
+import com.interprete.object.MObject;
+
+/**
+ * Expresión infija que todavía no se ejecutó. En la primera ejecución
+ * se reemplaza por la especialización que corresponde a los tipos observados.
+ */
+public class UninitializedInfixNode extends InfixNode {
+
+    public UninitializedInfixNode(String operator, Node left, Node right) {
+        super(operator, left, right);
+    }
+
+    @Override
+    public MObject execute(Environment env) {
+        MObject leftValue = left.execute(env);
+        MObject rightValue = right.execute(env);
+
+        if (!isReplaced()) {
+            replace(specialize(leftValue, rightValue));
+        }
+        return GenericInfixNode.compute(operator, leftValue, rightValue);
+    }
+
+    private InfixNode specialize(MObject leftValue, MObject rightValue) {
+        if (leftValue instanceof MInteger && rightValue instanceof MInteger) {
+            InfixNode node = IntInfixNode.create(operator, left, right);
+            if (node != null) {
+                return node;
+            }
+        } else if (leftValue instanceof MBoolean && rightValue instanceof MBoolean) {
+            InfixNode node = BooleanInfixNode.create(operator, left, right);
+            if (node != null) {
+                return node;
+            }
+        }
+        return new GenericInfixNode(operator, left, right);
+    }
+}
@@ -0,0 +1,30 @@
+package com.interprete.nodes;
+
+import com.interprete.evaluator.Environment;
+import com.interprete.object.MInteger;
+import com.interprete.object.MObject;
+
+/**
+ * Operador - que todavía no se ejecutó. Se especializa a enteros
+ * si el primer operando lo es, o pasa al camino genérico.
+ */
+public class UninitializedNegateNode extends PrefixNode {
+
+    public UninitializedNegateNode(Node operand) {
+        super("-", operand);
+    }
+
+    @Override
+    public MObject execute(Environment env) {
+        MObject value = operand.execute(env);
+        if (isReplaced()) {
+            return compute(operator, value);
+        }
+        if (value instanceof MInteger) {
+            replace(new NegateIntNode(operand));
+        } else {
+            replace(new GenericPrefixNode(operator, operand));
+        }
+        return compute(operator, value);
+    }
+}
@@ -0,0 +1,31 @@
+package com.interprete.nodes;
+
+import com.interprete.evaluator.Environment;
+import com.interprete.object.MObject;
+
+/**
+ * Bucle while. Su valor es el de la última iteración del cuerpo.
+ */
+public class WhileNode extends Node {
+    private Node condition;
+    private final BlockNode body;
+
+    public WhileNode(Node condition, BlockNode body) {
+        this.condition = adopt(condition);
+        this.body = adopt(body);
+    }
+
+    @Override
+    public MObject execute(Environment env) {
+        MObject result = NULL;
+        while (isTruthy(condition.execute(env))) {
+            result = body.execute(env);
+        }
+        return result;
+    }
+
+    @Override
+    protected void replaceChild(Node oldChild, Node newChild) {
+        condition = newChild;
+    }
+}
@@ -0,0 +1,29 @@
+package com.interprete.nodes;
+
+import com.interprete.evaluator.Environment;
+import com.interprete.object.MObject;
+
+/**
+ * Let dentro de una función: asigna un slot del frame actual.
+ */
+public class WriteLocalNode extends Node {
+    private final int slot;
+    private Node value;
+
+    public WriteLocalNode(int slot, Node value) {
+        this.slot = slot;
+        this.value = adopt(value);
+    }
+
+    @Override
+    public MObject execute(Environment env) {
+        MObject result = value.execute(env);
+        env.set(slot, result);
+        return result;
+    }
+
+    @Override
+    protected void replaceChild(Node oldChild, Node newChild) {
+        value = newChild;
+    }
+}
@@ -4,6 +4,9 @@ package com.interprete.object;
  * Representa un objeto booleano en runtime.
  */
 public class MBoolean implements MObject {
+    public static final MBoolean TRUE = new MBoolean(true);
+    public static final MBoolean FALSE = new MBoolean(false);
+    
     private Boolean value;
     
     public MBoolean(Boolean value) {
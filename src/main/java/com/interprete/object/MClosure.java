@@ -0,0 +1,35 @@
+package com.interprete.object;
+
+import com.interprete.compiler.CompiledFunction;
+
+/**
+ * Representa una función compilada a bytecode en runtime.
+ * Guarda los locales de las funciones que la encierran (del más cercano al más lejano).
+ */
+public class MClosure implements MObject {
+    private final CompiledFunction function;
+    private final MObject[][] outers;
+
+    public MClosure(CompiledFunction function, MObject[][] outers) {
+        this.function = function;
+        this.outers = outers;
+    }
+
+    public CompiledFunction getFunction() {
+        return function;
+    }
+
+    public MObject[][] getOuters() {
+        return outers;
+    }
+
+    @Override
+    public ObjectType type() {
+        return ObjectType.FUNCTION;
+    }
+
+    @Override
+    public String inspect() {
+        return "function(...)";
+    }
+}
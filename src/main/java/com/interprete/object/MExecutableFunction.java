@@ -0,0 +1,35 @@
+package com.interprete.object;
+
+import com.interprete.evaluator.Environment;
+import com.interprete.executable.ExecutableFunction;
+
+/**
+ * Representa una función compilada a lambdas en runtime.
+ */
+public class MExecutableFunction implements MObject {
+    private final ExecutableFunction function;
+    private final Environment env;
+
+    public MExecutableFunction(ExecutableFunction function, Environment env) {
+        this.function = function;
+        this.env = env;
+    }
+
+    public ExecutableFunction getFunction() {
+        return function;
+    }
+
+    public Environment getEnv() {
+        return env;
+    }
+
+    @Override
+    public ObjectType type() {
+        return ObjectType.FUNCTION;
+    }
+
+    @Override
+    public String inspect() {
+        return "function(...)";
+    }
+}
@@ -0,0 +1,42 @@
+package com.interprete.object;
+
+import com.interprete.evaluator.Environment;
+import com.interprete.flat.FlatAst;
+
+/**
+ * Representa en runtime una función de un FlatAst: el AST y el índice de su nodo
+ * FUNCTION o LAZY_FUNCTION.
+ */
+public class MFlatFunction implements MObject {
+    private final FlatAst ast;
+    private final int node;
+    private final Environment env;
+
+    public MFlatFunction(FlatAst ast, int node, Environment env) {
+        this.ast = ast;
+        this.node = node;
+        this.env = env;
+    }
+
+    public FlatAst getAst() {
+        return ast;
+    }
+
+    public int getNode() {
+        return node;
+    }
+
+    public Environment getEnv() {
+        return env;
+    }
+
+    @Override
+    public ObjectType type() {
+        return ObjectType.FUNCTION;
+    }
+
+    @Override
+    public String inspect() {
+        return "function(...)";
+    }
+}
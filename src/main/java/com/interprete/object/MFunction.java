@@ -1,7 +1,9 @@
 package com.interprete.object;
 
 import com.interprete.ast.BlockStatement;
+import com.interprete.ast.FunctionLiteral;
 import com.interprete.ast.Identifier;
+import com.interprete.evaluator.Cell;
 import com.interprete.evaluator.Environment;
 
 import java.util.List;
@@ -9,16 +11,41 @@ import java.util.List;
 /**
  * Representa una función en runtime.
  * Almacena los parámetros, el cuerpo de la función y el entorno donde se define.
+ *
+ * Si el literal fue resuelto, la función es una closure plana: en lugar del
+ * environment donde se define guarda solo las celdas de las variables de
+ * afuera que lee, y el environment global.
  */
 public class MFunction implements MObject {
     private List<Identifier> parameters;
     private BlockStatement body;
     private Environment env;
+    private String[] slotNames;
+    private FunctionLiteral literal;
+    private Cell[] captures;
     
     public MFunction(List<Identifier> parameters, BlockStatement body, Environment env) {
+        this(parameters, body, env, null);
+    }
+    
+    public MFunction(List<Identifier> parameters, BlockStatement body, Environment env, String[] slotNames) {
         this.parameters = parameters;
         this.body = body;
         this.env = env;
+        this.slotNames = slotNames;
+    }
+    
+    /**
+     * El cuerpo y los slots se piden al literal recién al llamarla: puede que
+     * todavía no se haya parseado.
+     */
+    public MFunction(FunctionLiteral literal, Environment env) {
+        this(literal.getParameters(), null, env, null);
+        this.literal = literal;
+        if (literal.getCaptures() != null) {
+            this.captures = env.capture(literal.getCaptures());
+            this.env = env.getGlobalEnvironment();
+        }
     }
     
     public List<Identifier> getParameters() {
@@ -26,12 +53,61 @@ public class MFunction implements MObject {
     }
     
     public BlockStatement getBody() {
-        return body;
+        return literal != null ? literal.getBody() : body;
     }
     
+    /**
+     * @return el environment donde se definió la función, o el global si es una closure plana
+     */
     public Environment getEnv() {
         return env;
     }
+
+    /**
+     * @return las celdas capturadas, o null si la función guarda su environment
+     */
+    public Cell[] getCaptures() {
+        return captures;
+    }
+
+    /**
+     * Crea el frame de una llamada a una función resuelta, sin los argumentos.
+     */
+    public Environment newFrame() {
+        if (captures != null) {
+            return new Environment(env, getSlotNames(), captures, literal.getFallbacks());
+        }
+        return new Environment(env, getSlotNames());
+    }
+
+    /**
+     * Busca una variable por nombre como se vería desde el cuerpo de la función,
+     * antes de que lo asigne un let.
+     */
+    public MObject lookup(String name) {
+        if (captures != null) {
+            for (Cell cell : captures) {
+                if (cell.getName().equals(name)) {
+                    return cell.get(env);
+                }
+            }
+        }
+        return env.get(name);
+    }
+    
+    /**
+     * @return nombres de los slots del frame si la función fue resuelta, o null
+     */
+    public String[] getSlotNames() {
+        return literal != null ? literal.getSlotNames() : slotNames;
+    }
+    
+    /**
+     * @return el literal del que se creó la función, o null
+     */
+    public FunctionLiteral getLiteral() {
+        return literal;
+    }
     
     @Override
     public ObjectType type() {
@@ -1,16 +1,37 @@
 package com.interprete.object;
 
 /**
- * Representa un objeto entero en runtime.
+ * Representa un objeto entero (64 bits) en runtime.
+ * Los valores chicos se toman de un cache para no crear un objeto por operación.
  */
 public class MInteger implements MObject {
-    private Integer value;
+    private static final int CACHE_LOW = -128;
+    private static final int CACHE_HIGH = 1024;
+    private static final MInteger[] CACHE = new MInteger[CACHE_HIGH - CACHE_LOW + 1];
     
-    public MInteger(Integer value) {
+    static {
+        for (int i = 0; i < CACHE.length; i++) {
+            CACHE[i] = new MInteger(CACHE_LOW + i);
+        }
+    }
+    
+    private final long value;
+    
+    private MInteger(long value) {
         this.value = value;
     }
     
-    public Integer getValue() {
+    /**
+     * Devuelve el MInteger para un valor, usando el cache si está en rango.
+     */
+    public static MInteger valueOf(long value) {
+        if (value >= CACHE_LOW && value <= CACHE_HIGH) {
+            return CACHE[(int) value - CACHE_LOW];
+        }
+        return new MInteger(value);
+    }
+    
+    public long getValue() {
         return value;
     }
     
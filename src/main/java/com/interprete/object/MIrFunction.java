@@ -0,0 +1,35 @@
+package com.interprete.object;
+
+import com.interprete.evaluator.Environment;
+import com.interprete.ir.IrFunction;
+
+/**
+ * Representa una función traducida al IR en runtime.
+ */
+public class MIrFunction implements MObject {
+    private final IrFunction function;
+    private final Environment env;
+
+    public MIrFunction(IrFunction function, Environment env) {
+        this.function = function;
+        this.env = env;
+    }
+
+    public IrFunction getFunction() {
+        return function;
+    }
+
+    public Environment getEnv() {
+        return env;
+    }
+
+    @Override
+    public ObjectType type() {
+        return ObjectType.FUNCTION;
+    }
+
+    @Override
+    public String inspect() {
+        return "function(...)";
+    }
+}
@@ -0,0 +1,35 @@
+package com.interprete.object;
+
+import com.interprete.evaluator.Environment;
+import com.interprete.nodes.FunctionNode;
+
+/**
+ * Representa una función del árbol de nodos ejecutables en runtime.
+ */
+public class MNodeFunction implements MObject {
+    private final FunctionNode function;
+    private final Environment env;
+
+    public MNodeFunction(FunctionNode function, Environment env) {
+        this.function = function;
+        this.env = env;
+    }
+
+    public FunctionNode getFunction() {
+        return function;
+    }
+
+    public Environment getEnv() {
+        return env;
+    }
+
+    @Override
+    public ObjectType type() {
+        return ObjectType.FUNCTION;
+    }
+
+    @Override
+    public String inspect() {
+        return "function(...)";
+    }
+}
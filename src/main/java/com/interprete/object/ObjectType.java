@@ -8,6 +8,5 @@ public enum ObjectType {
     BOOLEAN,
     NULL,
     STRING,
-    FUNCTION,
-    RETURN_VALUE
+    FUNCTION
 }
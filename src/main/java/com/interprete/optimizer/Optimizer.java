@@ -0,0 +1,483 @@
+package com.interprete.optimizer;
+
+import com.interprete.ast.*;
+import com.interprete.token.Token;
+import com.interprete.token.TokenType;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Optimiza el AST entre el Parser y la ejecución, sin cambiar la semántica:
+ * - pliega expresiones prefijas e infijas sobre literales (2 * 60 * 60);
+ * - elimina ramas de if con condición constante, while(false) y lo que sigue a un return;
+ * - simplifica identidades (x * 1, x + 0, ...) cuando x es un entero o null.
+ *
+ * Un statement que es el último de su bloque conserva su valor, porque puede
+ * ser el resultado del bloque. Los nodos que no cambian se comparten.
+ */
+public class Optimizer {
+    // Variables enteras de cada scope (programa o función) en recorrido
+    private final Deque<Set<String>> intVariables = new ArrayDeque<>();
+
+    public Program optimize(Program program) {
+        intVariables.push(IntVariables.collect(program.getStatements(), Set.of()));
+        List<Statement> statements = optimizeStatements(program.getStatements());
+        intVariables.pop();
+        return new Program(statements);
+    }
+
+    private List<Statement> optimizeStatements(List<Statement> statements) {
+        List<Statement> result = new ArrayList<>();
+        if (statements == null) {
+            return result;
+        }
+
+        for (int i = 0; i < statements.size(); i++) {
+            boolean last = i == statements.size() - 1;
+            Statement stmt = optimizeStatement(statements.get(i));
+
+            if (!last && addDiscarded(stmt, result)) {
+                continue;
+            }
+            if (last && stmt instanceof ExpressionStatement
+                    && ((ExpressionStatement) stmt).getExpression() instanceof IfExpression) {
+                // Como último statement solo se puede reemplazar por una rama no vacía
+                BlockStatement branch = constantBranch((IfExpression) ((ExpressionStatement) stmt).getExpression());
+                if (branch != null && !branch.getStatements().isEmpty()) {
+                    result.addAll(branch.getStatements());
+                    continue;
+                }
+            }
+            result.add(stmt);
+
+            if (stmt instanceof ReturnStatement) {
+                // Lo que sigue a un return nunca se ejecuta
+                break;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Agrega un statement cuyo valor no se usa, eliminando lo que no se ejecuta.
+     * @return true si se reemplazó (o eliminó) el statement
+     */
+    private boolean addDiscarded(Statement stmt, List<Statement> result) {
+        if (stmt instanceof ExpressionStatement
+                && ((ExpressionStatement) stmt).getExpression() instanceof IfExpression) {
+            IfExpression exp = (IfExpression) ((ExpressionStatement) stmt).getExpression();
+            if (isConstant(exp.getCondition())) {
+                BlockStatement branch = constantBranch(exp);
+                if (branch != null) {
+                    result.addAll(branch.getStatements());
+                }
+                return true;
+            }
+        } else if (stmt instanceof WhileStatement) {
+            return isConstant(((WhileStatement) stmt).getCondition())
+                && !isTruthy(((WhileStatement) stmt).getCondition());
+        } else if (stmt instanceof ForStatement) {
+            ForStatement loop = (ForStatement) stmt;
+            if (loop.getCondition() != null && isConstant(loop.getCondition()) && !isTruthy(loop.getCondition())) {
+                if (loop.getInitialization() != null) {
+                    result.add(loop.getInitialization());
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Statement optimizeStatement(Statement stmt) {
+        if (stmt instanceof LetStatement) {
+            LetStatement let = (LetStatement) stmt;
+            Expression value = optimizeExpression(let.getValue());
+            return value == let.getValue() ? let : new LetStatement(let.getToken(), let.getName(), value);
+        } else if (stmt instanceof ReturnStatement) {
+            ReturnStatement ret = (ReturnStatement) stmt;
+            Expression value = optimizeExpression(ret.getReturnValue());
+            return value == ret.getReturnValue() ? ret : new ReturnStatement(ret.getToken(), value);
+        } else if (stmt instanceof ExpressionStatement) {
+            ExpressionStatement exp = (ExpressionStatement) stmt;
+            Expression value = optimizeExpression(exp.getExpression());
+            return value == exp.getExpression() ? exp : new ExpressionStatement(exp.getToken(), value);
+        } else if (stmt instanceof BlockStatement) {
+            return optimizeBlock((BlockStatement) stmt);
+        } else if (stmt instanceof WhileStatement) {
+            WhileStatement loop = (WhileStatement) stmt;
+            return new WhileStatement(loop.getToken(),
+                optimizeExpression(loop.getCondition()), optimizeBlock(loop.getBody()));
+        } else if (stmt instanceof ForStatement) {
+            ForStatement loop = (ForStatement) stmt;
+            return new ForStatement(loop.getToken(),
+                loop.getInitialization() != null ? optimizeStatement(loop.getInitialization()) : null,
+                optimizeExpression(loop.getCondition()),
+                loop.getIncrement() != null ? optimizeStatement(loop.getIncrement()) : null,
+                optimizeBlock(loop.getBody()));
+        }
+        return stmt;
+    }
+
+    private BlockStatement optimizeBlock(BlockStatement block) {
+        if (block == null) {
+            return null;
+        }
+        return new BlockStatement(block.getToken(), optimizeStatements(block.getStatements()));
+    }
+
+    private Expression optimizeExpression(Expression exp) {
+        if (exp instanceof PrefixExpression) {
+            PrefixExpression prefix = (PrefixExpression) exp;
+            Expression right = optimizeExpression(prefix.getRight());
+            Expression folded = foldPrefix(prefix.getOperator(), right);
+            if (folded != null) {
+                return folded;
+            }
+            return right == prefix.getRight() ? prefix : new PrefixExpression(prefix.getToken(), prefix.getOperator(), right);
+        } else if (exp instanceof InfixExpression) {
+            InfixExpression infix = (InfixExpression) exp;
+            Expression left = optimizeExpression(infix.getLeft());
+            Expression right = optimizeExpression(infix.getRight());
+            Expression folded = foldInfix(infix.getOperator(), left, right);
+            if (folded != null) {
+                return folded;
+            }
+            if (left == infix.getLeft() && right == infix.getRight()) {
+                return infix;
+            }
+            return new InfixExpression(infix.getToken(), left, infix.getOperator(), right);
+        } else if (exp instanceof IfExpression) {
+            IfExpression ifExp = (IfExpression) exp;
+            IfExpression optimized = new IfExpression(ifExp.getToken(),
+                optimizeExpression(ifExp.getCondition()),
+                optimizeBlock(ifExp.getConsequence()),
+                optimizeBlock(ifExp.getAlternative()));
+
+            // if (true) { expr } vale lo mismo que expr
+            BlockStatement branch = constantBranch(optimized);
+            if (branch != null && branch.getStatements().size() == 1
+                    && branch.getStatements().get(0) instanceof ExpressionStatement) {
+                return ((ExpressionStatement) branch.getStatements().get(0)).getExpression();
+            }
+            return optimized;
+        } else if (exp instanceof CallExpression) {
+            CallExpression call = (CallExpression) exp;
+            List<Expression> arguments = new ArrayList<>();
+            if (call.getArguments() != null) {
+                for (Expression argument : call.getArguments()) {
+                    arguments.add(optimizeExpression(argument));
+                }
+            }
+            return new CallExpression(call.getToken(), optimizeExpression(call.getFunction()), arguments);
+        } else if (exp instanceof FunctionLiteral) {
+            return optimizeFunction((FunctionLiteral) exp);
+        }
+        return exp;
+    }
+
+    private FunctionLiteral optimizeFunction(FunctionLiteral function) {
+        Set<String> parameters = new HashSet<>();
+        if (function.getParameters() != null) {
+            for (Identifier parameter : function.getParameters()) {
+                parameters.add(parameter.getValue());
+            }
+        }
+        // Un cuerpo sin parsear se optimiza cuando se parsea
+        if (!function.isParsed()) {
+            function.getLazyBody().addPass(body -> optimizeBody(body, parameters));
+            return function;
+        }
+        if (function.getBody() == null) {
+            return function;
+        }
+        return new FunctionLiteral(function.getToken(), function.getParameters(),
+            optimizeBody(function.getBody(), parameters));
+    }
+
+    private BlockStatement optimizeBody(BlockStatement body, Set<String> parameters) {
+        intVariables.push(IntVariables.collect(body.getStatements(), parameters));
+        BlockStatement optimized = optimizeBlock(body);
+        intVariables.pop();
+        return optimized;
+    }
+
+    /**
+     * @return el literal resultante, o null si no se puede plegar
+     */
+    private Expression foldPrefix(String operator, Expression right) {
+        if (operator.equals("!")) {
+            if (right instanceof BooleanLiteral) {
+                return booleanLiteral(!((BooleanLiteral) right).getValue());
+            } else if (right instanceof IntegerLiteral) {
+                return booleanLiteral(false);
+            }
+        } else if (operator.equals("-") && right instanceof IntegerLiteral) {
+            return integerLiteral(-((IntegerLiteral) right).getValue());
+        }
+        return null;
+    }
+
+    /**
+     * Pliega operaciones entre literales y simplifica identidades.
+     * Los casos que en runtime dan null (ej: true + 1) o lanzan (x / 0) se dejan.
+     * @return la expresión simplificada, o null si no cambia
+     */
+    private Expression foldInfix(String operator, Expression left, Expression right) {
+        if (left instanceof IntegerLiteral && right instanceof IntegerLiteral) {
+            long l = ((IntegerLiteral) left).getValue();
+            long r = ((IntegerLiteral) right).getValue();
+            return switch (operator) {
+                case "+" -> integerLiteral(l + r);
+                case "-" -> integerLiteral(l - r);
+                case "*" -> integerLiteral(l * r);
+                case "/" -> r != 0 ? integerLiteral(l / r) : null;
+                case "<" -> booleanLiteral(l < r);
+                case ">" -> booleanLiteral(l > r);
+                case "<=" -> booleanLiteral(l <= r);
+                case ">=" -> booleanLiteral(l >= r);
+                case "==" -> booleanLiteral(l == r);
+                case "!=" -> booleanLiteral(l != r);
+                default -> null;
+            };
+        }
+
+        if (isConstant(left) && isConstant(right)) {
+            // Booleanos, o entero contra booleano: == y != comparan identidad
+            boolean same = left instanceof BooleanLiteral && right instanceof BooleanLiteral
+                && ((BooleanLiteral) left).getValue().equals(((BooleanLiteral) right).getValue());
+            return switch (operator) {
+                case "==" -> booleanLiteral(same);
+                case "!=" -> booleanLiteral(!same);
+                default -> null;
+            };
+        }
+
+        return switch (operator) {
+            case "+" -> isZero(right) && isInteger(left) ? left : isZero(left) && isInteger(right) ? right : null;
+            case "-" -> isZero(right) && isInteger(left) ? left : null;
+            case "*" -> isOne(right) && isInteger(left) ? left : isOne(left) && isInteger(right) ? right : null;
+            case "/" -> isOne(right) && isInteger(left) ? left : null;
+            default -> null;
+        };
+    }
+
+    /**
+     * @return true si la expresión vale un entero o null en el scope actual:
+     *         en ambos casos x * 1, x + 0, etc. valen lo mismo que x
+     */
+    private boolean isInteger(Expression exp) {
+        return IntVariables.isInteger(exp, intVariables.peek());
+    }
+
+    /**
+     * @return la rama que se ejecuta si la condición es constante, o null
+     *         (si la condición no es constante, o es falsa y no hay else)
+     */
+    private static BlockStatement constantBranch(IfExpression exp) {
+        if (!isConstant(exp.getCondition())) {
+            return null;
+        }
+        return isTruthy(exp.getCondition()) ? exp.getConsequence() : exp.getAlternative();
+    }
+
+    private static boolean isConstant(Expression exp) {
+        return exp instanceof IntegerLiteral || exp instanceof BooleanLiteral;
+    }
+
+    /**
+     * Verdad de un literal, como isTruthy del Evaluator: los enteros son verdaderos.
+     */
+    private static boolean isTruthy(Expression literal) {
+        return !(literal instanceof BooleanLiteral) || ((BooleanLiteral) literal).getValue();
+    }
+
+    private static boolean isZero(Expression exp) {
+        return exp instanceof IntegerLiteral && ((IntegerLiteral) exp).getValue() == 0;
+    }
+
+    private static boolean isOne(Expression exp) {
+        return exp instanceof IntegerLiteral && ((IntegerLiteral) exp).getValue() == 1;
+    }
+
+    private static IntegerLiteral integerLiteral(long value) {
+        return new IntegerLiteral(new Token(TokenType.INT, String.valueOf(value)), value);
+    }
+
+    private static BooleanLiteral booleanLiteral(boolean value) {
+        return new BooleanLiteral(new Token(value ? TokenType.TRUE : TokenType.FALSE, String.valueOf(value)), value);
+    }
+
+    /**
+     * Variables de un scope que valen un entero o null donde se leen: no son
+     * parámetros, su primera asignación es un let directo del scope anterior a
+     * cualquier lectura, y todos sus let asignan enteros o aritmética (que con
+     * operandos que no son enteros da null).
+     */
+    static final class IntVariables {
+        private IntVariables() {
+        }
+
+        static Set<String> collect(List<Statement> statements, Set<String> parameters) {
+            Set<String> candidates = new HashSet<>();
+            Set<String> read = new HashSet<>();
+            if (statements == null) {
+                return candidates;
+            }
+
+            for (Statement stmt : statements) {
+                if (stmt instanceof LetStatement) {
+                    LetStatement let = (LetStatement) stmt;
+                    collectReads(let.getValue(), read);
+                    String name = let.getName().getValue();
+                    if (!read.contains(name) && !parameters.contains(name)) {
+                        candidates.add(name);
+                    }
+                } else {
+                    collectReads(stmt, read);
+                }
+            }
+
+            Map<String, List<Expression>> assignments = new HashMap<>();
+            for (Statement stmt : statements) {
+                collectLets(stmt, assignments);
+            }
+
+            // Se descartan variables hasta que todas las que quedan asignan solo enteros
+            boolean changed = true;
+            while (changed) {
+                changed = false;
+                for (String name : new ArrayList<>(candidates)) {
+                    for (Expression value : assignments.get(name)) {
+                        if (!isInteger(value, candidates)) {
+                            candidates.remove(name);
+                            changed = true;
+                            break;
+                        }
+                    }
+                }
+            }
+            return candidates;
+        }
+
+        static boolean isInteger(Expression exp, Set<String> variables) {
+            if (exp instanceof IntegerLiteral) {
+                return true;
+            } else if (exp instanceof Identifier) {
+                return variables.contains(((Identifier) exp).getValue());
+            } else if (exp instanceof PrefixExpression) {
+                return ((PrefixExpression) exp).getOperator().equals("-");
+            } else if (exp instanceof InfixExpression) {
+                return switch (((InfixExpression) exp).getOperator()) {
+                    case "+", "-", "*", "/" -> true;
+                    default -> false;
+                };
+            }
+            return false;
+        }
+
+        /**
+         * Nombres leídos por un nodo, sin entrar en funciones anidadas.
+         */
+        private static void collectReads(ASTNode node, Set<String> read) {
+            if (node instanceof Identifier) {
+                read.add(((Identifier) node).getValue());
+            } else if (node instanceof LetStatement) {
+                collectReads(((LetStatement) node).getValue(), read);
+            } else if (node instanceof ReturnStatement) {
+                collectReads(((ReturnStatement) node).getReturnValue(), read);
+            } else if (node instanceof ExpressionStatement) {
+                collectReads(((ExpressionStatement) node).getExpression(), read);
+            } else if (node instanceof BlockStatement) {
+                List<Statement> statements = ((BlockStatement) node).getStatements();
+                if (statements != null) {
+                    for (Statement stmt : statements) {
+                        collectReads(stmt, read);
+                    }
+                }
+            } else if (node instanceof WhileStatement) {
+                collectReads(((WhileStatement) node).getCondition(), read);
+                collectReads(((WhileStatement) node).getBody(), read);
+            } else if (node instanceof ForStatement) {
+                ForStatement loop = (ForStatement) node;
+                collectReads(loop.getInitialization(), read);
+                collectReads(loop.getCondition(), read);
+                collectReads(loop.getIncrement(), read);
+                collectReads(loop.getBody(), read);
+            } else if (node instanceof PrefixExpression) {
+                collectReads(((PrefixExpression) node).getRight(), read);
+            } else if (node instanceof InfixExpression) {
+                collectReads(((InfixExpression) node).getLeft(), read);
+                collectReads(((InfixExpression) node).getRight(), read);
+            } else if (node instanceof IfExpression) {
+                IfExpression exp = (IfExpression) node;
+                collectReads(exp.getCondition(), read);
+                collectReads(exp.getConsequence(), read);
+                collectReads(exp.getAlternative(), read);
+            } else if (node instanceof CallExpression) {
+                CallExpression call = (CallExpression) node;
+                collectReads(call.getFunction(), read);
+                if (call.getArguments() != null) {
+                    for (Expression argument : call.getArguments()) {
+                        collectReads(argument, read);
+                    }
+                }
+            }
+        }
+
+        /**
+         * Valores asignados por los let del scope, sin entrar en funciones anidadas.
+         */
+        private static void collectLets(ASTNode node, Map<String, List<Expression>> assignments) {
+            if (node instanceof LetStatement) {
+                LetStatement let = (LetStatement) node;
+                assignments.computeIfAbsent(let.getName().getValue(), k -> new ArrayList<>()).add(let.getValue());
+                collectLets(let.getValue(), assignments);
+            } else if (node instanceof ReturnStatement) {
+                collectLets(((ReturnStatement) node).getReturnValue(), assignments);
+            } else if (node instanceof ExpressionStatement) {
+                collectLets(((ExpressionStatement) node).getExpression(), assignments);
+            } else if (node instanceof BlockStatement) {
+                List<Statement> statements = ((BlockStatement) node).getStatements();
+                if (statements != null) {
+                    for (Statement stmt : statements) {
+                        collectLets(stmt, assignments);
+                    }
+                }
+            } else if (node instanceof WhileStatement) {
+                collectLets(((WhileStatement) node).getCondition(), assignments);
+                collectLets(((WhileStatement) node).getBody(), assignments);
+            } else if (node instanceof ForStatement) {
+                ForStatement loop = (ForStatement) node;
+                collectLets(loop.getInitialization(), assignments);
+                collectLets(loop.getCondition(), assignments);
+                collectLets(loop.getIncrement(), assignments);
+                collectLets(loop.getBody(), assignments);
+            } else if (node instanceof PrefixExpression) {
+                collectLets(((PrefixExpression) node).getRight(), assignments);
+            } else if (node instanceof InfixExpression) {
+                collectLets(((InfixExpression) node).getLeft(), assignments);
+                collectLets(((InfixExpression) node).getRight(), assignments);
+            } else if (node instanceof IfExpression) {
+                IfExpression exp = (IfExpression) node;
+                collectLets(exp.getCondition(), assignments);
+                collectLets(exp.getConsequence(), assignments);
+                collectLets(exp.getAlternative(), assignments);
+            } else if (node instanceof CallExpression) {
+                CallExpression call = (CallExpression) node;
+                collectLets(call.getFunction(), assignments);
+                if (call.getArguments() != null) {
+                    for (Expression argument : call.getArguments()) {
+                        collectLets(argument, assignments);
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.interprete.parser;
+
+import com.interprete.ast.Program;
+import com.interprete.ast.Statement;
+import com.interprete.lexer.Lexer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Parsea un código largo en paralelo: lo corta en partes entre statements de
+ * primer nivel y cada parte se lexea y parsea en un ForkJoinPool con su
+ * propio Lexer, que arranca en la línea y columna de la parte.
+ *
+ * Se corta después de un ';' fuera de llaves y paréntesis que va seguido de
+ * un let, el caso de los scripts largos con muchas definiciones. Un corte en
+ * un lugar que no es el final de un statement deja errores en las partes de
+ * los dos lados; si alguna parte tiene errores se vuelve a parsear todo en
+ * orden, para informarlos igual que el Parser.
+ */
+public final class ParallelParser {
+    // Por debajo de esto no conviene repartir
+    public static final int MIN_CHUNK = 64 * 1024;
+    // Partes por hilo, para que uno lento no deje a los demás esperando
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    private final String source;
+    private final boolean lazy;
+    private final ForkJoinPool pool;
+    private List<String> errors = List.of();
+
+    public ParallelParser(String source, boolean lazy) {
+        this(source, lazy, ForkJoinPool.commonPool());
+    }
+
+    public ParallelParser(String source, boolean lazy, ForkJoinPool pool) {
+        this.source = source;
+        this.lazy = lazy;
+        this.pool = pool;
+    }
+
+    /**
+     * Una parte del código: posición, línea y columna donde empieza.
+     */
+    private record Chunk(int start, int end, int line, int column) {
+    }
+
+    /**
+     * Lo que dejó parsear una parte.
+     */
+    private record Result(List<Statement> statements, List<String> errors) {
+    }
+
+    public Program parseProgram() {
+        List<Chunk> chunks = split();
+        if (chunks.size() == 1) {
+            return parseSequentially();
+        }
+
+        List<ForkJoinTask<Result>> tasks = new ArrayList<>(chunks.size());
+        for (Chunk chunk : chunks) {
+            tasks.add(pool.submit(() -> parse(chunk)));
+        }
+
+        List<Statement> statements = new ArrayList<>();
+        boolean failed = false;
+        for (ForkJoinTask<Result> task : tasks) {
+            Result result = task.join();
+            statements.addAll(result.statements());
+            failed |= !result.errors().isEmpty();
+        }
+        return failed ? parseSequentially() : new Program(statements);
+    }
+
+    public List<String> getErrors() {
+        return errors;
+    }
+
+    private Result parse(Chunk chunk) {
+        Parser parser = new Parser(new Lexer(source, chunk.start(), chunk.end(), chunk.line(), chunk.column()), lazy);
+        Program program = parser.parseProgram();
+        return new Result(program.getStatements(), parser.getErrors());
+    }
+
+    private Program parseSequentially() {
+        Parser parser = new Parser(new Lexer(source), lazy);
+        Program program = parser.parseProgram();
+        errors = parser.getErrors();
+        return program;
+    }
+
+    /**
+     * Recorre el código una vez contando llaves, paréntesis y líneas, y corta
+     * en el primer lugar posible después de cada tramo de largo parejo.
+     */
+    private List<Chunk> split() {
+        int length = source.length();
+        int target = Math.max(MIN_CHUNK, length / (pool.getParallelism() * CHUNKS_PER_THREAD));
+        List<Chunk> chunks = new ArrayList<>();
+        int chunkStart = 0;
+        int chunkLine = 1;
+        int chunkColumn = 1;
+        int braces = 0;
+        int parens = 0;
+        int line = 1;
+        int lineStart = 0;
+
+        for (int i = 0; i < length; i++) {
+            switch (source.charAt(i)) {
+                case '\n' -> {
+                    line++;
+                    lineStart = i + 1;
+                }
+                case '{' -> braces++;
+                case '}' -> braces = Math.max(0, braces - 1);
+                case '(' -> parens++;
+                // El while admite un token cualquiera después del ')', incluso otro ')'
+                case ')' -> parens = Math.max(0, parens - 1);
+                case ';' -> {
+                    if (braces == 0 && parens == 0 && i + 1 - chunkStart >= target && startsLet(i + 1)) {
+                        chunks.add(new Chunk(chunkStart, i + 1, chunkLine, chunkColumn));
+                        chunkStart = i + 1;
+                        chunkLine = line;
+                        chunkColumn = chunkStart - lineStart + 1;
+                    }
+                }
+                default -> {
+                }
+            }
+        }
+        chunks.add(new Chunk(chunkStart, length, chunkLine, chunkColumn));
+        return chunks;
+    }
+
+    /**
+     * @return si lo siguiente a esa posición, salteando espacios, es la keyword let
+     */
+    private boolean startsLet(int from) {
+        int i = from;
+        while (i < source.length() && Character.isWhitespace(source.charAt(i))) {
+            i++;
+        }
+        return source.startsWith("let", i)
+            && (i + 3 == source.length() || !Character.isLetterOrDigit(source.charAt(i + 3)) && source.charAt(i + 3) != '_');
+    }
+}
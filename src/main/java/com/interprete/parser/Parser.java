@@ -1,39 +1,86 @@
 package com.interprete.parser;
 
 import com.interprete.ast.*;
+import com.interprete.flat.FlatAst;
+import com.interprete.flat.FlatConverter;
 import com.interprete.lexer.Lexer;
+import com.interprete.lexer.TokenBuffer;
+import com.interprete.lexer.TokenSource;
 import com.interprete.token.Token;
 import com.interprete.token.TokenType;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.function.Function;
 
 /**
  * Parser completo que utiliza el algoritmo de Pratt para parsear expresiones.
  * Convierte tokens en un AST (Abstract Syntax Tree).
+ *
+ * Lee los tokens de un TokenSource (Lexer o StreamLexer) a medida que los
+ * necesita o, ya separados, de un TokenBuffer por índice.
  */
 public class Parser {
-    private final Lexer lexer;
+    private final TokenSource lexer;
+    private final TokenBuffer tokens;
+    // Índice siguiente al último token del buffer que se parsea
+    private final int limit;
+    private final boolean lazy;
     private Token currentToken;
     private Token peekToken;
+    // Posición en el código de cada token, para guardar los cuerpos diferidos
+    private int currentStart;
+    private int peekStart;
+    private int peekIndex;
+    // Línea y columna de cada token, para los errores
+    private int currentLine;
+    private int currentColumn;
+    private int peekLine;
+    private int peekColumn;
     private final List<String> errors;
     
     // Maps para funciones de parseo de prefijo e infijo
     private final Map<TokenType, Function<Token, Expression>> prefixParseFns;
     private final Map<TokenType, Function<Expression, Expression>> infixParseFns;
     
-    public Parser(Lexer lexer) {
+    public Parser(TokenSource lexer) {
+        this(lexer, false);
+    }
+    
+    /**
+     * @param lazy si los cuerpos de las funciones se parsean recién cuando se piden;
+     *             solo con un Lexer, que tiene el código para volver a leerlos
+     */
+    public Parser(TokenSource lexer, boolean lazy) {
+        this(lexer, null, 0, 0, lazy && lexer instanceof Lexer);
+    }
+    
+    public Parser(TokenBuffer tokens) {
+        this(tokens, false);
+    }
+    
+    /**
+     * @param lazy si los cuerpos de las funciones se parsean recién cuando se piden
+     */
+    public Parser(TokenBuffer tokens, boolean lazy) {
+        this(null, tokens, 0, tokens.size(), lazy);
+    }
+    
+    private Parser(TokenSource lexer, TokenBuffer tokens, int from, int limit, boolean lazy) {
         this.lexer = lexer;
+        this.tokens = tokens;
+        this.limit = limit;
+        this.lazy = lazy;
         this.errors = new ArrayList<>();
         this.prefixParseFns = new HashMap<>();
         this.infixParseFns = new HashMap<>();
         
         // Inicializar tokens
-        advanceTokens();
-        advanceTokens();
+        seek(from);
         
         // Registrar funciones de parseo prefijo
         registerPrefix(TokenType.IDENT, this::parseIdentifier);
@@ -70,7 +117,38 @@ public class Parser {
     
     private void advanceTokens() {
         currentToken = peekToken;
-        peekToken = lexer.nextToken();
+        currentStart = peekStart;
+        currentLine = peekLine;
+        currentColumn = peekColumn;
+        if (tokens != null) {
+            peekIndex++;
+            int index = bufferIndex(peekIndex);
+            peekToken = tokens.token(index);
+            peekStart = tokens.start(index);
+            peekLine = tokens.line(index);
+            peekColumn = tokens.column(index);
+        } else {
+            peekToken = lexer.nextToken();
+            peekStart = lexer.getTokenStart();
+            peekLine = lexer.getTokenLine();
+            peekColumn = lexer.getTokenColumn();
+        }
+    }
+    
+    /**
+     * Deja como token actual el de esa posición del buffer (o el primero del Lexer).
+     */
+    private void seek(int index) {
+        peekIndex = index - 1;
+        advanceTokens();
+        advanceTokens();
+    }
+    
+    /**
+     * @return el índice en el buffer, o el del EOF si queda fuera de lo que se parsea
+     */
+    private int bufferIndex(int index) {
+        return index < limit ? index : tokens.size();
     }
     
     private boolean expectPeek(TokenType expected) {
@@ -84,7 +162,8 @@ public class Parser {
     }
     
     private void peekError(TokenType expected, TokenType actual) {
-        errors.add(String.format("Expected next token to be %s, got %s instead", expected, actual));
+        errors.add(String.format("Expected next token to be %s, got %s instead at %d:%d",
+            expected, actual, peekLine, peekColumn));
     }
     
     /**
@@ -103,6 +182,25 @@ public class Parser {
         
         return new Program(statements);
     }
+
+    /**
+     * Parsea un programa completo directo al AST plano: cada statement del
+     * nivel superior se codifica apenas se parsea, así que sus nodos objeto
+     * no quedan vivos hasta el final.
+     */
+    public FlatAst parseFlat() {
+        FlatConverter converter = new FlatConverter();
+        
+        while (currentToken.tokenType() != TokenType.EOF) {
+            Statement stmt = parseStatement();
+            if (stmt != null) {
+                converter.add(stmt);
+            }
+            advanceTokens();
+        }
+        
+        return converter.finish();
+    }
     
     /**
      * Parsea un statement según el tipo de token actual.
@@ -285,10 +383,11 @@ public class Parser {
      */
     private Expression parseIntegerLiteral(Token token) {
         try {
-            int value = Integer.parseInt(token.literal());
+            long value = Long.parseLong(token.literal());
             return new IntegerLiteral(token, value);
         } catch (NumberFormatException e) {
-            errors.add(String.format("Could not parse %s as integer", token.literal()));
+            errors.add(String.format("Could not parse %s as integer at %d:%d",
+                token.literal(), currentLine, currentColumn));
             return null;
         }
     }
@@ -393,11 +492,155 @@ public class Parser {
             return null;
         }
         
+        if (lazy) {
+            LazyBody lazyBody = preparseBody();
+            if (lazyBody != null) {
+                return new FunctionLiteral(token, parameters, lazyBody);
+            }
+        }
+        
         BlockStatement body = parseBlockStatement();
         
         return new FunctionLiteral(token, parameters, body);
     }
     
+    /**
+     * Saltea el cuerpo de una función contando llaves, sin armar el AST, y
+     * anota sus identificadores para que el Resolver sepa qué variables de
+     * afuera puede leer. Termina sobre la llave que lo cierra, como
+     * parseBlockStatement.
+     * @return el cuerpo diferido, o null si una llave cae donde la gramática
+     *         no abre un bloque; entonces deja el parser otra vez sobre la
+     *         llave que abre el cuerpo, para parsearlo en el momento
+     */
+    private LazyBody preparseBody() {
+        if (tokens != null) {
+            return preparseBufferedBody();
+        }
+        Lexer source = (Lexer) lexer;
+        int start = currentStart;
+        int line = currentLine;
+        int column = currentColumn;
+        Set<String> identifiers = new HashSet<>();
+        BraceCounter braces = new BraceCounter();
+        
+        while (true) {
+            advanceTokens();
+            TokenType type = currentToken.tokenType();
+            if (type == TokenType.EOF || braces.closes(type)) {
+                break;
+            } else if (braces.mismatch) {
+                source.reset(start, line, column);
+                advanceTokens();
+                advanceTokens();
+                return null;
+            } else if (type == TokenType.IDENT) {
+                identifiers.add(currentToken.literal());
+            }
+        }
+        
+        String code = source.getSource();
+        int end = currentToken.tokenType() == TokenType.EOF ? code.length() : currentStart + 1;
+        return new LazyBody(identifiers, () -> parseBody(new Parser(new Lexer(code, start, end, line, column), true)));
+    }
+    
+    /**
+     * Como preparseBody pero mirando solo los tipos del buffer: no crea los
+     * tokens que saltea. El cuerpo queda guardado como un rango de índices.
+     */
+    private LazyBody preparseBufferedBody() {
+        TokenBuffer buffer = tokens;
+        int start = peekIndex - 1;
+        Set<String> identifiers = new HashSet<>();
+        BraceCounter braces = new BraceCounter();
+        int index = start;
+        
+        while (true) {
+            index = bufferIndex(index + 1);
+            TokenType type = buffer.type(index);
+            if (type == TokenType.EOF || braces.closes(type)) {
+                break;
+            } else if (braces.mismatch) {
+                seek(start);
+                return null;
+            } else if (type == TokenType.IDENT) {
+                identifiers.add(buffer.literal(index));
+            }
+        }
+        
+        seek(index);
+        int end = index + 1;
+        return new LazyBody(identifiers, () -> parseBody(new Parser(null, buffer, start, end, true)));
+    }
+    
+    /**
+     * Cuenta las llaves de un cuerpo que se saltea como las ve la gramática:
+     * el while y el for descartan sin mirarlo el token que sigue al ')' de su
+     * encabezado, y una llave solo abre un bloque después de ')', de else o
+     * de ese token descartado. Si una llave cae en otro lugar, contarla daría
+     * un final del cuerpo distinto al del parser.
+     */
+    private static final class BraceCounter {
+        private int depth = 1;
+        // Paréntesis abiertos del encabezado de un while o for, o -1 fuera de uno
+        private int header = -1;
+        private boolean skipNext;
+        private boolean blockAllowed;
+        private boolean mismatch;
+        
+        /**
+         * @return true si el token es la llave que cierra el cuerpo
+         */
+        boolean closes(TokenType type) {
+            boolean allowed = blockAllowed;
+            blockAllowed = false;
+            if (skipNext) {
+                skipNext = false;
+                blockAllowed = true;
+                mismatch = type == TokenType.LBRACE || type == TokenType.RBRACE;
+                return false;
+            }
+            switch (type) {
+                case WHILE, FOR -> header = 0;
+                case LPAREN -> {
+                    if (header >= 0) {
+                        header++;
+                    }
+                }
+                case RPAREN -> {
+                    if (header > 0 && --header == 0) {
+                        header = -1;
+                        skipNext = true;
+                    }
+                    blockAllowed = true;
+                }
+                case ELSE -> blockAllowed = true;
+                case LBRACE -> {
+                    mismatch = !allowed;
+                    depth++;
+                }
+                case RBRACE -> {
+                    return --depth == 0;
+                }
+                default -> {
+                }
+            }
+            return false;
+        }
+    }
+    
+    /**
+     * Parsea un cuerpo diferido; sus funciones anidadas también quedan diferidas.
+     * Los errores se lanzan porque el resto del programa ya se está ejecutando.
+     */
+    private static BlockStatement parseBody(Parser parser) {
+        BlockStatement body = parser.parseBlockStatement();
+        if (!parser.errors.isEmpty()) {
+            throw new IllegalStateException("Parse errors in function body: " + String.join("; ", parser.errors));
+        }
+        return body;
+    }
+    
     /**
      * Parsea los parámetros de una función: (x, y, z)
      */
@@ -473,7 +716,8 @@ public class Parser {
     }
     
     private void noPrefixParseFnError(TokenType tokenType) {
-        errors.add(String.format("No prefix parse function for %s found", tokenType));
+        errors.add(String.format("No prefix parse function for %s found at %d:%d",
+            tokenType, currentLine, currentColumn));
     }
     
     public List<String> getErrors() {
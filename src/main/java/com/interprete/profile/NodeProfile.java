@@ -0,0 +1,98 @@
+package com.interprete.profile;
+
+import com.interprete.evaluator.CallSiteCache;
+import com.interprete.object.MInteger;
+import com.interprete.object.MObject;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lo que el Evaluator observó al ejecutar un nodo del AST. Cada tipo de nodo
+ * usa solo sus contadores.
+ */
+public final class NodeProfile {
+    public enum Kind {
+        INFIX,      // tipos de los operandos
+        CALL,       // funciones llamadas
+        IF,         // veces que se tomó cada rama
+        LOOP,       // entradas e iteraciones
+        FUNCTION    // llamadas
+    }
+
+    static final int INTEGERS = 1;
+    static final int OTHERS = 2;
+
+    final Kind kind;
+    // Fuente y posición del nodo en ella: así se nombra una función desde otras líneas
+    final String id;
+
+    int operandTypes;
+    long taken;
+    long notTaken;
+    long entries;
+    long iterations;
+    long calls;
+    final List<String> targets = new ArrayList<>();
+    boolean megamorphic;
+
+    NodeProfile(Kind kind, String id) {
+        this.kind = kind;
+        this.id = id;
+    }
+
+    public void recordOperands(MObject left, MObject right) {
+        operandTypes |= left instanceof MInteger && right instanceof MInteger ? INTEGERS : OTHERS;
+    }
+
+    public void recordBranch(boolean consequence) {
+        if (consequence) {
+            taken++;
+        } else {
+            notTaken++;
+        }
+    }
+
+    public void recordEntry() {
+        entries++;
+    }
+
+    public void recordIteration() {
+        iterations++;
+    }
+
+    /**
+     * Iteraciones que se hicieron sin pasar por el Evaluator, por ejemplo en una traza.
+     */
+    public void recordIterations(long count) {
+        iterations += count;
+    }
+
+    public void recordCall() {
+        calls++;
+    }
+
+    /**
+     * Registra la función llamada desde este lugar. Como en el inline cache,
+     * más de {@link CallSiteCache#MAX_ENTRIES} funciones no se recuerdan.
+     * @param target perfil del FunctionLiteral llamado, o null si no tiene
+     */
+    public void recordTarget(NodeProfile target) {
+        if (megamorphic || target == null || targets.contains(target.id)) {
+            return;
+        }
+        if (targets.size() == CallSiteCache.MAX_ENTRIES) {
+            megamorphic = true;
+            targets.clear();
+        } else {
+            targets.add(target.id);
+        }
+    }
+
+    /**
+     * @return true si alguna vez se vio un operando que no es entero
+     */
+    boolean sawNonIntegers() {
+        return (operandTypes & OTHERS) != 0;
+    }
+}
@@ -0,0 +1,381 @@
+package com.interprete.profile;
+
+import com.interprete.ast.*;
+import com.interprete.evaluator.CallSiteCache;
+import com.interprete.jit.JitTier;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Perfiles de ejecución que sobreviven entre ejecuciones del intérprete.
+ *
+ * Cada línea del REPL tiene un perfil en {@code <directorio>/<hash>.profile}, donde
+ * el hash es el SHA-256 del código; un script usa el de los bytes del archivo. Los nodos se numeran en preorden, así que el
+ * mismo código da los mismos números. El cuerpo de cada función se numera
+ * aparte, debajo del número de la función ("7.0", "7.1", ...): un cuerpo
+ * diferido por --lazy-parse se numera recién cuando se parsea y no cambia los
+ * números del resto. Con el perfil cargado, antes de ejecutar:
+ * - los inline caches de las llamadas arrancan con las funciones que ya vieron;
+ * - el JIT arranca caliente las funciones que ya superaron el umbral, salvo que
+ *   sus operaciones hayan visto valores que no son enteros (el código compilado
+ *   no serviría).
+ * Los if guardan cuántas veces se tomó cada rama y los bucles sus iteraciones.
+ */
+public final class Profiler {
+    private static final String EXTENSION = ".profile";
+    // Tamaño de las regiones del archivo que se mapean para calcular el hash
+    private static final long REGION_SIZE = 64L << 20;
+
+    private final Path directory;
+    private final boolean optimized;
+    private final JitTier jit;
+
+    // Perfiles de los nodos de cada fuente por número, por hash
+    private final Map<String, Map<String, NodeProfile>> sources = new LinkedHashMap<>();
+    // Último FunctionLiteral de cada id, para resolver las llamadas de los perfiles
+    private final Map<String, FunctionLiteral> literals = new HashMap<>();
+
+    /**
+     * @param optimized si el AST pasa por el Optimizer: cambia la numeración de los nodos
+     * @param jit nivel JIT a calentar, o null
+     */
+    public Profiler(Path directory, boolean optimized, JitTier jit) {
+        this.directory = directory;
+        this.optimized = optimized;
+        this.jit = jit;
+    }
+
+    /**
+     * Asocia cada nodo del programa (ya resuelto) con su perfil, cargándolo del
+     * archivo si es la primera vez que se ve esta fuente, y aplica lo aprendido.
+     * Los cuerpos diferidos se preparan con una pasada cuando se parsean.
+     * @return los inline caches que se crearon a partir del perfil
+     */
+    public List<CallSiteCache> prepare(String source, Program program) throws IOException {
+        return prepare(program, hash(source));
+    }
+
+    /**
+     * Como {@link #prepare(String, Program)} para un script: el hash se calcula
+     * leyendo el archivo mapeado por regiones, sin cargarlo entero.
+     */
+    public List<CallSiteCache> prepare(Path file, Program program) throws IOException {
+        MessageDigest digest = newDigest();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            for (long position = 0; position < size; position += REGION_SIZE) {
+                digest.update(channel.map(FileChannel.MapMode.READ_ONLY, position,
+                    Math.min(REGION_SIZE, size - position)));
+            }
+        }
+        return prepare(program, HexFormat.of().formatHex(digest.digest()));
+    }
+
+    private List<CallSiteCache> prepare(Program program, String hash) throws IOException {
+        Map<String, NodeProfile> profiles = sources.get(hash);
+        if (profiles == null) {
+            profiles = load(hash);
+            sources.put(hash, profiles);
+        }
+
+        Walker walker = new Walker(hash, profiles, "", null);
+        for (Statement stmt : program.getStatements()) {
+            walker.visit(stmt);
+        }
+        return apply(walker);
+    }
+
+    /**
+     * Llena los inline caches y calienta el JIT con lo que juntó el recorrido.
+     * @return los inline caches que se crearon
+     */
+    private List<CallSiteCache> apply(Walker walker) {
+        List<CallSiteCache> caches = new ArrayList<>();
+        for (CallExpression call : walker.calls) {
+            CallSiteCache cache = seed(call);
+            if (cache != null) {
+                caches.add(cache);
+            }
+        }
+        if (jit != null) {
+            for (Map.Entry<FunctionLiteral, Boolean> entry : walker.integerOnly.entrySet()) {
+                NodeProfile profile = entry.getKey().getProfile();
+                if (entry.getValue() && profile.calls > 0) {
+                    jit.warmUp(entry.getKey(), profile.calls + walker.iterations.getOrDefault(entry.getKey(), 0L));
+                }
+            }
+        }
+        return caches;
+    }
+
+    /**
+     * Escribe los perfiles de todas las fuentes que se ejecutaron.
+     */
+    public void save() throws IOException {
+        Files.createDirectories(directory);
+        for (Map.Entry<String, Map<String, NodeProfile>> entry : sources.entrySet()) {
+            StringBuilder sb = new StringBuilder();
+            for (Map.Entry<String, NodeProfile> profile : entry.getValue().entrySet()) {
+                sb.append(profile.getKey()).append(' ').append(format(profile.getValue())).append('\n');
+            }
+            Files.writeString(directory.resolve(entry.getKey() + EXTENSION), sb.toString(), StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Llena el inline cache de una llamada con las funciones de su perfil que existen en esta sesión.
+     */
+    private CallSiteCache seed(CallExpression call) {
+        CallSiteCache cache = null;
+        for (String target : call.getProfile().targets) {
+            FunctionLiteral literal = literals.get(target);
+            if (literal == null || literal.getSlotNames() == null) {
+                continue;
+            }
+            if (cache == null) {
+                cache = call.getCallCache();
+                if (cache != null) {
+                    return null;
+                }
+                cache = new CallSiteCache(call);
+                call.setCallCache(cache);
+            }
+            cache.prime(literal);
+        }
+        return cache;
+    }
+
+    private static String format(NodeProfile profile) {
+        String counters = switch (profile.kind) {
+            case INFIX -> String.valueOf(profile.operandTypes);
+            case CALL -> (profile.megamorphic ? "1" : "0")
+                + (profile.targets.isEmpty() ? "" : " " + String.join(" ", profile.targets));
+            case IF -> profile.taken + " " + profile.notTaken;
+            case LOOP -> profile.entries + " " + profile.iterations;
+            case FUNCTION -> String.valueOf(profile.calls);
+        };
+        return profile.kind.name() + " " + counters;
+    }
+
+    /**
+     * Lee el perfil guardado de una fuente. Las líneas que no se entienden se ignoran:
+     * el nodo empieza sin historia.
+     */
+    private Map<String, NodeProfile> load(String hash) throws IOException {
+        Map<String, NodeProfile> profiles = new LinkedHashMap<>();
+        Path file = directory.resolve(hash + EXTENSION);
+        if (!Files.exists(file)) {
+            return profiles;
+        }
+        for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+            String[] fields = line.trim().split("\\s+");
+            try {
+                String number = fields[0];
+                NodeProfile profile = new NodeProfile(NodeProfile.Kind.valueOf(fields[1]), hash + ":" + number);
+                switch (profile.kind) {
+                    case INFIX -> profile.operandTypes = Integer.parseInt(fields[2]);
+                    case CALL -> {
+                        profile.megamorphic = fields[2].equals("1");
+                        for (int i = 3; i < fields.length; i++) {
+                            profile.targets.add(fields[i]);
+                        }
+                    }
+                    case IF -> {
+                        profile.taken = Long.parseLong(fields[2]);
+                        profile.notTaken = Long.parseLong(fields[3]);
+                    }
+                    case LOOP -> {
+                        profile.entries = Long.parseLong(fields[2]);
+                        profile.iterations = Long.parseLong(fields[3]);
+                    }
+                    case FUNCTION -> profile.calls = Long.parseLong(fields[2]);
+                }
+                profiles.putIfAbsent(number, profile);
+            } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+                // Línea corrupta
+            }
+        }
+        return profiles;
+    }
+
+    private String hash(String source) {
+        return HexFormat.of().formatHex(newDigest().digest(source.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * @return un SHA-256 que ya empieza con el modo: el Optimizer cambia la numeración
+     */
+    private MessageDigest newDigest() {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update((optimized ? "opt\n" : "raw\n").getBytes(StandardCharsets.UTF_8));
+            return digest;
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * Numera en preorden los nodos con perfil de un programa o del cuerpo de
+     * una función y les asigna el suyo.
+     */
+    private final class Walker {
+        private final String hash;
+        private final Map<String, NodeProfile> profiles;
+        // Número de la función dueña del cuerpo seguido de un punto, o vacío en el programa
+        private final String prefix;
+        private int next;
+        private FunctionLiteral function;
+
+        final List<CallExpression> calls;
+        // Por función: si ninguna de sus operaciones vio algo que no sea un entero
+        final Map<FunctionLiteral, Boolean> integerOnly;
+        final Map<FunctionLiteral, Long> iterations;
+
+        /**
+         * @param function la función dueña del cuerpo que se recorre, o null
+         */
+        Walker(String hash, Map<String, NodeProfile> profiles, String prefix, FunctionLiteral function) {
+            this.hash = hash;
+            this.profiles = profiles;
+            this.prefix = prefix;
+            this.function = function;
+            this.calls = new ArrayList<>();
+            this.integerOnly = new LinkedHashMap<>();
+            this.iterations = new HashMap<>();
+            if (function != null) {
+                integerOnly.put(function, true);
+            }
+        }
+
+        /**
+         * Recorre el cuerpo de una función juntando lo mismo que el recorrido de afuera.
+         */
+        private Walker(Walker outer, String prefix, FunctionLiteral function) {
+            this.hash = outer.hash;
+            this.profiles = outer.profiles;
+            this.prefix = prefix;
+            this.function = function;
+            this.calls = outer.calls;
+            this.integerOnly = outer.integerOnly;
+            this.iterations = outer.iterations;
+            integerOnly.put(function, true);
+        }
+
+        void visit(ASTNode node) {
+            if (node instanceof LetStatement) {
+                visit(((LetStatement) node).getValue());
+            } else if (node instanceof ReturnStatement) {
+                visit(((ReturnStatement) node).getReturnValue());
+            } else if (node instanceof ExpressionStatement) {
+                visit(((ExpressionStatement) node).getExpression());
+            } else if (node instanceof BlockStatement) {
+                List<Statement> statements = ((BlockStatement) node).getStatements();
+                if (statements != null) {
+                    for (Statement stmt : statements) {
+                        visit(stmt);
+                    }
+                }
+            } else if (node instanceof WhileStatement) {
+                WhileStatement stmt = (WhileStatement) node;
+                countIterations(attach(stmt, NodeProfile.Kind.LOOP));
+                visit(stmt.getCondition());
+                visit(stmt.getBody());
+            } else if (node instanceof ForStatement) {
+                ForStatement stmt = (ForStatement) node;
+                countIterations(attach(stmt, NodeProfile.Kind.LOOP));
+                visit(stmt.getInitialization());
+                visit(stmt.getCondition());
+                visit(stmt.getIncrement());
+                visit(stmt.getBody());
+            } else if (node instanceof PrefixExpression) {
+                visit(((PrefixExpression) node).getRight());
+            } else if (node instanceof InfixExpression) {
+                InfixExpression exp = (InfixExpression) node;
+                NodeProfile profile = attach(exp, NodeProfile.Kind.INFIX);
+                if (function != null && profile.sawNonIntegers()) {
+                    integerOnly.put(function, false);
+                }
+                visit(exp.getLeft());
+                visit(exp.getRight());
+            } else if (node instanceof IfExpression) {
+                IfExpression exp = (IfExpression) node;
+                attach(exp, NodeProfile.Kind.IF);
+                visit(exp.getCondition());
+                visit(exp.getConsequence());
+                visit(exp.getAlternative());
+            } else if (node instanceof CallExpression) {
+                CallExpression exp = (CallExpression) node;
+                attach(exp, NodeProfile.Kind.CALL);
+                calls.add(exp);
+                visit(exp.getFunction());
+                if (exp.getArguments() != null) {
+                    for (Expression argument : exp.getArguments()) {
+                        visit(argument);
+                    }
+                }
+            } else if (node instanceof FunctionLiteral) {
+                FunctionLiteral literal = (FunctionLiteral) node;
+                NodeProfile profile = attach(literal, NodeProfile.Kind.FUNCTION);
+                literals.put(profile.id, literal);
+
+                String body = prefix + (next - 1) + ".";
+                if (literal.isParsed()) {
+                    new Walker(this, body, literal).visit(literal.getBody());
+                } else {
+                    // Pedir el cuerpo lo parsearía: se recorre cuando se parsea, después del Resolver
+                    literal.getLazyBody().addPass(parsed -> {
+                        Walker walker = new Walker(hash, profiles, body, literal);
+                        walker.visit(parsed);
+                        apply(walker);
+                        return parsed;
+                    });
+                }
+            }
+        }
+
+        /**
+         * @return el perfil del nodo: el cargado si coincide el tipo, o uno nuevo
+         */
+        private NodeProfile attach(Expression exp, NodeProfile.Kind kind) {
+            NodeProfile profile = profileAt(next++, kind);
+            exp.setProfile(profile);
+            return profile;
+        }
+
+        private NodeProfile attach(Statement stmt, NodeProfile.Kind kind) {
+            NodeProfile profile = profileAt(next++, kind);
+            stmt.setProfile(profile);
+            return profile;
+        }
+
+        private NodeProfile profileAt(int index, NodeProfile.Kind kind) {
+            String number = prefix + index;
+            NodeProfile profile = profiles.get(number);
+            if (profile == null || profile.kind != kind) {
+                profile = new NodeProfile(kind, hash + ":" + number);
+                profiles.put(number, profile);
+            }
+            return profile;
+        }
+
+        private void countIterations(NodeProfile loop) {
+            if (function != null) {
+                iterations.merge(function, loop.iterations, Long::sum);
+            }
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.interprete.repl;
+
+/**
+ * Motores de ejecución disponibles en el REPL.
+ */
+public enum ExecutionMode {
+    TREE("tree"),   // Evaluator: recorre el AST
+    VM("vm"),       // Compiler + VM: bytecode en una máquina de pila
+    NODES("nodes"), // Árbol de nodos que se especializan según los tipos observados
+    CLOSURES("closures"), // ClosureCompiler: el AST compilado a un árbol de lambdas
+    JIT("jit"),     // Evaluator que compila las funciones calientes a bytecode de la JVM
+    STACK("stack"), // StackEvaluator: recorre el AST con una pila propia en el heap
+    IR("ir"),       // IrBuilder + IrInterpreter: IR en forma SSA optimizado con GVN
+    FLAT("flat");   // FlatEvaluator: el AST codificado en arreglos de primitivos
+
+    private final String flag;
+
+    ExecutionMode(String flag) {
+        this.flag = flag;
+    }
+
+    public String getFlag() {
+        return flag;
+    }
+
+    /**
+     * Busca el modo por su nombre en la línea de comandos.
+     * @return el modo, o null si no existe
+     */
+    public static ExecutionMode fromFlag(String flag) {
+        for (ExecutionMode mode : values()) {
+            if (mode.flag.equalsIgnoreCase(flag)) {
+                return mode;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,163 @@
+package com.interprete.repl;
+
+import com.interprete.evaluator.StackEvaluator;
+import com.interprete.jit.JitTier;
+
+/**
+ * Opciones del REPL, tomadas de la línea de comandos.
+ */
+public class Options {
+    private ExecutionMode mode = ExecutionMode.TREE;
+    private int jitThreshold = JitTier.DEFAULT_THRESHOLD;
+    private long stackMemory = StackEvaluator.DEFAULT_MEMORY_BUDGET;
+    private boolean optimize = true;
+    private boolean dumpAst;
+    private boolean dumpIr;
+    private boolean callStats;
+    private int memoSize;
+    private int traceThreshold;
+    private boolean lazyParse;
+    private boolean parallelParse;
+    private String profileDir;
+    private String script;
+
+    public ExecutionMode getMode() {
+        return mode;
+    }
+
+    public void setMode(ExecutionMode mode) {
+        this.mode = mode;
+    }
+
+    /**
+     * @return llamadas más iteraciones de bucles antes de compilar una función (modo jit)
+     */
+    public int getJitThreshold() {
+        return jitThreshold;
+    }
+
+    public void setJitThreshold(int jitThreshold) {
+        this.jitThreshold = jitThreshold;
+    }
+
+    /**
+     * @return bytes que puede ocupar la pila de frames (modo stack)
+     */
+    public long getStackMemory() {
+        return stackMemory;
+    }
+
+    public void setStackMemory(long stackMemory) {
+        this.stackMemory = stackMemory;
+    }
+
+    /**
+     * @return si se pasa el Optimizer al AST antes de ejecutarlo
+     */
+    public boolean isOptimize() {
+        return optimize;
+    }
+
+    public void setOptimize(boolean optimize) {
+        this.optimize = optimize;
+    }
+
+    /**
+     * @return si se imprime el AST (ya optimizado) de cada línea
+     */
+    public boolean isDumpAst() {
+        return dumpAst;
+    }
+
+    public void setDumpAst(boolean dumpAst) {
+        this.dumpAst = dumpAst;
+    }
+
+    /**
+     * @return si se imprime el IR de cada línea (modo ir)
+     */
+    public boolean isDumpIr() {
+        return dumpIr;
+    }
+
+    public void setDumpIr(boolean dumpIr) {
+        this.dumpIr = dumpIr;
+    }
+
+    /**
+     * @return si se imprimen los aciertos de los inline caches de las llamadas (modos tree y jit)
+     */
+    public boolean isCallStats() {
+        return callStats;
+    }
+
+    public void setCallStats(boolean callStats) {
+        this.callStats = callStats;
+    }
+
+    /**
+     * @return resultados que se memoizan por función pura (modos tree y jit), o 0 para no memoizar
+     */
+    public int getMemoSize() {
+        return memoSize;
+    }
+
+    public void setMemoSize(int memoSize) {
+        this.memoSize = memoSize;
+    }
+
+    /**
+     * @return vueltas de un bucle antes de grabar su traza (modos tree y jit), o 0 para no usar trazas
+     */
+    public int getTraceThreshold() {
+        return traceThreshold;
+    }
+
+    public void setTraceThreshold(int traceThreshold) {
+        this.traceThreshold = traceThreshold;
+    }
+
+    /**
+     * @return true si los cuerpos de las funciones se parsean recién al llamarlas
+     */
+    public boolean isLazyParse() {
+        return lazyParse;
+    }
+
+    public void setLazyParse(boolean lazyParse) {
+        this.lazyParse = lazyParse;
+    }
+
+    /**
+     * @return true si un archivo se lee entero y se parsea en paralelo por partes
+     */
+    public boolean isParallelParse() {
+        return parallelParse;
+    }
+
+    public void setParallelParse(boolean parallelParse) {
+        this.parallelParse = parallelParse;
+    }
+
+    /**
+     * @return directorio donde se guardan y cargan los perfiles de ejecución (modos tree y jit), o null
+     */
+    public String getProfileDir() {
+        return profileDir;
+    }
+
+    public void setProfileDir(String profileDir) {
+        this.profileDir = profileDir;
+    }
+
+    /**
+     * @return el archivo a ejecutar en vez de abrir el REPL, o null
+     */
+    public String getScript() {
+        return script;
+    }
+
+    public void setScript(String script) {
+        this.script = script;
+    }
+}
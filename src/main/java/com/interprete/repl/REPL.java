@@ -1,13 +1,41 @@
 package com.interprete.repl;
 
 import com.interprete.ast.Program;
+import com.interprete.compiler.Compiler;
+import com.interprete.compiler.GlobalTable;
+import com.interprete.evaluator.CallSiteCache;
 import com.interprete.evaluator.Environment;
 import com.interprete.evaluator.Evaluator;
+import com.interprete.evaluator.Resolver;
+import com.interprete.evaluator.StackEvaluator;
+import com.interprete.executable.ClosureCompiler;
+import com.interprete.flat.FlatAst;
+import com.interprete.flat.FlatConverter;
+import com.interprete.flat.FlatEvaluator;
+import com.interprete.ir.IrBuilder;
+import com.interprete.ir.IrFunction;
+import com.interprete.ir.IrInterpreter;
+import com.interprete.jit.JitTier;
+import com.interprete.jit.TraceTier;
 import com.interprete.lexer.Lexer;
+import com.interprete.lexer.StreamLexer;
+import com.interprete.lexer.TokenBuffer;
+import com.interprete.nodes.NodeBuilder;
+import com.interprete.optimizer.Optimizer;
+import com.interprete.parser.ParallelParser;
 import com.interprete.parser.Parser;
 import com.interprete.object.MObject;
+import com.interprete.profile.Profiler;
+import com.interprete.vm.VM;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Scanner;
+import java.util.function.Supplier;
 
 /**
  * Read-Eval-Print Loop (REPL).
@@ -17,11 +45,27 @@ public class REPL {
     private static final String PROMPT = ">>> ";
     
     public static void start() {
+        start(ExecutionMode.TREE);
+    }
+    
+    /**
+     * Inicia el REPL con el motor de ejecución indicado.
+     */
+    public static void start(ExecutionMode mode) {
+        Options options = new Options();
+        options.setMode(mode);
+        start(options);
+    }
+    
+    /**
+     * Inicia el REPL con las opciones de la línea de comandos.
+     */
+    public static void start(Options options) {
         System.out.println("Bienvenido al interprete TPE!");
         System.out.println("Escribe 'salir' o 'end' para terminar.");
         
         Scanner scanner = new Scanner(System.in);
-        Environment env = new Environment();
+        Session session = new Session(options);
         
         while (true) {
             System.out.print(PROMPT);
@@ -42,23 +86,188 @@ public class REPL {
                 continue;
             }
             
+            run(session, new Parser(TokenBuffer.tokenize(line), options.isLazyParse()), line);
+        }
+        
+        session.close();
+        scanner.close();
+    }
+    
+    /**
+     * Ejecuta un archivo entero como un solo programa y muestra su resultado.
+     * El archivo se lee mapeado a memoria con el StreamLexer, sin cargarlo en
+     * un string. Con --lazy-parse, en cambio, se carga entero con un Lexer:
+     * los cuerpos diferidos guardan su posición en el código para parsearlos
+     * después. Con --parallel-parse también se carga y se parsea por partes.
+     * Con --engine=flat se parsea directo al AST plano, sin pasar por el Optimizer.
+     */
+    public static void runScript(Options options) {
+        Path file = Path.of(options.getScript());
+        Session session = new Session(options);
+        try {
+            if (options.isParallelParse()) {
+                ParallelParser parser = new ParallelParser(Files.readString(file), options.isLazyParse());
+                session.run(parser::parseProgram, parser::getErrors, null);
+            } else if (options.isLazyParse()) {
+                run(session, new Parser(new Lexer(Files.readString(file)), true), null);
+            } else {
+                try (StreamLexer lexer = StreamLexer.map(file)) {
+                    run(session, new Parser(lexer), null);
+                }
+            }
+        } catch (IOException | UncheckedIOException e) {
+            System.out.println("No se pudo leer el archivo: " + e.getMessage());
+        }
+        session.close();
+    }
+    
+    /**
+     * Parsea con el parser al AST que use la sesión y lo ejecuta.
+     * @param source el código, o null si es el archivo del script
+     */
+    private static void run(Session session, Parser parser, String source) {
+        if (session.parsesFlat()) {
+            session.runFlat(parser::parseFlat, parser::getErrors);
+        } else {
+            session.run(parser::parseProgram, parser::getErrors, source);
+        }
+    }
+    
+    /**
+     * Estado que comparten las líneas del REPL: variables, motores y perfiles.
+     */
+    private static final class Session {
+        private final Options options;
+        private final ExecutionMode mode;
+        private final Environment env = new Environment();
+        private final GlobalTable globals = new GlobalTable();
+        private final VM vm = new VM(globals);
+        private final JitTier jit;
+        private final TraceTier tracer;
+        private final StackEvaluator stackEvaluator;
+        private final IrInterpreter irInterpreter = new IrInterpreter();
+        private final FlatEvaluator flatEvaluator = new FlatEvaluator();
+        private final Profiler profiler;
+        
+        Session(Options options) {
+            this.options = options;
+            this.mode = options.getMode();
+            this.jit = mode == ExecutionMode.JIT ? new JitTier(options.getJitThreshold()) : null;
+            this.tracer = options.getTraceThreshold() > 0 ? new TraceTier(options.getTraceThreshold()) : null;
+            this.stackEvaluator = mode == ExecutionMode.STACK
+                ? new StackEvaluator(options.getStackMemory())
+                : null;
+            this.profiler = options.getProfileDir() != null && (mode == ExecutionMode.TREE || mode == ExecutionMode.JIT)
+                ? new Profiler(Path.of(options.getProfileDir()), options.isOptimize(), jit)
+                : null;
+        }
+        
+        /**
+         * Parsea y ejecuta un programa y muestra su resultado o los errores.
+         * @param parse el parseProgram del parser
+         * @param errors sus errores, que se piden después de parsear
+         * @param source el código, o null si es el archivo del script
+         */
+        void run(Supplier<Program> parse, Supplier<List<String>> errors, String source) {
+            // Inline caches de esta línea, solo para --call-stats
+            List<CallSiteCache> callSites = options.isCallStats() ? new ArrayList<>() : null;
             try {
-                Lexer lexer = new Lexer(line);
-                Parser parser = new Parser(lexer);
+                Program program = parse.get();
+                if (printErrors(errors.get())) {
+                    return;
+                }
+
+                if (options.isOptimize()) {
+                    program = new Optimizer().optimize(program);
+                }
+                if (options.isDumpAst()) {
+                    System.out.println(program);
+                }
                 
-                Program program = parser.parseProgram();
+                MObject evaluated = switch (mode) {
+                    case VM -> vm.run(new Compiler(globals).compile(program));
+                    case NODES -> new NodeBuilder(env).build(program).execute(env);
+                    case CLOSURES -> new ClosureCompiler(env).compile(program).execute(env);
+                    case JIT -> {
+                        new Resolver(env).resolve(program);
+                        prepareProfile(source, program, callSites);
+                        yield evaluate(new Evaluator(jit, options.getMemoSize(), tracer), program, env, callSites);
+                    }
+                    case STACK -> {
+                        new Resolver(env).resolve(program);
+                        yield stackEvaluator.eval(program, env);
+                    }
+                    case IR -> {
+                        new Resolver(env).resolve(program);
+                        IrFunction ir = new IrBuilder(env).build(program);
+                        if (options.isDumpIr()) {
+                            System.out.print(ir);
+                        }
+                        yield irInterpreter.run(ir, env);
+                    }
+                    case FLAT -> flatEvaluator.eval(FlatConverter.encode(program), env);
+                    default -> {
+                        new Resolver(env).resolve(program);
+                        prepareProfile(source, program, callSites);
+                        yield evaluate(new Evaluator(null, options.getMemoSize(), tracer), program, env, callSites);
+                    }
+                };
                 
-                if (parser.getErrors().size() > 0) {
-                    System.out.println("Errores del parser:");
-                    for (String error : parser.getErrors()) {
-                        System.out.println("  " + error);
+                if (evaluated != null) {
+                    System.out.println(evaluated.inspect());
+                }
+                if (callSites != null) {
+                    for (CallSiteCache site : callSites) {
+                        System.out.println("  " + site);
                     }
-                    continue;
+                }
+            } catch (Exception e) {
+                System.out.println("Error: " + e.getMessage());
+                e.printStackTrace();
+            }
+        }
+        
+        /**
+         * Aplica el perfil guardado al programa, si hay profiler.
+         * @param callSites donde guardar los inline caches creados del perfil, o null
+         */
+        private void prepareProfile(String source, Program program, List<CallSiteCache> callSites) throws IOException {
+            if (profiler != null) {
+                // El perfil de un script se busca por el contenido del archivo
+                List<CallSiteCache> seeded = source != null
+                    ? profiler.prepare(source, program)
+                    : profiler.prepare(Path.of(options.getScript()), program);
+                if (callSites != null) {
+                    callSites.addAll(seeded);
+                }
+            }
+        }
+        
+        /**
+         * @return si el motor es flat y el programa no necesita el AST de
+         *     objetos: sin optimizar, o un archivo, donde el AST entero no
+         *     debe quedar en memoria
+         */
+        boolean parsesFlat() {
+            return mode == ExecutionMode.FLAT && (!options.isOptimize() || options.getScript() != null);
+        }
+        
+        /**
+         * Parsea directo al AST plano y lo ejecuta con el FlatEvaluator.
+         * @param parse el parseFlat del parser
+         * @param errors sus errores, que se piden después de parsear
+         */
+        void runFlat(Supplier<FlatAst> parse, Supplier<List<String>> errors) {
+            try {
+                FlatAst ast = parse.get();
+                if (printErrors(errors.get())) {
+                    return;
+                }
+                if (options.isDumpAst()) {
+                    System.out.println(ast);
                 }
                 
-                Evaluator evaluator = new Evaluator();
-                MObject evaluated = evaluator.eval(program, env);
-                
+                MObject evaluated = flatEvaluator.eval(ast, env);
                 if (evaluated != null) {
                     System.out.println(evaluated.inspect());
                 }
@@ -68,6 +277,47 @@ public class REPL {
             }
         }
         
-        scanner.close();
+        /**
+         * @return true si hubo errores del parser, que se muestran
+         */
+        private static boolean printErrors(List<String> errors) {
+            if (errors.isEmpty()) {
+                return false;
+            }
+            System.out.println("Errores del parser:");
+            for (String error : errors) {
+                System.out.println("  " + error);
+            }
+            return true;
+        }
+        
+        /**
+         * Guarda el perfil de la sesión, si hay.
+         */
+        void close() {
+            if (profiler != null) {
+                try {
+                    profiler.save();
+                } catch (IOException e) {
+                    System.out.println("No se pudo guardar el perfil: " + e.getMessage());
+                }
+            }
+        }
+    }
+    
+    /**
+     * Evalúa con el Evaluator y guarda los inline caches nuevos de la línea,
+     * aunque la evaluación falle.
+     * @param callSites donde guardarlos, o null si no se muestran
+     */
+    private static MObject evaluate(Evaluator evaluator, Program program, Environment env,
+                                    List<CallSiteCache> callSites) {
+        try {
+            return evaluator.eval(program, env);
+        } finally {
+            if (callSites != null) {
+                callSites.addAll(evaluator.getCallSites());
+            }
+        }
     }
 }
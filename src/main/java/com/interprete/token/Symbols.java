@@ -0,0 +1,126 @@
+package com.interprete.token;
+
+import java.util.Arrays;
+
+/**
+ * Tabla de símbolos compartida por los lexers, el parser y los environments:
+ * a cada nombre de identificador le da un id entero denso (0, 1, 2, ...) y un
+ * único String.
+ *
+ * Los lexers internan los identificadores al leerlos, así que todos los
+ * Identifier con el mismo nombre comparten el String, y los environments
+ * buscan las variables por id en vez de hashear nombres.
+ *
+ * Los ids son globales y no se liberan. La tabla se puede usar desde varios
+ * hilos (el ParallelParser lexea partes a la vez).
+ */
+public final class Symbols {
+    private static final int INITIAL_CAPACITY = 1024;
+
+    // Tabla abierta con sondeo lineal: id + 1 en cada posición, 0 si está libre
+    private static int[] table = new int[INITIAL_CAPACITY];
+    private static volatile String[] names = new String[INITIAL_CAPACITY / 2];
+    private static int count;
+
+    private Symbols() {
+    }
+
+    /**
+     * @return el id del nombre, que se crea la primera vez
+     */
+    public static int intern(String name) {
+        return intern(name, 0, name.length(), name.hashCode());
+    }
+
+    /**
+     * Interna un fragmento del código sin crear un string si el nombre ya existe.
+     * @return el id del nombre
+     */
+    public static int intern(CharSequence source, int start, int end) {
+        int hash = 0;
+        for (int i = start; i < end; i++) {
+            hash = 31 * hash + source.charAt(i);
+        }
+        return intern(source, start, end, hash);
+    }
+
+    /**
+     * @param hash el de String.hashCode del nombre
+     */
+    private static synchronized int intern(CharSequence source, int start, int end, int hash) {
+        int mask = table.length - 1;
+        for (int i = mix(hash) & mask; ; i = (i + 1) & mask) {
+            int entry = table[i];
+            if (entry == 0) {
+                return add(source.subSequence(start, end).toString(), i);
+            }
+            if (matches(names[entry - 1], source, start, end)) {
+                return entry - 1;
+            }
+        }
+    }
+
+    private static int add(String name, int position) {
+        int symbol = count++;
+        String[] current = names;
+        if (symbol == current.length) {
+            current = Arrays.copyOf(current, symbol * 2);
+        }
+        current[symbol] = name;
+        names = current;
+        table[position] = symbol + 1;
+        // Se agranda al llegar a la mitad
+        if (count * 2 > table.length) {
+            rehash();
+        }
+        return symbol;
+    }
+
+    private static void rehash() {
+        int[] larger = new int[table.length * 2];
+        int mask = larger.length - 1;
+        for (int entry : table) {
+            if (entry != 0) {
+                int i = mix(names[entry - 1].hashCode()) & mask;
+                while (larger[i] != 0) {
+                    i = (i + 1) & mask;
+                }
+                larger[i] = entry;
+            }
+        }
+        table = larger;
+    }
+
+    private static boolean matches(String name, CharSequence source, int start, int end) {
+        if (name.length() != end - start) {
+            return false;
+        }
+        for (int i = 0; i < name.length(); i++) {
+            if (name.charAt(i) != source.charAt(start + i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Reparte los bits altos del hash, que el sondeo lineal no mira.
+     */
+    private static int mix(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * @return el nombre de un id ya creado
+     */
+    public static String name(int symbol) {
+        return names[symbol];
+    }
+
+    /**
+     * @return cantidad de nombres internados; los ids van de 0 a count() - 1
+     */
+    public static synchronized int count() {
+        return count;
+    }
+}
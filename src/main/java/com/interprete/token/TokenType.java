@@ -1,8 +1,5 @@
 package com.interprete.token;
 
-import java.util.HashMap;
-import java.util.Map;
-
 /**
  * Enum que define todos los tipos de tokens que puede reconocer el lexer.
  */
@@ -63,29 +60,50 @@ public enum TokenType {
         return literal;
     }
     
-    /**
-     * Lookup table para mapear keywords a sus TokenType correspondientes.
-     */
-    private static final Map<String, TokenType> KEYWORDS = new HashMap<>();
-    
-    static {
-        KEYWORDS.put("let", LET);
-        KEYWORDS.put("function", FUNCTION);
-        KEYWORDS.put("if", IF);
-        KEYWORDS.put("else", ELSE);
-        KEYWORDS.put("return", RETURN);
-        KEYWORDS.put("true", TRUE);
-        KEYWORDS.put("false", FALSE);
-        KEYWORDS.put("for", FOR);
-        KEYWORDS.put("while", WHILE);
-    }
-    
     /**
      * Identifica si un literal es una keyword o un identificador.
      * @param literal el literal a verificar
      * @return el TokenType correspondiente (IDENT si no es keyword)
      */
     public static TokenType lookupTokenType(String literal) {
-        return KEYWORDS.getOrDefault(literal, IDENT);
+        return lookupKeyword(literal, 0, literal.length());
+    }
+    
+    /**
+     * Reconoce una keyword en un fragmento del código sin crear un string:
+     * descarta por largo y primer carácter y recién después compara.
+     * @return el TokenType de la keyword, o IDENT si no es una
+     */
+    public static TokenType lookupKeyword(CharSequence source, int start, int end) {
+        TokenType candidate = switch (end - start) {
+            case 2 -> source.charAt(start) == 'i' ? IF : null;
+            case 3 -> switch (source.charAt(start)) {
+                case 'l' -> LET;
+                case 'f' -> FOR;
+                default -> null;
+            };
+            case 4 -> switch (source.charAt(start)) {
+                case 'e' -> ELSE;
+                case 't' -> TRUE;
+                default -> null;
+            };
+            case 5 -> switch (source.charAt(start)) {
+                case 'f' -> FALSE;
+                case 'w' -> WHILE;
+                default -> null;
+            };
+            case 6 -> source.charAt(start) == 'r' ? RETURN : null;
+            case 8 -> source.charAt(start) == 'f' ? FUNCTION : null;
+            default -> null;
+        };
+        if (candidate == null) {
+            return IDENT;
+        }
+        for (int i = 1; i < candidate.literal.length(); i++) {
+            if (source.charAt(start + i) != candidate.literal.charAt(i)) {
+                return IDENT;
+            }
+        }
+        return candidate;
     }
 }
@@ -0,0 +1,26 @@
+package com.interprete.vm;
+
+import com.interprete.compiler.CompiledFunction;
+import com.interprete.object.MObject;
+
+/**
+ * Registro de activación de una llamada en la VM.
+ * Los frames se reutilizan entre llamadas para no reservar memoria por cada una.
+ */
+class Frame {
+    CompiledFunction function;
+    MObject[] locals;
+    int base;
+    MObject[][] outers;
+    int ip;
+    int bp;
+
+    void enter(CompiledFunction function, MObject[] locals, int base, MObject[][] outers, int bp) {
+        this.function = function;
+        this.locals = locals;
+        this.base = base;
+        this.outers = outers;
+        this.ip = 0;
+        this.bp = bp;
+    }
+}
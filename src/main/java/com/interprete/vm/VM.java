@@ -0,0 +1,259 @@
+package com.interprete.vm;
+
+import com.interprete.compiler.CompiledFunction;
+import com.interprete.compiler.GlobalTable;
+import com.interprete.compiler.Opcode;
+import com.interprete.object.*;
+
+import java.util.Arrays;
+
+/**
+ * Máquina virtual de pila que ejecuta el bytecode generado por el Compiler.
+ *
+ * Las llamadas no usan la pila de Java: cada una ocupa un Frame y su espacio
+ * en una pila de operandos compartida. Los locales de funciones que no crean
+ * closures viven directamente en esa pila.
+ */
+public class VM {
+    private static final int STACK_SIZE = 1 << 16;
+    private static final MObject[][] NO_OUTERS = new MObject[0][];
+    private static final MBoolean TRUE = MBoolean.TRUE;
+    private static final MBoolean FALSE = MBoolean.FALSE;
+    private static final MNull NULL = MNull.getInstance();
+
+    private final GlobalTable globalTable;
+    private MObject[] globals;
+    private final MObject[] stack;
+    private Frame[] frames;
+
+    public VM(GlobalTable globalTable) {
+        this.globalTable = globalTable;
+        this.globals = new MObject[16];
+        this.stack = new MObject[STACK_SIZE];
+        this.frames = new Frame[64];
+        for (int i = 0; i < frames.length; i++) {
+            frames[i] = new Frame();
+        }
+    }
+
+    /**
+     * Ejecuta la función principal de un programa y retorna su resultado.
+     */
+    public MObject run(CompiledFunction main) {
+        if (globals.length < globalTable.size()) {
+            globals = Arrays.copyOf(globals, Math.max(globalTable.size(), globals.length * 2));
+        }
+        if (main.getMaxStack() > stack.length) {
+            throw new IllegalStateException("Stack overflow");
+        }
+
+        int fp = 0;
+        Frame frame = frames[0];
+        frame.enter(main, null, 0, NO_OUTERS, 0);
+
+        MObject[] stack = this.stack;
+        MObject[] globals = this.globals;
+        byte[] code = main.getCode();
+        MObject[] constants = main.getConstants();
+        MObject[] locals = null;
+        MObject[][] outers = NO_OUTERS;
+        int base = 0;
+        int ip = 0;
+        int sp = 0;
+
+        while (true) {
+            byte op = code[ip++];
+            switch (op) {
+                case Opcode.CONSTANT -> {
+                    stack[sp++] = constants[((code[ip] & 0xFF) << 8) | (code[ip + 1] & 0xFF)];
+                    ip += 2;
+                }
+                case Opcode.TRUE -> stack[sp++] = TRUE;
+                case Opcode.FALSE -> stack[sp++] = FALSE;
+                case Opcode.NULL -> stack[sp++] = NULL;
+                case Opcode.POP -> sp--;
+                case Opcode.DUP -> {
+                    stack[sp] = stack[sp - 1];
+                    sp++;
+                }
+
+                case Opcode.ADD, Opcode.SUB, Opcode.MUL, Opcode.DIV,
+                     Opcode.LT, Opcode.GT, Opcode.LE, Opcode.GE,
+                     Opcode.EQ, Opcode.NE -> {
+                    MObject right = stack[--sp];
+                    MObject left = stack[sp - 1];
+                    stack[sp - 1] = binaryOperation(op, left, right);
+                }
+                case Opcode.NEG -> {
+                    MObject right = stack[sp - 1];
+                    stack[sp - 1] = right instanceof MInteger
+                        ? MInteger.valueOf(-((MInteger) right).getValue())
+                        : NULL;
+                }
+                case Opcode.NOT -> {
+                    MObject right = stack[sp - 1];
+                    stack[sp - 1] = right == FALSE || right == NULL ? TRUE : FALSE;
+                }
+
+                case Opcode.JUMP -> ip = readU32(code, ip);
+                case Opcode.JUMP_IF_FALSE -> {
+                    MObject condition = stack[--sp];
+                    if (condition == FALSE || condition == NULL) {
+                        ip = readU32(code, ip);
+                    } else {
+                        ip += 4;
+                    }
+                }
+
+                case Opcode.GET_GLOBAL -> {
+                    MObject value = globals[((code[ip] & 0xFF) << 8) | (code[ip + 1] & 0xFF)];
+                    stack[sp++] = value != null ? value : NULL;
+                    ip += 2;
+                }
+                case Opcode.SET_GLOBAL -> {
+                    globals[((code[ip] & 0xFF) << 8) | (code[ip + 1] & 0xFF)] = stack[--sp];
+                    ip += 2;
+                }
+                case Opcode.GET_LOCAL -> stack[sp++] = locals[base + (code[ip++] & 0xFF)];
+                case Opcode.SET_LOCAL -> locals[base + (code[ip++] & 0xFF)] = stack[--sp];
+                case Opcode.TRY_LOCAL -> {
+                    MObject value = locals[base + (code[ip] & 0xFF)];
+                    if (value != null) {
+                        stack[sp++] = value;
+                        ip = readU32(code, ip + 1);
+                    } else {
+                        ip += 5;
+                    }
+                }
+                case Opcode.GET_OUTER -> {
+                    stack[sp++] = outers[code[ip] & 0xFF][code[ip + 1] & 0xFF];
+                    ip += 2;
+                }
+                case Opcode.TRY_OUTER -> {
+                    MObject value = outers[code[ip] & 0xFF][code[ip + 1] & 0xFF];
+                    if (value != null) {
+                        stack[sp++] = value;
+                        ip = readU32(code, ip + 2);
+                    } else {
+                        ip += 6;
+                    }
+                }
+
+                case Opcode.CLOSURE -> {
+                    CompiledFunction fn = frame.function.getFunctions()[((code[ip] & 0xFF) << 8) | (code[ip + 1] & 0xFF)];
+                    ip += 2;
+                    MObject[][] captured;
+                    if (locals == null) {
+                        captured = NO_OUTERS;
+                    } else {
+                        captured = new MObject[outers.length + 1][];
+                        captured[0] = locals;
+                        System.arraycopy(outers, 0, captured, 1, outers.length);
+                    }
+                    stack[sp++] = new MClosure(fn, captured);
+                }
+                case Opcode.CALL -> {
+                    int argc = code[ip++] & 0xFF;
+                    MObject callee = stack[sp - argc - 1];
+                    if (!(callee instanceof MClosure)
+                            || ((MClosure) callee).getFunction().getNumParameters() != argc) {
+                        sp -= argc + 1;
+                        stack[sp++] = NULL;
+                        continue;
+                    }
+
+                    MClosure closure = (MClosure) callee;
+                    CompiledFunction fn = closure.getFunction();
+                    int bp = sp - argc;
+                    if (bp + fn.getNumLocals() + fn.getMaxStack() > stack.length) {
+                        throw new IllegalStateException("Stack overflow");
+                    }
+
+                    frame.ip = ip;
+                    if (++fp == frames.length) {
+                        growFrames();
+                    }
+                    frame = frames[fp];
+
+                    if (fn.hasHeapLocals()) {
+                        locals = new MObject[fn.getNumLocals()];
+                        System.arraycopy(stack, bp, locals, 0, argc);
+                        base = 0;
+                        sp = bp;
+                    } else {
+                        locals = stack;
+                        base = bp;
+                        sp = bp + fn.getNumLocals();
+                        Arrays.fill(stack, bp + argc, sp, null);
+                    }
+                    outers = closure.getOuters();
+                    frame.enter(fn, locals, base, outers, bp);
+                    code = fn.getCode();
+                    constants = fn.getConstants();
+                    ip = 0;
+                }
+                case Opcode.RETURN -> {
+                    MObject result = stack[--sp];
+                    if (fp == 0) {
+                        return result;
+                    }
+
+                    sp = frame.bp - 1;
+                    frame = frames[--fp];
+                    code = frame.function.getCode();
+                    constants = frame.function.getConstants();
+                    locals = frame.locals;
+                    base = frame.base;
+                    outers = frame.outers;
+                    ip = frame.ip;
+                    stack[sp++] = result;
+                }
+                default -> throw new IllegalStateException("Unknown opcode " + op);
+            }
+        }
+    }
+
+    /**
+     * Lee el destino de un salto: u32 big-endian.
+     */
+    private static int readU32(byte[] code, int ip) {
+        return ((code[ip] & 0xFF) << 24) | ((code[ip + 1] & 0xFF) << 16)
+            | ((code[ip + 2] & 0xFF) << 8) | (code[ip + 3] & 0xFF);
+    }
+
+    /**
+     * Operadores infijos con la misma semántica que el Evaluator.
+     */
+    private static MObject binaryOperation(byte op, MObject left, MObject right) {
+        if (left instanceof MInteger && right instanceof MInteger) {
+            long leftVal = ((MInteger) left).getValue();
+            long rightVal = ((MInteger) right).getValue();
+            return switch (op) {
+                case Opcode.ADD -> MInteger.valueOf(leftVal + rightVal);
+                case Opcode.SUB -> MInteger.valueOf(leftVal - rightVal);
+                case Opcode.MUL -> MInteger.valueOf(leftVal * rightVal);
+                case Opcode.DIV -> MInteger.valueOf(leftVal / rightVal);
+                case Opcode.LT -> leftVal < rightVal ? TRUE : FALSE;
+                case Opcode.GT -> leftVal > rightVal ? TRUE : FALSE;
+                case Opcode.LE -> leftVal <= rightVal ? TRUE : FALSE;
+                case Opcode.GE -> leftVal >= rightVal ? TRUE : FALSE;
+                case Opcode.EQ -> leftVal == rightVal ? TRUE : FALSE;
+                case Opcode.NE -> leftVal != rightVal ? TRUE : FALSE;
+                default -> NULL;
+            };
+        }
+        return switch (op) {
+            case Opcode.EQ -> left == right ? TRUE : FALSE;
+            case Opcode.NE -> left != right ? TRUE : FALSE;
+            default -> NULL;
+        };
+    }
+
+    private void growFrames() {
+        int oldLength = frames.length;
+        frames = Arrays.copyOf(frames, oldLength * 2);
+        for (int i = oldLength; i < frames.length; i++) {
+            frames[i] = new Frame();
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.interprete.evaluator;
+
+import com.interprete.ast.CallExpression;
+import com.interprete.ast.Program;
+import com.interprete.lexer.Lexer;
+import com.interprete.parser.Parser;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CallSiteCacheTest {
+
+    @Test
+    void estadosSegunLasFuncionesVistas() {
+        Evaluator evaluator = new Evaluator();
+        Environment env = new Environment();
+        eval("let llama = function(f) { f(1) };", evaluator, env);
+        eval("let crea = function(n) { function(x) { x + n } };", evaluator, env);
+        CallSiteCache site = siteIn(evaluator, "llama(function(x) { x });", env, "f(1)");
+        assertEquals(CallSiteCache.State.MONOMORPHIC, site.getState());
+
+        eval("llama(function(x) { x * 2 });", evaluator, env);
+        assertEquals(CallSiteCache.State.POLYMORPHIC, site.getState());
+
+        // Las closures de un mismo literal comparten la entrada
+        for (int i = 0; i < 10; i++) {
+            eval("llama(crea(" + i + "));", evaluator, env);
+        }
+        assertEquals(CallSiteCache.State.POLYMORPHIC, site.getState());
+
+        eval("llama(function(x) { x - 1 });", evaluator, env);
+        assertEquals(CallSiteCache.State.POLYMORPHIC, site.getState());
+        eval("llama(function(x) { x - 2 });", evaluator, env);
+        assertEquals(CallSiteCache.State.MEGAMORPHIC, site.getState());
+        eval("llama(function(x) { x });", evaluator, env);
+        assertEquals(CallSiteCache.State.MEGAMORPHIC, site.getState());
+    }
+
+    @Test
+    void cuentaAciertosYFallos() {
+        Evaluator evaluator = new Evaluator();
+        Environment env = new Environment();
+        eval("let doble = function(x) { x * 2 };", evaluator, env);
+        CallSiteCache site = siteIn(evaluator,
+            "let t = 0; for (let i = 0;; i < 10; let i = i + 1) ) { let t = t + doble(i); } t", env, "doble(i)");
+
+        assertEquals(9, site.getHits());
+        assertEquals(1, site.getMisses());
+        assertTrue(site.toString().contains("9/10 aciertos"), site.toString());
+    }
+
+    @Test
+    void elCaminoCacheadoDaLoMismoQueElGenerico() {
+        String[] lines = {
+            "let suma = function(a, b) { a + b };",
+            "let t = 0; for (let i = 0;; i < 100; let i = i + 1) ) { let t = suma(t, i); } t",
+            "suma(1)",
+            "suma(1, 2, 3)",
+            "let cuenta = function(n, acc) { if (n == 0) { return acc; } cuenta(n - 1, acc + 1) };",
+            "cuenta(10000, 0)",
+            "let f = function(x) { suma(if (x) { return 5; }, 1) };",
+            "f(true)"
+        };
+        Evaluator evaluator = new Evaluator();
+        Environment env = new Environment();
+        // Con memoización las llamadas van siempre por la lista de argumentos
+        Evaluator generic = new Evaluator(null, 1);
+        Environment genericEnv = new Environment();
+        for (String line : lines) {
+            assertEquals(eval(line, generic, genericEnv), eval(line, evaluator, env), line);
+        }
+    }
+
+    /**
+     * Ejecuta la línea y devuelve el cache de la llamada que se muestra como call.
+     */
+    private static CallSiteCache siteIn(Evaluator evaluator, String line, Environment env, String call) {
+        eval(line, evaluator, env);
+        List<CallSiteCache> sites = evaluator.getCallSites();
+        for (CallSiteCache site : sites) {
+            CallExpression expression = site.getSite();
+            if (expression.toString().equals(call)) {
+                return site;
+            }
+        }
+        throw new AssertionError("No call site " + call + " in " + sites);
+    }
+
+    private static String eval(String line, Evaluator evaluator, Environment env) {
+        Program program = parse(line);
+        new Resolver(env).resolve(program);
+        return evaluator.eval(program, env).inspect();
+    }
+
+    private static Program parse(String line) {
+        Parser parser = new Parser(new Lexer(line));
+        Program program = parser.parseProgram();
+        assertTrue(parser.getErrors().isEmpty(), parser.getErrors().toString());
+        return program;
+    }
+}
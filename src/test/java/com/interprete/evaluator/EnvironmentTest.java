@@ -0,0 +1,65 @@
+package com.interprete.evaluator;
+
+import com.interprete.lexer.Lexer;
+import com.interprete.object.MInteger;
+import com.interprete.object.MObject;
+import com.interprete.parser.Parser;
+import com.interprete.token.Symbols;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EnvironmentTest {
+
+    @Test
+    void globalesPorNombreMasAllaDeLaCapacidadInicial() {
+        Environment env = new Environment();
+        for (int i = 0; i < 100; i++) {
+            env.set("g" + i, MInteger.valueOf(i));
+        }
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i, ((MInteger) env.get("g" + i)).getValue(), "g" + i);
+        }
+    }
+
+    @Test
+    void globalesPorSimboloMasAllaDeLaCapacidadInicial() {
+        Environment env = new Environment();
+        for (int i = 0; i < 100; i++) {
+            env.setVariable(Symbols.intern("s" + i), MInteger.valueOf(i));
+        }
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i, ((MInteger) env.getVariable(Symbols.intern("s" + i))).getValue(), "s" + i);
+        }
+    }
+
+    @Test
+    void muchosLetEnUnaSesion() {
+        Environment env = new Environment();
+        for (int i = 0; i < 40; i++) {
+            eval("let a" + i + " = " + i + ";", env, false);
+        }
+        for (int i = 0; i < 40; i++) {
+            assertEquals(String.valueOf(i), eval("a" + i, env, false).inspect());
+        }
+
+        Environment resolved = new Environment();
+        for (int i = 0; i < 40; i++) {
+            eval("let b" + i + " = " + i + ";", resolved, true);
+        }
+        for (int i = 0; i < 40; i++) {
+            assertEquals(String.valueOf(i), eval("b" + i, resolved, true).inspect());
+        }
+    }
+
+    private static MObject eval(String line, Environment env, boolean resolve) {
+        Parser parser = new Parser(new Lexer(line));
+        var program = parser.parseProgram();
+        assertTrue(parser.getErrors().isEmpty(), parser.getErrors().toString());
+        if (resolve) {
+            new Resolver(env).resolve(program);
+        }
+        return new Evaluator().eval(program, env);
+    }
+}
@@ -0,0 +1,52 @@
+package com.interprete.evaluator;
+
+import com.interprete.object.MInteger;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class SymbolMapTest {
+
+    @Test
+    void creceConservandoLosValores() {
+        SymbolMap map = new SymbolMap();
+        for (int symbol = 0; symbol < 5000; symbol++) {
+            map.put(symbol, MInteger.valueOf(symbol));
+            // Lo ya guardado sigue ahí después de cada crecimiento
+            assertEquals(symbol / 2, ((MInteger) map.get(symbol / 2)).getValue());
+        }
+        for (int symbol = 0; symbol < 5000; symbol++) {
+            assertEquals(symbol, ((MInteger) map.get(symbol)).getValue());
+        }
+        assertNull(map.get(5000));
+        assertNull(map.get(123456));
+    }
+
+    @Test
+    void reasignarNoAgregaOtraEntrada() {
+        SymbolMap map = new SymbolMap();
+        for (int round = 0; round < 100; round++) {
+            for (int symbol = 0; symbol < 6; symbol++) {
+                map.put(symbol, MInteger.valueOf(round));
+            }
+        }
+        for (int symbol = 0; symbol < 6; symbol++) {
+            assertEquals(99, ((MInteger) map.get(symbol)).getValue());
+        }
+        assertNull(map.get(6));
+    }
+
+    @Test
+    void simbolosDispersos() {
+        SymbolMap map = new SymbolMap();
+        // Múltiplos de potencias de dos, que sin mezclar caerían en la misma posición
+        for (int i = 0; i < 200; i++) {
+            map.put(i << 10, MInteger.valueOf(i));
+        }
+        for (int i = 0; i < 200; i++) {
+            assertEquals(i, ((MInteger) map.get(i << 10)).getValue());
+        }
+        assertNull(map.get(1));
+    }
+}
@@ -0,0 +1,118 @@
+package com.interprete.flat;
+
+import com.interprete.ast.Program;
+import com.interprete.evaluator.Environment;
+import com.interprete.evaluator.Evaluator;
+import com.interprete.evaluator.Resolver;
+import com.interprete.lexer.Lexer;
+import com.interprete.optimizer.Optimizer;
+import com.interprete.parser.Parser;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FlatEvaluatorTest {
+
+    @Test
+    void muchasGlobalesEnUnaSesion() {
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < 60; i++) {
+            lines.add("let v" + i + " = " + i + " * 2;");
+        }
+        for (int i = 0; i < 60; i++) {
+            lines.add("v" + i);
+        }
+        lines.add("v17 + v33 + v59");
+        assertSameAsTree(lines);
+    }
+
+    @Test
+    void funcionesDeUnaLineaLlamadasDesdeOtra() {
+        assertSameAsTree(List.of(
+            "let suma = function(a, b) { a + b };",
+            "let doble = function(x) { suma(x, x) };",
+            "doble(21)",
+            "let contador = function(n) { function() { n + 1 } };",
+            "let c = contador(9);",
+            "c()",
+            "let loop = function(n, acc) { if (n == 0) { return acc; } else { return loop(n - 1, acc + 1); } };",
+            "loop(100000, 0)",
+            "let fib = function(n) { if (n < 2) { return n; } fib(n - 1) + fib(n - 2) };",
+            "fib(15)",
+            "let i = 0; let t = 0; while (i < 10) ) { let t = t + i; let i = i + 1; } t",
+            "for (let j = 0;; j < 5; let j = j + 1) ) { let t = t - j; } t",
+            "if (t > 100) { 1 }",
+            "!t",
+            "-true",
+            "suma(1)",
+            "t == t"
+        ));
+    }
+
+    @Test
+    void parseFlatIgualAlConvertirElProgramaEntero() {
+        String source = "let f = function(x, y) { if (x < y) { return x * 2; } else { -y } }; "
+            + "let g = f(1, 2); for (let i = 0;; i < 3; let i = i + 1) ) { let g = g + i; } "
+            + "while (g > 0) ) { let g = g - 1; } !true == false";
+        FlatAst direct = new Parser(new Lexer(source)).parseFlat();
+        FlatAst converted = FlatConverter.encode(new Parser(new Lexer(source)).parseProgram());
+
+        assertEquals(converted.toString(), direct.toString());
+        assertEquals(new Parser(new Lexer(source)).parseProgram().toString(), direct.toString());
+        assertEquals(converted.size(), direct.size());
+    }
+
+    @Test
+    void losCuerposDiferidosSeCodificanAlLlamarlos() {
+        String source = "let mala = function() { let = 3; }; "
+            + "let suma = function(n) { let f = function(x, acc) { if (x == 0) { return acc; } f(x - 1, acc + x) }; f(n, 0) }; "
+            + "suma(100000)";
+        Parser parser = new Parser(new Lexer(source), true);
+        FlatAst ast = parser.parseFlat();
+        assertTrue(parser.getErrors().isEmpty(), parser.getErrors().toString());
+        assertEquals(FlatAst.LAZY_FUNCTION, ast.kind(ast.second(ast.list(ast.rootStart()))));
+
+        assertEquals("5000050000", new FlatEvaluator().eval(ast, new Environment()).inspect());
+        assertFalse(ast.deferred(0).isParsed());
+        assertTrue(ast.deferred(1).isParsed());
+    }
+
+    /**
+     * Ejecuta las líneas como un REPL en el Evaluator y en el FlatEvaluator,
+     * parseando directo al AST plano y también convirtiendo el AST optimizado.
+     */
+    private static void assertSameAsTree(List<String> lines) {
+        Environment treeEnv = new Environment();
+        Evaluator evaluator = new Evaluator();
+        Environment flatEnv = new Environment();
+        FlatEvaluator flat = new FlatEvaluator();
+        Environment optimizedEnv = new Environment();
+        FlatEvaluator optimized = new FlatEvaluator();
+
+        for (String line : lines) {
+            Program program = parse(line);
+            new Resolver(treeEnv).resolve(program);
+            String expected = evaluator.eval(program, treeEnv).inspect();
+
+            Parser parser = new Parser(new Lexer(line));
+            FlatAst ast = parser.parseFlat();
+            assertTrue(parser.getErrors().isEmpty(), parser.getErrors().toString());
+            assertEquals(expected, flat.eval(ast, flatEnv).inspect(), line);
+
+            FlatAst encoded = FlatConverter.encode(new Optimizer().optimize(parse(line)));
+            assertEquals(expected, optimized.eval(encoded, optimizedEnv).inspect(), line);
+        }
+    }
+
+    private static Program parse(String line) {
+        Parser parser = new Parser(new Lexer(line));
+        Program program = parser.parseProgram();
+        assertTrue(parser.getErrors().isEmpty(), parser.getErrors().toString());
+        return program;
+    }
+}
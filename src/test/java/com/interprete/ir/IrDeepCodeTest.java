@@ -0,0 +1,47 @@
+package com.interprete.ir;
+
+import com.interprete.ast.Program;
+import com.interprete.evaluator.Environment;
+import com.interprete.evaluator.Resolver;
+import com.interprete.lexer.Lexer;
+import com.interprete.parser.Parser;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Código sin bucles muy largo: el árbol de dominadores y las búsquedas de
+ * variables en los predecesores son tan profundos como el código.
+ */
+class IrDeepCodeTest {
+
+    @Test
+    void muchosIfSeguidosEnElPrograma() {
+        StringBuilder source = new StringBuilder("let x = 0; let y = 7; ");
+        for (int i = 0; i < 8000; i++) {
+            source.append("if (x < ").append(i % 50).append(") { let x = x + 1; } else { let x = x - 1; } ");
+        }
+        source.append("x + y");
+        assertEquals("55", run(source.toString()));
+    }
+
+    @Test
+    void muchosIfSeguidosEnUnaFuncion() {
+        StringBuilder source = new StringBuilder("let f = function(x) { let y = 7; ");
+        for (int i = 0; i < 8000; i++) {
+            source.append("if (x < ").append(i + 5).append(") { let x = x + 1; } ");
+        }
+        source.append("x + y }; f(0)");
+        assertEquals("8007", run(source.toString()));
+    }
+
+    private static String run(String source) {
+        Parser parser = new Parser(new Lexer(source));
+        Program program = parser.parseProgram();
+        assertTrue(parser.getErrors().isEmpty(), parser.getErrors().toString());
+        Environment env = new Environment();
+        new Resolver(env).resolve(program);
+        return new IrInterpreter().run(new IrBuilder(env).build(program), env).inspect();
+    }
+}
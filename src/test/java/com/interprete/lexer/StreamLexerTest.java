@@ -0,0 +1,69 @@
+package com.interprete.lexer;
+
+import com.interprete.token.Token;
+import com.interprete.token.TokenType;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class StreamLexerTest {
+
+    private static final String SOURCE = String.join("\n",
+        "let suma = function(a, b) { a + b };",
+        "let x = 10; let y = -x * 2 / 3;",
+        "if (x <= y) { return true; } else { !false }",
+        "while (x >= 0) ) { let x = x - 1; }",
+        "for (let i = 0;; i < 3; let i = i + 1) ) { suma(i, x) }",
+        "x == y; x != y; x < y; x > y;",
+        "let nombreLargoDeVariable123 = 9223372036854775807;",
+        "@ # $",
+        "");
+
+    @Test
+    void mismosTokensQueElLexer() {
+        List<String> expected = tokens(new Lexer(SOURCE));
+        assertEquals(expected, tokens(new StreamLexer(new StringReader(SOURCE))));
+    }
+
+    @Test
+    void mismosTokensDesdeUnArchivoMapeado() throws IOException {
+        StringBuilder source = new StringBuilder();
+        // Más grande que el búfer del StreamLexer, para cruzar varios bordes
+        while (source.length() < 200_000) {
+            source.append(SOURCE);
+        }
+        Path file = Files.createTempFile("stream-lexer", ".txt");
+        try {
+            Files.writeString(file, source);
+            List<String> expected = tokens(new Lexer(source.toString()));
+            try (StreamLexer lexer = StreamLexer.map(file)) {
+                assertEquals(expected, tokens(lexer));
+            }
+            try (StreamLexer lexer = new StreamLexer(new StringReader(source.toString()))) {
+                assertEquals(expected, tokens(lexer));
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    /**
+     * Lee los tokens hasta EOF, cada uno con su posición, línea y columna.
+     */
+    private static List<String> tokens(TokenSource lexer) {
+        List<String> tokens = new ArrayList<>();
+        Token token;
+        do {
+            token = lexer.nextToken();
+            tokens.add(token + "@" + lexer.getTokenStart() + "/" + lexer.getTokenLine() + ":" + lexer.getTokenColumn());
+        } while (token.tokenType() != TokenType.EOF);
+        return tokens;
+    }
+}
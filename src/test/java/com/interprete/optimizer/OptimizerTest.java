@@ -0,0 +1,75 @@
+package com.interprete.optimizer;
+
+import com.interprete.ast.Program;
+import com.interprete.evaluator.Environment;
+import com.interprete.evaluator.Evaluator;
+import com.interprete.lexer.Lexer;
+import com.interprete.parser.Parser;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OptimizerTest {
+
+    @Test
+    void simplificaIdentidadesDeEnteros() {
+        assertOptimizesTo("let x = 5; x * 1", "let x = 5; x");
+        assertOptimizesTo("let x = 5; 1 * x", "let x = 5; x");
+        assertOptimizesTo("let x = 5; x + 0", "let x = 5; x");
+        assertOptimizesTo("let x = 5; 0 + x", "let x = 5; x");
+        assertOptimizesTo("let x = 5; x - 0", "let x = 5; x");
+        assertOptimizesTo("let x = 5; x / 1", "let x = 5; x");
+        assertOptimizesTo("let x = 5; (x * 1 + 0) / 1", "let x = 5; x");
+        // Aritmética con algo que no es entero da null, que también cumple la identidad
+        assertOptimizesTo("let x = 5; let y = x + true; y * 1", "let x = 5; let y = x + true; y");
+    }
+
+    @Test
+    void noSimplificaLoQueNoSabeQueEsEntero() {
+        assertUnchanged("let b = true; b * 1");
+        assertUnchanged("let x = 5; let x = true; x + 0");
+        assertUnchanged("y * 1");
+        assertUnchanged("let f = function(p) { p + 0 }; f(true)");
+        assertUnchanged("let x = 5; 0 - x");
+        assertUnchanged("let x = 5; 1 / x");
+        assertUnchanged("let x = 5; x * 0");
+    }
+
+    @Test
+    void pliegaLiteralesSinCambiarLosErrores() {
+        assertOptimizesTo("2 * 60 * 60", "7200");
+        assertOptimizesTo("-(3 - 5) < 4 == true", "true");
+        assertOptimizesTo("1 == true", "false");
+        assertUnchanged("10 / 0");
+        assertUnchanged("true + 1");
+    }
+
+    /**
+     * El programa optimizado se imprime como expected y da el mismo resultado.
+     */
+    private static void assertOptimizesTo(String source, String expected) {
+        Program optimized = new Optimizer().optimize(parse(source));
+        assertEquals(parse(expected).toString(), optimized.toString(), source);
+        assertEquals(eval(parse(source)), eval(optimized), source);
+    }
+
+    private static void assertUnchanged(String source) {
+        assertOptimizesTo(source, source);
+    }
+
+    private static String eval(Program program) {
+        try {
+            return new Evaluator().eval(program, new Environment()).inspect();
+        } catch (ArithmeticException e) {
+            return "ArithmeticException";
+        }
+    }
+
+    private static Program parse(String source) {
+        Parser parser = new Parser(new Lexer(source));
+        Program program = parser.parseProgram();
+        assertTrue(parser.getErrors().isEmpty(), parser.getErrors().toString());
+        return program;
+    }
+}
@@ -0,0 +1,65 @@
+package com.interprete.parser;
+
+import com.interprete.ast.FunctionLiteral;
+import com.interprete.ast.LetStatement;
+import com.interprete.ast.Program;
+import com.interprete.lexer.Lexer;
+import com.interprete.lexer.TokenBuffer;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LazyParserTest {
+
+    private static final List<String> PROGRAMS = List.of(
+        "let suma = function(a, b) { a + b }; suma(1, 2)",
+        "let f = function(x) { if (x < 2) { return x; } else { let y = x - 1; f(y) } }; f(3)",
+        "let f = function(n) { let t = 0; while (n > 0) ) { let t = t + n; let n = n - 1; } t }; f(4)",
+        "let f = function(n) { for (let i = 0;; i < g(n); let i = i + 1) ) { let n = n + i; } n }; 1",
+        "let f = function() { function(a) { function(b) { a + b } } }; f()(1)(2)",
+        // El token que sigue al ')' del while se descarta: la primera llave no abre un bloque
+        "let f = function(n) { let i = 0; while (i < n) {{ let i = i + 1; } i }; let g = function() { 7 }; f(3) + g()",
+        "let f = function(n) { for (let i = 0;; i < n; let i = i + 1) {{ let n = n - 1; } n }; f(2)",
+        "let f = function(n) { while (n > 0) ) { let h = function(x) { while (x) {{ x } }; let n = n - 1; } }; f(1)",
+        "let f = function() { 1 }; let g = function() { f() }; g()"
+    );
+
+    @Test
+    void mismoAstQueElParserNormal() {
+        for (String source : PROGRAMS) {
+            String eager = parse(new Parser(new Lexer(source)));
+            assertEquals(eager, parse(new Parser(new Lexer(source), true)), source);
+            assertEquals(eager, parse(new Parser(TokenBuffer.tokenize(source), true)), source);
+        }
+    }
+
+    @Test
+    void difiereLosCuerposQueCoincidenConLaGramatica() {
+        String source = "let f = function(n) { while (n > 0) ) { let n = n - 1; } n };";
+        assertFalse(function(new Parser(new Lexer(source), true)).isParsed());
+        assertFalse(function(new Parser(TokenBuffer.tokenize(source), true)).isParsed());
+    }
+
+    @Test
+    void parseaEnElMomentoSiLasLlavesNoCoinciden() {
+        String source = "let f = function(n) { while (n > 0) {{ let n = n - 1; } n };";
+        assertTrue(function(new Parser(new Lexer(source), true)).isParsed());
+        assertTrue(function(new Parser(TokenBuffer.tokenize(source), true)).isParsed());
+    }
+
+    private static String parse(Parser parser) {
+        Program program = parser.parseProgram();
+        assertTrue(parser.getErrors().isEmpty(), parser.getErrors().toString());
+        return program.toString();
+    }
+
+    private static FunctionLiteral function(Parser parser) {
+        Program program = parser.parseProgram();
+        assertTrue(parser.getErrors().isEmpty(), parser.getErrors().toString());
+        return (FunctionLiteral) ((LetStatement) program.getStatements().get(0)).getValue();
+    }
+}
@@ -0,0 +1,101 @@
+package com.interprete.profile;
+
+import com.interprete.ast.FunctionLiteral;
+import com.interprete.ast.LetStatement;
+import com.interprete.ast.Program;
+import com.interprete.evaluator.Environment;
+import com.interprete.evaluator.Evaluator;
+import com.interprete.evaluator.Resolver;
+import com.interprete.lexer.Lexer;
+import com.interprete.parser.Parser;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ProfilerTest {
+
+    private static final String SOURCE = "let bad = function() { let = 3; }; "
+        + "let ok = function(x) { let f = function(y) { if (y > 0) { y + 1 } }; f(x) }; "
+        + "ok(41)";
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void noParseaLosCuerposDiferidos() throws IOException {
+        Program program = new Parser(new Lexer(SOURCE), true).parseProgram();
+        Environment env = new Environment();
+        new Resolver(env).resolve(program);
+        Profiler profiler = new Profiler(directory, false, null);
+        profiler.prepare(SOURCE, program);
+
+        FunctionLiteral bad = (FunctionLiteral) ((LetStatement) program.getStatements().get(0)).getValue();
+        assertFalse(bad.isParsed());
+        assertEquals("42", new Evaluator().eval(program, env).inspect());
+        assertFalse(bad.isParsed());
+    }
+
+    @Test
+    void mismaNumeracionConYSinCuerposDiferidos() throws IOException {
+        String source = SOURCE.substring(SOURCE.indexOf("let ok"));
+        Path eager = directory.resolve("eager");
+        Path lazy = directory.resolve("lazy");
+        run(source, false, eager);
+        run(source, true, lazy);
+
+        List<String> eagerLines = lines(eager);
+        List<String> lazyLines = lines(lazy);
+        assertTrue(eagerLines.contains("0.0.0 IF 1 0"), eagerLines.toString());
+        assertEquals(eagerLines.stream().sorted().toList(), lazyLines.stream().sorted().toList());
+    }
+
+    @Test
+    void elPerfilDeUnArchivoDependeSoloDeSuContenido() throws IOException {
+        String source = SOURCE.substring(SOURCE.indexOf("let ok"));
+        Path file = directory.resolve("script.txt");
+        Files.writeString(file, source);
+        Path copy = Files.copy(file, directory.resolve("copia.txt"));
+        Path profiles = directory.resolve("perfiles");
+
+        for (Path script : List.of(file, copy)) {
+            Program program = new Parser(new Lexer(source)).parseProgram();
+            Environment env = new Environment();
+            new Resolver(env).resolve(program);
+            Profiler profiler = new Profiler(profiles, false, null);
+            profiler.prepare(script, program);
+            new Evaluator().eval(program, env);
+            profiler.save();
+        }
+        assertTrue(lines(profiles).contains("0 FUNCTION 2"), lines(profiles).toString());
+
+        // El mismo código escrito como una línea usa el mismo perfil
+        run(source, false, profiles);
+        assertTrue(lines(profiles).contains("0 FUNCTION 3"), lines(profiles).toString());
+    }
+
+    private static void run(String source, boolean lazyParse, Path directory) throws IOException {
+        Program program = new Parser(new Lexer(source), lazyParse).parseProgram();
+        Environment env = new Environment();
+        new Resolver(env).resolve(program);
+        Profiler profiler = new Profiler(directory, false, null);
+        profiler.prepare(source, program);
+        new Evaluator().eval(program, env);
+        profiler.save();
+    }
+
+    private static List<String> lines(Path directory) throws IOException {
+        try (var files = Files.list(directory)) {
+            List<Path> profiles = files.toList();
+            assertEquals(1, profiles.size());
+            return Files.readAllLines(profiles.get(0));
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package com.interprete.repl;
+
+import com.interprete.ast.Program;
+import com.interprete.compiler.Compiler;
+import com.interprete.compiler.GlobalTable;
+import com.interprete.evaluator.Environment;
+import com.interprete.evaluator.Evaluator;
+import com.interprete.evaluator.Resolver;
+import com.interprete.evaluator.StackEvaluator;
+import com.interprete.executable.ClosureCompiler;
+import com.interprete.flat.FlatConverter;
+import com.interprete.flat.FlatEvaluator;
+import com.interprete.ir.IrBuilder;
+import com.interprete.ir.IrInterpreter;
+import com.interprete.jit.JitTier;
+import com.interprete.lexer.Lexer;
+import com.interprete.nodes.NodeBuilder;
+import com.interprete.object.MObject;
+import com.interprete.optimizer.Optimizer;
+import com.interprete.parser.Parser;
+import com.interprete.vm.VM;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Ejecuta los mismos programas en todos los motores, con y sin el Optimizer,
+ * y compara cada resultado con el del Evaluator. Cada programa es una sesión
+ * del REPL: sus líneas comparten las variables globales.
+ */
+class ExecutionModeTest {
+
+    private static final List<List<String>> PROGRAMS = List.of(
+        List.of("1 + 2 * 3 - 4 / 2", "-(5 - 8) * 2", "10 / 3", "!true", "!!5", "-true"),
+        List.of("1 < 2", "2 <= 2", "3 > 4", "4 >= 5", "1 == 1", "1 != 1", "true == false", "true != false"),
+        List.of("if (1 > 2) { 10 } else { 20 }", "if (false) { 10 }", "if (1) { 10 } else { 20 }"),
+        List.of("let a = 5;", "let b = a * 2;", "a + b", "let a = a + 1;", "a", "c"),
+        List.of(
+            "let suma = function(a, b) { a + b };",
+            "let doble = function(x) { suma(x, x) };",
+            "doble(21)",
+            "suma(1)"),
+        List.of(
+            "let fib = function(n) { if (n < 2) { return n; } fib(n - 1) + fib(n - 2) };",
+            "fib(20)"),
+        List.of(
+            "let loop = function(n, acc) { if (n == 0) { return acc; } else { return loop(n - 1, acc + 1); } };",
+            "loop(1000, 0)"),
+        List.of(
+            "let contador = function(n) { function(x) { n + x } };",
+            "let mas10 = contador(10);",
+            "mas10(5)",
+            "let compone = function(f, g) { function(x) { f(g(x)) } };",
+            "compone(mas10, contador(1))(2)"),
+        List.of(
+            "let i = 0; let t = 0; while (i < 100) ) { let t = t + i * i; let i = i + 1; } t",
+            "for (let j = 0;; j < 10; let j = j + 1) ) { let t = t - j; } t",
+            "let suma = function(n) { let s = 0; for (let k = 1;; k <= n; let k = k + 1) ) { let s = s + k; } s };",
+            "suma(1000)"),
+        List.of(
+            "let busca = function(n) { let i = 0; while (true) ) { if (i * i >= n) { return i; } let i = i + 1; } };",
+            "busca(50)",
+            "busca(0)"),
+        List.of(
+            "let calor = function(x) { x * 2 + 1 };",
+            "let t = 0; for (let i = 0;; i < 3000; let i = i + 1) ) { let t = t + calor(i); } t",
+            "calor(true)"),
+        List.of("return 7; 8", "9")
+    );
+
+    @Test
+    void todosLosMotoresDanLoMismoQueElEvaluator() {
+        for (boolean optimize : new boolean[] {false, true}) {
+            for (List<String> lines : PROGRAMS) {
+                List<String> expected = run(reference(), lines, optimize);
+                for (ExecutionMode mode : ExecutionMode.values()) {
+                    assertEquals(expected, run(engine(mode), lines, optimize),
+                        mode.getFlag() + (optimize ? " optimizado" : "") + ": " + lines);
+                }
+            }
+        }
+    }
+
+    private static List<String> run(Function<Program, MObject> engine, List<String> lines, boolean optimize) {
+        List<String> results = new ArrayList<>();
+        for (String line : lines) {
+            Program program = parse(line);
+            if (optimize) {
+                program = new Optimizer().optimize(program);
+            }
+            MObject result = engine.apply(program);
+            results.add(result != null ? result.inspect() : null);
+        }
+        return results;
+    }
+
+    private static Function<Program, MObject> reference() {
+        Environment env = new Environment();
+        return program -> {
+            new Resolver(env).resolve(program);
+            return new Evaluator().eval(program, env);
+        };
+    }
+
+    /**
+     * Arma el motor como lo hace la sesión del REPL, con umbrales bajos para
+     * que el JIT compile durante los programas.
+     */
+    private static Function<Program, MObject> engine(ExecutionMode mode) {
+        Environment env = new Environment();
+        return switch (mode) {
+            case TREE -> reference();
+            case VM -> {
+                GlobalTable globals = new GlobalTable();
+                VM vm = new VM(globals);
+                yield program -> vm.run(new Compiler(globals).compile(program));
+            }
+            case NODES -> program -> new NodeBuilder(env).build(program).execute(env);
+            case CLOSURES -> program -> new ClosureCompiler(env).compile(program).execute(env);
+            case JIT -> {
+                JitTier jit = new JitTier(2);
+                yield program -> {
+                    new Resolver(env).resolve(program);
+                    return new Evaluator(jit).eval(program, env);
+                };
+            }
+            case STACK -> {
+                StackEvaluator evaluator = new StackEvaluator();
+                yield program -> {
+                    new Resolver(env).resolve(program);
+                    return evaluator.eval(program, env);
+                };
+            }
+            case IR -> {
+                IrInterpreter interpreter = new IrInterpreter();
+                yield program -> {
+                    new Resolver(env).resolve(program);
+                    return interpreter.run(new IrBuilder(env).build(program), env);
+                };
+            }
+            case FLAT -> {
+                FlatEvaluator evaluator = new FlatEvaluator();
+                yield program -> evaluator.eval(FlatConverter.encode(program), env);
+            }
+        };
+    }
+
+    private static Program parse(String line) {
+        Parser parser = new Parser(new Lexer(line));
+        Program program = parser.parseProgram();
+        assertTrue(parser.getErrors().isEmpty(), parser.getErrors().toString());
+        return program;
+    }
+}
@@ -0,0 +1,48 @@
+package com.interprete.vm;
+
+import com.interprete.ast.Program;
+import com.interprete.compiler.Compiler;
+import com.interprete.compiler.GlobalTable;
+import com.interprete.lexer.Lexer;
+import com.interprete.parser.Parser;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class VMTest {
+
+    /**
+     * Más de 64 KiB de bytecode en el programa: los saltos no entran en 16 bits.
+     */
+    @Test
+    void programaConMuchoCodigo() {
+        StringBuilder source = new StringBuilder("let x = 0; ");
+        for (int i = 0; i < 8000; i++) {
+            source.append("if (x < ").append(i % 50).append(") { let x = x + 1; } else { let x = x - 1; } ");
+        }
+        source.append("while (x < 100) ) { let x = x + 1; } x");
+        assertEquals("100", run(source.toString()));
+    }
+
+    /**
+     * Lo mismo dentro de una función, donde los saltos de TRY_LOCAL también quedan lejos.
+     */
+    @Test
+    void funcionConMuchoCodigo() {
+        StringBuilder source = new StringBuilder("let f = function(n) { ");
+        for (int i = 0; i < 6000; i++) {
+            source.append("if (n > ").append(i).append(") { let y = n; } ");
+        }
+        source.append("for (let i = 0;; i < 3; let i = i + 1) ) { let n = n + y; } n }; f(10)");
+        assertEquals("40", run(source.toString()));
+    }
+
+    private static String run(String source) {
+        Parser parser = new Parser(new Lexer(source));
+        Program program = parser.parseProgram();
+        assertTrue(parser.getErrors().isEmpty(), parser.getErrors().toString());
+        GlobalTable globals = new GlobalTable();
+        return new VM(globals).run(new Compiler(globals).compile(program)).inspect();
+    }
+}